@@ -33,6 +33,9 @@ dependencies {
 
     testImplementation("org.assertj:assertj-core")
     testImplementation ("org.junit.jupiter:junit-jupiter-api")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine")
+    testImplementation("org.openjdk.jmh:jmh-core:1.36")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.36")
 }
 
 configurations.all {
@@ -1,17 +1,31 @@
 package ru.demo;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class SlowDataSrc {
 
     private SlowDataSrc() {}
 
     public static long getValue(int key) {
+        sleep();
+        return key;
+    }
+
+    /** Пачка ключей за один вызов, с той же задержкой, что и один ключ. */
+    public static Map<Integer, Long> getValues(Set<? extends Integer> keys) {
+        sleep();
+        return keys.stream().collect(Collectors.toMap(Function.identity(), Integer::longValue));
+    }
+
+    private static void sleep() {
         try {
             Thread.sleep(TimeUnit.SECONDS.toMillis(1));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
-        return key;
     }
 }
@@ -59,11 +59,16 @@ public class EhcacheDemo {
         closeEhcache();
     }
 
+    /*
+     * putIfAbsent не перезаписывает значение, которое успел положить другой поток,
+     * но оба потока все равно сходят в SlowDataSrc. Загрузка без повторов - в ru.demo.loading.
+     */
     private long getValue(int key) {
         Long value = cache.get(key);
         if (value == null) {
-            value = SlowDataSrc.getValue(key);
-            cache.put(key, value);
+            var loaded = SlowDataSrc.getValue(key);
+            var existing = cache.putIfAbsent(key, loaded);
+            value = existing != null ? existing : loaded;
         }
         return value;
     }
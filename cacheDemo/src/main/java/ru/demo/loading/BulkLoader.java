@@ -0,0 +1,35 @@
+package ru.demo.loading;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/** Источник данных для кэша: загрузка одного ключа и пачки ключей одним вызовом. */
+public interface BulkLoader<K, V> {
+
+    V load(K key);
+
+    default Map<K, V> loadAll(Set<? extends K> keys) {
+        var result = new HashMap<K, V>();
+        for (var key : keys) {
+            result.put(key, load(key));
+        }
+        return result;
+    }
+
+    static <K, V> BulkLoader<K, V> of(
+            Function<K, V> loader, Function<Set<? extends K>, Map<K, V>> bulkLoader) {
+        return new BulkLoader<>() {
+            @Override
+            public V load(K key) {
+                return loader.apply(key);
+            }
+
+            @Override
+            public Map<K, V> loadAll(Set<? extends K> keys) {
+                return bulkLoader.apply(keys);
+            }
+        };
+    }
+}
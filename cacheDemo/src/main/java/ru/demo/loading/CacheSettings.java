@@ -0,0 +1,11 @@
+package ru.demo.loading;
+
+import java.time.Duration;
+
+/**
+ * maxEntries - размер кэша в куче (для Ehcache с offheap - размер heap-уровня), offHeapMb - размер
+ * offheap-уровня Ehcache, 0 - без него. refreshAfterWrite - после этого времени значение отдается
+ * из кэша, а в фоне загружается новое; expireAfterWrite - после этого времени значение удаляется.
+ */
+public record CacheSettings(
+        long maxEntries, long offHeapMb, Duration refreshAfterWrite, Duration expireAfterWrite) {}
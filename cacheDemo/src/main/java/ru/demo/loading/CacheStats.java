@@ -0,0 +1,24 @@
+package ru.demo.loading;
+
+import java.util.concurrent.TimeUnit;
+
+public record CacheStats(
+        long hitCount,
+        long missCount,
+        long loadSuccessCount,
+        long loadFailureCount,
+        long totalLoadTimeNanos,
+        long evictionCount) {
+
+    public double hitRate() {
+        var requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public double averageLoadPenaltyMillis() {
+        var loads = loadSuccessCount + loadFailureCount;
+        return loads == 0
+                ? 0.0
+                : (double) totalLoadTimeNanos / loads / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
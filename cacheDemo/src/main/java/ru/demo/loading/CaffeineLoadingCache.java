@@ -0,0 +1,70 @@
+package ru.demo.loading;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Кэш на Caffeine AsyncLoadingCache: объединение запросов, bulk-загрузка, refreshAfterWrite и
+ * статистика есть в самой библиотеке. offHeapMb не используется.
+ */
+public final class CaffeineLoadingCache<K, V> implements LoadingCacheLayer<K, V> {
+    private final AsyncLoadingCache<K, V> cache;
+
+    public CaffeineLoadingCache(
+            BulkLoader<K, V> loader, CacheSettings settings, Executor executor) {
+        cache =
+                Caffeine.newBuilder()
+                        .maximumSize(settings.maxEntries())
+                        .refreshAfterWrite(settings.refreshAfterWrite())
+                        .expireAfterWrite(settings.expireAfterWrite())
+                        .executor(executor)
+                        .recordStats()
+                        .buildAsync(
+                                new CacheLoader<K, V>() {
+                                    @Override
+                                    public V load(K key) {
+                                        return loader.load(key);
+                                    }
+
+                                    @Override
+                                    public Map<? extends K, ? extends V> loadAll(
+                                            Set<? extends K> keys) {
+                                        return loader.loadAll(keys);
+                                    }
+                                });
+    }
+
+    @Override
+    public CompletableFuture<V> get(K key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getAll(Collection<? extends K> keys) {
+        return cache.getAll(keys);
+    }
+
+    @Override
+    public CacheStats stats() {
+        var stats = cache.synchronous().stats();
+        return new CacheStats(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.loadSuccessCount(),
+                stats.loadFailureCount(),
+                stats.totalLoadTime(),
+                stats.evictionCount());
+    }
+
+    @Override
+    public void close() {
+        cache.synchronous().invalidateAll();
+        cache.synchronous().cleanUp();
+    }
+}
@@ -0,0 +1,245 @@
+package ru.demo.loading;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheEventListenerConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Кэш с загрузкой поверх Ehcache 3, в котором нет асинхронной загрузки и refresh-ahead.
+ *
+ * <p>Загрузки ключей в работе лежат в inFlight: второй запрос того же ключа получает ту же
+ * CompletableFuture, а не вызывает источник еще раз. Время записи хранится рядом, в loadedAt:
+ * устаревшее значение отдается сразу, а новое загружается в фоне. Значения с offheap-уровня
+ * сериализуются, поэтому для него V должен быть Serializable или иметь сериализатор Ehcache.
+ */
+public final class EhcacheLoadingCache<K, V> implements LoadingCacheLayer<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(EhcacheLoadingCache.class);
+
+    private final CacheManager cacheManager;
+    private final Cache<K, V> cache;
+    private final BulkLoader<K, V> loader;
+    private final Executor executor;
+    private final long refreshAfterNanos;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, Long> loadedAt = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public EhcacheLoadingCache(
+            String name,
+            Class<K> keyType,
+            Class<V> valueType,
+            BulkLoader<K, V> loader,
+            CacheSettings settings,
+            Executor executor) {
+        this.loader = loader;
+        this.executor = executor;
+        this.refreshAfterNanos = settings.refreshAfterWrite().toNanos();
+
+        var resourcePools = ResourcePoolsBuilder.heap(settings.maxEntries());
+        if (settings.offHeapMb() > 0) {
+            resourcePools = resourcePools.offheap(settings.offHeapMb(), MemoryUnit.MB);
+        }
+        CacheEventListener<Object, Object> removalListener = this::onRemoved;
+        var eventListener =
+                CacheEventListenerConfigurationBuilder.newEventListenerConfiguration(
+                                removalListener,
+                                EventType.EVICTED,
+                                EventType.EXPIRED,
+                                EventType.REMOVED)
+                        .unordered()
+                        .asynchronous();
+        cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build(true);
+        cache =
+                cacheManager.createCache(
+                        name,
+                        CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                                        keyType, valueType, resourcePools)
+                                .withExpiry(
+                                        ExpiryPolicyBuilder.timeToLiveExpiration(
+                                                settings.expireAfterWrite()))
+                                .withService(eventListener)
+                                .build());
+    }
+
+    @Override
+    public CompletableFuture<V> get(K key) {
+        var value = cache.get(key);
+        if (value != null) {
+            hits.increment();
+            refreshIfStale(key);
+            return CompletableFuture.completedFuture(value);
+        }
+        return load(key);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getAll(Collection<? extends K> keys) {
+        var uniqueKeys = new LinkedHashSet<K>(keys);
+        var result = new HashMap<K, V>();
+        var pending = new HashMap<K, CompletableFuture<V>>();
+        var toLoad = new HashMap<K, CompletableFuture<V>>();
+
+        for (var entry : cache.getAll(uniqueKeys).entrySet()) {
+            var key = entry.getKey();
+            if (entry.getValue() != null) {
+                hits.increment();
+                refreshIfStale(key);
+                result.put(key, entry.getValue());
+                continue;
+            }
+            var created = new CompletableFuture<V>();
+            var existing = inFlight.putIfAbsent(key, created);
+            if (existing == null) {
+                misses.increment();
+                toLoad.put(key, created);
+                pending.put(key, created);
+            } else {
+                hits.increment();
+                pending.put(key, existing);
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            executor.execute(() -> loadAll(toLoad));
+        }
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return CompletableFuture.allOf(pending.values().toArray(CompletableFuture[]::new))
+                .thenApply(
+                        ignored -> {
+                            pending.forEach(
+                                    (key, future) -> {
+                                        var value = future.join();
+                                        if (value != null) {
+                                            result.put(key, value);
+                                        }
+                                    });
+                            return result;
+                        });
+    }
+
+    @Override
+    public CacheStats stats() {
+        return new CacheStats(
+                hits.sum(),
+                misses.sum(),
+                loadSuccesses.sum(),
+                loadFailures.sum(),
+                loadTimeNanos.sum(),
+                evictions.sum());
+    }
+
+    @Override
+    public void close() {
+        cacheManager.close();
+    }
+
+    private CompletableFuture<V> load(K key) {
+        var created = new CompletableFuture<V>();
+        var existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            hits.increment();
+            return existing;
+        }
+        misses.increment();
+        startLoad(key, created);
+        return created;
+    }
+
+    private void startLoad(K key, CompletableFuture<V> created) {
+        executor.execute(
+                () -> {
+                    var begin = System.nanoTime();
+                    try {
+                        var value = loader.load(key);
+                        store(key, value);
+                        loadSuccesses.increment();
+                        created.complete(value);
+                    } catch (Exception ex) {
+                        loadFailures.increment();
+                        created.completeExceptionally(ex);
+                    } finally {
+                        loadTimeNanos.add(System.nanoTime() - begin);
+                        inFlight.remove(key, created);
+                    }
+                });
+    }
+
+    private void loadAll(Map<K, CompletableFuture<V>> futures) {
+        var begin = System.nanoTime();
+        try {
+            var values = loader.loadAll(futures.keySet());
+            values.forEach(this::store);
+            loadSuccesses.increment();
+            futures.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Exception ex) {
+            loadFailures.increment();
+            futures.values().forEach(future -> future.completeExceptionally(ex));
+        } finally {
+            loadTimeNanos.add(System.nanoTime() - begin);
+            futures.forEach(inFlight::remove);
+        }
+    }
+
+    private void store(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        cache.put(key, value);
+        loadedAt.put(key, System.nanoTime());
+    }
+
+    /*
+     * Время записи может пропасть (событие удаления старого значения обработано после новой записи),
+     * тогда значение считается устаревшим и обновляется один раз.
+     */
+    private void refreshIfStale(K key) {
+        if (refreshAfterNanos <= 0) {
+            return;
+        }
+        var writeTime = loadedAt.get(key);
+        if (writeTime != null && System.nanoTime() - writeTime <= refreshAfterNanos) {
+            return;
+        }
+        var created = new CompletableFuture<V>();
+        if (inFlight.putIfAbsent(key, created) == null) {
+            created.exceptionally(
+                    ex -> {
+                        logger.warn("refresh failed, key:{}", key, ex);
+                        return null;
+                    });
+            startLoad(key, created);
+        }
+    }
+
+    private void onRemoved(CacheEvent<?, ?> event) {
+        if (event.getType() == EventType.EVICTED) {
+            evictions.increment();
+        }
+        loadedAt.remove(event.getKey());
+    }
+}
@@ -0,0 +1,50 @@
+package ru.demo.loading;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.demo.SlowDataSrc;
+
+public class LoadingCacheDemo {
+    private static final Logger logger = LoggerFactory.getLogger(LoadingCacheDemo.class);
+    private static final CacheSettings SETTINGS =
+            new CacheSettings(100, 0, Duration.ofSeconds(2), Duration.ofMinutes(60));
+
+    public static void main(String[] args) throws InterruptedException {
+        var loader = BulkLoader.<Integer, Long>of(SlowDataSrc::getValue, SlowDataSrc::getValues);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try (var cache = new CaffeineLoadingCache<>(loader, SETTINGS, executor)) {
+                demo("caffeine", cache);
+            }
+            try (var cache =
+                    new EhcacheLoadingCache<>(
+                            "Demo-Cache", Integer.class, Long.class, loader, SETTINGS, executor)) {
+                demo("ehcache", cache);
+            }
+        }
+    }
+
+    private static void demo(String name, LoadingCacheLayer<Integer, Long> cache)
+            throws InterruptedException {
+        logger.info("{}: 10 concurrent gets of one key, one load expected", name);
+        var futures = IntStream.range(0, 10).mapToObj(idx -> cache.get(1)).toList();
+        futures.forEach(future -> logger.info("value: {}", future.join()));
+
+        logger.info("{}: getAll of 9 keys, one bulk load for 8 misses", name);
+        logger.info("values: {}", cache.getAll(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9)).join());
+
+        Thread.sleep(SETTINGS.refreshAfterWrite().plusMillis(100));
+        var begin = System.nanoTime();
+        logger.info(
+                "{}: stale value: {}, in {} ms, refreshing in background",
+                name,
+                cache.get(1).join(),
+                Duration.ofNanos(System.nanoTime() - begin).toMillis());
+        Thread.sleep(Duration.ofMillis(1_500));
+        logger.info("{}: stats: {}", name, cache.stats());
+    }
+}
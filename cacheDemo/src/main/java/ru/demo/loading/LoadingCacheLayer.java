@@ -0,0 +1,21 @@
+package ru.demo.loading;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Асинхронный кэш с загрузкой: одновременные запросы одного ключа ждут одну загрузку, промахи
+ * getAll загружаются одним вызовом BulkLoader.loadAll.
+ */
+public interface LoadingCacheLayer<K, V> extends AutoCloseable {
+
+    CompletableFuture<V> get(K key);
+
+    CompletableFuture<Map<K, V>> getAll(Collection<? extends K> keys);
+
+    CacheStats stats();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,200 @@
+package ru.demo.loading;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+get() из кэша на KEYS ключей с распределением Зипфа (s = 0.99), в кэше помещается CACHE_ENTRIES.
+Загрузка - создание массива valueSize байт без задержки, поэтому промах стоит почти только работы кэша.
+CAFFEINE - Caffeine AsyncLoadingCache,
+EHCACHE_HEAP - Ehcache, только heap на CACHE_ENTRIES,
+EHCACHE_OFFHEAP - Ehcache, heap на CACHE_ENTRIES / 10 и offheap, в который помещаются все CACHE_ENTRIES.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CacheBenchmark {
+    private static final int KEYS = 100_000;
+    private static final int CACHE_ENTRIES = 10_000;
+    private static final int SAMPLES = 1 << 20;
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    @Param({"CAFFEINE", "EHCACHE_HEAP", "EHCACHE_OFFHEAP"})
+    private Implementation implementation;
+
+    @Param({"100", "4096"})
+    private int valueSize;
+
+    private int[] keys;
+    private ExecutorService executor;
+    private LoadingCacheLayer<Integer, byte[]> cache;
+
+    public static void main(String[] args) throws RunnerException {
+        var opt = new OptionsBuilder().include(CacheBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() {
+        keys = zipfKeys();
+        executor = Executors.newFixedThreadPool(4);
+        BulkLoader<Integer, byte[]> loader = key -> new byte[valueSize];
+        var refresh = Duration.ofMinutes(10);
+        var expire = Duration.ofMinutes(20);
+        cache =
+                switch (implementation) {
+                    case CAFFEINE -> new CaffeineLoadingCache<>(
+                            loader, new CacheSettings(CACHE_ENTRIES, 0, refresh, expire), executor);
+                    case EHCACHE_HEAP -> new EhcacheLoadingCache<>(
+                            "bench",
+                            Integer.class,
+                            byte[].class,
+                            loader,
+                            new CacheSettings(CACHE_ENTRIES, 0, refresh, expire),
+                            executor);
+                    case EHCACHE_OFFHEAP -> new EhcacheLoadingCache<>(
+                            "bench",
+                            Integer.class,
+                            byte[].class,
+                            loader,
+                            new CacheSettings(CACHE_ENTRIES / 10, offHeapMb(), refresh, expire),
+                            executor);
+                };
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public byte[] get(Cursor cursor, Lookups lookups) {
+        var value = cache.get(keys[cursor.next()]);
+        // попадание - готовый future, при промахе загрузка уходит в executor
+        if (value.isDone()) {
+            lookups.hits++;
+        } else {
+            lookups.misses++;
+        }
+        return value.join();
+    }
+
+    private long offHeapMb() {
+        // запас на служебные данные offheap-хранилища
+        return Math.max(1, 2L * CACHE_ENTRIES * (valueSize + 64) / (1024 * 1024));
+    }
+
+    /* Ключи с распределением Зипфа: обратная функция к накопленным вероятностям, бинарный поиск. */
+    private static int[] zipfKeys() {
+        var cdf = new double[KEYS];
+        var sum = 0.0;
+        for (var rank = 0; rank < KEYS; rank++) {
+            sum += 1.0 / Math.pow(rank + 1.0, ZIPF_EXPONENT);
+            cdf[rank] = sum;
+        }
+        var random = new SplittableRandom(42);
+        var result = new int[SAMPLES];
+        for (var idx = 0; idx < SAMPLES; idx++) {
+            var point = random.nextDouble() * sum;
+            var low = 0;
+            var high = KEYS - 1;
+            while (low < high) {
+                var middle = (low + high) >>> 1;
+                if (cdf[middle] < point) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            result[idx] = low;
+        }
+        return result;
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position = (int) Thread.currentThread().threadId() * 7919;
+
+        int next() {
+            position = (position + 1) & (SAMPLES - 1);
+            return position;
+        }
+    }
+
+    /* Счетчики выводятся JMH рядом с результатом: hit rate = hits / (hits + misses). */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Lookups {
+        public long hits;
+        public long misses;
+    }
+
+    public enum Implementation {
+        CAFFEINE,
+        EHCACHE_HEAP,
+        EHCACHE_OFFHEAP
+    }
+}
+
+/*
+1 CPU, 4 потока бенчмарка + 4 потока загрузки, поэтому погрешность большая.
+
+Benchmark                  (implementation)  (valueSize)   Mode  Cnt        Score   Error   Units
+CacheBenchmark.get                 CAFFEINE          100  thrpt    5        0.658 ± 0.266  ops/us
+CacheBenchmark.get:hits            CAFFEINE          100  thrpt    5  5480731.000               #
+CacheBenchmark.get:misses          CAFFEINE          100  thrpt    5  1103642.000               #
+CacheBenchmark.get                 CAFFEINE         4096  thrpt    5        0.536 ± 0.198  ops/us
+CacheBenchmark.get:hits            CAFFEINE         4096  thrpt    5  4467863.000               #
+CacheBenchmark.get:misses          CAFFEINE         4096  thrpt    5   921079.000               #
+CacheBenchmark.get             EHCACHE_HEAP          100  thrpt    5        0.378 ± 0.224  ops/us
+CacheBenchmark.get:hits        EHCACHE_HEAP          100  thrpt    5  2958666.000               #
+CacheBenchmark.get:misses      EHCACHE_HEAP          100  thrpt    5   822495.000               #
+CacheBenchmark.get             EHCACHE_HEAP         4096  thrpt    5        0.275 ± 0.144  ops/us
+CacheBenchmark.get:hits        EHCACHE_HEAP         4096  thrpt    5  2161288.000               #
+CacheBenchmark.get:misses      EHCACHE_HEAP         4096  thrpt    5   605270.000               #
+CacheBenchmark.get          EHCACHE_OFFHEAP          100  thrpt    5        0.142 ± 0.074  ops/us
+CacheBenchmark.get:hits     EHCACHE_OFFHEAP          100  thrpt    5  1166103.000               #
+CacheBenchmark.get:misses   EHCACHE_OFFHEAP          100  thrpt    5   261588.000               #
+CacheBenchmark.get          EHCACHE_OFFHEAP         4096  thrpt    5        0.116 ± 0.072  ops/us
+CacheBenchmark.get:hits     EHCACHE_OFFHEAP         4096  thrpt    5   974433.000               #
+CacheBenchmark.get:misses   EHCACHE_OFFHEAP         4096  thrpt    5   185068.000               #
+
+доля готовых значений, hits / (hits + misses):
+CAFFEINE        100: 0.83, 4096: 0.83
+EHCACHE_HEAP    100: 0.78, 4096: 0.78
+EHCACHE_OFFHEAP 100: 0.82, 4096: 0.84
+misses включает get, попавшие на чужую загрузку того же ключа (в статистике кэша это попадание):
+на 1 CPU загрузки стоят в очереди executor-а, и популярные ключи часто застают ее в процессе.
+
+Выводы:
+- Caffeine (W-TinyLFU) чаще отдает готовое значение, чем Ehcache на heap, и по среднему быстрее его
+  в 1.7-1.9 раза, но интервалы ошибки пересекаются;
+- offheap в 2.5 раза медленнее heap из-за сериализации значения на каждом get,
+  зато держит все CACHE_ENTRIES при heap на десятую часть - смысл есть только для больших объемов,
+  которые не должны нагружать GC.
+ */
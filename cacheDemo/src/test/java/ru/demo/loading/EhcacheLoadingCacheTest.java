@@ -0,0 +1,168 @@
+package ru.demo.loading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EhcacheLoadingCacheTest {
+    private static final CacheSettings SETTINGS =
+            new CacheSettings(100, 0, Duration.ofMinutes(10), Duration.ofMinutes(20));
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Set<Integer>> bulkLoads = new CopyOnWriteArrayList<>();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentGetsWaitForOneLoad() throws Exception {
+        // given
+        var release = new CountDownLatch(1);
+        BulkLoader<Integer, String> loader =
+                key -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "value" + key;
+                };
+        try (var cache = newCache(loader, SETTINGS)) {
+            var requests = Executors.newFixedThreadPool(8);
+            var results = new ArrayList<CompletableFuture<String>>();
+
+            // when
+            for (var idx = 0; idx < 8; idx++) {
+                results.add(
+                        CompletableFuture.supplyAsync(() -> cache.get(1), requests)
+                                .thenCompose(future -> future));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // then
+            for (var result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value1");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(cache.stats().missCount()).isEqualTo(1);
+            assertThat(cache.stats().loadSuccessCount()).isEqualTo(1);
+            requests.shutdown();
+        }
+    }
+
+    @Test
+    void getAllLoadsMissesInOneCall() throws Exception {
+        // given
+        try (var cache = newCache(bulkLoader(), SETTINGS)) {
+            cache.get(1).get(5, TimeUnit.SECONDS);
+
+            // when
+            var values = cache.getAll(List.of(1, 2, 3, 4, 2)).get(5, TimeUnit.SECONDS);
+
+            // then
+            assertThat(values)
+                    .containsExactlyInAnyOrderEntriesOf(
+                            Map.of(1, "value1", 2, "value2", 3, "value3", 4, "value4"));
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(bulkLoads).hasSize(1);
+            assertThat(bulkLoads.get(0)).containsExactlyInAnyOrder(2, 3, 4);
+        }
+    }
+
+    @Test
+    void staleValueIsServedWhileRefreshing() throws Exception {
+        // given
+        var settings = new CacheSettings(100, 0, Duration.ofMillis(50), Duration.ofMinutes(20));
+        var version = new AtomicReference<>("v1");
+        var refreshStarted = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        BulkLoader<Integer, String> loader =
+                key -> {
+                    if (loads.incrementAndGet() > 1) {
+                        refreshStarted.countDown();
+                        await(release);
+                    }
+                    return version.get();
+                };
+        try (var cache = newCache(loader, settings)) {
+            assertThat(cache.get(1).get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+            version.set("v2");
+            Thread.sleep(100);
+
+            // when
+            var stale = cache.get(1);
+            var refreshing = refreshStarted.await(5, TimeUnit.SECONDS);
+            var duringRefresh = cache.get(1);
+            release.countDown();
+
+            // then
+            assertThat(stale).isCompletedWithValue("v1");
+            assertThat(refreshing).isTrue();
+            assertThat(duringRefresh).isCompletedWithValue("v1");
+            assertThat(waitForValue(cache, 1, "v2")).isTrue();
+            assertThat(loads.get()).isEqualTo(2);
+        }
+    }
+
+    private EhcacheLoadingCache<Integer, String> newCache(
+            BulkLoader<Integer, String> loader, CacheSettings settings) {
+        return new EhcacheLoadingCache<>(
+                "test", Integer.class, String.class, loader, settings, executor);
+    }
+
+    private BulkLoader<Integer, String> bulkLoader() {
+        return BulkLoader.of(
+                key -> {
+                    loads.incrementAndGet();
+                    return "value" + key;
+                },
+                keys -> {
+                    bulkLoads.add(Set.copyOf(keys));
+                    var result = new HashMap<Integer, String>();
+                    keys.forEach(key -> result.put(key, "value" + key));
+                    return result;
+                });
+    }
+
+    private static boolean waitForValue(
+            LoadingCacheLayer<Integer, String> cache, int key, String expected) throws Exception {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (expected.equals(cache.get(key).get(5, TimeUnit.SECONDS))) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.mkyong.io.csv.fast;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Searches bytes 8 at a time (SWAR, "SIMD within a register").
+ * <p>
+ * A long read from the buffer is XOR-ed with the searched byte repeated 8 times,
+ * the matching bytes become zero, and the zero bytes are found with a few arithmetic operations
+ * instead of 8 comparisons and branches.
+ * The buffer must be in little endian order, so the lowest set bit is the first match.
+ */
+public final class ByteScanner {
+
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long ONE_IN_EACH_BYTE = 0x0101010101010101L;
+
+    private ByteScanner() {
+    }
+
+    public static long pattern(byte b) {
+        return ONE_IN_EACH_BYTE * (b & 0xFF);
+    }
+
+    // the high bit is set in every byte of the word equal to the pattern byte, and only in them
+    public static long matches(long word, long pattern) {
+        long x = word ^ pattern;
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+
+    public static int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+        long pattern = pattern(b);
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long found = matches(buffer.getLong(i), pattern);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // the first index of either byte
+    public static int indexOf(ByteBuffer buffer, byte b1, byte b2, int from, int to) {
+        long pattern1 = pattern(b1);
+        long pattern2 = pattern(b2);
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buffer.getLong(i);
+            long found = matches(word, pattern1) | matches(word, pattern2);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            byte current = buffer.get(i);
+            if (current == b1 || current == b2) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The first index in [from, to) where the pattern starts, the pattern itself may end after to
+     * (up to the limit of the buffer). The first byte is searched 8 at a time, then the rest is compared.
+     */
+    public static int indexOf(ByteBuffer buffer, byte[] pattern, int from, int to) {
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("empty pattern");
+        }
+        int last = Math.min(to, buffer.limit() - pattern.length + 1);
+        int position = from;
+        while (position < last) {
+            int found = indexOf(buffer, pattern[0], position, last);
+            if (found < 0) {
+                return -1;
+            }
+            if (startsWith(buffer, found, pattern)) {
+                return found;
+            }
+            position = found + 1;
+        }
+        return -1;
+    }
+
+    public static long count(ByteBuffer buffer, byte b, int from, int to) {
+        long pattern = pattern(b);
+        long count = 0;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            count += Long.bitCount(matches(buffer.getLong(i), pattern));
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == b) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int index, byte[] pattern) {
+        for (int i = 1; i < pattern.length; i++) {
+            if (buffer.get(index + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.mkyong.io.csv.fast;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Splits a CSV file into chunks which start at record boundaries.
+ * <p>
+ * A new line in the middle of the file ends a record only if it is not inside a quoted field.
+ * In RFC 4180 every quote toggles "inside quotes" (an embedded "" toggles it twice),
+ * so the state at any offset is the parity of the number of quotes before it. Two parallel passes:
+ * 1. count the quotes in every window of chunkSize bytes;
+ * 2. from the parity of the previous windows, find the first new line outside quotes in every window.
+ * <p>
+ * A quote inside an unquoted field (not allowed by RFC 4180) breaks the parity,
+ * such files should be read with {@link CsvStreamReader#readFile}.
+ */
+final class CsvChunks {
+
+    private static final byte NEW_LINE = '\n';
+
+    private CsvChunks() {
+    }
+
+    /**
+     * @return chunk bounds, the first one is 0, the last one is the file size
+     */
+    static long[] split(FileChannel channel, int chunkSize, byte quote, ExecutorService executor) throws IOException {
+
+        long size = channel.size();
+        int windows = (int) ((size + chunkSize - 1) / chunkSize);
+        if (windows <= 1) {
+            return new long[]{0, size};
+        }
+
+        List<Callable<Long>> quoteCounts = new ArrayList<>();
+        for (int i = 0; i < windows; i++) {
+            long start = (long) i * chunkSize;
+            int length = (int) Math.min(chunkSize, size - start);
+            quoteCounts.add(() -> ByteScanner.count(map(channel, start, length), quote, 0, length));
+        }
+        List<Long> counts = invokeAll(executor, quoteCounts);
+
+        List<Callable<Long>> recordStarts = new ArrayList<>();
+        long quotesBefore = counts.get(0);
+        for (int i = 1; i < windows; i++) {
+            long start = (long) i * chunkSize;
+            int length = (int) Math.min(chunkSize, size - start);
+            boolean inQuotes = (quotesBefore & 1) == 1;
+            recordStarts.add(() -> {
+                int found = firstRecordStart(map(channel, start, length), length, inQuotes, quote);
+                return found < 0 ? -1 : start + found;
+            });
+            quotesBefore += counts.get(i);
+        }
+
+        // a window inside a long record has no boundary
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        for (long recordStart : invokeAll(executor, recordStarts)) {
+            if (recordStart > bounds.get(bounds.size() - 1) && recordStart < size) {
+                bounds.add(recordStart);
+            }
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) throws IOException {
+        try {
+            List<T> result = new ArrayList<>(tasks.size());
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                result.add(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static int firstRecordStart(ByteBuffer buffer, int length, boolean inQuotes, byte quote) {
+        int position = 0;
+        while (true) {
+            int found = ByteScanner.indexOf(buffer, quote, NEW_LINE, position, length);
+            if (found < 0) {
+                return -1;
+            }
+            if (buffer.get(found) == quote) {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes) {
+                return found + 1;
+            }
+            position = found + 1;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long start, int length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+}
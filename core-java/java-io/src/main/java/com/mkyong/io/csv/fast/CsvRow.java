@@ -0,0 +1,117 @@
+package com.mkyong.io.csv.fast;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A record as offsets into the source buffer, fields are decoded to String only on demand.
+ * <p>
+ * The same instance is reused for every record of a chunk, see {@link CsvRowHandler}.
+ */
+public final class CsvRow {
+
+    private static final byte DOUBLE_QUOTES = '"';
+
+    private final Charset charset;
+
+    private ByteBuffer buffer;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private int size;
+    private byte[] scratch = new byte[256];
+
+    CsvRow(Charset charset) {
+        this.charset = charset;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // length of the raw field in bytes, embedded "" counted as two bytes
+    public int length(int index) {
+        checkIndex(index);
+        return ends[index] - starts[index];
+    }
+
+    public String get(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        int length = ends[index] - start;
+        if (length == 0) {
+            return "";
+        }
+        if (!escaped[index] && buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, charset);
+        }
+        byte[] bytes = scratch(length);
+        buffer.get(start, bytes, 0, length);
+        if (escaped[index]) {
+            length = unescape(bytes, length);
+        }
+        return new String(bytes, 0, length, charset);
+    }
+
+    public String[] toArray() {
+        String[] result = new String[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = get(i);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(int start, int end, boolean escapedQuotes) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            escaped = Arrays.copyOf(escaped, capacity);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        escaped[size] = escapedQuotes;
+        size++;
+    }
+
+    // "" -> ", in place
+    private static int unescape(byte[] bytes, int length) {
+        int to = 0;
+        for (int from = 0; from < length; from++) {
+            bytes[to++] = bytes[from];
+            if (bytes[from] == DOUBLE_QUOTES) {
+                from++;
+            }
+        }
+        return to;
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("field " + index + ", size " + size);
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.mkyong.io.csv.fast;
+
+/**
+ * Receives parsed records from {@link CsvStreamReader}.
+ * <p>
+ * The {@link CsvRow} is a reusable view, it is only valid during the call,
+ * copy the fields (get / toArray) if they are needed later.
+ */
+@FunctionalInterface
+public interface CsvRowHandler {
+
+    void onRow(CsvRow row);
+
+}
@@ -0,0 +1,260 @@
+package com.mkyong.io.csv.fast;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streaming RFC 4180 parser, works on bytes of a ByteBuffer (memory-mapped file, direct or heap buffer).
+ * <p>
+ * Unlike {@link com.mkyong.io.csv.CsvParserSimple} it does not create a String per line,
+ * a char[] copy or a List of the whole file: every record is passed to a {@link CsvRowHandler}
+ * as a reusable {@link CsvRow} with field offsets, fields are decoded to String only when requested.
+ * Quoted fields with separators, "" and line breaks are parsed in place, line breaks are kept as is.
+ * <p>
+ * Separators, new lines and quotes are searched 8 bytes at a time, see {@link ByteScanner}.
+ * The separator must be an ASCII character, the charset - ASCII compatible (UTF-8, ISO-8859-1, ...).
+ * <p>
+ * A file is mapped in chunks (a single mapping is limited to 2GB), {@link #readFileParallel}
+ * splits it at record boundaries and parses the chunks in parallel, see {@link CsvChunks}.
+ */
+public class CsvStreamReader {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final byte DOUBLE_QUOTES = '"';
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final byte separator;
+    private final Charset charset;
+    private final int chunkSize;
+
+    public CsvStreamReader() {
+        this(',', StandardCharsets.UTF_8);
+    }
+
+    public CsvStreamReader(char separator, Charset charset) {
+        this(separator, charset, DEFAULT_CHUNK_SIZE);
+    }
+
+    CsvStreamReader(char separator, Charset charset, int chunkSize) {
+        if (separator >= 0x80 || separator == DOUBLE_QUOTES
+                || separator == NEW_LINE || separator == CARRIAGE_RETURN) {
+            throw new IllegalArgumentException("unsupported separator: " + separator);
+        }
+        this.separator = (byte) separator;
+        this.charset = charset;
+        this.chunkSize = chunkSize;
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        // Loads file from resources folder
+        URL resource = CsvStreamReader.class.getClassLoader().getResource("csv/monitor.csv");
+        Path path = Paths.get(resource.toURI());
+
+        CsvStreamReader reader = new CsvStreamReader();
+        long rows = reader.readFile(path, row -> System.out.println(row.size() + " : " + row));
+        System.out.println("rows: " + rows);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            System.out.println("rows (parallel): " + reader.readFileParallel(path, executor, row -> {
+            }));
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    /**
+     * Parses the records between the position and the limit of the buffer
+     * and moves the position after the last complete record.
+     * If endOfInput is false, an incomplete record at the end is left in the buffer,
+     * so the method can be called again after more bytes are read (as with compact()).
+     *
+     * @return number of parsed records
+     */
+    public long parse(ByteBuffer buffer, boolean endOfInput, CsvRowHandler handler) {
+        Parser parser = new Parser();
+        int consumed = parser.parse(littleEndian(buffer), buffer.position(), buffer.limit(), endOfInput, handler);
+        buffer.position(buffer.position() + consumed);
+        return parser.rows;
+    }
+
+    /**
+     * Maps the file chunk by chunk and parses it in the current thread, records are passed in order.
+     *
+     * @return number of records
+     */
+    public long readFile(Path path, CsvRowHandler handler) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            long position = 0;
+            int window = chunkSize;
+            Parser parser = new Parser();
+
+            while (position < size) {
+                int length = (int) Math.min(window, size - position);
+                boolean last = position + length == size;
+                ByteBuffer buffer = littleEndian(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                int consumed = parser.parse(buffer, 0, length, last, handler);
+                if (consumed == 0 && !last) {
+                    // the record does not fit the window
+                    if (window == Integer.MAX_VALUE) {
+                        throw new IOException("record is larger than 2GB, position " + position);
+                    }
+                    window = (int) Math.min(2L * window, Integer.MAX_VALUE);
+                    continue;
+                }
+                position += consumed;
+            }
+            return parser.rows;
+        }
+    }
+
+    /**
+     * Splits the file at record boundaries and parses the chunks on the executor.
+     * The handler is called concurrently from several threads, records of one chunk are passed in order,
+     * the order of the chunks is not defined.
+     *
+     * @return number of records
+     */
+    public long readFileParallel(Path path, ExecutorService executor, CsvRowHandler handler) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            long[] bounds = CsvChunks.split(channel, chunkSize, DOUBLE_QUOTES, executor);
+
+            List<Callable<Long>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i];
+                long length = bounds[i + 1] - start;
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("record is larger than 2GB, position " + start);
+                }
+                tasks.add(() -> {
+                    ByteBuffer buffer = littleEndian(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+                    Parser parser = new Parser();
+                    parser.parse(buffer, 0, (int) length, true, handler);
+                    return parser.rows;
+                });
+            }
+
+            long rows = 0;
+            for (long chunkRows : CsvChunks.invokeAll(executor, tasks)) {
+                rows += chunkRows;
+            }
+            return rows;
+        }
+    }
+
+    // ByteScanner reads longs, the first byte of the word must be the lowest one
+    private static ByteBuffer littleEndian(ByteBuffer buffer) {
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Parsing state of one chunk, used by one thread.
+     */
+    private final class Parser {
+
+        private final CsvRow row = new CsvRow(charset);
+        private long rows;
+        private boolean escapedQuotes;
+
+        // returns number of bytes of the complete records
+        int parse(ByteBuffer buffer, int from, int to, boolean endOfInput, CsvRowHandler handler) {
+            row.reset(buffer);
+            int recordStart = from;
+            while (recordStart < to) {
+                int next = parseRecord(buffer, recordStart, to, endOfInput);
+                if (next < 0) {
+                    break;
+                }
+                handler.onRow(row);
+                rows++;
+                recordStart = next;
+            }
+            return recordStart - from;
+        }
+
+        // returns the index after the record, or -1 if the record is incomplete
+        private int parseRecord(ByteBuffer buffer, int from, int to, boolean endOfInput) {
+
+            row.clear();
+            int position = from;
+
+            while (true) {
+
+                int end;    // separator, new line or -1
+
+                if (position < to && buffer.get(position) == DOUBLE_QUOTES) {
+                    int closingQuote = closingQuote(buffer, position + 1, to, endOfInput);
+                    if (closingQuote < 0) {
+                        return -1;
+                    }
+                    row.add(position + 1, closingQuote, escapedQuotes);
+                    // anything between the closing quote and the separator is ignored
+                    end = ByteScanner.indexOf(buffer, separator, NEW_LINE, closingQuote + 1, to);
+                } else {
+                    end = ByteScanner.indexOf(buffer, separator, NEW_LINE, position, to);
+                    int fieldEnd = end < 0 ? to : end;
+                    boolean lastField = end < 0 || buffer.get(end) == NEW_LINE;
+                    if (lastField && fieldEnd > position && buffer.get(fieldEnd - 1) == CARRIAGE_RETURN) {
+                        fieldEnd--;
+                    }
+                    row.add(position, fieldEnd, false);
+                }
+
+                if (end < 0) {
+                    return endOfInput ? to : -1;
+                }
+                if (buffer.get(end) == NEW_LINE) {
+                    return end + 1;
+                }
+                position = end + 1;
+            }
+        }
+
+        // an unterminated quoted field at the end of input takes the rest of the input
+        private int closingQuote(ByteBuffer buffer, int from, int to, boolean endOfInput) {
+
+            escapedQuotes = false;
+            int position = from;
+
+            while (true) {
+                int quote = ByteScanner.indexOf(buffer, DOUBLE_QUOTES, position, to);
+                if (quote < 0) {
+                    return endOfInput ? to : -1;
+                }
+                if (quote + 1 == to) {
+                    // the next byte decides between "" and the closing quote
+                    return endOfInput ? quote : -1;
+                }
+                if (buffer.get(quote + 1) != DOUBLE_QUOTES) {
+                    return quote;
+                }
+                escapedQuotes = true;
+                position = quote + 2;
+            }
+        }
+
+    }
+
+}
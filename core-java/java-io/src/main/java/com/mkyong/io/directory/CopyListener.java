@@ -0,0 +1,24 @@
+package com.mkyong.io.directory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Progress of {@link ParallelTreeCopy}, called concurrently from the copy threads.
+ */
+public interface CopyListener {
+
+    CopyListener NONE = new CopyListener() {
+    };
+
+    default void onCopied(Path source, Path target, long bytes) {
+    }
+
+    // incremental copy, the target has the same size and last modified time
+    default void onSkipped(Path source, Path target) {
+    }
+
+    default void onFailed(Path source, IOException e) {
+    }
+
+}
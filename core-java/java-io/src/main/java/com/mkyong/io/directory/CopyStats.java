@@ -0,0 +1,15 @@
+package com.mkyong.io.directory;
+
+import java.time.Duration;
+
+/**
+ * Result of {@link ParallelTreeCopy#copy}.
+ */
+public record CopyStats(long directories, long copied, long skipped, long failed, long bytes, Duration elapsed) {
+
+    public double megabytesPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds == 0 ? 0 : bytes / (1024.0 * 1024.0) / seconds;
+    }
+
+}
@@ -21,6 +21,7 @@ public class DirectoryCopy {
 
             copyDirectoryFileVisitor(fromDirectory, toToDirectory);
             // copyFileCommonIO(fromDirectory, toToDirectory);
+            // copyDirectoryParallel(fromDirectory, toToDirectory);
             // copyDirectoryJavaNIO(Paths.get(fromDirectory), Paths.get(toToDirectory));
             // copyDirectoryLegacyIO(new File(fromDirectory), new File(toToDirectory));
 
@@ -39,6 +40,20 @@ public class DirectoryCopy {
 
     }
 
+    // files are copied in parallel with FileChannel.transferTo, unchanged files are skipped, see ParallelTreeCopy
+    public static void copyDirectoryParallel(String source, String target) throws IOException {
+
+        CopyStats stats = new ParallelTreeCopy(32, true, new CopyListener() {
+            @Override
+            public void onFailed(Path source, IOException e) {
+                System.err.println("IO errors : " + e.getMessage());
+            }
+        }).copy(Paths.get(source), Paths.get(target));
+
+        System.out.println(stats);
+
+    }
+
     public static void copyDirectoryCommonIO(String from, String to) throws IOException {
 
         File fromDir = new File(from);
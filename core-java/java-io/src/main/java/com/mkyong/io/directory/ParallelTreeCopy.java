@@ -0,0 +1,223 @@
+package com.mkyong.io.directory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Copies a directory tree on a ForkJoinPool: every directory and every file is a task,
+ * so up to parallelism files are copied at the same time. With many small files the copy
+ * waits for the file system (open, create, metadata), not for the disk bandwidth,
+ * so parallelism may be larger than the number of cores.
+ * <p>
+ * File content is copied with FileChannel.transferTo (sendfile / copy_file_range on Linux, no Java buffer).
+ * Last modified and access times and POSIX permissions are preserved, for directories too.
+ * Symbolic links are copied as links.
+ * <p>
+ * If incremental is true, a file is skipped when the target has the same size and last modified time
+ * (in millis, some file systems do not keep nanos), as rsync does by default.
+ * A failed file or directory is reported to the listener and the copy continues.
+ */
+public class ParallelTreeCopy {
+
+    private final int parallelism;
+    private final boolean incremental;
+    private final CopyListener listener;
+
+    public ParallelTreeCopy(int parallelism, boolean incremental, CopyListener listener) {
+        this.parallelism = parallelism;
+        this.incremental = incremental;
+        this.listener = listener;
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        Path source = Paths.get("/home/mkyong/test/");
+        Path target = Paths.get("/home/mkyong/test2/");
+
+        // progress every 10000 files
+        LongAdder done = new LongAdder();
+        CopyListener progress = new CopyListener() {
+            @Override
+            public void onCopied(Path source, Path target, long bytes) {
+                done.increment();
+                if (done.sum() % 10_000 == 0) {
+                    System.out.println("Copied files : " + done.sum());
+                }
+            }
+
+            @Override
+            public void onFailed(Path source, IOException e) {
+                System.err.println("IO errors : " + source + " " + e);
+            }
+        };
+
+        CopyStats stats = new ParallelTreeCopy(32, true, progress).copy(source, target);
+        System.out.println(stats);
+        System.out.printf("%.1f MB/s%n", stats.megabytesPerSecond());
+
+    }
+
+    public CopyStats copy(Path source, Path target) throws IOException {
+
+        if (!Files.isDirectory(source)) {
+            throw new IOException("Not a directory : " + source);
+        }
+
+        long start = System.nanoTime();
+        TreeCopy treeCopy = new TreeCopy();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(treeCopy.new DirectoryTask(source, target));
+        } finally {
+            pool.shutdown();
+        }
+
+        return treeCopy.stats(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static boolean isUnchanged(Path target, BasicFileAttributes source) throws IOException {
+        if (Files.notExists(target, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        BasicFileAttributes attrs = Files.readAttributes(target, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        return attrs.isRegularFile()
+                && attrs.size() == source.size()
+                && attrs.lastModifiedTime().toMillis() == source.lastModifiedTime().toMillis();
+    }
+
+    private static void copyAttributes(Path source, Path target, BasicFileAttributes attrs) throws IOException {
+        PosixFileAttributeView posix = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (posix != null) {
+            posix.setPermissions(Files.readAttributes(source, PosixFileAttributes.class).permissions());
+        }
+        Files.getFileAttributeView(target, BasicFileAttributeView.class)
+                .setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(), null);
+    }
+
+    /**
+     * Counters of one copy call, shared by its tasks.
+     */
+    private final class TreeCopy {
+
+        private final LongAdder directories = new LongAdder();
+        private final LongAdder copied = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        CopyStats stats(Duration elapsed) {
+            return new CopyStats(directories.sum(), copied.sum(), skipped.sum(), failed.sum(), bytes.sum(), elapsed);
+        }
+
+        void copyFile(Path source, Path target, BasicFileAttributes attrs) {
+
+            try {
+
+                if (attrs.isSymbolicLink()) {
+                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                    copied.increment();
+                    listener.onCopied(source, target, 0);
+                    return;
+                }
+
+                if (incremental && isUnchanged(target, attrs)) {
+                    skipped.increment();
+                    listener.onSkipped(source, target);
+                    return;
+                }
+
+                long size;
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                             StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        long transferred = in.transferTo(position, size - position, out);
+                        if (transferred <= 0) {
+                            break;  // truncated by someone else during the copy
+                        }
+                        position += transferred;
+                    }
+                }
+                copyAttributes(source, target, attrs);
+
+                copied.increment();
+                bytes.add(size);
+                listener.onCopied(source, target, size);
+
+            } catch (IOException e) {
+                failed.increment();
+                listener.onFailed(source, e);
+            }
+
+        }
+
+        private final class DirectoryTask extends RecursiveAction {
+
+            private final Path source;
+            private final Path target;
+
+            DirectoryTask(Path source, Path target) {
+                this.source = source;
+                this.target = target;
+            }
+
+            @Override
+            protected void compute() {
+
+                try {
+
+                    Files.createDirectories(target);
+
+                    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                    try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+                        for (Path entry : entries) {
+                            Path entryTarget = target.resolve(entry.getFileName().toString());
+                            BasicFileAttributes attrs =
+                                    Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                            if (attrs.isDirectory()) {
+                                tasks.add(new DirectoryTask(entry, entryTarget));
+                            } else {
+                                tasks.add(ForkJoinTask.adapt(() -> copyFile(entry, entryTarget, attrs)));
+                            }
+                        }
+                    }
+                    ForkJoinTask.invokeAll(tasks);
+
+                    // the directory is modified by the copy of its entries, so its attributes are set at the end
+                    copyAttributes(source, target,
+                            Files.readAttributes(source, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+                    directories.increment();
+
+                } catch (IOException e) {
+                    failed.increment();
+                    listener.onFailed(source, e);
+                }
+
+            }
+
+        }
+
+    }
+
+}
@@ -1,8 +1,10 @@
 package com.mkyong.io.file;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 // write 5 millions line to a file, 1053 chars per line, file size around 5G
 public class FileWriteLargeFile {
@@ -11,6 +13,16 @@ public class FileWriteLargeFile {
 
         String fileName = "/home/mkyong/test/large-file.txt";
 
+        try {
+            writeLargeFile(Paths.get(fileName), 5_000_000);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+    }
+
+    public static void writeLargeFile(Path path, int lines) throws IOException {
+
         // 1053 chars per line
         String content = "Hello 123456 ";
         content = content + content + content;
@@ -20,16 +32,14 @@ public class FileWriteLargeFile {
 
         System.out.println(content.length());
 
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(fileName))) {
+        try (BufferedWriter bw = Files.newBufferedWriter(path)) {
 
-            for (int i = 0; i < 5_000_000; i++) {
+            for (int i = 0; i < lines; i++) {
                 bw.write(content);
                 bw.newLine();
                 //bw.write(System.lineSeparator());
             }
 
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
     }
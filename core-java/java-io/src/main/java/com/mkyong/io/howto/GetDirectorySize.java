@@ -27,6 +27,9 @@ public class GetDirectorySize {
         long size4 = getDirectorySizeLegacy(new File(dir));
         System.out.printf("Total size %,d bytes%n", size4);
 
+        long size5 = getDirectorySizeParallel(Paths.get(dir));
+        System.out.printf("Total size %,d bytes%n", size5);
+
     }
 
     public static long getDirectorySizeJava8(Path path) {
@@ -58,6 +61,14 @@ public class GetDirectorySize {
 
     }
 
+    // sub directories are listed in parallel, see ParallelDirectorySize
+    public static long getDirectorySizeParallel(Path path) {
+
+        return new ParallelDirectorySize(32).size(path,
+                e -> System.out.printf("Failed to get size %s%n", e));
+
+    }
+
     public static long getDirectorySizeCommonIO(File dir) {
 
         return FileUtils.sizeOfDirectory(dir);
@@ -0,0 +1,96 @@
+package com.mkyong.io.howto;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Directory size on a ForkJoinPool, every sub directory is a task, so the directories are listed
+ * and the attributes are read by up to parallelism threads at the same time.
+ * The same result as GetDirectorySize.getDirectorySizeJava7: sizes of all entries except directories,
+ * symbolic links are not followed.
+ */
+public class ParallelDirectorySize {
+
+    private final int parallelism;
+
+    public ParallelDirectorySize(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public static void main(String[] args) {
+
+        String dir = "/home/mkyong/projects/core-java/";
+
+        long size = new ParallelDirectorySize(32).size(Paths.get(dir),
+                e -> System.out.printf("Failed to get size %s%n", e));
+        System.out.printf("Total size %,d bytes%n", size);
+
+    }
+
+    /**
+     * @param onError a failed entry is counted as 0, the error is passed here
+     */
+    public long size(Path path, Consumer<IOException> onError) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new SizeTask(path, onError));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static final class SizeTask extends RecursiveTask<Long> {
+
+        private final Path dir;
+        private final Consumer<IOException> onError;
+
+        SizeTask(Path dir, Consumer<IOException> onError) {
+            this.dir = dir;
+            this.onError = onError;
+        }
+
+        @Override
+        protected Long compute() {
+
+            long size = 0;
+            List<SizeTask> subDirs = new ArrayList<>();
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    try {
+                        BasicFileAttributes attrs =
+                                Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (attrs.isDirectory()) {
+                            SizeTask task = new SizeTask(entry, onError);
+                            task.fork();
+                            subDirs.add(task);
+                        } else {
+                            size += attrs.size();
+                        }
+                    } catch (IOException e) {
+                        onError.accept(e);
+                    }
+                }
+            } catch (IOException e) {
+                onError.accept(e);
+            }
+
+            for (SizeTask task : subDirs) {
+                size += task.join();
+            }
+            return size;
+        }
+
+    }
+
+}
@@ -8,6 +8,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -35,6 +37,7 @@ public class GzipExample {
 
             GzipExample.compressGzip(source, target);
             //GZipExample.compressGzipNio(source, target);
+            //GZipExample.compressGzipParallel(source, target);
 
             //GZipExample.decompressGzip(source, target);
             //GZipExample.decompressGzipNio(source, target);
@@ -78,6 +81,19 @@ public class GzipExample {
 
     }
 
+    // compress on all cores, pigz style, the result is a normal .gz file
+    public static void compressGzipParallel(Path source, Path target) throws IOException {
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try (ParallelGzipOutputStream gos =
+                     new ParallelGzipOutputStream(new FileOutputStream(target.toFile()), executor)) {
+            Files.copy(source, gos);
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
     // compress data to gzip directly
     public static void compressStringToGzip(String data, Path target) throws IOException {
 
@@ -0,0 +1,259 @@
+package com.mkyong.io.howto.compress;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output stream that compresses on an ExecutorService, like pigz.
+ * <p>
+ * The input is cut into blocks, every block is deflated by a worker, the compressed blocks
+ * are written in order by the writing thread. A block ends with a sync flush (an empty stored block),
+ * so the compressed blocks simply follow each other and the result is one normal gzip member,
+ * GZIPInputStream and gunzip read it as usual. Like pigz, a block is deflated with the last 32KB of the
+ * previous block as dictionary, so the ratio is nearly the same as GZIPOutputStream.
+ * <p>
+ * The CRC32 of the input is computed by the writing thread (the CRC32 intrinsic is a few GB/s)
+ * while the workers deflate. Up to maxPending blocks are compressed at the same time, then write
+ * waits for the oldest one.
+ * <p>
+ * flush() does not compress the current block, close() or finish() writes everything.
+ * Not thread safe, like the other output streams.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    // pigz default
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    // magic, deflate, no flags, no time, no extra flags, OS unknown - as GZIPOutputStream
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final int blockSize;
+    private final int level;
+    private final int maxPending;
+
+    private final CRC32 crc = new CRC32();
+    private final Deque<Future<Block>> pending = new ArrayDeque<>();
+
+    private byte[] block;
+    private int count;
+    private byte[] previous;
+    private int previousCount;
+    private long size;
+    private boolean finished;
+
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService executor) throws IOException {
+        this(out, executor, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION,
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param level      Deflater level, DEFAULT_COMPRESSION (6) as GZIPOutputStream
+     * @param maxPending blocks compressed at the same time, at least the number of threads of the executor
+     */
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService executor,
+                                    int blockSize, int level, int maxPending) throws IOException {
+        if (blockSize <= 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("blockSize and maxPending must be positive");
+        }
+        this.out = out;
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.maxPending = maxPending;
+        this.block = new byte[blockSize];
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[count++] = (byte) b;
+        if (count == blockSize) {
+            submit(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submit(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Compresses the rest of the input and writes the gzip trailer, without closing the underlying stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        try {
+            submit(true);
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            writeInt((int) crc.getValue());
+            writeInt((int) size);  // ISIZE, the size modulo 2^32
+        } finally {
+            abort();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+
+        byte[] input = block;
+        int length = count;
+        byte[] dictionary = previous;
+        int dictionaryLength = previousCount;
+        pending.add(executor.submit(() -> deflate(input, length, dictionary, dictionaryLength, level, last)));
+
+        // the worker only reads the block, so the crc runs at the same time
+        crc.update(input, 0, length);
+        size += length;
+
+        previous = input;
+        previousCount = length;
+        block = new byte[blockSize];
+        count = 0;
+
+        while (pending.size() > maxPending) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        Block compressed;
+        try {
+            compressed = pending.remove().get();
+        } catch (InterruptedException e) {
+            abort();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            // a missing block would corrupt the stream, nothing more is written
+            abort();
+            throw new IOException("Failed to compress", e.getCause());
+        }
+        out.write(compressed.data, 0, compressed.length);
+    }
+
+    private void abort() {
+        finished = true;
+        for (Future<Block> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    private void writeInt(int value) throws IOException {
+        // little endian
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * Raw deflate of one block. The block ends with a sync flush, the last one with the final block.
+     */
+    static Block deflate(byte[] input, int length, byte[] dictionary, int dictionaryLength,
+                         int level, boolean last) {
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+
+            if (dictionary != null && dictionaryLength > 0) {
+                int n = Math.min(DICTIONARY_SIZE, dictionaryLength);
+                deflater.setDictionary(dictionary, dictionaryLength - n, n);
+            }
+            deflater.setInput(input, 0, length);
+
+            byte[] output = new byte[Math.toIntExact(outputSize(length))];
+            int n = 0;
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (n == output.length) {
+                        output = Arrays.copyOf(output, output.length * 2);
+                    }
+                    n += deflater.deflate(output, n, output.length - n);
+                }
+            } else {
+                // a full output buffer means there may be more to flush
+                do {
+                    if (n == output.length) {
+                        output = Arrays.copyOf(output, output.length * 2);
+                    }
+                    n += deflater.deflate(output, n, output.length - n, Deflater.SYNC_FLUSH);
+                } while (n == output.length);
+            }
+            return new Block(output, n);
+
+        } finally {
+            deflater.end();
+        }
+
+    }
+
+    /**
+     * Size of the output buffer of deflate: enough for most blocks,
+     * stored blocks of incompressible data add 5 bytes per 16KB.
+     */
+    static long outputSize(long length) {
+        return length + (length >> 8) + 64;
+    }
+
+    static final class Block {
+
+        final byte[] data;
+        final int length;
+
+        Block(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+
+    }
+
+}
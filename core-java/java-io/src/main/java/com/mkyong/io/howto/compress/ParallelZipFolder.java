@@ -0,0 +1,207 @@
+package com.mkyong.io.howto.compress;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Zips a folder on an ExecutorService: the files are read and deflated by the workers,
+ * the compressed entries are written in the order of the file tree by the writing thread
+ * with ZipArchiveOutputStream.addRawArchiveEntry (commons-compress, zip64 if needed).
+ * <p>
+ * A file larger than maxEntrySize is not kept in memory, it is deflated by the writing thread
+ * as ZipDirectoryExample.zipFolder does, while the workers continue with the next files.
+ * A file that does not get smaller is stored. Symbolic links are skipped, as in zipFolder.
+ * <p>
+ * The writer runs ahead of the workers by at most maxPending entries and MAX_PENDING_BYTES,
+ * so a folder of many small files does not queue a task and a future for every file.
+ */
+public class ParallelZipFolder {
+
+    public static final long DEFAULT_MAX_ENTRY_SIZE = 32 * 1024 * 1024;
+
+    // memory held by the entries compressed ahead of the writer, see pendingBytes
+    private static final long MAX_PENDING_BYTES = 256 * 1024 * 1024;
+
+    private final ExecutorService executor;
+    private final int level;
+    private final long maxEntrySize;
+    private final int maxPending;
+
+    public ParallelZipFolder(ExecutorService executor) {
+        this(executor, Deflater.DEFAULT_COMPRESSION, DEFAULT_MAX_ENTRY_SIZE);
+    }
+
+    public ParallelZipFolder(ExecutorService executor, int level, long maxEntrySize) {
+        this(executor, level, maxEntrySize, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxPending entries compressed ahead of the writer, at least the number of threads of the executor
+     */
+    public ParallelZipFolder(ExecutorService executor, int level, long maxEntrySize, int maxPending) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maxPending must be positive");
+        }
+        this.executor = executor;
+        this.level = level;
+        this.maxEntrySize = Math.min(maxEntrySize, Integer.MAX_VALUE - 1024);
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int zip(Path source, Path zipFile) throws IOException {
+
+        if (!Files.isDirectory(source)) {
+            throw new IOException("Please provide a directory.");
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(path -> Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS))
+                    .collect(Collectors.toList());
+        }
+
+        Deque<Future<ZipEntryData>> pending = new ArrayDeque<>();
+        long pendingBytes = 0;
+
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(zipFile.toFile())) {
+
+            zos.setLevel(level);
+
+            for (Path file : files) {
+
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                String name = entryName(source, file);
+
+                if (attrs.size() > maxEntrySize) {
+                    // everything before it goes first
+                    while (!pending.isEmpty()) {
+                        pendingBytes -= writeNext(zos, pending);
+                    }
+                    ZipArchiveEntry entry = new ZipArchiveEntry(file.toFile(), name);
+                    zos.putArchiveEntry(entry);
+                    Files.copy(file, zos);
+                    zos.closeArchiveEntry();
+                    continue;
+                }
+
+                pending.add(executor.submit(() -> compress(file, name, attrs)));
+                pendingBytes += pendingBytes(attrs.size());
+                while (pendingBytes > MAX_PENDING_BYTES || pending.size() > maxPending) {
+                    pendingBytes -= writeNext(zos, pending);
+                }
+
+            }
+
+            while (!pending.isEmpty()) {
+                pendingBytes -= writeNext(zos, pending);
+            }
+            zos.finish();
+
+        } finally {
+            for (Future<ZipEntryData> future : pending) {
+                future.cancel(true);
+            }
+        }
+
+        return files.size();
+    }
+
+    private static String entryName(Path source, Path file) {
+        List<String> names = new ArrayList<>();
+        for (Path name : source.relativize(file)) {
+            names.add(name.toString());
+        }
+        return String.join("/", names);
+    }
+
+    /**
+     * An entry holds the content of the file and the output buffer of deflate while it is compressed,
+     * then one of them until it is written.
+     */
+    private static long pendingBytes(long size) {
+        return size + ParallelGzipOutputStream.outputSize(size);
+    }
+
+    private ZipEntryData compress(Path file, String name, BasicFileAttributes attrs) throws IOException {
+
+        byte[] bytes = Files.readAllBytes(file);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setTime(attrs.lastModifiedTime().toMillis());
+        entry.setSize(bytes.length);
+        entry.setCrc(crc.getValue());
+
+        ParallelGzipOutputStream.Block deflated =
+                ParallelGzipOutputStream.deflate(bytes, bytes.length, null, 0, level, true);
+        if (deflated.length < bytes.length) {
+            entry.setMethod(ZipEntry.DEFLATED);
+            entry.setCompressedSize(deflated.length);
+            return new ZipEntryData(entry, deflated.data, deflated.length, attrs.size());
+        }
+        entry.setMethod(ZipEntry.STORED);
+        entry.setCompressedSize(bytes.length);
+        return new ZipEntryData(entry, bytes, bytes.length, attrs.size());
+    }
+
+    // returns the bytes of the entry as counted in pendingBytes
+    private static long writeNext(ZipArchiveOutputStream zos, Deque<Future<ZipEntryData>> pending)
+            throws IOException {
+        ZipEntryData data;
+        try {
+            data = pending.remove().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to compress", e.getCause());
+        }
+        zos.addRawArchiveEntry(data.entry, new ByteArrayInputStream(data.data, 0, data.length));
+        return pendingBytes(data.size);
+    }
+
+    private static final class ZipEntryData {
+
+        final ZipArchiveEntry entry;
+        final byte[] data;
+        final int length;
+        final long size;
+
+        ZipEntryData(ZipArchiveEntry entry, byte[] data, int length, long size) {
+            this.entry = entry;
+            this.data = data;
+            this.length = length;
+            this.size = size;
+        }
+
+    }
+
+}
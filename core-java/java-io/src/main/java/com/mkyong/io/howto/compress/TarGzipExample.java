@@ -11,6 +11,8 @@ import java.io.*;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TarGzipExample {
 
@@ -29,6 +31,7 @@ public class TarGzipExample {
             //Path source = Paths.get("/usr/lib/jvm/java-8-openjdk-amd64/");
             Path source = Paths.get("/home/mkyong/test");
             createTarGzipFolder(source);
+            //createTarGzipFolderParallel(source);
 
             //createTarGzipFilesOnDemand();
 
@@ -91,48 +94,78 @@ public class TarGzipExample {
              GzipCompressorOutputStream gzOut = new GzipCompressorOutputStream(buffOut);
              TarArchiveOutputStream tOut = new TarArchiveOutputStream(gzOut)) {
 
-            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            tarFolder(source, tOut);
 
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+        }
 
-                    // only copy files, no symbolic links
-                    if (attributes.isSymbolicLink()) {
-                        return FileVisitResult.CONTINUE;
-                    }
+    }
+
+    // tar.gz a folder, gzip on all cores, for large folders
+    public static void createTarGzipFolderParallel(Path source) throws IOException {
+
+        if (!Files.isDirectory(source)) {
+            throw new IOException("Please provide a directory.");
+        }
 
-                    // get filename
-                    Path targetFile = source.relativize(file);
+        // get folder name as tar file name
+        String tarFileName = source.getFileName().toString() + ".tar.gz";
 
-                    try {
-                        TarArchiveEntry tarEntry = new TarArchiveEntry(
-                                file.toFile(), targetFile.toString());
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try (OutputStream fOut = Files.newOutputStream(Paths.get(tarFileName));
+             ParallelGzipOutputStream gzOut = new ParallelGzipOutputStream(fOut, executor);
+             TarArchiveOutputStream tOut = new TarArchiveOutputStream(gzOut)) {
 
-                        tOut.putArchiveEntry(tarEntry);
+            tarFolder(source, tOut);
 
-                        Files.copy(file, tOut);
+        } finally {
+            executor.shutdown();
+        }
 
-                        tOut.closeArchiveEntry();
+    }
 
-                        System.out.printf("file : %s%n", file);
+    private static void tarFolder(Path source, TarArchiveOutputStream tOut) throws IOException {
 
-                    } catch (IOException e) {
-                        System.err.printf("Unable to tar.gz : %s%n%s%n", file, e);
-                    }
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
 
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+
+                // only copy files, no symbolic links
+                if (attributes.isSymbolicLink()) {
                     return FileVisitResult.CONTINUE;
                 }
 
-                @Override
-                public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                    System.err.printf("Unable to tar.gz : %s%n%s%n", file, exc);
-                    return FileVisitResult.CONTINUE;
+                // get filename
+                Path targetFile = source.relativize(file);
+
+                try {
+                    TarArchiveEntry tarEntry = new TarArchiveEntry(
+                            file.toFile(), targetFile.toString());
+
+                    tOut.putArchiveEntry(tarEntry);
+
+                    Files.copy(file, tOut);
+
+                    tOut.closeArchiveEntry();
+
+                    System.out.printf("file : %s%n", file);
+
+                } catch (IOException e) {
+                    System.err.printf("Unable to tar.gz : %s%n%s%n", file, e);
                 }
 
-            });
+                return FileVisitResult.CONTINUE;
+            }
 
-            tOut.finish();
-        }
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                System.err.printf("Unable to tar.gz : %s%n%s%n", file, exc);
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+
+        tOut.finish();
 
     }
 
@@ -9,6 +9,8 @@ import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -28,6 +30,7 @@ public class ZipDirectoryExample {
         try {
 
             //ZipDirectoryExample.zipFolder(source);
+            //ZipDirectoryExample.zipFolderParallel(source);
             ZipDirectoryExample.zipFolderNio(source);
 
         } catch (IOException e) {
@@ -95,6 +98,22 @@ public class ZipDirectoryExample {
 
     }
 
+    // zip a directory, the files are compressed on all cores
+    public static void zipFolderParallel(Path source) throws IOException {
+
+        // get folder name as zip file name
+        String zipFileName = source.getFileName().toString() + ".zip";
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            int entries = new ParallelZipFolder(executor).zip(source, Paths.get(zipFileName));
+            System.out.printf("Zip files : %d%n", entries);
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
     // zip a directory, including sub files and sub directories
     public static void zipFolder(Path source) throws IOException {
 
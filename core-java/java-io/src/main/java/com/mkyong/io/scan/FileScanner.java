@@ -0,0 +1,195 @@
+package com.mkyong.io.scan;
+
+import com.mkyong.io.csv.fast.ByteScanner;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Scans a large file in parallel: the file is split into regions of regionSize bytes,
+ * every region is memory-mapped (FileChannel.map) and scanned on the executor with {@link ByteScanner},
+ * the results of the regions are merged in the file order.
+ * <p>
+ * A mapping is limited to 2GB, so a 5GB file is never mapped at once, and every region is
+ * an independent task. (The MemorySegment API, which can map the whole file, is still incubating in Java 17.)
+ * The mapped regions are unmapped by the GC.
+ */
+public final class FileScanner {
+
+    static final int DEFAULT_REGION_SIZE = 256 * 1024 * 1024;
+
+    private static final byte NEW_LINE = '\n';
+
+    private final ExecutorService executor;
+    private final int regionSize;
+
+    public FileScanner(ExecutorService executor) {
+        this(executor, DEFAULT_REGION_SIZE);
+    }
+
+    FileScanner(ExecutorService executor, int regionSize) {
+        this.executor = executor;
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * Scans the region in the buffer.
+     */
+    @FunctionalInterface
+    public interface RegionScanner<R> {
+
+        /**
+         * @param buffer little endian, bytes [0, length) are the region,
+         *               after them up to overlap bytes of the next region (see {@link #scan})
+         * @param offset offset of the region in the file
+         */
+        R scan(ByteBuffer buffer, long offset, int length) throws IOException;
+
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        Path path = Paths.get(args.length > 0 ? args[0] : "/home/mkyong/test/large-file.txt");
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            FileScanner scanner = new FileScanner(executor);
+
+            long start = System.nanoTime();
+            long lines = scanner.countLines(path);
+            System.out.println("Total lines: " + lines + ", " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+            byte[] pattern = "123456".getBytes(StandardCharsets.US_ASCII);
+            System.out.println("\"123456\" occurrences: " + scanner.count(path, pattern)
+                    + ", first at: " + scanner.indexOf(path, pattern));
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    // the same as CountFileLines: the last line without a new line is counted too
+    public long countLines(Path path) throws IOException {
+        long newLines = count(path, NEW_LINE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return 0;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            return last.get(0) == NEW_LINE ? newLines : newLines + 1;
+        }
+    }
+
+    public long count(Path path, byte b) throws IOException {
+        long total = 0;
+        for (long count : scan(path, 0, (buffer, offset, length) -> ByteScanner.count(buffer, b, 0, length))) {
+            total += count;
+        }
+        return total;
+    }
+
+    // overlapping occurrences are counted, "aa" is found twice in "aaa"
+    public long count(Path path, byte[] pattern) throws IOException {
+        long total = 0;
+        for (long count : scan(path, pattern.length - 1, (buffer, offset, length) -> countPattern(buffer, pattern, length))) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return offset of the first occurrence in the file, or -1
+     */
+    public long indexOf(Path path, byte[] pattern) throws IOException {
+        List<Long> found = scan(path, pattern.length - 1, (buffer, offset, length) -> {
+            int index = ByteScanner.indexOf(buffer, pattern, 0, length);
+            return index < 0 ? -1 : offset + index;
+        });
+        for (long index : found) {
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Maps every region with overlap bytes of the next one (so a pattern crossing the bound is found
+     * by the region it starts in) and scans the regions on the executor.
+     *
+     * @return results of the regions in the file order
+     */
+    public <R> List<R> scan(Path path, int overlap, RegionScanner<R> scanner) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            List<Callable<R>> tasks = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += regionSize) {
+                long start = offset;
+                int length = (int) Math.min(regionSize, size - start);
+                int mapped = (int) Math.min((long) length + overlap, size - start);
+                tasks.add(() -> {
+                    ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                    return scanner.scan(buffer, start, length);
+                });
+            }
+            return invokeAll(tasks);
+        }
+    }
+
+    private static long countPattern(ByteBuffer buffer, byte[] pattern, int length) {
+        long count = 0;
+        int position = 0;
+        int found;
+        while ((found = ByteScanner.indexOf(buffer, pattern, position, length)) >= 0) {
+            count++;
+            position = found + 1;
+        }
+        return count;
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        try {
+            List<T> result = new ArrayList<>(tasks.size());
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                result.add(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+}
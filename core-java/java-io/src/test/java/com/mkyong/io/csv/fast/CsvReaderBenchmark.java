@@ -0,0 +1,151 @@
+package com.mkyong.io.csv.fast;
+
+import com.mkyong.io.csv.CsvParserSimple;
+import com.opencsv.CSVReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Reading a generated CSV file of ROWS records (84MB, 1/10 of the records has a quoted field with "" and a new line),
+ * the file is in the page cache after the first read.
+ *
+ * simple           - CsvParserSimple.readFile, the whole file as List<String[]>
+ * openCsv          - OpenCSV CSVReader.readNext, record by record
+ * streamToStrings  - CsvStreamReader.readFile, every field decoded to String (the same work as above)
+ * streamLazy       - CsvStreamReader.readFile, only field lengths are used, no String at all
+ * parallelLazy     - CsvStreamReader.readFileParallel, as streamLazy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CsvReaderBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    private Path file;
+    private ExecutorService executor;
+    private final CsvStreamReader reader = new CsvStreamReader();
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CsvReaderBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("benchmark", ".csv");
+        SplittableRandom random = new SplittableRandom(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(i + ",customer-" + random.nextInt(100_000) + "," + random.nextInt(1_000_000) / 100.0
+                        + ",2021-03-" + (10 + random.nextInt(20)) + ",");
+                if (i % 10 == 0) {
+                    writer.write("\"Dell 34, \"\"Curved\"\"\nUSB-C Monitor\"");
+                } else {
+                    writer.write("plain description of the item number " + i);
+                }
+                writer.write('\n');
+            }
+        }
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public List<String[]> simple() throws Exception {
+        return new CsvParserSimple().readFile(file.toFile());
+    }
+
+    @Benchmark
+    public void openCsv(Blackhole blackhole) throws Exception {
+        try (CSVReader csvReader = new CSVReader(new FileReader(file.toFile()))) {
+            String[] line;
+            while ((line = csvReader.readNext()) != null) {
+                blackhole.consume(line);
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamToStrings(Blackhole blackhole) throws IOException {
+        reader.readFile(file, row -> {
+            for (int i = 0; i < row.size(); i++) {
+                blackhole.consume(row.get(i));
+            }
+        });
+    }
+
+    @Benchmark
+    public long streamLazy() throws IOException {
+        long[] bytes = new long[1];
+        reader.readFile(file, row -> {
+            for (int i = 0; i < row.size(); i++) {
+                bytes[0] += row.length(i);
+            }
+        });
+        return bytes[0];
+    }
+
+    @Benchmark
+    public long parallelLazy() throws IOException {
+        LongAdder bytes = new LongAdder();
+        reader.readFileParallel(file, executor, row -> {
+            long rowBytes = 0;
+            for (int i = 0; i < row.size(); i++) {
+                rowBytes += row.length(i);
+            }
+            bytes.add(rowBytes);
+        });
+        return bytes.sum();
+    }
+
+}
+
+/*
+1 CPU, JDK 17, file 84MB
+
+Benchmark                           Mode  Cnt     Score     Error  Units
+CsvReaderBenchmark.openCsv          avgt    5  1563.689 ± 572.970  ms/op
+CsvReaderBenchmark.parallelLazy     avgt    5   169.076 ±  38.960  ms/op
+CsvReaderBenchmark.simple           avgt    5  2028.955 ± 407.220  ms/op
+CsvReaderBenchmark.streamLazy       avgt    5   103.106 ±  49.663  ms/op
+CsvReaderBenchmark.streamToStrings  avgt    5   258.349 ± 181.092  ms/op
+
+- decoding the same fields to String: 8x faster than CsvParserSimple, 6x faster than OpenCSV,
+  no char[] / StringBuilder copies, and no List of the whole file;
+- without Strings (only offsets) another 2.5x, ~800MB/s;
+- on 1 CPU parallel reading only adds the quote counting pass, with more cores the chunks are parsed at the same time.
+ */
@@ -0,0 +1,171 @@
+package com.mkyong.io.csv.fast;
+
+import com.mkyong.io.csv.CsvParserSimple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvStreamReaderTest {
+
+    private CsvStreamReader reader = new CsvStreamReader();
+
+    @ParameterizedTest(name = "#{index} - Run test with args={0}")
+    @ValueSource(strings = {
+            "\"aa\",\"bb\",\"cc\",\"dd\",\"ee\"",
+            "aa,bb,cc,dd,ee",
+            "aa,bb,\"cc\",dd,ee",
+            "aa,bb,cc,dd,ee\n",
+            "aa,bb,cc,dd,ee\r\n",
+            "aa,bb,\"cc\",dd,\"ee\"\r\n"
+    }
+    )
+    void test_csv_line_default(String line) {
+        List<String[]> result = parse(reader, line);
+        assertEquals(1, result.size());
+        assertArrayEquals(new String[]{"aa", "bb", "cc", "dd", "ee"}, result.get(0));
+    }
+
+    @ParameterizedTest(name = "#{index} - Run test with args={0}")
+    @ValueSource(strings = {
+            "\"aa\",\"\",\"\",\"\",\"\"",
+            "aa,,,,",
+            "aa,,\"\",,"
+    }
+    )
+    void test_csv_line_empty(String line) {
+        List<String[]> result = parse(reader, line);
+        assertArrayEquals(new String[]{"aa", "", "", "", ""}, result.get(0));
+    }
+
+    @Test
+    void test_csv_line_custom_separator() {
+        CsvStreamReader semicolon = new CsvStreamReader(';', StandardCharsets.UTF_8);
+        List<String[]> result = parse(semicolon, "aa;\"b;b\";cc");
+        assertArrayEquals(new String[]{"aa", "b;b", "cc"}, result.get(0));
+    }
+
+    @Test
+    void test_csv_line_contain_double_quotes_in_field() {
+        String line = "\"Australia\",\"51 Maritime Avenue, \"\"Western Australia\"\", 6286\",\"\"\"\"";
+        List<String[]> result = parse(reader, line);
+        assertArrayEquals(
+                new String[]{"Australia", "51 Maritime Avenue, \"Western Australia\", 6286", "\""},
+                result.get(0));
+    }
+
+    @Test
+    void test_csv_multi_line_field() {
+        List<String[]> result = parse(reader, "1,\"first\r\nsecond\nthird\",x\n2,y,z\n");
+        assertEquals(2, result.size());
+        assertArrayEquals(new String[]{"1", "first\r\nsecond\nthird", "x"}, result.get(0));
+        assertArrayEquals(new String[]{"2", "y", "z"}, result.get(1));
+    }
+
+    @Test
+    void test_csv_utf8() {
+        List<String[]> result = parse(reader, "Привет,\"мир, \"\"ok\"\"\"");
+        assertArrayEquals(new String[]{"Привет", "мир, \"ok\""}, result.get(0));
+    }
+
+    // incomplete record stays in the buffer until the next read
+    @Test
+    void test_parse_incomplete_record() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        List<String[]> result = new ArrayList<>();
+
+        buffer.put("a,b\nc,\"d\n".getBytes(StandardCharsets.UTF_8)).flip();
+        assertEquals(1, reader.parse(buffer, false, row -> result.add(row.toArray())));
+        assertEquals(4, buffer.position());
+
+        buffer.compact().put("e\"\n".getBytes(StandardCharsets.UTF_8)).flip();
+        assertEquals(1, reader.parse(buffer, true, row -> result.add(row.toArray())));
+        assertEquals(buffer.limit(), buffer.position());
+
+        assertArrayEquals(new String[]{"a", "b"}, result.get(0));
+        assertArrayEquals(new String[]{"c", "d\ne"}, result.get(1));
+    }
+
+    @Test
+    void test_read_file_same_as_csv_parser_simple() throws Exception {
+        URL resource = CsvStreamReaderTest.class.getClassLoader().getResource("csv/wikipedia.csv");
+        File file = Paths.get(resource.toURI()).toFile();
+
+        List<String[]> expected = new CsvParserSimple().readFile(file);
+        List<String[]> result = new ArrayList<>();
+        reader.readFile(file.toPath(), row -> result.add(row.toArray()));
+
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), result.get(i));
+        }
+    }
+
+    // small chunks, so records with quoted new lines cross the chunk bounds
+    @Test
+    void test_read_file_in_chunks(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("data.csv");
+        StringBuilder csv = new StringBuilder();
+        List<String[]> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String text = "line " + i + "\n\"quoted\", " + "x".repeat(i % 50);
+            csv.append(i).append(",\"").append(text.replace("\"", "\"\"")).append("\",").append(i * 2).append('\n');
+            expected.add(new String[]{String.valueOf(i), text, String.valueOf(i * 2)});
+        }
+        Files.writeString(file, csv);
+
+        CsvStreamReader chunked = new CsvStreamReader(',', StandardCharsets.UTF_8, 1000);
+
+        List<String[]> sequential = new ArrayList<>();
+        assertEquals(1000, chunked.readFile(file, row -> sequential.add(row.toArray())));
+        assertRows(expected, sequential);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<String[]> parallel = Collections.synchronizedList(new ArrayList<>());
+            assertEquals(1000, chunked.readFileParallel(file, executor, row -> parallel.add(row.toArray())));
+            parallel.sort(Comparator.comparingInt(row -> Integer.parseInt(row[0])));
+            assertRows(expected, parallel);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertRows(List<String[]> expected, List<String[]> result) {
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), result.get(i));
+        }
+    }
+
+    private static List<String[]> parse(CsvStreamReader reader, String csv) {
+        List<String[]> result = new ArrayList<>();
+        ByteBuffer direct = ByteBuffer.allocateDirect(csv.length() * 4);
+        direct.put(csv.getBytes(StandardCharsets.UTF_8)).flip();
+        reader.parse(direct, true, row -> result.add(row.toArray()));
+
+        // heap buffers are decoded from the array directly
+        List<String[]> heap = new ArrayList<>();
+        reader.parse(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), true, row -> heap.add(row.toArray()));
+        assertRows(result, heap);
+        return result;
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.mkyong.io.csv.fast;
+
+import com.mkyong.io.csv.CsvWriterSimple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvStreamWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void test_write_minimal_quotes() throws IOException {
+        Path file = tempDir.resolve("data.csv");
+        try (CsvStreamWriter writer = new CsvStreamWriter(file)) {
+            writer.writeRow("1", "apple,orange", "12\"apple", "promotion!\napple", "", "9.99");
+        }
+        assertEquals("1,\"apple,orange\",\"12\"\"apple\",\"promotion!\napple\",,9.99\n", Files.readString(file));
+    }
+
+    // the same as CsvWriterSimple with quotes for all fields
+    @Test
+    void test_write_quote_all() throws IOException {
+        String[] record = {"1", "apple,orange", "12\"apple", "promotion!\napple", "", "9.99"};
+        Path file = tempDir.resolve("data.csv");
+        try (CsvStreamWriter writer = new CsvStreamWriter(file, ',', true, false)) {
+            writer.writeRow(record);
+        }
+        assertEquals(new CsvWriterSimple().convertToCsvFormat(record) + "\n", Files.readString(file));
+    }
+
+    @Test
+    void test_write_fields() throws IOException {
+        Path file = tempDir.resolve("data.csv");
+        try (CsvStreamWriter writer = new CsvStreamWriter(file, ';', false, false)) {
+            writer.writeField(0);
+            writer.writeField(-42);
+            writer.writeField(Long.MAX_VALUE);
+            writer.writeField(Long.MIN_VALUE);
+            writer.writeField("a;b");
+            writer.writeField((CharSequence) null);
+            writer.endRow();
+        }
+        assertEquals("0;-42;9223372036854775807;-9223372036854775808;\"a;b\";\n", Files.readString(file));
+    }
+
+    @Test
+    void test_write_utf8() throws IOException {
+        String text = "Привет, 世界 😀";
+        Path file = tempDir.resolve("data.csv");
+        try (CsvStreamWriter writer = new CsvStreamWriter(file)) {
+            writer.writeRow(text, "é");
+        }
+        assertEquals("\"" + text + "\",é\n", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    // fields larger than the buffer and many rows, small buffer
+    @Test
+    void test_write_read_round_trip() throws IOException {
+        List<String[]> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(new String[]{
+                    String.valueOf(i),
+                    "line " + i + "\n\"quoted\", " + "x".repeat(i % 50),
+                    i % 100 == 0 ? "😀\"".repeat(300) : "plain"});
+        }
+
+        Path file = tempDir.resolve("data.csv");
+        try (CsvStreamWriter writer = new CsvStreamWriter(file, ',', false, false, 1000)) {
+            assertEquals(1000, writer.writeRows(expected.iterator()));
+        }
+
+        List<String[]> result = new ArrayList<>();
+        new CsvStreamReader().readFile(file, row -> result.add(row.toArray()));
+        assertRows(expected, result);
+    }
+
+    @Test
+    void test_write_gzip() throws IOException {
+        Path file = tempDir.resolve("data.csv.gz");
+        try (CsvStreamWriter writer = new CsvStreamWriter(file, ',', false, true, 1000)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.writeField(i);
+                writer.writeField("row, " + i);
+                writer.endRow();
+            }
+        }
+
+        String csv;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\n");
+        assertEquals(1000, lines.length);
+        assertEquals("999,\"row, 999\"", lines[999]);
+    }
+
+    private static void assertRows(List<String[]> expected, List<String[]> result) {
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), result.get(i));
+        }
+    }
+
+}
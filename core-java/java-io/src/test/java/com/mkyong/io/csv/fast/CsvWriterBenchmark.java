@@ -0,0 +1,148 @@
+package com.mkyong.io.csv.fast;
+
+import com.mkyong.io.csv.CsvWriterSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Writing ROWS records of 5 fields, the fields are taken from POOL prepared records,
+ * 1/10 of them needs quotes (a comma, "" and a new line).
+ *
+ * simple          - CsvWriterSimple.convertToCsvFormat + BufferedWriter line by line,
+ *                   (writeToCsvFile keeps a List of all lines, 10M lines do not fit -Xmx2g)
+ * streamQuoteAll  - CsvStreamWriter, all fields quoted, the same output as simple
+ * streamMinimal   - CsvStreamWriter, quotes only where needed
+ * streamFields    - CsvStreamWriter.writeField, the id as long, no String[] and no Long.toString
+ * streamGzip      - streamMinimal compressed with gzip
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class CsvWriterBenchmark {
+
+    private static final int ROWS = 10_000_000;
+    private static final int POOL = 1024;
+
+    private final String[][] records = new String[POOL][];
+    private Path file;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CsvWriterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < POOL; i++) {
+            records[i] = new String[]{
+                    String.valueOf(i),
+                    "customer-" + random.nextInt(100_000),
+                    String.valueOf(random.nextInt(1_000_000) / 100.0),
+                    "2021-03-" + (10 + random.nextInt(20)),
+                    i % 10 == 0 ? "Dell 34, \"Curved\"\nUSB-C Monitor" : "plain description of the item number " + i};
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createFile() throws IOException {
+        file = Files.createTempFile("benchmark", ".csv");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteFile() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void simple() throws IOException {
+        CsvWriterSimple writer = new CsvWriterSimple();
+        try (BufferedWriter bw = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < ROWS; i++) {
+                bw.write(writer.convertToCsvFormat(records[i & (POOL - 1)]));
+                bw.newLine();
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamQuoteAll() throws IOException {
+        try (CsvStreamWriter writer = new CsvStreamWriter(file, ',', true, false)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.writeRow(records[i & (POOL - 1)]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamMinimal() throws IOException {
+        try (CsvStreamWriter writer = new CsvStreamWriter(file)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.writeRow(records[i & (POOL - 1)]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamFields() throws IOException {
+        try (CsvStreamWriter writer = new CsvStreamWriter(file)) {
+            for (int i = 0; i < ROWS; i++) {
+                String[] record = records[i & (POOL - 1)];
+                writer.writeField(i);
+                writer.writeField(record[1]);
+                writer.writeField(record[2]);
+                writer.writeField(record[3]);
+                writer.writeField(record[4]);
+                writer.endRow();
+            }
+        }
+    }
+
+    @Benchmark
+    public void streamGzip() throws IOException {
+        try (CsvStreamWriter writer = new CsvStreamWriter(file, ',', false, true)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.writeRow(records[i & (POOL - 1)]);
+            }
+        }
+    }
+
+}
+
+/*
+1 CPU, JDK 17, 10M rows, 750MB of CSV (67MB gzip)
+
+Benchmark                          Mode  Cnt      Score      Error  Units
+CsvWriterBenchmark.simple            ss    5   6407.166 ± 3668.577  ms/op
+CsvWriterBenchmark.streamFields      ss    5   3631.219 ± 1082.370  ms/op
+CsvWriterBenchmark.streamGzip        ss    5  12499.988 ± 2368.082  ms/op
+CsvWriterBenchmark.streamMinimal     ss    5   3574.733 ±  200.366  ms/op
+CsvWriterBenchmark.streamQuoteAll    ss    5   3182.386 ± 1476.546  ms/op
+
+- the same output as CsvWriterSimple 2x faster and with constant memory;
+- the rest is the char -> byte loop (~2.5ns per char on this CPU, a plain copy loop of the same chars takes ~1.7s),
+  writes to /dev/null and to a file in the page cache take about the same time;
+- gzip is limited by deflate even with BEST_SPEED (the default level 6 was ~29s), but writes 11x less to the disk.
+ */
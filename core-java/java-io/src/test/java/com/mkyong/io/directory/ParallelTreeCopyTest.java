@@ -0,0 +1,121 @@
+package com.mkyong.io.directory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelTreeCopyTest {
+
+    private static final FileTime MODIFIED = FileTime.from(Instant.parse("2021-03-01T10:15:30Z"));
+
+    @TempDir
+    Path tempDir;
+
+    private Path source;
+    private Path target;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = tempDir.resolve("source");
+        target = tempDir.resolve("target");
+        for (int dir = 0; dir < 5; dir++) {
+            Path subDir = Files.createDirectories(source.resolve("dir" + dir).resolve("sub"));
+            for (int file = 0; file < 20; file++) {
+                Path path = subDir.resolve("file" + file + ".txt");
+                Files.writeString(path, "content " + dir + " " + file + "\n".repeat(file * 100));
+                Files.setLastModifiedTime(path, MODIFIED);
+            }
+        }
+        Files.createDirectories(source.resolve("empty"));
+        Files.write(source.resolve("large.bin"), new byte[3 * 1024 * 1024 + 17]);
+    }
+
+    @Test
+    void test_copy_tree() throws IOException {
+        Path script = source.resolve("run.sh");
+        Files.writeString(script, "echo hello");
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-x---"));
+
+        CopyStats stats = new ParallelTreeCopy(8, false, CopyListener.NONE).copy(source, target);
+
+        assertEquals(102, stats.copied());
+        assertEquals(0, stats.failed());
+        assertEquals(12, stats.directories());
+        assertEquals(sizeOfFiles(source), stats.bytes());
+
+        assertEquals(files(source), files(target));
+        for (Path file : files(source)) {
+            assertArrayEquals(Files.readAllBytes(source.resolve(file)), Files.readAllBytes(target.resolve(file)));
+            assertEquals(Files.getLastModifiedTime(source.resolve(file)), Files.getLastModifiedTime(target.resolve(file)));
+        }
+        assertEquals("rwxr-x---", PosixFilePermissions.toString(Files.getPosixFilePermissions(target.resolve("run.sh"))));
+        assertTrue(Files.isDirectory(target.resolve("empty")));
+    }
+
+    @Test
+    void test_incremental_copy() throws IOException {
+        new ParallelTreeCopy(8, true, CopyListener.NONE).copy(source, target);
+
+        // changed size, changed time, new file
+        Files.writeString(source.resolve("dir0/sub/file1.txt"), "changed");
+        Files.setLastModifiedTime(source.resolve("dir0/sub/file1.txt"), MODIFIED);
+        Files.setLastModifiedTime(source.resolve("dir1/sub/file1.txt"), FileTime.from(Instant.now()));
+        Files.writeString(source.resolve("dir2/new.txt"), "new");
+
+        List<Path> copied = new CopyOnWriteArrayList<>();
+        CopyStats stats = new ParallelTreeCopy(8, true, new CopyListener() {
+            @Override
+            public void onCopied(Path source, Path target, long bytes) {
+                copied.add(ParallelTreeCopyTest.this.source.relativize(source));
+            }
+        }).copy(source, target);
+
+        assertEquals(3, stats.copied());
+        assertEquals(99, stats.skipped());
+        assertEquals(
+                Stream.of("dir0/sub/file1.txt", "dir1/sub/file1.txt", "dir2/new.txt").map(Path::of).collect(Collectors.toSet()),
+                Set.copyOf(copied));
+        assertEquals("changed", Files.readString(target.resolve("dir0/sub/file1.txt")));
+    }
+
+    @Test
+    void test_copy_symbolic_link() throws IOException {
+        Files.createSymbolicLink(source.resolve("link"), Path.of("dir0/sub/file0.txt"));
+
+        new ParallelTreeCopy(8, false, CopyListener.NONE).copy(source, target);
+
+        assertTrue(Files.isSymbolicLink(target.resolve("link")));
+        assertEquals(Path.of("dir0/sub/file0.txt"), Files.readSymbolicLink(target.resolve("link")));
+    }
+
+    private static long sizeOfFiles(Path root) throws IOException {
+        long size = 0;
+        for (Path file : files(root)) {
+            size += Files.size(root.resolve(file));
+        }
+        return size;
+    }
+
+    private static List<Path> files(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile).map(root::relativize).sorted().collect(Collectors.toList());
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.mkyong.io.directory;
+
+import com.mkyong.io.howto.GetDirectorySize;
+import com.mkyong.io.howto.ParallelDirectorySize;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copy and size of a tree of small files (100 directories of 200 files of 4KB).
+ * Every copy goes to an empty target directory, the incremental copy goes to a full copy of the source.
+ *
+ * copyCommonIO         - DirectoryCopy.copyDirectoryCommonIO, one file after another
+ * copyParallel         - ParallelTreeCopy
+ * copyIncremental      - ParallelTreeCopy, nothing changed, every file is skipped
+ * sizeJava7            - GetDirectorySize.getDirectorySizeJava7, Files.walkFileTree
+ * sizeParallel         - ParallelDirectorySize
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class TreeCopyBenchmark {
+
+    @Param({"16"})
+    private int parallelism;
+
+    private Path source;
+    private Path target;
+    private Path fullCopy;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TreeCopyBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        source = Files.createTempDirectory("tree-copy-source");
+        byte[] content = new byte[4096];
+        for (int dir = 0; dir < 100; dir++) {
+            Path subDir = Files.createDirectories(source.resolve("dir" + dir));
+            for (int file = 0; file < 200; file++) {
+                Files.write(subDir.resolve("file" + file + ".bin"), content);
+            }
+        }
+        fullCopy = Files.createTempDirectory("tree-copy-full");
+        new ParallelTreeCopy(parallelism, false, CopyListener.NONE).copy(source, fullCopy);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTarget() throws IOException {
+        target = Files.createTempDirectory("tree-copy-target");
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteTarget() throws IOException {
+        FileUtils.deleteDirectory(target.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(source.toFile());
+        FileUtils.deleteDirectory(fullCopy.toFile());
+    }
+
+    @Benchmark
+    public void copyCommonIO() throws IOException {
+        DirectoryCopy.copyDirectoryCommonIO(source.toString(), target.toString());
+    }
+
+    @Benchmark
+    public CopyStats copyParallel() throws IOException {
+        return new ParallelTreeCopy(parallelism, false, CopyListener.NONE).copy(source, target);
+    }
+
+    @Benchmark
+    public CopyStats copyIncremental() throws IOException {
+        return new ParallelTreeCopy(parallelism, true, CopyListener.NONE).copy(source, fullCopy);
+    }
+
+    @Benchmark
+    public long sizeJava7() {
+        return GetDirectorySize.getDirectorySizeJava7(source);
+    }
+
+    @Benchmark
+    public long sizeParallel() {
+        return new ParallelDirectorySize(parallelism).size(source, e -> {
+        });
+    }
+
+}
+
+/*
+1 CPU, JDK 17, ext4 on a virtual disk, 20000 files of 4KB
+
+Benchmark                          (parallelism)  Mode  Cnt     Score      Error  Units
+TreeCopyBenchmark.copyCommonIO                 1    ss   10  9428.292 ± 2767.853  ms/op
+TreeCopyBenchmark.copyCommonIO                16    ss   10  9913.716 ± 2035.129  ms/op
+TreeCopyBenchmark.copyIncremental              1    ss   10   183.447 ±   70.617  ms/op
+TreeCopyBenchmark.copyIncremental             16    ss   10   233.627 ±   65.107  ms/op
+TreeCopyBenchmark.copyParallel                 1    ss   10  8355.559 ± 3091.458  ms/op
+TreeCopyBenchmark.copyParallel                16    ss   10  9354.236 ± 1259.843  ms/op
+TreeCopyBenchmark.sizeJava7                    1    ss   10    79.798 ±   11.966  ms/op
+TreeCopyBenchmark.sizeJava7                   16    ss   10    72.310 ±   29.817  ms/op
+TreeCopyBenchmark.sizeParallel                 1    ss   10    69.482 ±   24.048  ms/op
+TreeCopyBenchmark.sizeParallel                16    ss   10   111.035 ±   19.621  ms/op
+
+- on this machine the copy is bound by the file creation on one CPU (~0.45ms per file), the
+  threads cannot overlap it, transferTo saves the byte[] copies only (~10%);
+- with more cores and a disk/network file system with latency the files are created at the same time,
+  the gain grows with parallelism until the device is saturated;
+- the incremental copy of an unchanged tree reads the attributes only, 40x faster than a full copy;
+- the directory tree is in the dentry cache, so the size is CPU bound and 16 threads on 1 CPU only add
+  overhead; on a cold cache or NFS the directories are listed at the same time.
+ */
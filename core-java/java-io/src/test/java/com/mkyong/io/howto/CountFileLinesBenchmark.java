@@ -0,0 +1,139 @@
+package com.mkyong.io.howto;
+
+import com.mkyong.io.file.FileWriteLargeFile;
+import com.mkyong.io.scan.FileScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * Counting lines of the file of FileWriteLargeFile (5M lines of 1053 chars, 5GB).
+ * The file is created once in -Dlarge.file (default: tmp dir/large-file.txt) and kept for the next runs,
+ * a smaller one can be used with -p lines=1000000.
+ *
+ * fast, bufferedReader, java8, lineNumberReader - the methods of CountFileLines
+ * java8Parallel    - Files.lines(path).parallel().count(), "much slower" in CountFileLines
+ * scannerOneThread - FileScanner on one thread, mapped regions + SWAR
+ * scannerParallel  - FileScanner on all cores, CountFileLines.countLineParallel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class CountFileLinesBenchmark {
+
+    @Param({"5000000"})
+    private int lines;
+
+    private String fileName;
+    private ExecutorService oneThread;
+    private ExecutorService allCores;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CountFileLinesBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path path = Paths.get(System.getProperty("large.file",
+                Paths.get(System.getProperty("java.io.tmpdir"), "large-file.txt").toString()));
+        long expectedSize = lines * (1053L + System.lineSeparator().length());
+        if (!Files.exists(path) || Files.size(path) != expectedSize) {
+            FileWriteLargeFile.writeLargeFile(path, lines);
+        }
+        fileName = path.toString();
+        oneThread = Executors.newSingleThreadExecutor();
+        allCores = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        oneThread.shutdown();
+        allCores.shutdown();
+    }
+
+    @Benchmark
+    public long fast() {
+        return CountFileLines.countLineFast(fileName);
+    }
+
+    @Benchmark
+    public long bufferedReader() {
+        return CountFileLines.countLineBufferedReader(fileName);
+    }
+
+    @Benchmark
+    public long java8() {
+        return CountFileLines.countLineJava8(fileName);
+    }
+
+    @Benchmark
+    public long lineNumberReader() {
+        return CountFileLines.countLineNumberReader(fileName);
+    }
+
+    @Benchmark
+    public long java8Parallel() throws IOException {
+        try (Stream<String> stream = Files.lines(Paths.get(fileName))) {
+            return stream.parallel().count();
+        }
+    }
+
+    @Benchmark
+    public long scannerOneThread() throws IOException {
+        return new FileScanner(oneThread).countLines(Paths.get(fileName));
+    }
+
+    @Benchmark
+    public long scannerParallel() throws IOException {
+        return new FileScanner(allCores).countLines(Paths.get(fileName));
+    }
+
+}
+
+/*
+1 CPU, JDK 17, -p lines=1000000 (1GB, in the page cache)
+
+Benchmark                                 (lines)  Mode  Cnt     Score      Error  Units
+CountFileLinesBenchmark.bufferedReader    1000000    ss    5  1837.968 ± 1172.725  ms/op
+CountFileLinesBenchmark.fast              1000000    ss    5  1197.574 ± 1861.443  ms/op
+CountFileLinesBenchmark.java8             1000000    ss    5  1704.984 ±  722.946  ms/op
+CountFileLinesBenchmark.java8Parallel     1000000    ss    5  1924.319 ±  913.964  ms/op
+CountFileLinesBenchmark.lineNumberReader  1000000    ss    5  1943.831 ±  459.189  ms/op
+CountFileLinesBenchmark.scannerOneThread  1000000    ss    5   491.122 ±  162.727  ms/op
+CountFileLinesBenchmark.scannerParallel   1000000    ss    5   469.573 ±  139.884  ms/op
+
+5GB (does not fit the page cache of this machine, -wi 1 -i 3):
+CountFileLinesBenchmark.fast             5000000    ss    3  7219.885 ± 70734.522  ms/op
+CountFileLinesBenchmark.scannerParallel  5000000    ss    3  3053.868 ±  9250.195  ms/op
+
+- on one core the mapped regions + SWAR are 2.5x faster than countLineFast (~2GB/s), no copy to a byte[]
+  and 8 bytes per step instead of one; readers decode chars and create a String per line;
+- Files.lines().parallel() does not help: the lines are still read and decoded by one reader;
+- on 1 CPU scannerParallel = scannerOneThread, with more cores the regions are scanned at the same time
+  until the memory or the disk bandwidth is the limit (the 5GB run is limited by the disk).
+ */
@@ -0,0 +1,38 @@
+package com.mkyong.io.howto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelDirectorySizeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void test_same_size_as_file_visitor() throws IOException {
+        for (int dir = 0; dir < 10; dir++) {
+            Path subDir = Files.createDirectories(tempDir.resolve("dir" + dir).resolve("sub" + dir));
+            for (int file = 0; file < 10; file++) {
+                Files.write(subDir.resolve("file" + file), new byte[dir * 1000 + file]);
+            }
+        }
+        Files.createSymbolicLink(tempDir.resolve("link"), tempDir.resolve("dir9"));
+
+        List<IOException> errors = new ArrayList<>();
+        long size = new ParallelDirectorySize(4).size(tempDir, errors::add);
+
+        assertTrue(errors.isEmpty());
+        assertEquals(GetDirectorySize.getDirectorySizeJava7(tempDir), size);
+        assertEquals(GetDirectorySize.getDirectorySizeParallel(tempDir), size);
+    }
+
+}
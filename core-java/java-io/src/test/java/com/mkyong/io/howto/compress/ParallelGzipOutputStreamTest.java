@@ -0,0 +1,122 @@
+package com.mkyong.io.howto.compress;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelGzipOutputStreamTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 1000, 4096, 4097, 100_000})
+    void test_gunzip(int size) throws IOException {
+        byte[] data = text(size);
+
+        // small blocks and a small window, so there are many blocks waiting
+        byte[] compressed = gzip(data, 4096, 2);
+
+        assertArrayEquals(data, gunzip(compressed));
+    }
+
+    @Test
+    void test_gunzip_random_data() throws IOException {
+        byte[] data = new byte[1_000_000];
+        new Random(42).nextBytes(data);
+
+        assertArrayEquals(data, gunzip(gzip(data, 64 * 1024, 4)));
+    }
+
+    @Test
+    void test_write_byte_by_byte() throws IOException {
+        byte[] data = text(20_000);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gos = new ParallelGzipOutputStream(out, executor,
+                1000, Deflater.DEFAULT_COMPRESSION, 3)) {
+            for (byte b : data) {
+                gos.write(b);
+            }
+        }
+
+        assertArrayEquals(data, gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void test_ratio_close_to_gzip() throws IOException {
+        byte[] data = text(2_000_000);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream gos = new GZIPOutputStream(gzip)) {
+            gos.write(data);
+        }
+        byte[] parallel = gzip(data, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE, 8);
+
+        // the dictionary of the previous block keeps it within a few percent
+        assertTrue(parallel.length < gzip.size() * 1.05, parallel.length + " vs " + gzip.size());
+    }
+
+    @Test
+    void test_write_after_close() throws IOException {
+        ParallelGzipOutputStream gos = new ParallelGzipOutputStream(new ByteArrayOutputStream(), executor);
+        gos.close();
+        gos.close();
+
+        assertThrows(IOException.class, () -> gos.write(1));
+    }
+
+    private byte[] gzip(byte[] data, int blockSize, int maxPending) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gos = new ParallelGzipOutputStream(out, executor,
+                blockSize, Deflater.DEFAULT_COMPRESSION, maxPending)) {
+            gos.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gis.readAllBytes();
+        }
+    }
+
+    // log like lines
+    private static byte[] text(int size) {
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder(size + 100);
+        while (sb.length() < size) {
+            sb.append("2021-03-01 10:15:").append(random.nextInt(60))
+                    .append(" INFO  [worker-").append(random.nextInt(16)).append("] request ")
+                    .append(random.nextInt(1_000_000)).append(" done in ").append(random.nextInt(500)).append("ms\n");
+        }
+        return sb.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
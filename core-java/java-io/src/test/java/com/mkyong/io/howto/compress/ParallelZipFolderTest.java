@@ -0,0 +1,134 @@
+package com.mkyong.io.howto.compress;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelZipFolderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService executor;
+    private Path source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        source = tempDir.resolve("logs");
+        for (int dir = 0; dir < 3; dir++) {
+            Path subDir = Files.createDirectories(source.resolve("app" + dir));
+            for (int file = 0; file < 30; file++) {
+                Path path = subDir.resolve("app.log." + file);
+                Files.writeString(path, ("line " + dir + " " + file + "\n").repeat(file * 50));
+                Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2021-03-01T10:15:30Z")));
+            }
+        }
+        byte[] random = new byte[100_000];
+        new Random(42).nextBytes(random);
+        Files.write(source.resolve("random.bin"), random);
+        Files.writeString(source.resolve("large.log"), "a large file\n".repeat(100_000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void test_zip_folder() throws IOException {
+        Path zipFile = tempDir.resolve("logs.zip");
+
+        // large.log (1.3MB) goes through the writing thread
+        int entries = new ParallelZipFolder(executor, Deflater.DEFAULT_COMPRESSION, 1024 * 1024)
+                .zip(source, zipFile);
+
+        assertEquals(92, entries);
+        List<String> names = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                names.add(entry.getName());
+                Path file = source.resolve(entry.getName());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    assertArrayEquals(Files.readAllBytes(file), in.readAllBytes(), entry.getName());
+                }
+                assertEquals(Files.getLastModifiedTime(file).toMillis() / 2000, entry.getTime() / 2000);
+            }
+            assertEquals(ZipEntry.STORED, zip.getEntry("random.bin").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zip.getEntry("large.log").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zip.getEntry("app1/app.log.7").getMethod());
+        }
+        assertEquals(entries, names.size());
+    }
+
+    @Test
+    void test_same_entries_as_zip_folder() throws IOException {
+        Path zipFile = tempDir.resolve("logs.zip");
+
+        new ParallelZipFolder(executor).zip(source, zipFile);
+
+        // the order of the file tree
+        List<String> expected = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(source)) {
+            walk.filter(Files::isRegularFile).forEach(path -> expected.add(source.relativize(path).toString()));
+        }
+        List<String> names = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(zipFile.toFile(), StandardCharsets.UTF_8)) {
+            zip.stream().forEach(entry -> names.add(entry.getName()));
+        }
+        assertEquals(expected, names);
+    }
+
+    @Test
+    void test_pending_entries_are_bounded() throws IOException, InterruptedException {
+        Path zipFile = tempDir.resolve("logs.zip");
+        AtomicInteger maxQueued = new AtomicInteger();
+        ThreadPoolExecutor single = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                super.execute(command);
+                maxQueued.accumulateAndGet(getQueue().size(), Math::max);
+            }
+        };
+
+        try {
+            int entries = new ParallelZipFolder(single, Deflater.DEFAULT_COMPRESSION, 1024 * 1024, 2)
+                    .zip(source, zipFile);
+            assertEquals(92, entries);
+        } finally {
+            single.shutdown();
+            single.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        // the writer drains after a submit, so maxPending + 1 entries wait for the worker at most
+        assertTrue(maxQueued.get() <= 3, "queued: " + maxQueued.get());
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.mkyong.io.scan;
+
+import com.mkyong.io.howto.CountFileLines;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FileScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @ParameterizedTest(name = "#{index} - Run test with args={0}")
+    @ValueSource(strings = {
+            "",
+            "one line",
+            "one line\n",
+            "a\nb\nc",
+            "a\r\nb\r\nc\r\n",
+            "\n\n\n"
+    }
+    )
+    void test_count_lines_same_as_count_line_fast(String content) throws IOException {
+        Path file = write(content);
+        long expected = CountFileLines.countLineFast(file.toString());
+
+        assertEquals(expected, new FileScanner(executor).countLines(file));
+        assertEquals(expected, new FileScanner(executor, 3).countLines(file));
+    }
+
+    // small regions, so new lines and patterns are on the bounds of the regions
+    @Test
+    void test_count_lines_in_many_regions() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("line ").append(i).append(' ').append("x".repeat(i % 37)).append('\n');
+        }
+        Path file = write(content.toString());
+
+        for (int regionSize : new int[]{1, 7, 64, 1000, 1 << 20}) {
+            assertEquals(1000, new FileScanner(executor, regionSize).countLines(file));
+        }
+    }
+
+    @Test
+    void test_count_and_find_pattern() throws IOException {
+        Path file = write("Hello 123456 Hello 123456\nHello 123456 aaa");
+        byte[] pattern = "123456".getBytes(StandardCharsets.US_ASCII);
+
+        for (int regionSize : new int[]{1, 5, 16, 1 << 20}) {
+            FileScanner scanner = new FileScanner(executor, regionSize);
+            assertEquals(3, scanner.count(file, pattern));
+            assertEquals(6, scanner.indexOf(file, pattern));
+            // overlapping occurrences
+            assertEquals(2, scanner.count(file, "aa".getBytes(StandardCharsets.US_ASCII)));
+            assertEquals(-1, scanner.indexOf(file, "1234567".getBytes(StandardCharsets.US_ASCII)));
+            assertEquals(6, scanner.count(file, (byte) 'l'));
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("data.txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+}
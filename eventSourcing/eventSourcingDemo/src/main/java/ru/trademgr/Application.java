@@ -4,28 +4,89 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.trademgr.events.CreatedTradeEvent;
 import ru.trademgr.model.Side;
+import ru.trademgr.pipeline.EventPipeline;
+import ru.trademgr.projection.TradesProjectionPrimitive;
+import ru.trademgr.queue.EventQueue;
 import ru.trademgr.queue.EventQueueImpl;
+import ru.trademgr.snapshot.SnapshotStore;
+import ru.trademgr.snapshot.TradesSnapshot;
 import ru.trademgr.storage.Serializer;
+import ru.trademgr.storage.SerializerBinary;
 import ru.trademgr.storage.SerializerJson;
 import ru.trademgr.storage.Storage;
+import ru.trademgr.storage.StorageException;
 import ru.trademgr.storage.StorageFile;
+import ru.trademgr.storage.StorageSegmented;
+import ru.trademgr.storage.SymbolDictionary;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Application {
     private static final Logger log = LoggerFactory.getLogger(Application.class);
+    // хвост после снимка восстанавливается replay-ем (~0.6 мкс на событие, RestoreBenchmark), а каждый снимок
+    // копирует все сделки в потоке записи (~33 байта на сделку) и пишет их в фоне: 1M - середина между ними
+    static final long SNAPSHOT_INTERVAL = 1_000_000;
+    private static final int MAX_EVENT_SIZE = 64 * 1024;
+    private static final int PIPELINE_CAPACITY = 10_000;
+    private static final int PIPELINE_MAX_BATCH = 1_000;
+    private static final String LOG_DIR = "tradeLog";
+    private static final String SYMBOLS_FILE = "symbols.dict";
+    // журнал прежних версий: StorageFile + SerializerJson, переносится в LOG_DIR при первом запуске
+    private static final String LEGACY_LOG = "tradeQueue.dat";
+    private static final String LEGACY_IMPORTED_SUFFIX = ".imported";
+    // -Dtrademgr.serializer=json - для журналов, записанных раньше в JSON
+    private static final String SERIALIZER_PROPERTY = "trademgr.serializer";
 
-    private final EventQueueImpl queue = new EventQueueImpl();
-    private final TradesEventHandler tradesEventHandler = new TradesEventHandler(queue);
+    private final TradesEventHandler tradesEventHandler;
 
-    private final Serializer serializer = new SerializerJson();
-    private final Storage storage = new StorageFile(Paths.get("tradeQueue.dat"));
+    private final Serializer serializer;
+    private final ByteBuffer eventBuffer = ByteBuffer.allocate(MAX_EVENT_SIZE);
+    private final Storage storage;
+    private final SnapshotStore snapshotStore;
+    private final long snapshotInterval;
+    private final Path legacyLog;
+    private final EventPipeline pipeline;
+    // снимок пишется на диск в отдельном потоке, поток записи событий только копирует состояние
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(task -> {
+        var thread = new Thread(task, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private CompletableFuture<Void> snapshotSaving = CompletableFuture.completedFuture(null);
+    private long eventOffset;
+
+    public Application() {
+        this(new EventQueueImpl(), new StorageSegmented(Paths.get(LOG_DIR)), makeSerializer(Paths.get(LOG_DIR)),
+                new SnapshotStore(Paths.get(LOG_DIR)), SNAPSHOT_INTERVAL, Paths.get(LEGACY_LOG));
+    }
+
+    Application(EventQueue queue, Storage storage, Serializer serializer, SnapshotStore snapshotStore,
+                long snapshotInterval) {
+        this(queue, storage, serializer, snapshotStore, snapshotInterval, null);
+    }
+
+    Application(EventQueue queue, Storage storage, Serializer serializer, SnapshotStore snapshotStore,
+                long snapshotInterval, Path legacyLog) {
+        this.tradesEventHandler = new TradesEventHandler(queue, new TradesProjectionPrimitive());
+        this.storage = storage;
+        this.serializer = serializer;
+        this.snapshotStore = snapshotStore;
+        this.snapshotInterval = snapshotInterval;
+        this.legacyLog = legacyLog;
+        this.pipeline = new EventPipeline(storage, serializer, this::applyEvent, PIPELINE_CAPACITY, PIPELINE_MAX_BATCH);
+    }
 
     public static void main(String[] args) {
         var application = new Application();
         application.restore();
+        application.start();
 
         var event1 = CreatedTradeEvent.builder()
                 .tradeId(1).size(10).side(Side.BUY).shortName("SBERP").price(new BigDecimal("220.12")).build();
@@ -35,11 +96,17 @@ public class Application {
         var event3 = CreatedTradeEvent.builder()
                 .tradeId(3).size(1).side(Side.SELL).shortName("SBERP").price(new BigDecimal("222.14")).build();
 
-        application.processEvent(event1);
-        application.processEvent(event2);
-        application.processEvent(event3);
+        CompletableFuture.allOf(
+                application.submitEvent(event1),
+                application.submitEvent(event2),
+                application.submitEvent(event3)).join();
 
         application.printState();
+        application.stop();
+    }
+
+    TradesEventHandler getTradesEventHandler() {
+        return tradesEventHandler;
     }
 
     private void printState() {
@@ -47,20 +114,109 @@ public class Application {
         log.info("current position:{}", position);
     }
 
-    private void restore() {
-        var events = storage.loadEvents().stream()
-                .map(serializer::deserializeEvent)
-                .collect(Collectors.toList());
-        log.info("loaded events:{}", events.size());
+    void start() {
+        pipeline.start();
+    }
+
+    void stop() {
+        pipeline.close();
+        snapshotSaving.join();
+        snapshotWriter.shutdown();
+        storage.close();
+        serializer.close();
+    }
+
+    static Serializer makeSerializer(Path logDir) {
+        if ("json".equals(System.getProperty(SERIALIZER_PROPERTY))) {
+            return new SerializerJson();
+        }
+        return new SerializerBinary(new SymbolDictionary(logDir.resolve(SYMBOLS_FILE)));
+    }
+
+    void restore() {
+        importLegacyLog();
+        var snapshot = snapshotStore.loadLatest();
+        snapshot.ifPresent(tradesEventHandler::restoreSnapshot);
+        var snapshotOffset = snapshot.map(TradesSnapshot::getEventOffset).orElse(0L);
+        log.info("restored from snapshot, eventOffset:{}", snapshotOffset);
 
-        for (var event: events) {
-            tradesEventHandler.onEvent(event);
+        eventOffset = snapshotOffset;
+        try (var events = storage.streamEventBuffers(snapshotOffset)) {
+            events.map(serializer::deserializeEvent).forEach(event -> {
+                tradesEventHandler.onEvent(event);
+                eventOffset++;
+            });
         }
+        log.info("replayed events:{}", eventOffset - snapshotOffset);
     }
 
-    private void processEvent(CreatedTradeEvent event) {
-        var eventAsString = serializer.serializeEvent(event);
-        storage.saveEvent(eventAsString);
+    /**
+     * Переносит события из tradeQueue.dat в текущее хранилище, файл переименовывается в tradeQueue.dat.imported.
+     * Если текущее хранилище уже не пустое, объединять журналы нельзя: порядок событий неизвестен.
+     */
+    private void importLegacyLog() {
+        if (legacyLog == null || !Files.exists(legacyLog)) {
+            return;
+        }
+        try (var events = storage.streamEventBuffers(0)) {
+            if (events.findAny().isPresent()) {
+                throw new StorageException("both legacy log " + legacyLog + " and " + LOG_DIR
+                        + " contain events, remove or rename one of them");
+            }
+        }
+        var legacySerializer = new SerializerJson();
+        var imported = 0L;
+        try (var events = new StorageFile(legacyLog).streamEvents()) {
+            var iterator = events.filter(event -> !event.isBlank()).iterator();
+            while (iterator.hasNext()) {
+                eventBuffer.clear();
+                serializer.serializeEvent(legacySerializer.deserializeEvent(iterator.next()), eventBuffer);
+                storage.saveEvent(eventBuffer.flip());
+                imported++;
+            }
+        }
+        storage.flush();
+        try {
+            Files.move(legacyLog, legacyLog.resolveSibling(legacyLog.getFileName() + LEGACY_IMPORTED_SUFFIX));
+        } catch (Exception ex) {
+            throw new StorageException(ex);
+        }
+        log.info("imported events:{} from legacy log:{}", imported, legacyLog);
+    }
+
+    CompletableFuture<Void> submitEvent(CreatedTradeEvent event) {
+        return pipeline.submit(event);
+    }
+
+    void processEvent(CreatedTradeEvent event) {
+        eventBuffer.clear();
+        serializer.serializeEvent(event, eventBuffer);
+        storage.saveEvent(eventBuffer.flip());
+        applyEvent(event);
+    }
+
+    private void applyEvent(CreatedTradeEvent event) {
+        // eventOffset - число событий в журнале: событие уже записано, даже если применить его не удалось
+        eventOffset++;
         tradesEventHandler.onEvent(event);
+        if (eventOffset % snapshotInterval == 0) {
+            takeSnapshot();
+        }
+    }
+
+    private void takeSnapshot() {
+        if (!snapshotSaving.isDone()) {
+            // в памяти не больше двух снимков: ждем запись предыдущего, интервал слишком мал для такого состояния
+            log.warn("previous snapshot is not saved yet, waiting, eventOffset:{}", eventOffset);
+            snapshotSaving.join();
+        }
+        // снимок не должен опережать журнал на диске, иначе после сбоя его состояние не воспроизвести
+        storage.flush();
+        var snapshot = tradesEventHandler.makeSnapshot(eventOffset);
+        snapshotSaving = CompletableFuture.runAsync(() -> snapshotStore.save(snapshot), snapshotWriter)
+                .exceptionally(ex -> {
+                    log.error("snapshot save failed, eventOffset:{}", snapshot.getEventOffset(), ex);
+                    return null;
+                });
     }
 }
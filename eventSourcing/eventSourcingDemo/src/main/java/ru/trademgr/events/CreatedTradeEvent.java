@@ -12,7 +12,7 @@ import java.util.UUID;
 @Value
 @Builder
 public class CreatedTradeEvent {
-    UUID eventId = UUID.randomUUID();
+    UUID eventId;
     long tradeId;
 
     String shortName;
@@ -21,11 +21,13 @@ public class CreatedTradeEvent {
     BigDecimal price;
 
     @JsonCreator
-    public CreatedTradeEvent(@JsonProperty("tradeId") long tradeId,
+    public CreatedTradeEvent(@JsonProperty("eventId") UUID eventId,
+                 @JsonProperty("tradeId") long tradeId,
                  @JsonProperty("shortName") String shortName,
                  @JsonProperty("side") Side side,
                  @JsonProperty("size") long size,
                  @JsonProperty("price") BigDecimal price) {
+        this.eventId = eventId == null ? UUID.randomUUID() : eventId;
         this.tradeId = tradeId;
         this.shortName = shortName;
         this.side = side;
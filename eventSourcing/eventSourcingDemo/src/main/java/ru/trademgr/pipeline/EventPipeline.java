@@ -0,0 +1,252 @@
+package ru.trademgr.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.storage.Serializer;
+import ru.trademgr.storage.Storage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Групповая запись событий.
+ * Вызывающие потоки кладут события в очередь и получают CompletableFuture.
+ * Поток записи забирает из очереди все, что накопилось (не больше maxBatchSize),
+ * пишет пачку в storage, делает один flush, применяет события по порядку и только потом завершает future.
+ * <p>
+ * Вся пачка сериализуется до первой записи в storage: событие, которое не сериализовалось,
+ * завершается с ошибкой и в журнал не попадает, остальные пишутся как обычно.
+ * Если storage упал на середине пачки, уже записанные события сбрасываются на диск, применяются
+ * и завершаются успешно (при восстановлении они будут прочитаны из журнала), с ошибкой завершаются
+ * только незаписанные. Если упал flush, подтвердить запись нельзя, и с ошибкой завершается вся пачка.
+ * <p>
+ * Если упал applier, состояние в памяти больше не совпадает с журналом, и pipeline останавливается:
+ * событие с ошибкой и оставшиеся события пачки уже в журнале, но не применены, их future завершаются с ошибкой,
+ * новые события не принимаются. Состояние восстанавливается перезапуском (replay журнала).
+ * <p>
+ * submit и close идут под одной блокировкой, поэтому после close в очередь ничего не попадает
+ * и каждый future завершается.
+ */
+public class EventPipeline implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(EventPipeline.class);
+    private static final int MAX_EVENT_SIZE = 64 * 1024;
+
+    private final Storage storage;
+    private final Serializer serializer;
+    private final Consumer<CreatedTradeEvent> applier;
+    private final BlockingQueue<PendingEvent> queue;
+    private final int maxBatchSize;
+    private final Thread writer;
+    // submit берет read lock, close - write lock
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(16 * MAX_EVENT_SIZE);
+    private int[] eventEnds;
+
+    private final Histogram batchSizes = new Histogram();
+    private final Histogram queueDepths = new Histogram();
+    private final Histogram commitLatenciesMicros = new Histogram();
+
+    private volatile boolean running = true;
+    private volatile Exception applyFailure;
+
+    public EventPipeline(Storage storage, Serializer serializer, Consumer<CreatedTradeEvent> applier,
+                         int queueCapacity, int maxBatchSize) {
+        this.storage = storage;
+        this.serializer = serializer;
+        this.applier = applier;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.eventEnds = new int[maxBatchSize];
+        this.writer = new Thread(this::writeLoop, "event-pipeline-writer");
+    }
+
+    public void start() {
+        writer.start();
+    }
+
+    public CompletableFuture<Void> submit(CreatedTradeEvent event) {
+        closeLock.readLock().lock();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("pipeline is closed"));
+            }
+            if (applyFailure != null) {
+                return CompletableFuture.failedFuture(stopped());
+            }
+            var pending = new PendingEvent(event, new CompletableFuture<>(), System.nanoTime());
+            try {
+                queue.put(pending);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                pending.future.completeExceptionally(ex);
+            }
+            return pending.future;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    public Histogram getBatchSizes() {
+        return batchSizes;
+    }
+
+    public Histogram getQueueDepths() {
+        return queueDepths;
+    }
+
+    public Histogram getCommitLatenciesMicros() {
+        return commitLatenciesMicros;
+    }
+
+    @Override
+    public void close() {
+        // ждем submit, которые уже кладут в очередь; поток записи их заберет
+        closeLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        var rest = new ArrayList<PendingEvent>();
+        queue.drainTo(rest);
+        rest.forEach(pending -> pending.future.completeExceptionally(new IllegalStateException("pipeline is closed")));
+        log.info("batchSizes:{}", batchSizes);
+        log.info("queueDepths:{}", queueDepths);
+        log.info("commitLatenciesMicros:{}", commitLatenciesMicros);
+    }
+
+    private void writeLoop() {
+        var batch = new ArrayList<PendingEvent>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                queueDepths.record(queue.size() + 1L);
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                if (applyFailure != null) {
+                    // поток записи продолжает разбирать очередь, иначе submit, ждущие места в ней, не завершатся
+                    fail(batch, stopped());
+                } else {
+                    commit(batch);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingEvent> batch) {
+        var serialized = serialize(batch);
+
+        var saved = 0;
+        Exception saveError = null;
+        try {
+            for (var idx = 0; idx < serialized.size(); idx++) {
+                var start = idx == 0 ? 0 : eventEnds[idx - 1];
+                storage.saveEvent(batchBuffer.duplicate().limit(eventEnds[idx]).position(start));
+                saved++;
+            }
+        } catch (Exception ex) {
+            log.error("batch save failed, saved:{} of:{}", saved, serialized.size(), ex);
+            saveError = ex;
+        }
+        if (saveError != null) {
+            fail(serialized.subList(saved, serialized.size()), saveError);
+        }
+
+        try {
+            storage.flush();
+        } catch (Exception ex) {
+            log.error("batch flush failed, size:{}", saved, ex);
+            fail(serialized.subList(0, saved), ex);
+            return;
+        }
+
+        var committedAt = System.nanoTime();
+        for (var pending : serialized.subList(0, saved)) {
+            if (applyFailure != null) {
+                pending.future.completeExceptionally(stopped());
+                continue;
+            }
+            try {
+                applier.accept(pending.event);
+                pending.future.complete(null);
+            } catch (Exception ex) {
+                log.error("apply failed, pipeline is stopped, event:{}", pending.event, ex);
+                applyFailure = ex;
+                pending.future.completeExceptionally(ex);
+            }
+            commitLatenciesMicros.record(TimeUnit.NANOSECONDS.toMicros(committedAt - pending.submittedAt));
+        }
+        batchSizes.record(saved);
+    }
+
+    /**
+     * Сериализует пачку подряд в batchBuffer, eventEnds[i] - конец i-го события.
+     * Возвращает события, которые сериализовались, остальные завершает с ошибкой.
+     */
+    private List<PendingEvent> serialize(List<PendingEvent> batch) {
+        var serialized = new ArrayList<PendingEvent>(batch.size());
+        batchBuffer.clear();
+        for (var pending : batch) {
+            if (batchBuffer.remaining() < MAX_EVENT_SIZE) {
+                batchBuffer = ByteBuffer.allocate(batchBuffer.capacity() * 2).put(batchBuffer.flip());
+            }
+            var start = batchBuffer.position();
+            try {
+                serializer.serializeEvent(pending.event, batchBuffer.limit(start + MAX_EVENT_SIZE));
+            } catch (Exception ex) {
+                log.error("event serialization failed, event:{}", pending.event, ex);
+                batchBuffer.position(start);
+                pending.future.completeExceptionally(ex);
+                continue;
+            } finally {
+                batchBuffer.limit(batchBuffer.capacity());
+            }
+            eventEnds[serialized.size()] = batchBuffer.position();
+            serialized.add(pending);
+        }
+        return serialized;
+    }
+
+    private IllegalStateException stopped() {
+        return new IllegalStateException("pipeline is stopped after apply failure", applyFailure);
+    }
+
+    private static void fail(List<PendingEvent> events, Exception ex) {
+        events.forEach(pending -> pending.future.completeExceptionally(ex));
+    }
+
+    private static class PendingEvent {
+        private final CreatedTradeEvent event;
+        private final CompletableFuture<Void> future;
+        private final long submittedAt;
+
+        PendingEvent(CreatedTradeEvent event, CompletableFuture<Void> future, long submittedAt) {
+            this.event = event;
+            this.future = future;
+            this.submittedAt = submittedAt;
+        }
+    }
+}
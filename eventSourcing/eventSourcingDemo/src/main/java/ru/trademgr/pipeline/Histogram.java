@@ -0,0 +1,68 @@
+package ru.trademgr.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма с корзинами по степеням двойки: значение v попадает в корзину с верхней границей 2^k >= v.
+ * Точность перцентиля - в пределах корзины, зато запись без блокировок и без аллокаций.
+ */
+public class Histogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        var normalized = Math.max(0, value);
+        counts.incrementAndGet(bucket(normalized));
+        total.incrementAndGet();
+        sum.addAndGet(normalized);
+        max.accumulateAndGet(normalized, Math::max);
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        var count = total.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    public long percentile(double percentile) {
+        var count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        var rank = (long) Math.ceil(count * percentile / 100);
+        var seen = 0L;
+        for (var idx = 0; idx < BUCKETS; idx++) {
+            seen += counts.get(idx);
+            if (seen >= rank) {
+                return Math.min(upperBound(idx), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count:%d, mean:%.1f, p50:%d, p99:%d, p999:%d, max:%d",
+                getCount(), getMean(), percentile(50), percentile(99), percentile(99.9), getMax());
+    }
+
+    private static int bucket(long value) {
+        return value <= 1 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+}
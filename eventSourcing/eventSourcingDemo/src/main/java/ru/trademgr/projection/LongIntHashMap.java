@@ -0,0 +1,95 @@
+package ru.trademgr.projection;
+
+import java.util.Arrays;
+
+/**
+ * long -> int без упаковки: открытая адресация, линейное пробирование.
+ * Значения неотрицательные, -1 в values - пустая ячейка.
+ */
+class LongIntHashMap {
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Расширяет таблицу под expectedSize ключей за один раз, до массовой вставки.
+     */
+    void ensureCapacity(int expectedSize) {
+        var capacity = capacityFor(expectedSize);
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    int get(long key) {
+        var idx = index(key);
+        while (values[idx] != EMPTY) {
+            if (keys[idx] == key) {
+                return values[idx];
+            }
+            idx = (idx + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    void put(long key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        var idx = index(key);
+        while (values[idx] != EMPTY) {
+            if (keys[idx] == key) {
+                values[idx] = value;
+                return;
+            }
+            idx = (idx + 1) & mask;
+        }
+        keys[idx] = key;
+        values[idx] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    private int index(long key) {
+        var hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+    }
+
+    private void rehash(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (var idx = 0; idx < oldKeys.length; idx++) {
+            if (oldValues[idx] != EMPTY) {
+                put(oldKeys[idx], oldValues[idx]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+}
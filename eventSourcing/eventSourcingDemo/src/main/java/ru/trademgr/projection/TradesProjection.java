@@ -0,0 +1,20 @@
+package ru.trademgr.projection;
+
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Position;
+import ru.trademgr.model.Trade;
+import ru.trademgr.snapshot.TradesSnapshot;
+
+import java.util.List;
+
+public interface TradesProjection {
+    void apply(CreatedTradeEvent event);
+
+    List<Trade> getAllTrades();
+
+    List<Position> getCurrentPosition();
+
+    TradesSnapshot makeSnapshot(long eventOffset);
+
+    void restoreSnapshot(TradesSnapshot snapshot);
+}
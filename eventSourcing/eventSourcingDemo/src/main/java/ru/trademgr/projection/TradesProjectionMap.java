@@ -0,0 +1,64 @@
+package ru.trademgr.projection;
+
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Position;
+import ru.trademgr.model.Side;
+import ru.trademgr.model.Trade;
+import ru.trademgr.snapshot.TradesSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public class TradesProjectionMap implements TradesProjection {
+    private final Map<Long, Trade> trades = new ConcurrentHashMap<>();
+    private final Map<String, Long> position = new ConcurrentHashMap<>();
+
+    @Override
+    public void apply(CreatedTradeEvent event) {
+        var trade = Trade.builder()
+                .tradeId(event.getTradeId())
+                .shortName(event.getShortName())
+                .side(event.getSide())
+                .size(event.getSize())
+                .price(event.getPrice())
+                .build();
+        trades.put(event.getTradeId(), trade);
+        var signedSize = event.getSide() == Side.BUY ? event.getSize() : -event.getSize();
+        position.merge(event.getShortName(), signedSize, Long::sum);
+    }
+
+    @Override
+    public List<Trade> getAllTrades() {
+        return new ArrayList<>(trades.values());
+    }
+
+    @Override
+    public List<Position> getCurrentPosition() {
+        return position.entrySet().stream()
+                .map(entry -> Position.builder().shortName(entry.getKey()).size(entry.getValue()).build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public TradesSnapshot makeSnapshot(long eventOffset) {
+        return TradesSnapshot.builder()
+                .eventOffset(eventOffset)
+                .trades(getAllTrades())
+                .position(new HashMap<>(position))
+                .build();
+    }
+
+    @Override
+    public void restoreSnapshot(TradesSnapshot snapshot) {
+        trades.clear();
+        position.clear();
+        for (var trade : snapshot.getTrades()) {
+            trades.put(trade.getTradeId(), trade);
+        }
+        position.putAll(snapshot.getPosition());
+    }
+}
@@ -0,0 +1,244 @@
+package ru.trademgr.projection;
+
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Position;
+import ru.trademgr.model.Side;
+import ru.trademgr.model.Trade;
+import ru.trademgr.snapshot.TradeColumns;
+import ru.trademgr.snapshot.TradesSnapshot;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Проекция без упаковки: сделки хранятся по колонкам (строка = номер сделки в порядке поступления),
+ * tradeId -> строка через LongIntHashMap, позиция - массив long по id инструмента.
+ * Событие только меняет ячейку массива позиций и сбрасывает опубликованный список (O(1) на событие).
+ * Список позиций собирается при чтении, если после последней сборки были события, и кешируется:
+ * пока событий нет, getCurrentPosition читает volatile-ссылку без блокировок.
+ */
+public class TradesProjectionPrimitive implements TradesProjection {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int PRICE_NULL = TradeColumns.PRICE_NULL;
+    private static final int PRICE_BIG = TradeColumns.PRICE_BIG;
+    private static final Side[] SIDES = Side.values();
+
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+    private long[] positionBySymbol = new long[16];
+
+    private final LongIntHashMap rowByTradeId = new LongIntHashMap(INITIAL_CAPACITY);
+    private long[] tradeIds = new long[INITIAL_CAPACITY];
+    private int[] symbolIdByRow = new int[INITIAL_CAPACITY];
+    private byte[] sides = new byte[INITIAL_CAPACITY];
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private long[] priceUnscaled = new long[INITIAL_CAPACITY];
+    private int[] priceScale = new int[INITIAL_CAPACITY];
+    private final Map<Integer, BigDecimal> bigPrices = new HashMap<>();
+    private int rows;
+
+    // null - устарел, собирается заново при чтении
+    private volatile List<Position> positionView = List.of();
+
+    @Override
+    public synchronized void apply(CreatedTradeEvent event) {
+        var symbolId = symbolId(event.getShortName());
+        var row = rowByTradeId.get(event.getTradeId());
+        if (row < 0) {
+            row = rows++;
+            ensureCapacity(rows);
+            rowByTradeId.put(event.getTradeId(), row);
+        }
+        tradeIds[row] = event.getTradeId();
+        symbolIdByRow[row] = symbolId;
+        sides[row] = event.getSide() == null ? -1 : (byte) event.getSide().ordinal();
+        sizes[row] = event.getSize();
+        setPrice(row, event.getPrice());
+
+        var signedSize = event.getSide() == Side.BUY ? event.getSize() : -event.getSize();
+        positionBySymbol[symbolId] += signedSize;
+        positionView = null;
+    }
+
+    @Override
+    public synchronized List<Trade> getAllTrades() {
+        var trades = new ArrayList<Trade>(rows);
+        for (var row = 0; row < rows; row++) {
+            trades.add(Trade.builder()
+                    .tradeId(tradeIds[row])
+                    .shortName(symbols.get(symbolIdByRow[row]))
+                    .side(sides[row] < 0 ? null : SIDES[sides[row]])
+                    .size(sizes[row])
+                    .price(getPrice(row))
+                    .build());
+        }
+        return trades;
+    }
+
+    @Override
+    public List<Position> getCurrentPosition() {
+        var view = positionView;
+        return view != null ? view : buildPositionView();
+    }
+
+    /**
+     * Под блокировкой только копируются колонки (Arrays.copyOf), объекты Trade создаются при чтении снимка,
+     * т.е. уже в потоке, который пишет его на диск.
+     */
+    @Override
+    public synchronized TradesSnapshot makeSnapshot(long eventOffset) {
+        var position = new HashMap<String, Long>(symbols.size() * 2);
+        for (var symbolId = 0; symbolId < symbols.size(); symbolId++) {
+            position.put(symbols.get(symbolId), positionBySymbol[symbolId]);
+        }
+        return TradesSnapshot.builder()
+                .eventOffset(eventOffset)
+                .trades(new TradeColumns(
+                        rows,
+                        symbols.toArray(new String[0]),
+                        Arrays.copyOf(tradeIds, rows),
+                        Arrays.copyOf(symbolIdByRow, rows),
+                        Arrays.copyOf(sides, rows),
+                        Arrays.copyOf(sizes, rows),
+                        Arrays.copyOf(priceUnscaled, rows),
+                        Arrays.copyOf(priceScale, rows),
+                        Map.copyOf(bigPrices)))
+                .position(position)
+                .build();
+    }
+
+    @Override
+    public synchronized void restoreSnapshot(TradesSnapshot snapshot) {
+        symbolIds.clear();
+        symbols.clear();
+        Arrays.fill(positionBySymbol, 0);
+        rowByTradeId.clear();
+        bigPrices.clear();
+        rows = 0;
+        positionView = null;
+
+        if (snapshot.getTrades() instanceof TradeColumns) {
+            restoreColumns((TradeColumns) snapshot.getTrades());
+        } else {
+            restoreTrades(snapshot.getTrades());
+        }
+        for (var entry : snapshot.getPosition().entrySet()) {
+            var symbolId = symbolId(entry.getKey());
+            positionBySymbol[symbolId] = entry.getValue();
+        }
+    }
+
+    private void restoreTrades(List<Trade> trades) {
+        for (var trade : trades) {
+            var row = rows++;
+            ensureCapacity(rows);
+            rowByTradeId.put(trade.getTradeId(), row);
+            tradeIds[row] = trade.getTradeId();
+            symbolIdByRow[row] = symbolId(trade.getShortName());
+            sides[row] = trade.getSide() == null ? -1 : (byte) trade.getSide().ordinal();
+            sizes[row] = trade.getSize();
+            setPrice(row, trade.getPrice());
+        }
+    }
+
+    /**
+     * Снимок, прочитанный SnapshotStore, копируется по колонкам, без Trade и BigDecimal на каждую сделку.
+     */
+    private void restoreColumns(TradeColumns columns) {
+        var symbolIdBySnapshotId = new int[columns.getSymbolCount()];
+        for (var idx = 0; idx < symbolIdBySnapshotId.length; idx++) {
+            symbolIdBySnapshotId[idx] = symbolId(columns.getSymbol(idx));
+        }
+        var nullSymbolId = -1;
+        ensureCapacity(columns.size());
+        rowByTradeId.ensureCapacity(columns.size());
+        for (var row = 0; row < columns.size(); row++) {
+            var snapshotSymbolId = columns.getSymbolId(row);
+            if (snapshotSymbolId < 0 && nullSymbolId < 0) {
+                nullSymbolId = symbolId(null);
+            }
+            rowByTradeId.put(columns.getTradeId(row), row);
+            tradeIds[row] = columns.getTradeId(row);
+            symbolIdByRow[row] = snapshotSymbolId < 0 ? nullSymbolId : symbolIdBySnapshotId[snapshotSymbolId];
+            sides[row] = columns.getSide(row);
+            sizes[row] = columns.getSize(row);
+            priceUnscaled[row] = columns.getPriceUnscaled(row);
+            priceScale[row] = columns.getPriceScale(row);
+            if (priceScale[row] == PRICE_BIG) {
+                bigPrices.put(row, columns.getBigPrice(row));
+            }
+        }
+        rows = columns.size();
+    }
+
+    private int symbolId(String shortName) {
+        var id = symbolIds.get(shortName);
+        if (id != null) {
+            return id;
+        }
+        var newId = symbols.size();
+        symbols.add(shortName);
+        symbolIds.put(shortName, newId);
+        if (newId >= positionBySymbol.length) {
+            positionBySymbol = Arrays.copyOf(positionBySymbol, positionBySymbol.length * 2);
+        }
+        return newId;
+    }
+
+    private synchronized List<Position> buildPositionView() {
+        var view = positionView;
+        if (view == null) {
+            var positions = new Position[symbols.size()];
+            for (var symbolId = 0; symbolId < positions.length; symbolId++) {
+                positions[symbolId] = Position.builder()
+                        .shortName(symbols.get(symbolId))
+                        .size(positionBySymbol[symbolId])
+                        .build();
+            }
+            view = List.of(positions);
+            positionView = view;
+        }
+        return view;
+    }
+
+    private void setPrice(int row, BigDecimal price) {
+        bigPrices.remove(row);
+        if (price == null) {
+            priceScale[row] = PRICE_NULL;
+        } else if (TradeColumns.isCompact(price)) {
+            priceUnscaled[row] = price.unscaledValue().longValue();
+            priceScale[row] = price.scale();
+        } else {
+            priceScale[row] = PRICE_BIG;
+            bigPrices.put(row, price);
+        }
+    }
+
+    private BigDecimal getPrice(int row) {
+        var scale = priceScale[row];
+        if (scale == PRICE_NULL) {
+            return null;
+        }
+        if (scale == PRICE_BIG) {
+            return bigPrices.get(row);
+        }
+        return BigDecimal.valueOf(priceUnscaled[row], scale);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= tradeIds.length) {
+            return;
+        }
+        var capacity = Math.max(tradeIds.length * 2, required);
+        tradeIds = Arrays.copyOf(tradeIds, capacity);
+        symbolIdByRow = Arrays.copyOf(symbolIdByRow, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        priceUnscaled = Arrays.copyOf(priceUnscaled, capacity);
+        priceScale = Arrays.copyOf(priceScale, capacity);
+    }
+}
@@ -2,10 +2,22 @@ package ru.trademgr.queue;
 
 import ru.trademgr.events.CreatedTradeEvent;
 
+import java.util.function.Consumer;
+
 public interface EventQueue {
     void putEvent(CreatedTradeEvent event);
 
     CreatedTradeEvent getEvent();
 
     int size();
+
+    default int drainTo(Consumer<CreatedTradeEvent> consumer, int max) {
+        var counter = 0;
+        CreatedTradeEvent event;
+        while (counter < max && (event = getEvent()) != null) {
+            consumer.accept(event);
+            counter++;
+        }
+        return counter;
+    }
 }
@@ -0,0 +1,15 @@
+package ru.trademgr.queue;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class EventQueueMetrics {
+    int capacity;
+    int size;
+    int maxSize;
+    long putEvents;
+    long takenEvents;
+    long fullWaits;
+}
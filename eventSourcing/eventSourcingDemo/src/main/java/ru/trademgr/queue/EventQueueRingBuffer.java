@@ -0,0 +1,126 @@
+package ru.trademgr.queue;
+
+import ru.trademgr.events.CreatedTradeEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченная очередь на кольцевом массиве: много писателей, один читатель.
+ * У каждой ячейки свой номер (sequence): писатель занимает позицию CAS-ом по tail,
+ * кладет событие и публикует ячейку, выставляя sequence = pos + 1.
+ * Читатель забирает ячейку с sequence == head + 1 и освобождает ее, выставляя sequence = head + capacity.
+ * Если очередь заполнена, putEvent ждет по WaitStrategy.
+ * getEvent, takeEvent и drainTo вызываются только из одного потока.
+ */
+public class EventQueueRingBuffer implements EventQueue {
+    private final int capacity;
+    private final int mask;
+    private final CreatedTradeEvent[] buffer;
+    private final AtomicLongArray sequences;
+    private final WaitStrategy waitStrategy;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final LongAdder putEvents = new LongAdder();
+    private final LongAdder fullWaits = new LongAdder();
+    private volatile long takenEvents;
+    private volatile int maxSize;
+
+    public EventQueueRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity is too small:" + capacity);
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.buffer = new CreatedTradeEvent[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (var idx = 0; idx < this.capacity; idx++) {
+            sequences.set(idx, idx);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public void putEvent(CreatedTradeEvent event) {
+        while (!offer(event)) {
+            fullWaits.increment();
+            waitStrategy.idle();
+        }
+        putEvents.increment();
+    }
+
+    public boolean offer(CreatedTradeEvent event) {
+        var position = tail.get();
+        while (true) {
+            var idx = (int) (position & mask);
+            var diff = sequences.get(idx) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[idx] = event;
+                    sequences.lazySet(idx, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    @Override
+    public CreatedTradeEvent getEvent() {
+        var position = head.get();
+        var idx = (int) (position & mask);
+        if (sequences.get(idx) != position + 1) {
+            return null;
+        }
+        var occupancy = (int) (tail.get() - position);
+        if (occupancy > maxSize) {
+            maxSize = occupancy;
+        }
+
+        var event = buffer[idx];
+        buffer[idx] = null;
+        sequences.lazySet(idx, position + capacity);
+        head.lazySet(position + 1);
+        takenEvents++;
+        return event;
+    }
+
+    public CreatedTradeEvent takeEvent() throws InterruptedException {
+        CreatedTradeEvent event;
+        while ((event = getEvent()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waitStrategy.idle();
+        }
+        return event;
+    }
+
+    @Override
+    public int size() {
+        var size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public EventQueueMetrics getMetrics() {
+        return EventQueueMetrics.builder()
+                .capacity(capacity)
+                .size(size())
+                .maxSize(maxSize)
+                .putEvents(putEvents.sum())
+                .takenEvents(takenEvents)
+                .fullWaits(fullWaits.sum())
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.trademgr.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public enum WaitStrategy {
+    SPIN {
+        @Override
+        public void idle() {
+            Thread.onSpinWait();
+        }
+    },
+    YIELD {
+        @Override
+        public void idle() {
+            Thread.yield();
+        }
+    },
+    PARK {
+        @Override
+        public void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    public abstract void idle();
+}
@@ -0,0 +1,11 @@
+package ru.trademgr.snapshot;
+
+public class SnapshotException extends RuntimeException {
+    public SnapshotException(Exception e) {
+        super(e);
+    }
+
+    public SnapshotException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,429 @@
+package ru.trademgr.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.trademgr.model.Side;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Снимки состояния TradesEventHandler.
+ * Файл пишется во временный, сбрасывается на диск и атомарно переименовывается,
+ * в конце файла - CRC32 содержимого, снимок с неверной суммой пропускается.
+ * <p>
+ * Формат (версия 2): [int magic][int version][long eventOffset]
+ * [int symbols][symbol: short n, n байт UTF-8]
+ * [int trades][trade: long tradeId, int symbol, byte side, long size, price]
+ * [int positions][position: int symbol, long size][long crc32].
+ * symbol - номер в таблице символов, -1 - null; price - как в SerializerBinary:
+ * byte kind (0 - null, 1 - long unscaled + int scale, 2 - int scale + int n + n байт unscaled).
+ * Чтение и запись идут блоками через FileChannel, CRC32 считается по блоку целиком.
+ * Сделки читаются сразу в колонки (TradeColumns), без объекта Trade на каждую.
+ * Снимки версии 1 (цена строкой) не читаются: восстановление идет полным replay журнала.
+ */
+public class SnapshotStore {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x54524453;
+    private static final int VERSION = 2;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte PRICE_NULL = 0;
+    private static final byte PRICE_LONG = 1;
+    private static final byte PRICE_BIG = 2;
+    // начало записи сделки: tradeId, symbol, side, size, kind цены
+    private static final int TRADE_HEADER_SIZE = Long.BYTES + Integer.BYTES + 1 + Long.BYTES + 1;
+    // самое длинное продолжение цены до байтов unscaled: long unscaled + int scale
+    private static final int MAX_PRICE_SIZE = Long.BYTES + Integer.BYTES;
+    private static final Side[] SIDES = Side.values();
+
+    private final Path dir;
+    private final int keepSnapshots;
+
+    public SnapshotStore(Path dir) {
+        this(dir, 2);
+    }
+
+    public SnapshotStore(Path dir, int keepSnapshots) {
+        this.dir = dir;
+        this.keepSnapshots = keepSnapshots;
+    }
+
+    public void save(TradesSnapshot snapshot) {
+        var target = dir.resolve(String.format("%s%020d%s", PREFIX, snapshot.getEventOffset(), SUFFIX));
+        var tmp = dir.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            try (var channel = FileChannel.open(tmp, CREATE, TRUNCATE_EXISTING, WRITE)) {
+                var out = new BlockWriter(channel);
+                write(out, snapshot);
+                out.finish();
+                channel.force(true);
+            }
+            Files.move(tmp, target, ATOMIC_MOVE);
+            log.info("snapshot saved:{}", target);
+            removeOld();
+        } catch (IOException ex) {
+            throw new SnapshotException(ex);
+        }
+    }
+
+    public Optional<TradesSnapshot> loadLatest() {
+        for (var file : listSnapshots()) {
+            try {
+                var snapshot = load(file);
+                log.info("snapshot loaded:{}", file);
+                return Optional.of(snapshot);
+            } catch (Exception ex) {
+                log.warn("snapshot:{} is broken, skipped", file, ex);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private TradesSnapshot load(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, READ)) {
+            var in = new BlockReader(channel, channel.size() - Long.BYTES);
+            var snapshot = read(in);
+            in.checkCrc();
+            return snapshot;
+        }
+    }
+
+    private void write(BlockWriter out, TradesSnapshot snapshot) throws IOException {
+        var symbolIds = new HashMap<String, Integer>();
+        var symbols = new ArrayList<String>();
+        for (var trade : snapshot.getTrades()) {
+            symbolId(trade.getShortName(), symbolIds, symbols);
+        }
+        for (var shortName : snapshot.getPosition().keySet()) {
+            symbolId(shortName, symbolIds, symbols);
+        }
+
+        out.reserve(Integer.BYTES * 3 + Long.BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(snapshot.getEventOffset())
+                .putInt(symbols.size());
+        for (var symbol : symbols) {
+            var bytes = symbol.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new SnapshotException("shortName is too long:" + bytes.length);
+            }
+            out.reserve(Short.BYTES).putShort((short) bytes.length);
+            out.put(bytes);
+        }
+
+        out.reserve(Integer.BYTES).putInt(snapshot.getTrades().size());
+        for (var trade : snapshot.getTrades()) {
+            var buffer = out.reserve(TRADE_HEADER_SIZE + MAX_PRICE_SIZE)
+                    .putLong(trade.getTradeId())
+                    .putInt(symbolId(trade.getShortName(), symbolIds, symbols))
+                    .put(trade.getSide() == null ? -1 : (byte) trade.getSide().ordinal())
+                    .putLong(trade.getSize());
+            writePrice(out, buffer, trade.getPrice());
+        }
+
+        out.reserve(Integer.BYTES).putInt(snapshot.getPosition().size());
+        for (var entry : snapshot.getPosition().entrySet()) {
+            out.reserve(Integer.BYTES + Long.BYTES)
+                    .putInt(symbolId(entry.getKey(), symbolIds, symbols))
+                    .putLong(entry.getValue());
+        }
+    }
+
+    private TradesSnapshot read(BlockReader in) throws IOException {
+        var header = in.require(Integer.BYTES * 2 + Long.BYTES);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new SnapshotException("unsupported snapshot format");
+        }
+        var eventOffset = header.getLong();
+
+        var symbols = new String[in.count(Short.BYTES)];
+        for (var idx = 0; idx < symbols.length; idx++) {
+            var length = in.require(Short.BYTES).getShort();
+            symbols[idx] = new String(in.bytes(length), StandardCharsets.UTF_8);
+        }
+
+        var tradesCount = in.count(TRADE_HEADER_SIZE);
+        var tradeIds = new long[tradesCount];
+        var symbolIds = new int[tradesCount];
+        var sides = new byte[tradesCount];
+        var sizes = new long[tradesCount];
+        var priceUnscaled = new long[tradesCount];
+        var priceScale = new int[tradesCount];
+        var bigPrices = new HashMap<Integer, BigDecimal>();
+        for (var row = 0; row < tradesCount; row++) {
+            var buffer = in.require(TRADE_HEADER_SIZE);
+            tradeIds[row] = buffer.getLong();
+            symbolIds[row] = checkSymbol(symbols, buffer.getInt());
+            sides[row] = checkSide(buffer.get());
+            sizes[row] = buffer.getLong();
+            var kind = buffer.get();
+            if (kind == PRICE_NULL) {
+                priceScale[row] = TradeColumns.PRICE_NULL;
+            } else if (kind == PRICE_LONG) {
+                var price = in.require(MAX_PRICE_SIZE);
+                priceUnscaled[row] = price.getLong();
+                priceScale[row] = price.getInt();
+                if (priceScale[row] == TradeColumns.PRICE_NULL || priceScale[row] == TradeColumns.PRICE_BIG) {
+                    bigPrices.put(row, BigDecimal.valueOf(priceUnscaled[row], priceScale[row]));
+                    priceScale[row] = TradeColumns.PRICE_BIG;
+                }
+            } else if (kind == PRICE_BIG) {
+                var price = in.require(2 * Integer.BYTES);
+                var scale = price.getInt();
+                bigPrices.put(row, new BigDecimal(new BigInteger(in.bytes(price.getInt())), scale));
+                priceScale[row] = TradeColumns.PRICE_BIG;
+            } else {
+                throw new SnapshotException("unknown price kind:" + kind);
+            }
+        }
+        var trades = new TradeColumns(tradesCount, symbols, tradeIds, symbolIds, sides, sizes, priceUnscaled,
+                priceScale, bigPrices);
+
+        var positionCount = in.count(Integer.BYTES + Long.BYTES);
+        var position = new HashMap<String, Long>(positionCount * 2);
+        for (var idx = 0; idx < positionCount; idx++) {
+            var buffer = in.require(Integer.BYTES + Long.BYTES);
+            var symbolId = checkSymbol(symbols, buffer.getInt());
+            position.put(symbolId < 0 ? null : symbols[symbolId], buffer.getLong());
+        }
+
+        return TradesSnapshot.builder()
+                .eventOffset(eventOffset)
+                .trades(trades)
+                .position(position)
+                .build();
+    }
+
+    private static void writePrice(BlockWriter out, ByteBuffer buffer, BigDecimal price) throws IOException {
+        if (price == null) {
+            buffer.put(PRICE_NULL);
+        } else if (price.unscaledValue().bitLength() < Long.SIZE) {
+            buffer.put(PRICE_LONG)
+                    .putLong(price.unscaledValue().longValue())
+                    .putInt(price.scale());
+        } else {
+            var unscaled = price.unscaledValue().toByteArray();
+            buffer.put(PRICE_BIG)
+                    .putInt(price.scale())
+                    .putInt(unscaled.length);
+            out.put(unscaled);
+        }
+    }
+
+    private static int symbolId(String shortName, Map<String, Integer> symbolIds, List<String> symbols) {
+        if (shortName == null) {
+            return -1;
+        }
+        return symbolIds.computeIfAbsent(shortName, key -> {
+            symbols.add(key);
+            return symbols.size() - 1;
+        });
+    }
+
+    private static int checkSymbol(String[] symbols, int id) {
+        if (id < -1 || id >= symbols.length) {
+            throw new SnapshotException("unknown symbol:" + id);
+        }
+        return id;
+    }
+
+    private static byte checkSide(byte side) {
+        if (side < -1 || side >= SIDES.length) {
+            throw new SnapshotException("unknown side:" + side);
+        }
+        return side;
+    }
+
+    private void removeOld() throws IOException {
+        var snapshots = listSnapshots();
+        for (var file : snapshots.subList(Math.min(keepSnapshots, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private List<Path> listSnapshots() {
+        if (!Files.exists(dir)) {
+            return List.of();
+        }
+        try (var files = Files.list(dir)) {
+            return files.filter(file -> {
+                        var name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        } catch (IOException ex) {
+            throw new SnapshotException(ex);
+        }
+    }
+
+    /**
+     * Пишет в канал блоками по BUFFER_SIZE, CRC32 обновляется по блоку целиком перед записью.
+     */
+    private static class BlockWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+
+        BlockWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * @return буфер, в котором есть место для bytes байт
+         */
+        ByteBuffer reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                writeBuffer();
+            }
+            return buffer;
+        }
+
+        void put(byte[] bytes) throws IOException {
+            var offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    writeBuffer();
+                }
+                var length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void finish() throws IOException {
+            writeBuffer();
+            buffer.putLong(crc.getValue()).flip();
+            writeFully();
+        }
+
+        private void writeBuffer() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            writeFully();
+        }
+
+        private void writeFully() throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Читает первые dataSize байт канала блоками по BUFFER_SIZE, CRC32 обновляется по прочитанному блоку,
+     * за данными в файле лежит сумма, ее проверяет checkCrc.
+     */
+    private static class BlockReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        private final CRC32 crc = new CRC32();
+        private final long dataSize;
+        private long position;
+
+        BlockReader(FileChannel channel, long dataSize) {
+            this.channel = channel;
+            this.dataSize = dataSize;
+        }
+
+        /**
+         * @return буфер, из которого можно прочитать bytes байт (bytes не больше BUFFER_SIZE)
+         */
+        ByteBuffer require(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                buffer.compact();
+                while (buffer.position() < bytes) {
+                    fill();
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+
+        /**
+         * Читает число записей и проверяет, что столько записей по recordSize байт помещается в остаток файла:
+         * испорченный счетчик не должен приводить к огромному массиву.
+         */
+        int count(int recordSize) throws IOException {
+            var count = require(Integer.BYTES).getInt();
+            if (count < 0 || (long) count * recordSize > available()) {
+                throw new SnapshotException("wrong count:" + count);
+            }
+            return count;
+        }
+
+        byte[] bytes(int length) throws IOException {
+            if (length < 0 || length > available()) {
+                throw new SnapshotException("wrong length:" + length);
+            }
+            var bytes = new byte[length];
+            var offset = 0;
+            while (offset < length) {
+                var chunk = Math.min(length - offset, BUFFER_SIZE);
+                require(chunk).get(bytes, offset, chunk);
+                offset += chunk;
+            }
+            return bytes;
+        }
+
+        void checkCrc() throws IOException {
+            if (buffer.hasRemaining() || position != dataSize) {
+                throw new SnapshotException("unexpected data after snapshot");
+            }
+            var trailer = ByteBuffer.allocate(Long.BYTES);
+            while (trailer.hasRemaining()) {
+                if (channel.read(trailer, dataSize + trailer.position()) < 0) {
+                    throw new SnapshotException("unexpected end of snapshot");
+                }
+            }
+            if (trailer.flip().getLong() != crc.getValue()) {
+                throw new SnapshotException("checksum mismatch");
+            }
+        }
+
+        private long available() {
+            return dataSize - position + buffer.remaining();
+        }
+
+        private void fill() throws IOException {
+            if (position >= dataSize) {
+                throw new SnapshotException("unexpected end of snapshot");
+            }
+            var start = buffer.position();
+            var limit = (int) Math.min(buffer.capacity(), start + dataSize - position);
+            var read = channel.read(buffer.limit(limit), position);
+            if (read < 0) {
+                throw new SnapshotException("unexpected end of snapshot");
+            }
+            buffer.limit(buffer.capacity());
+            crc.update(buffer.duplicate().flip().position(start));
+            position += read;
+        }
+    }
+}
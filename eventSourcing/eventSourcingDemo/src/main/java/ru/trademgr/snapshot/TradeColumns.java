@@ -0,0 +1,132 @@
+package ru.trademgr.snapshot;
+
+import ru.trademgr.model.Side;
+import ru.trademgr.model.Trade;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Сделки снимка по колонкам: массивы примитивов, объект Trade собирается при обращении к строке.
+ * Снимок из миллионов сделок не держит в памяти миллионы Trade и BigDecimal,
+ * объекты при обходе живут недолго и не доживают до старого поколения.
+ * Массивы не копируются, вызывающий отдает их во владение списку.
+ * Цена: priceScale == PRICE_NULL - null, PRICE_BIG - цена в bigPrices по номеру строки,
+ * иначе BigDecimal.valueOf(priceUnscaled, priceScale).
+ */
+public final class TradeColumns extends AbstractList<Trade> {
+    public static final int PRICE_NULL = Integer.MIN_VALUE;
+    public static final int PRICE_BIG = Integer.MAX_VALUE;
+    private static final Side[] SIDES = Side.values();
+
+    private final int rows;
+    private final String[] symbols;
+    private final long[] tradeIds;
+    private final int[] symbolIds;
+    private final byte[] sides;
+    private final long[] sizes;
+    private final long[] priceUnscaled;
+    private final int[] priceScale;
+    private final Map<Integer, BigDecimal> bigPrices;
+
+    /**
+     * @param symbols символы по номеру, symbolIds[row] == -1 - символ null
+     * @param sides Side.ordinal(), -1 - null
+     */
+    public TradeColumns(int rows, String[] symbols, long[] tradeIds, int[] symbolIds, byte[] sides, long[] sizes,
+                        long[] priceUnscaled, int[] priceScale, Map<Integer, BigDecimal> bigPrices) {
+        this.rows = rows;
+        this.symbols = symbols;
+        this.tradeIds = tradeIds;
+        this.symbolIds = symbolIds;
+        this.sides = sides;
+        this.sizes = sizes;
+        this.priceUnscaled = priceUnscaled;
+        this.priceScale = priceScale;
+        this.bigPrices = bigPrices;
+    }
+
+    /**
+     * @return можно ли хранить цену как unscaled + scale без bigPrices
+     */
+    public static boolean isCompact(BigDecimal price) {
+        return price.unscaledValue().bitLength() < Long.SIZE && price.scale() != PRICE_NULL
+                && price.scale() != PRICE_BIG;
+    }
+
+    public int getSymbolCount() {
+        return symbols.length;
+    }
+
+    public String getSymbol(int symbolId) {
+        return symbols[symbolId];
+    }
+
+    public long getTradeId(int row) {
+        return tradeIds[row];
+    }
+
+    /**
+     * @return номер символа в getSymbol, -1 - null
+     */
+    public int getSymbolId(int row) {
+        return symbolIds[row];
+    }
+
+    /**
+     * @return Side.ordinal(), -1 - null
+     */
+    public byte getSide(int row) {
+        return sides[row];
+    }
+
+    public long getSize(int row) {
+        return sizes[row];
+    }
+
+    public long getPriceUnscaled(int row) {
+        return priceUnscaled[row];
+    }
+
+    /**
+     * @return scale цены, PRICE_NULL или PRICE_BIG
+     */
+    public int getPriceScale(int row) {
+        return priceScale[row];
+    }
+
+    public BigDecimal getBigPrice(int row) {
+        return bigPrices.get(row);
+    }
+
+    @Override
+    public Trade get(int row) {
+        Objects.checkIndex(row, rows);
+        var symbolId = symbolIds[row];
+        return Trade.builder()
+                .tradeId(tradeIds[row])
+                .shortName(symbolId < 0 ? null : symbols[symbolId])
+                .side(sides[row] < 0 ? null : SIDES[sides[row]])
+                .size(sizes[row])
+                .price(getPrice(row))
+                .build();
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    private BigDecimal getPrice(int row) {
+        var scale = priceScale[row];
+        if (scale == PRICE_NULL) {
+            return null;
+        }
+        if (scale == PRICE_BIG) {
+            return bigPrices.get(row);
+        }
+        return BigDecimal.valueOf(priceUnscaled[row], scale);
+    }
+}
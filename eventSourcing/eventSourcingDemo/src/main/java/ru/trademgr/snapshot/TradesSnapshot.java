@@ -0,0 +1,16 @@
+package ru.trademgr.snapshot;
+
+import lombok.Builder;
+import lombok.Value;
+import ru.trademgr.model.Trade;
+
+import java.util.List;
+import java.util.Map;
+
+@Value
+@Builder
+public class TradesSnapshot {
+    long eventOffset;
+    List<Trade> trades;
+    Map<String, Long> position;
+}
@@ -0,0 +1,7 @@
+package ru.trademgr.storage;
+
+public enum FsyncPolicy {
+    EVERY_EVENT,
+    GROUP_COMMIT,
+    OS_MANAGED
+}
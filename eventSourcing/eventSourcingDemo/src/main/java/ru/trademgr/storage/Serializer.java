@@ -2,7 +2,16 @@ package ru.trademgr.storage;
 
 import ru.trademgr.events.CreatedTradeEvent;
 
-public interface Serializer {
+import java.nio.ByteBuffer;
+
+public interface Serializer extends AutoCloseable {
     String serializeEvent(CreatedTradeEvent event);
     CreatedTradeEvent deserializeEvent(String eventAsString);
+
+    void serializeEvent(CreatedTradeEvent event, ByteBuffer buffer);
+    CreatedTradeEvent deserializeEvent(ByteBuffer buffer);
+
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,136 @@
+package ru.trademgr.storage;
+
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Side;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Бинарный формат CreatedTradeEvent:
+ * [short length][byte version][long eventId msb][long eventId lsb][long tradeId][int shortName id]
+ * [byte side][long size][byte price kind][price]
+ * price: kind 0 - null, 1 - [long unscaled][int scale], 2 - [int scale][short n][n байт unscaled].
+ * length и n - беззнаковые short, значение больше 65535 не записывается.
+ * Строковое представление - Base64 от бинарного, для текстовых хранилищ.
+ */
+public class SerializerBinary implements Serializer {
+    public static final int MAX_EVENT_SIZE = 1024;
+
+    private static final byte VERSION = 1;
+    private static final byte PRICE_NULL = 0;
+    private static final byte PRICE_LONG = 1;
+    private static final byte PRICE_BIG = 2;
+    private static final Side[] SIDES = Side.values();
+    private static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+
+    private final SymbolDictionary dictionary;
+
+    public SerializerBinary(SymbolDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void close() {
+        dictionary.close();
+    }
+
+    @Override
+    public String serializeEvent(CreatedTradeEvent event) {
+        var buffer = ByteBuffer.allocate(MAX_EVENT_SIZE);
+        serializeEvent(event, buffer);
+        buffer.flip();
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @Override
+    public CreatedTradeEvent deserializeEvent(String eventAsString) {
+        return deserializeEvent(ByteBuffer.wrap(Base64.getDecoder().decode(eventAsString)));
+    }
+
+    @Override
+    public void serializeEvent(CreatedTradeEvent event, ByteBuffer buffer) {
+        var start = buffer.position();
+        buffer.position(start + Short.BYTES);
+        buffer.put(VERSION);
+        buffer.putLong(event.getEventId().getMostSignificantBits());
+        buffer.putLong(event.getEventId().getLeastSignificantBits());
+        buffer.putLong(event.getTradeId());
+        buffer.putInt(event.getShortName() == null ? -1 : dictionary.idOf(event.getShortName()));
+        buffer.put(event.getSide() == null ? -1 : (byte) event.getSide().ordinal());
+        buffer.putLong(event.getSize());
+        putPrice(buffer, event.getPrice());
+        buffer.putShort(start, unsignedShort(buffer.position() - start - Short.BYTES, "event length"));
+    }
+
+    @Override
+    public CreatedTradeEvent deserializeEvent(ByteBuffer buffer) {
+        var length = Short.toUnsignedInt(buffer.getShort());
+        var end = buffer.position() + length;
+        var version = buffer.get();
+        if (version != VERSION) {
+            throw new StorageException("unsupported event version:" + version);
+        }
+        var eventId = new UUID(buffer.getLong(), buffer.getLong());
+        var tradeId = buffer.getLong();
+        var shortNameId = buffer.getInt();
+        var side = buffer.get();
+        var size = buffer.getLong();
+        var price = getPrice(buffer);
+        buffer.position(end);
+        return CreatedTradeEvent.builder()
+                .eventId(eventId)
+                .tradeId(tradeId)
+                .shortName(shortNameId < 0 ? null : dictionary.nameOf(shortNameId))
+                .side(side < 0 ? null : SIDES[side])
+                .size(size)
+                .price(price)
+                .build();
+    }
+
+    private static void putPrice(ByteBuffer buffer, BigDecimal price) {
+        if (price == null) {
+            buffer.put(PRICE_NULL);
+        } else if (price.unscaledValue().bitLength() < Long.SIZE) {
+            buffer.put(PRICE_LONG);
+            buffer.putLong(price.unscaledValue().longValue());
+            buffer.putInt(price.scale());
+        } else {
+            var unscaled = price.unscaledValue().toByteArray();
+            buffer.put(PRICE_BIG);
+            buffer.putInt(price.scale());
+            buffer.putShort(unsignedShort(unscaled.length, "price length"));
+            buffer.put(unscaled);
+        }
+    }
+
+    private static short unsignedShort(int value, String name) {
+        if (value < 0 || value > MAX_UNSIGNED_SHORT) {
+            throw new StorageException(name + " does not fit unsigned short:" + value);
+        }
+        return (short) value;
+    }
+
+    private static BigDecimal getPrice(ByteBuffer buffer) {
+        var kind = buffer.get();
+        switch (kind) {
+            case PRICE_NULL:
+                return null;
+            case PRICE_LONG:
+                var unscaled = buffer.getLong();
+                return BigDecimal.valueOf(unscaled, buffer.getInt());
+            case PRICE_BIG:
+                var scale = buffer.getInt();
+                var bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(bytes);
+                return new BigDecimal(new BigInteger(bytes), scale);
+            default:
+                throw new StorageException("unknown price kind:" + kind);
+        }
+    }
+}
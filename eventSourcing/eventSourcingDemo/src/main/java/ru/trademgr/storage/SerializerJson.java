@@ -2,8 +2,12 @@ package ru.trademgr.storage;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import ru.trademgr.events.CreatedTradeEvent;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 public class SerializerJson implements Serializer {
     private final ObjectMapper mapper = new ObjectMapper();
 
@@ -24,4 +28,28 @@ public class SerializerJson implements Serializer {
             throw new StorageException(e);
         }
     }
+
+    @Override
+    public void serializeEvent(CreatedTradeEvent event, ByteBuffer buffer) {
+        try {
+            buffer.put(mapper.writeValueAsBytes(event));
+        } catch (JsonProcessingException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    @Override
+    public CreatedTradeEvent deserializeEvent(ByteBuffer buffer) {
+        try {
+            if (buffer.hasArray()) {
+                var event = mapper.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                        buffer.remaining(), CreatedTradeEvent.class);
+                buffer.position(buffer.limit());
+                return event;
+            }
+            return mapper.readValue(new ByteBufferBackedInputStream(buffer), CreatedTradeEvent.class);
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
 }
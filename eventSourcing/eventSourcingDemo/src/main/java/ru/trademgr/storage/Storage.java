@@ -1,8 +1,22 @@
 package ru.trademgr.storage;
 
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface Storage {
+public interface Storage extends AutoCloseable {
     void saveEvent(String event);
     List<String> loadEvents();
+    Stream<String> streamEvents();
+    Stream<String> streamEvents(long fromOffset);
+
+    void saveEvent(ByteBuffer event);
+    Stream<ByteBuffer> streamEventBuffers(long fromOffset);
+
+    default void flush() {
+    }
+
+    @Override
+    default void close() {
+    }
 }
@@ -1,9 +1,15 @@
 package ru.trademgr.storage;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-
 public class StorageException extends RuntimeException {
     public StorageException(Exception e) {
         super(e);
     }
+
+    public StorageException(String message) {
+        super(message);
+    }
+
+    public StorageException(String message, Exception e) {
+        super(message, e);
+    }
 }
@@ -3,16 +3,23 @@ package ru.trademgr.storage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.nio.file.StandardOpenOption.APPEND;
 import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
 
+/**
+ * Текстовое хранилище: одно событие - одна строка.
+ * Бинарные события пишутся строкой в Base64.
+ */
 public class StorageFile implements Storage {
     private static final Logger log = LoggerFactory.getLogger(StorageFile.class);
     private final Path path;
@@ -33,13 +40,47 @@ public class StorageFile implements Storage {
 
     @Override
     public List<String> loadEvents() {
+        try (Stream<String> stream = streamEvents()) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<String> streamEvents() {
+        return streamEvents(0);
+    }
+
+    @Override
+    public Stream<String> streamEvents(long fromOffset) {
         try {
             if (!Files.exists(path)) {
-                return Collections.emptyList();
-            }
-            try (Stream<String> stream = Files.lines(path)) {
-                return stream.collect(Collectors.toList());
+                return Stream.empty();
             }
+            return Files.lines(path).skip(fromOffset);
+        } catch (Exception ex) {
+            throw new StorageException(ex);
+        }
+    }
+
+    @Override
+    public void saveEvent(ByteBuffer event) {
+        var bytes = new byte[event.remaining()];
+        event.get(bytes);
+        saveEvent(Base64.getEncoder().encodeToString(bytes));
+    }
+
+    @Override
+    public Stream<ByteBuffer> streamEventBuffers(long fromOffset) {
+        return streamEvents(fromOffset).map(event -> ByteBuffer.wrap(Base64.getDecoder().decode(event)));
+    }
+
+    @Override
+    public void flush() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (var channel = FileChannel.open(path, WRITE)) {
+            channel.force(true);
         } catch (Exception ex) {
             throw new StorageException(ex);
         }
@@ -0,0 +1,318 @@
+package ru.trademgr.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Журнал событий из сегментов фиксированного размера, отображенных в память.
+ * Запись: [int length][length байт события], length == 0 - конец данных в сегменте,
+ * поэтому пустые события не принимаются.
+ * streamEventBuffers отдает события срезами отображенного сегмента, без копирования.
+ * Имя сегмента - номер первого события в нем.
+ * GROUP_COMMIT: flush раз в groupCommitInterval в фоновом потоке. Если фоновый flush упал, что уже попало
+ * на диск - неизвестно, поэтому ошибка запоминается и следующие saveEvent и flush падают с ней.
+ */
+public class StorageSegmented implements Storage {
+    private static final Logger log = LoggerFactory.getLogger(StorageSegmented.class);
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final Duration DEFAULT_GROUP_COMMIT_INTERVAL = Duration.ofMillis(10);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_SIZE = Integer.BYTES;
+
+    private final Path dir;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final ScheduledExecutorService flusher;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextOffset;
+    private boolean dirty;
+    private volatile Exception flushFailure;
+
+    public StorageSegmented(Path dir) {
+        this(dir, DEFAULT_SEGMENT_SIZE, FsyncPolicy.GROUP_COMMIT, DEFAULT_GROUP_COMMIT_INTERVAL);
+    }
+
+    public StorageSegmented(Path dir, int segmentSize, FsyncPolicy fsyncPolicy, Duration groupCommitInterval) {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize is too small:" + segmentSize);
+        }
+        log.info("Using dir:{} for data storage, segmentSize:{}, fsyncPolicy:{}", dir, segmentSize, fsyncPolicy);
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        try {
+            Files.createDirectories(dir);
+            var segments = listSegments();
+            if (segments.isEmpty()) {
+                openSegment(0);
+            } else {
+                var last = segments.get(segments.size() - 1);
+                openSegment(baseOffset(last));
+                recover();
+            }
+        } catch (IOException ex) {
+            throw new StorageException(ex);
+        }
+
+        if (fsyncPolicy == FsyncPolicy.GROUP_COMMIT) {
+            flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                var thread = new Thread(task, "storage-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            var intervalMs = groupCommitInterval.toMillis();
+            // исключение из задачи молча отменило бы все следующие запуски
+            flusher.scheduleWithFixedDelay(this::backgroundFlush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public void saveEvent(String event) {
+        saveEvent(ByteBuffer.wrap(event.getBytes(UTF_8)));
+    }
+
+    @Override
+    public synchronized void saveEvent(ByteBuffer event) {
+        checkFlushFailure();
+        var length = event.remaining();
+        if (length == 0) {
+            throw new IllegalArgumentException("empty event, length 0 is the end of segment marker");
+        }
+        var recordSize = HEADER_SIZE + length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("event is too large, size:" + length);
+        }
+        if (segment.remaining() < recordSize) {
+            rollSegment();
+        }
+        var position = segment.position();
+        segment.position(position + HEADER_SIZE);
+        segment.put(event);
+        segment.putInt(position, length);
+        nextOffset++;
+        dirty = true;
+        if (fsyncPolicy == FsyncPolicy.EVERY_EVENT) {
+            flush();
+        }
+    }
+
+    @Override
+    public List<String> loadEvents() {
+        try (var stream = streamEvents()) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<String> streamEvents() {
+        return streamEvents(0);
+    }
+
+    @Override
+    public Stream<String> streamEvents(long fromOffset) {
+        return streamEventBuffers(fromOffset).map(event -> UTF_8.decode(event).toString());
+    }
+
+    @Override
+    public Stream<ByteBuffer> streamEventBuffers(long fromOffset) {
+        try {
+            var segments = listSegments();
+            var first = 0;
+            for (var idx = 1; idx < segments.size() && baseOffset(segments.get(idx)) <= fromOffset; idx++) {
+                first = idx;
+            }
+            var toSkip = segments.isEmpty() ? 0 : fromOffset - baseOffset(segments.get(first));
+            var reader = new SegmentReader(segments.subList(first, segments.size()).iterator(), toSkip);
+            return StreamSupport.stream(reader, false);
+        } catch (IOException ex) {
+            throw new StorageException(ex);
+        }
+    }
+
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    @Override
+    public synchronized void flush() {
+        checkFlushFailure();
+        if (dirty) {
+            forceSegment();
+            dirty = false;
+        }
+    }
+
+    // отдельный метод, чтобы в тестах подменить ошибку fsync
+    void forceSegment() {
+        segment.force();
+    }
+
+    private void backgroundFlush() {
+        if (flushFailure != null) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Exception ex) {
+            log.error("background flush failed, storage is not writable anymore", ex);
+            flushFailure = ex;
+        }
+    }
+
+    private void checkFlushFailure() {
+        var failure = flushFailure;
+        if (failure != null) {
+            throw new StorageException("background flush failed", failure);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (fsyncPolicy != FsyncPolicy.OS_MANAGED && flushFailure == null) {
+            flush();
+        }
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            throw new StorageException(ex);
+        }
+    }
+
+    private void rollSegment() {
+        if (fsyncPolicy != FsyncPolicy.OS_MANAGED) {
+            dirty = true;
+            flush();
+        }
+        try {
+            channel.close();
+            openSegment(nextOffset);
+        } catch (IOException ex) {
+            throw new StorageException(ex);
+        }
+    }
+
+    private void openSegment(long baseOffset) throws IOException {
+        var path = dir.resolve(segmentName(baseOffset));
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        nextOffset = baseOffset;
+        log.info("segment opened:{}", path);
+    }
+
+    private void recover() {
+        while (segment.remaining() >= HEADER_SIZE) {
+            var position = segment.position();
+            var length = segment.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || length > segment.remaining() - HEADER_SIZE) {
+                log.warn("broken record at position:{}, truncating segment", position);
+                while (segment.hasRemaining()) {
+                    segment.put((byte) 0);
+                }
+                segment.position(position);
+                dirty = true;
+                break;
+            }
+            segment.position(position + HEADER_SIZE + length);
+            nextOffset++;
+        }
+        log.info("recovered segment, nextOffset:{}", nextOffset);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String segmentName(long baseOffset) {
+        return String.format("%020d%s", baseOffset, SEGMENT_SUFFIX);
+    }
+
+    private static long baseOffset(Path segment) {
+        var name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class SegmentReader extends Spliterators.AbstractSpliterator<ByteBuffer> {
+        private final Iterator<Path> segments;
+        private ByteBuffer current;
+        private long toSkip;
+
+        SegmentReader(Iterator<Path> segments, long toSkip) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.segments = segments;
+            this.toSkip = toSkip;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ByteBuffer> action) {
+            while (true) {
+                if (current != null && current.remaining() >= HEADER_SIZE) {
+                    var length = current.getInt();
+                    if (length > 0 && length <= current.remaining()) {
+                        if (toSkip > 0) {
+                            current.position(current.position() + length);
+                            toSkip--;
+                            continue;
+                        }
+                        var event = current.slice();
+                        event.limit(length);
+                        current.position(current.position() + length);
+                        action.accept(event);
+                        return true;
+                    }
+                }
+                if (!segments.hasNext()) {
+                    return false;
+                }
+                current = map(segments.next());
+            }
+        }
+
+        private static ByteBuffer map(Path path) {
+            try (var channel = FileChannel.open(path, READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException ex) {
+                throw new StorageException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.trademgr.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Словарь shortName -> id для SerializerBinary.
+ * Новое имя дописывается в файл и сбрасывается на диск до того, как его id попадет в журнал событий,
+ * поэтому событие из любого места журнала можно прочитать без предыдущих событий.
+ */
+public class SymbolDictionary implements AutoCloseable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final FileChannel channel;
+
+    public SymbolDictionary() {
+        this.channel = null;
+    }
+
+    public SymbolDictionary(Path path) {
+        try {
+            if (Files.exists(path)) {
+                for (var name : Files.readAllLines(path, UTF_8)) {
+                    register(name);
+                }
+            }
+            this.channel = FileChannel.open(path, CREATE, WRITE, APPEND);
+        } catch (IOException ex) {
+            throw new StorageException(ex);
+        }
+    }
+
+    public synchronized int idOf(String name) {
+        var id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (channel != null) {
+            try {
+                channel.write(ByteBuffer.wrap((name + "\n").getBytes(UTF_8)));
+                channel.force(false);
+            } catch (IOException ex) {
+                throw new StorageException(ex);
+            }
+        }
+        return register(name);
+    }
+
+    public synchronized String nameOf(int id) {
+        if (id < 0 || id >= names.size()) {
+            throw new StorageException("unknown symbol id:" + id);
+        }
+        return names.get(id);
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                throw new StorageException(ex);
+            }
+        }
+    }
+
+    private int register(String name) {
+        var id = names.size();
+        names.add(name);
+        ids.put(name, id);
+        return id;
+    }
+}
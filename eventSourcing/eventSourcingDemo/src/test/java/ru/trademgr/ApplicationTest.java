@@ -0,0 +1,135 @@
+package ru.trademgr;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Position;
+import ru.trademgr.model.Side;
+import ru.trademgr.queue.EventQueue;
+import ru.trademgr.snapshot.SnapshotStore;
+import ru.trademgr.storage.SerializerBinary;
+import ru.trademgr.storage.SerializerJson;
+import ru.trademgr.storage.Storage;
+import ru.trademgr.storage.StorageException;
+import ru.trademgr.storage.StorageFile;
+import ru.trademgr.storage.StorageSegmented;
+import ru.trademgr.storage.SymbolDictionary;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+
+class ApplicationTest {
+
+    @Test
+    void storageIsFlushedBeforeSnapshot() {
+        //given
+        var storage = mock(Storage.class);
+        var snapshotStore = mock(SnapshotStore.class);
+        var application = new Application(mock(EventQueue.class), storage, new SerializerBinary(new SymbolDictionary()),
+                snapshotStore, 2);
+
+        //when
+        for (var tradeId = 1; tradeId <= 2; tradeId++) {
+            application.processEvent(CreatedTradeEvent.builder()
+                    .tradeId(tradeId).size(10).side(Side.BUY).shortName("SBERP").price(new BigDecimal("220.12")).build());
+        }
+        // снимок пишется в фоне, stop дожидается записи
+        application.stop();
+
+        //then
+        var order = inOrder(storage, snapshotStore);
+        order.verify(storage, times(2)).saveEvent(any(ByteBuffer.class));
+        order.verify(storage).flush();
+        order.verify(snapshotStore).save(any());
+    }
+
+    @Test
+    void restoreWithBinarySerializer(@TempDir Path logDir) {
+        //given
+        var application = new Application(mock(EventQueue.class), new StorageSegmented(logDir),
+                Application.makeSerializer(logDir), new SnapshotStore(logDir), 3);
+        for (var tradeId = 1; tradeId <= 5; tradeId++) {
+            application.processEvent(CreatedTradeEvent.builder()
+                    .tradeId(tradeId).size(tradeId).side(tradeId % 2 == 0 ? Side.SELL : Side.BUY)
+                    .shortName(tradeId % 2 == 0 ? "SIBN" : "SBERP").price(new BigDecimal("220.12")).build());
+        }
+        var position = application.getTradesEventHandler().getCurrentPosition();
+        application.stop();
+
+        //when
+        var restored = new Application(mock(EventQueue.class), new StorageSegmented(logDir),
+                Application.makeSerializer(logDir), new SnapshotStore(logDir), 3);
+        restored.restore();
+        restored.stop();
+
+        //then
+        assertThat(Files.exists(logDir.resolve("symbols.dict"))).isTrue();
+        assertThat(restored.getTradesEventHandler().getCurrentPosition()).isEqualTo(position);
+    }
+
+    @Test
+    void legacyLogIsImported(@TempDir Path dir) {
+        //given
+        var legacyLog = dir.resolve("tradeQueue.dat");
+        var legacyStorage = new StorageFile(legacyLog);
+        var json = new SerializerJson();
+        legacyStorage.saveEvent(json.serializeEvent(CreatedTradeEvent.builder()
+                .tradeId(1).size(10).side(Side.BUY).shortName("SBERP").price(new BigDecimal("220.12")).build()));
+        legacyStorage.saveEvent(json.serializeEvent(CreatedTradeEvent.builder()
+                .tradeId(2).size(3).side(Side.SELL).shortName("SBERP").price(new BigDecimal("221")).build()));
+        var logDir = dir.resolve("tradeLog");
+
+        //when
+        var application = new Application(mock(EventQueue.class), new StorageSegmented(logDir),
+                Application.makeSerializer(logDir), new SnapshotStore(logDir), 100, legacyLog);
+        application.restore();
+        var position = application.getTradesEventHandler().getCurrentPosition();
+        application.stop();
+
+        var restored = new Application(mock(EventQueue.class), new StorageSegmented(logDir),
+                Application.makeSerializer(logDir), new SnapshotStore(logDir), 100, legacyLog);
+        restored.restore();
+        restored.stop();
+
+        //then
+        assertThat(position).containsExactly(Position.builder().shortName("SBERP").size(7).build());
+        assertThat(Files.exists(legacyLog)).isFalse();
+        assertThat(Files.exists(dir.resolve("tradeQueue.dat.imported"))).isTrue();
+        assertThat(restored.getTradesEventHandler().getCurrentPosition()).isEqualTo(position);
+    }
+
+    @Test
+    void legacyLogAndNewLogConflict(@TempDir Path dir) {
+        //given
+        var legacyLog = dir.resolve("tradeQueue.dat");
+        new StorageFile(legacyLog).saveEvent(new SerializerJson().serializeEvent(CreatedTradeEvent.builder()
+                .tradeId(1).size(10).side(Side.BUY).shortName("SBERP").build()));
+        var logDir = dir.resolve("tradeLog");
+        var application = new Application(mock(EventQueue.class), new StorageSegmented(logDir),
+                Application.makeSerializer(logDir), new SnapshotStore(logDir), 100);
+        application.processEvent(CreatedTradeEvent.builder()
+                .tradeId(2).size(1).side(Side.BUY).shortName("SIBN").build());
+        application.stop();
+
+        //when
+        var restored = new Application(mock(EventQueue.class), new StorageSegmented(logDir),
+                Application.makeSerializer(logDir), new SnapshotStore(logDir), 100, legacyLog);
+
+        //then
+        assertThatThrownBy(restored::restore)
+                .isInstanceOf(StorageException.class)
+                .hasMessageContaining("remove or rename");
+        restored.stop();
+        assertThat(Files.exists(legacyLog)).isTrue();
+    }
+}
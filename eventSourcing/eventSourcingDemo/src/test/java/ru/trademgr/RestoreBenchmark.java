@@ -0,0 +1,147 @@
+package ru.trademgr;
+
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Side;
+import ru.trademgr.queue.EventQueue;
+import ru.trademgr.snapshot.SnapshotStore;
+import ru.trademgr.storage.FsyncPolicy;
+import ru.trademgr.storage.StorageSegmented;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/*
+Время восстановления состояния: полный replay журнала против снимок + хвост журнала.
+Снимок делается с интервалом по умолчанию (Application.SNAPSHOT_INTERVAL),
+хвост после последнего снимка - половина интервала, т.е. в среднем.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class RestoreBenchmark {
+    private static final String[] SHORT_NAMES = {"SBERP", "SIBN", "GAZP", "LKOH", "YNDX"};
+
+    @Param({"1500000", "10500000"})
+    private int events;
+
+    @Param({"false", "true"})
+    private boolean withSnapshots;
+
+    private Path dir;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(RestoreBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        var root = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.WARN);
+
+        dir = Files.createTempDirectory("restoreBenchmark");
+        var application = makeApplication(withSnapshots ? Application.SNAPSHOT_INTERVAL : Long.MAX_VALUE);
+        for (var idx = 0; idx < events; idx++) {
+            application.processEvent(CreatedTradeEvent.builder()
+                    .tradeId(idx)
+                    .shortName(SHORT_NAMES[idx % SHORT_NAMES.length])
+                    .side(idx % 3 == 0 ? Side.SELL : Side.BUY)
+                    .size(idx % 100 + 1)
+                    .price(BigDecimal.valueOf(idx % 10_000, 2))
+                    .build());
+        }
+        application.stop();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int restore() {
+        var application = makeApplication(Long.MAX_VALUE);
+        application.restore();
+        application.stop();
+        return application.getTradesEventHandler().getCurrentPosition().size();
+    }
+
+    private Application makeApplication(long snapshotInterval) {
+        var storage = new StorageSegmented(dir, StorageSegmented.DEFAULT_SEGMENT_SIZE, FsyncPolicy.OS_MANAGED, Duration.ZERO);
+        return new Application(new NoopEventQueue(), storage, Application.makeSerializer(dir), new SnapshotStore(dir),
+                snapshotInterval);
+    }
+
+    private static class NoopEventQueue implements EventQueue {
+        @Override
+        public void putEvent(CreatedTradeEvent event) {
+        }
+
+        @Override
+        public CreatedTradeEvent getEvent() {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+    }
+
+/*
+-p events=1000000 -wi 1 -i 2, снимок каждые 300_000 событий, хвост 100_000
+
+SerializerJson (Application до перехода на SerializerBinary):
+Benchmark                 (events)  (withSnapshots)  Mode  Cnt     Score   Error  Units
+RestoreBenchmark.restore   1000000            false    ss    2  3345.900          ms/op
+RestoreBenchmark.restore   1000000             true    ss    2  2100.270          ms/op
+
+SerializerBinary, снимок версии 1 (цена строкой, DataInputStream, список Trade):
+Benchmark                 (events)  (withSnapshots)  Mode  Cnt     Score   Error  Units
+RestoreBenchmark.restore   1000000            false    ss    2   710.549          ms/op
+RestoreBenchmark.restore   1000000             true    ss    2  1720.403          ms/op
+
+Снимок версии 2 (цена unscaled + scale, чтение блоками в колонки TradeColumns, восстановление проекции
+по колонкам), интервал Application.SNAPSHOT_INTERVAL = 1_000_000, хвост 500_000, -wi 2 -i 5, JDK 17, 1 CPU:
+Benchmark                 (events)  (withSnapshots)  Mode  Cnt     Score      Error  Units
+RestoreBenchmark.restore   1500000            false    ss    5   970.274 ±  252.104  ms/op
+RestoreBenchmark.restore   1500000             true    ss    5   611.195 ±  162.974  ms/op
+RestoreBenchmark.restore  10500000            false    ss    5  6637.976 ± 1553.235  ms/op
+RestoreBenchmark.restore  10500000             true    ss    5  2441.123 ±  378.846  ms/op
+
+Версия 1 проигрывала replay: строка цены и список из миллионов Trade/BigDecimal.
+Сейчас снимок восстанавливается за ~0.2 мкс на сделку против ~0.6 мкс на событие при replay,
+т.е. каждое событие до снимка экономит ~0.4 мкс, а хвост после снимка стоит столько же, сколько при replay.
+Сделки здесь не повторяются (состояние растет с журналом): при обновлении одних и тех же сделок выигрыш больше.
+На 10.5M запись снимка (10M сделок) в фоне не успевает за 1M событий этого цикла без задержек,
+и поток записи ждет ее (предупреждение в логе): интервал меньше 1M при таком состоянии тормозил бы запись.
+ */
+}
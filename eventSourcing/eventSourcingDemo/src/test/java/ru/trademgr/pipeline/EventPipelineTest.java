@@ -0,0 +1,259 @@
+package ru.trademgr.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Side;
+import ru.trademgr.storage.FsyncPolicy;
+import ru.trademgr.storage.Serializer;
+import ru.trademgr.storage.SerializerBinary;
+import ru.trademgr.storage.Storage;
+import ru.trademgr.storage.StorageException;
+import ru.trademgr.storage.StorageSegmented;
+import ru.trademgr.storage.SymbolDictionary;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EventPipelineTest {
+
+    @Test
+    void submitFromManyThreadsTest(@TempDir Path dir) throws Exception {
+        //given
+        var producers = 4;
+        var eventsPerProducer = 2_000;
+        var serializer = new SerializerBinary(new SymbolDictionary());
+        var applied = new CopyOnWriteArrayList<CreatedTradeEvent>();
+        var executor = Executors.newFixedThreadPool(producers);
+
+        List<CreatedTradeEvent> stored;
+        EventPipeline pipeline;
+        try (var storage = new StorageSegmented(dir, 1024 * 1024, FsyncPolicy.OS_MANAGED, Duration.ZERO)) {
+            pipeline = new EventPipeline(storage, serializer, applied::add, 100, 50);
+            pipeline.start();
+
+            //when
+            var futures = new ArrayList<Future<List<CompletableFuture<Void>>>>();
+            for (var producer = 0; producer < producers; producer++) {
+                var base = producer * eventsPerProducer;
+                futures.add(executor.submit(() -> {
+                    var results = new ArrayList<CompletableFuture<Void>>();
+                    for (var idx = 0; idx < eventsPerProducer; idx++) {
+                        results.add(pipeline.submit(CreatedTradeEvent.builder()
+                                .tradeId(base + idx).size(1).side(Side.BUY).shortName("SBERP").build()));
+                    }
+                    return results;
+                }));
+            }
+            for (var future : futures) {
+                CompletableFuture.allOf(future.get().toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            }
+            pipeline.close();
+            try (var events = storage.streamEventBuffers(0)) {
+                stored = events.map(serializer::deserializeEvent).collect(Collectors.toList());
+            }
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(applied).hasSize(producers * eventsPerProducer);
+        assertThat(stored).isEqualTo(applied);
+        assertThat(pipeline.getBatchSizes().getCount()).isPositive();
+        assertThat(pipeline.getBatchSizes().getMax()).isLessThanOrEqualTo(50);
+        assertThat(pipeline.getCommitLatenciesMicros().getCount()).isEqualTo(producers * eventsPerProducer);
+    }
+
+    @Test
+    void submitAfterCloseTest(@TempDir Path dir) {
+        //given
+        var serializer = new SerializerBinary(new SymbolDictionary());
+        try (var storage = new StorageSegmented(dir, 1024, FsyncPolicy.OS_MANAGED, Duration.ZERO)) {
+            var pipeline = new EventPipeline(storage, serializer, event -> { }, 10, 10);
+            pipeline.start();
+            pipeline.close();
+
+            //when
+            var future = pipeline.submit(CreatedTradeEvent.builder().tradeId(1).build());
+
+            //then
+            assertThat(future).isCompletedExceptionally();
+        }
+    }
+
+    @Test
+    void serializationFailureFailsOnlyThatEventTest(@TempDir Path dir) {
+        //given
+        var binary = new SerializerBinary(new SymbolDictionary());
+        var serializer = new Serializer() {
+            @Override
+            public String serializeEvent(CreatedTradeEvent event) {
+                return binary.serializeEvent(event);
+            }
+
+            @Override
+            public CreatedTradeEvent deserializeEvent(String eventAsString) {
+                return binary.deserializeEvent(eventAsString);
+            }
+
+            @Override
+            public void serializeEvent(CreatedTradeEvent event, ByteBuffer buffer) {
+                binary.serializeEvent(event, buffer);
+                if (event.getTradeId() == 2) {
+                    throw new IllegalStateException("broken event");
+                }
+            }
+
+            @Override
+            public CreatedTradeEvent deserializeEvent(ByteBuffer buffer) {
+                return binary.deserializeEvent(buffer);
+            }
+        };
+        var applied = new CopyOnWriteArrayList<Long>();
+
+        List<Long> stored;
+        List<CompletableFuture<Void>> futures;
+        try (var storage = new StorageSegmented(dir, 1024, FsyncPolicy.OS_MANAGED, Duration.ZERO)) {
+            var pipeline = new EventPipeline(storage, serializer, event -> applied.add(event.getTradeId()), 10, 10);
+
+            //when, одной пачкой: все события в очереди до старта
+            futures = submit(pipeline, 3);
+            pipeline.start();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((result, ex) -> null).join();
+            pipeline.close();
+            try (var events = storage.streamEventBuffers(0)) {
+                stored = events.map(binary::deserializeEvent).map(CreatedTradeEvent::getTradeId).collect(Collectors.toList());
+            }
+        }
+
+        //then
+        assertThat(futures.get(0)).isCompleted().isNotCompletedExceptionally();
+        assertThat(futures.get(1)).isCompletedExceptionally();
+        assertThat(futures.get(2)).isCompleted().isNotCompletedExceptionally();
+        assertThat(applied).containsExactly(1L, 3L);
+        assertThat(stored).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void storageFailureCompletesSavedEventsTest() {
+        //given
+        var storage = mock(Storage.class);
+        doNothing().doNothing().doThrow(new StorageException("disk full")).when(storage).saveEvent(any(ByteBuffer.class));
+        var applied = new CopyOnWriteArrayList<Long>();
+        var pipeline = new EventPipeline(storage, new SerializerBinary(new SymbolDictionary()),
+                event -> applied.add(event.getTradeId()), 10, 10);
+
+        //when
+        var futures = submit(pipeline, 5);
+        pipeline.start();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((result, ex) -> null).join();
+        pipeline.close();
+
+        //then, первые два записаны и будут прочитаны при восстановлении
+        assertThat(futures.get(0)).isCompleted().isNotCompletedExceptionally();
+        assertThat(futures.get(1)).isCompleted().isNotCompletedExceptionally();
+        assertThat(futures.subList(2, 5)).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(applied).containsExactly(1L, 2L);
+        verify(storage, times(3)).saveEvent(any(ByteBuffer.class));
+        verify(storage).flush();
+    }
+
+    @Test
+    void flushFailureFailsBatchTest() {
+        //given
+        var storage = mock(Storage.class);
+        doThrow(new StorageException("fsync failed")).when(storage).flush();
+        var applied = new CopyOnWriteArrayList<Long>();
+        var pipeline = new EventPipeline(storage, new SerializerBinary(new SymbolDictionary()),
+                event -> applied.add(event.getTradeId()), 10, 10);
+
+        //when
+        var futures = submit(pipeline, 3);
+        pipeline.start();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((result, ex) -> null).join();
+        pipeline.close();
+
+        //then
+        assertThat(futures).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(applied).isEmpty();
+    }
+
+    @Test
+    void applyFailureStopsPipelineTest() {
+        //given
+        var storage = mock(Storage.class);
+        var applied = new CopyOnWriteArrayList<Long>();
+        var pipeline = new EventPipeline(storage, new SerializerBinary(new SymbolDictionary()),
+                event -> {
+                    if (event.getTradeId() == 2) {
+                        throw new IllegalStateException("broken projection");
+                    }
+                    applied.add(event.getTradeId());
+                }, 10, 10);
+
+        //when, одной пачкой: все события в очереди до старта
+        var futures = submit(pipeline, 3);
+        pipeline.start();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((result, ex) -> null).join();
+        var afterFailure = submit(pipeline, 1);
+        pipeline.close();
+
+        //then, все три в журнале, применено только первое
+        assertThat(futures.get(0)).isCompleted().isNotCompletedExceptionally();
+        assertThat(futures.subList(1, 3)).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(afterFailure).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(applied).containsExactly(1L);
+        verify(storage, times(3)).saveEvent(any(ByteBuffer.class));
+    }
+
+    @Test
+    void everyFutureCompletesWhenClosedConcurrentlyTest() throws Exception {
+        //given
+        var storage = mock(Storage.class);
+        var pipeline = new EventPipeline(storage, new SerializerBinary(new SymbolDictionary()), event -> { }, 16, 8);
+        pipeline.start();
+        var producers = 4;
+        var executor = Executors.newFixedThreadPool(producers);
+
+        //when
+        var results = new ArrayList<Future<List<CompletableFuture<Void>>>>();
+        for (var producer = 0; producer < producers; producer++) {
+            results.add(executor.submit(() -> submit(pipeline, 2_000)));
+        }
+        Thread.sleep(5);
+        pipeline.close();
+
+        //then
+        for (var result : results) {
+            var futures = result.get(10, TimeUnit.SECONDS);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .handle((ignored, ex) -> null)
+                    .get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private static List<CompletableFuture<Void>> submit(EventPipeline pipeline, int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(tradeId -> pipeline.submit(CreatedTradeEvent.builder()
+                        .tradeId(tradeId).size(1).side(Side.BUY).shortName("SBERP").build()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,97 @@
+package ru.trademgr.projection;
+
+import org.junit.jupiter.api.Test;
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Side;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradesProjectionPrimitiveTest {
+    private static final String[] SHORT_NAMES = {"SBERP", "SIBN", "GAZP", "LKOH", "YNDX"};
+
+    @Test
+    void sameStateAsMapProjectionTest() {
+        //given
+        var events = makeEvents(10_000);
+        var expected = new TradesProjectionMap();
+        var projection = new TradesProjectionPrimitive();
+
+        //when
+        for (var event : events) {
+            expected.apply(event);
+            projection.apply(event);
+        }
+
+        //then
+        assertThat(projection.getAllTrades()).containsExactlyInAnyOrderElementsOf(expected.getAllTrades());
+        assertThat(projection.getCurrentPosition()).containsExactlyInAnyOrderElementsOf(expected.getCurrentPosition());
+    }
+
+    @Test
+    void snapshotTest() {
+        //given
+        var events = makeEvents(1_000);
+        var source = new TradesProjectionPrimitive();
+        events.forEach(source::apply);
+
+        //when
+        var snapshot = source.makeSnapshot(events.size());
+        var restored = new TradesProjectionPrimitive();
+        restored.apply(CreatedTradeEvent.builder().tradeId(-1).shortName("OTHER").side(Side.BUY).size(1).build());
+        restored.restoreSnapshot(snapshot);
+
+        //then
+        assertThat(restored.getAllTrades()).containsExactlyInAnyOrderElementsOf(source.getAllTrades());
+        assertThat(restored.getCurrentPosition()).containsExactlyInAnyOrderElementsOf(source.getCurrentPosition());
+    }
+
+    @Test
+    void positionIsRebuiltOnlyAfterEventsTest() {
+        //given
+        var projection = new TradesProjectionPrimitive();
+        projection.apply(CreatedTradeEvent.builder().tradeId(1).shortName("SBERP").side(Side.BUY).size(10).build());
+
+        //when
+        var first = projection.getCurrentPosition();
+        var cached = projection.getCurrentPosition();
+        projection.apply(CreatedTradeEvent.builder().tradeId(2).shortName("SBERP").side(Side.SELL).size(3).build());
+        var updated = projection.getCurrentPosition();
+
+        //then
+        assertThat(cached).isSameAs(first);
+        assertThat(first).extracting("size").containsExactly(10L);
+        assertThat(updated).extracting("size").containsExactly(7L);
+    }
+
+    private List<CreatedTradeEvent> makeEvents(int count) {
+        var random = new Random(42);
+        var events = new ArrayList<CreatedTradeEvent>(count);
+        for (var idx = 0; idx < count; idx++) {
+            BigDecimal price;
+            switch (idx % 3) {
+                case 0:
+                    price = null;
+                    break;
+                case 1:
+                    price = BigDecimal.valueOf(random.nextInt(100_000), 2);
+                    break;
+                default:
+                    price = new BigDecimal(new BigInteger(80, random), 3);
+            }
+            events.add(CreatedTradeEvent.builder()
+                    .tradeId(random.nextInt(count / 2))
+                    .shortName(SHORT_NAMES[random.nextInt(SHORT_NAMES.length)])
+                    .side(random.nextBoolean() ? Side.BUY : Side.SELL)
+                    .size(random.nextInt(1000) + 1)
+                    .price(price)
+                    .build());
+        }
+        return events;
+    }
+}
@@ -0,0 +1,106 @@
+package ru.trademgr.queue;
+
+import org.junit.jupiter.api.Test;
+import ru.trademgr.events.CreatedTradeEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventQueueRingBufferTest {
+
+    @Test
+    void queueTest() {
+        //given
+        var events = List.of(CreatedTradeEvent.builder().tradeId(1).build(),
+                CreatedTradeEvent.builder().tradeId(2).build(),
+                CreatedTradeEvent.builder().tradeId(3).build(),
+                CreatedTradeEvent.builder().tradeId(4).build(),
+                CreatedTradeEvent.builder().tradeId(5).build());
+
+        //when
+        var queue = new EventQueueRingBuffer(8, WaitStrategy.SPIN);
+        for (var event : events) {
+            queue.putEvent(event);
+        }
+        //then
+        assertThat(queue.size()).isEqualTo(events.size());
+
+        //when
+        var drained = new ArrayList<CreatedTradeEvent>();
+        var counter = queue.drainTo(drained::add, 3);
+        //then
+        assertThat(counter).isEqualTo(3);
+        assertThat(drained).isEqualTo(events.subList(0, 3));
+        assertThat(queue.getEvent()).isEqualTo(events.get(3));
+        assertThat(queue.getEvent()).isEqualTo(events.get(4));
+        assertThat(queue.getEvent()).isNull();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void boundedTest() {
+        //given
+        var queue = new EventQueueRingBuffer(3, WaitStrategy.YIELD);
+
+        //when
+        var offered = 0;
+        while (queue.offer(CreatedTradeEvent.builder().tradeId(offered).build())) {
+            offered++;
+        }
+
+        //then
+        assertThat(queue.getCapacity()).isEqualTo(4);
+        assertThat(offered).isEqualTo(4);
+        assertThat(queue.size()).isEqualTo(4);
+    }
+
+    @Test
+    void multiProducerTest() throws Exception {
+        //given
+        var producers = 4;
+        var eventsPerProducer = 50_000;
+        var queue = new EventQueueRingBuffer(1024, WaitStrategy.PARK);
+        var executor = Executors.newFixedThreadPool(producers);
+        var start = new CountDownLatch(1);
+
+        //when
+        for (var producer = 0; producer < producers; producer++) {
+            var base = producer * (long) eventsPerProducer;
+            executor.submit(() -> {
+                start.await();
+                for (var idx = 0; idx < eventsPerProducer; idx++) {
+                    queue.putEvent(CreatedTradeEvent.builder().tradeId(base + idx).build());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        var lastByProducer = new HashMap<Long, Long>();
+        var ordered = true;
+        var taken = 0;
+        while (taken < producers * eventsPerProducer) {
+            var event = queue.takeEvent();
+            var producer = event.getTradeId() / eventsPerProducer;
+            var previous = lastByProducer.put(producer, event.getTradeId());
+            ordered &= previous == null || previous < event.getTradeId();
+            taken++;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        //then
+        var metrics = queue.getMetrics();
+        assertThat(ordered).isTrue();
+        assertThat(queue.getEvent()).isNull();
+        assertThat(metrics.getPutEvents()).isEqualTo(producers * eventsPerProducer);
+        assertThat(metrics.getTakenEvents()).isEqualTo(producers * eventsPerProducer);
+        assertThat(metrics.getMaxSize()).isBetween(1, 1024);
+    }
+}
@@ -0,0 +1,151 @@
+package ru.trademgr.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.trademgr.model.Side;
+import ru.trademgr.model.Trade;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotStoreTest {
+
+    @Test
+    void saveAndLoadLatestTest(@TempDir Path dir) {
+        //given
+        var store = new SnapshotStore(dir);
+        var snapshot1 = makeSnapshot(10);
+        var snapshot2 = makeSnapshot(20);
+
+        //when
+        store.save(snapshot1);
+        store.save(snapshot2);
+        var restored = store.loadLatest();
+
+        //then
+        assertThat(restored).contains(snapshot2);
+    }
+
+    @Test
+    void brokenSnapshotSkippedTest(@TempDir Path dir) throws Exception {
+        //given
+        var store = new SnapshotStore(dir);
+        var snapshot1 = makeSnapshot(10);
+        var snapshot2 = makeSnapshot(20);
+        store.save(snapshot1);
+        store.save(snapshot2);
+
+        //when
+        var latestFile = dir.resolve(String.format("snapshot-%020d.snp", 20));
+        var bytes = Files.readAllBytes(latestFile);
+        bytes[bytes.length / 2] ^= 0xFF;
+        Files.write(latestFile, bytes);
+        var restored = store.loadLatest();
+
+        //then
+        assertThat(restored).contains(snapshot1);
+    }
+
+    @Test
+    void oldSnapshotsRemovedTest(@TempDir Path dir) throws Exception {
+        //given
+        var store = new SnapshotStore(dir, 2);
+
+        //when
+        for (var offset = 1; offset <= 5; offset++) {
+            store.save(makeSnapshot(offset));
+        }
+
+        //then
+        try (var files = Files.list(dir)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+        assertThat(store.loadLatest().map(TradesSnapshot::getEventOffset)).contains(5L);
+    }
+
+    @Test
+    void allPriceKindsAndNullsRestoredTest(@TempDir Path dir) {
+        //given
+        var store = new SnapshotStore(dir);
+        var bigPrice = new BigDecimal(BigInteger.TWO.pow(100), 3);
+        var position = new HashMap<String, Long>();
+        position.put("SBERP", 1L);
+        position.put(null, 2L);
+        var snapshot = TradesSnapshot.builder()
+                .eventOffset(3)
+                .trades(List.of(
+                        Trade.builder().tradeId(1).size(1).side(Side.BUY).shortName("SBERP")
+                                .price(new BigDecimal("-0.000001")).build(),
+                        Trade.builder().tradeId(2).size(2).side(Side.SELL).shortName("ГАЗП").price(bigPrice).build(),
+                        Trade.builder().tradeId(3).size(3).build()))
+                .position(position)
+                .build();
+
+        //when
+        store.save(snapshot);
+        var restored = store.loadLatest();
+
+        //then
+        assertThat(restored).contains(snapshot);
+    }
+
+    @Test
+    void snapshotLargerThanBufferRestoredTest(@TempDir Path dir) {
+        //given
+        var store = new SnapshotStore(dir);
+        var trades = new ArrayList<Trade>();
+        for (var tradeId = 0; tradeId < 10_000; tradeId++) {
+            trades.add(Trade.builder().tradeId(tradeId).size(tradeId).side(Side.BUY).shortName("SBERP" + tradeId % 7)
+                    .price(BigDecimal.valueOf(tradeId, 2)).build());
+        }
+        var snapshot = TradesSnapshot.builder()
+                .eventOffset(trades.size())
+                .trades(trades)
+                .position(Map.of("SBERP0", 1L))
+                .build();
+
+        //when
+        store.save(snapshot);
+        var restored = store.loadLatest();
+
+        //then
+        assertThat(restored).contains(snapshot);
+    }
+
+    @Test
+    void truncatedSnapshotSkippedTest(@TempDir Path dir) throws Exception {
+        //given
+        var store = new SnapshotStore(dir);
+        store.save(makeSnapshot(10));
+        store.save(makeSnapshot(20));
+
+        //when
+        var latestFile = dir.resolve(String.format("snapshot-%020d.snp", 20));
+        var bytes = Files.readAllBytes(latestFile);
+        Files.write(latestFile, Arrays.copyOf(bytes, bytes.length - 20));
+        var restored = store.loadLatest();
+
+        //then
+        assertThat(restored.map(TradesSnapshot::getEventOffset)).contains(10L);
+    }
+
+    private TradesSnapshot makeSnapshot(long eventOffset) {
+        var trade1 = Trade.builder().tradeId(1).size(10).side(Side.BUY).shortName("SBERP")
+                .price(new BigDecimal("220.12")).build();
+        var trade2 = Trade.builder().tradeId(2).size(eventOffset).side(Side.SELL).shortName("SIBN").build();
+        return TradesSnapshot.builder()
+                .eventOffset(eventOffset)
+                .trades(List.of(trade1, trade2))
+                .position(Map.of("SBERP", 10L, "SIBN", -eventOffset))
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.trademgr.storage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Side;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializerBenchmark {
+    @Param({"json", "binary"})
+    private String format;
+
+    private Serializer serializer;
+    private CreatedTradeEvent event;
+    private ByteBuffer writeBuffer;
+    private ByteBuffer readBuffer;
+
+    public static void main(String[] args) throws RunnerException {
+        for (var format : new String[]{"json", "binary"}) {
+            var benchmark = new SerializerBenchmark();
+            benchmark.format = format;
+            benchmark.setup();
+            System.out.println(format + " bytes per event:" + benchmark.readBuffer.remaining());
+        }
+        Options opt = new OptionsBuilder().include(SerializerBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() {
+        serializer = "json".equals(format) ? new SerializerJson() : new SerializerBinary(new SymbolDictionary());
+        event = CreatedTradeEvent.builder()
+                .tradeId(123_456_789)
+                .shortName("SBERP")
+                .side(Side.BUY)
+                .size(100)
+                .price(new BigDecimal("220.12"))
+                .build();
+        writeBuffer = ByteBuffer.allocate(64 * 1024);
+        serializer.serializeEvent(event, writeBuffer);
+        readBuffer = writeBuffer.flip().slice();
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        writeBuffer.clear();
+        serializer.serializeEvent(event, writeBuffer);
+        return writeBuffer;
+    }
+
+    @Benchmark
+    public CreatedTradeEvent deserialize() {
+        return serializer.deserializeEvent(readBuffer.duplicate());
+    }
+
+/*
+json bytes per event:129
+binary bytes per event:53
+
+Benchmark                        (format)  Mode  Cnt     Score     Error  Units
+SerializerBenchmark.deserialize      json  avgt    5  1115.069 ? 344.035  ns/op
+SerializerBenchmark.deserialize    binary  avgt    5    67.292 ?   9.937  ns/op
+SerializerBenchmark.serialize        json  avgt    5   682.047 ? 122.482  ns/op
+SerializerBenchmark.serialize      binary  avgt    5    57.427 ?  28.371  ns/op
+ */
+}
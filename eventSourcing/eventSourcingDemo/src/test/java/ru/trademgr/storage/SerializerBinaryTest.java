@@ -0,0 +1,96 @@
+package ru.trademgr.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.trademgr.events.CreatedTradeEvent;
+import ru.trademgr.model.Side;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SerializerBinaryTest {
+
+    @Test
+    void serializeAndDeserializeTest(@TempDir Path dir) {
+        //given
+        var events = List.of(
+                CreatedTradeEvent.builder().tradeId(1).size(10).side(Side.BUY).shortName("SBERP")
+                        .price(new BigDecimal("220.12")).build(),
+                CreatedTradeEvent.builder().tradeId(2).size(100).side(Side.SELL).shortName("SIBN")
+                        .price(new BigDecimal("123456789012345678901234567890.123")).build(),
+                CreatedTradeEvent.builder().tradeId(3).build());
+        var buffer = ByteBuffer.allocate(SerializerBinary.MAX_EVENT_SIZE * events.size());
+
+        //when
+        try (var dictionary = new SymbolDictionary(dir.resolve("symbols.dat"))) {
+            var serializer = new SerializerBinary(dictionary);
+            for (var event : events) {
+                serializer.serializeEvent(event, buffer);
+            }
+        }
+        buffer.flip();
+        var restored = new ArrayList<CreatedTradeEvent>();
+        try (var dictionary = new SymbolDictionary(dir.resolve("symbols.dat"))) {
+            var serializer = new SerializerBinary(dictionary);
+            while (buffer.hasRemaining()) {
+                restored.add(serializer.deserializeEvent(buffer));
+            }
+        }
+
+        //then
+        assertThat(restored).isEqualTo(events);
+    }
+
+    @Test
+    void stringFormTest() {
+        //given
+        var serializer = new SerializerBinary(new SymbolDictionary());
+        var event = CreatedTradeEvent.builder().tradeId(1).size(10).side(Side.BUY).shortName("SBERP")
+                .price(new BigDecimal("220.12")).build();
+
+        //when
+        var eventAsString = serializer.serializeEvent(event);
+
+        //then
+        assertThat(eventAsString).doesNotContain("\n");
+        assertThat(serializer.deserializeEvent(eventAsString)).isEqualTo(event);
+    }
+
+    @Test
+    void priceLongerThanSignedShortTest() {
+        //given
+        var serializer = new SerializerBinary(new SymbolDictionary());
+        var price = new BigDecimal(BigInteger.ONE.shiftLeft(40_000 * Byte.SIZE), 2);
+        var event = CreatedTradeEvent.builder().tradeId(1).size(10).side(Side.BUY).shortName("SBERP")
+                .price(price).build();
+        var buffer = ByteBuffer.allocate(64 * 1024);
+
+        //when
+        serializer.serializeEvent(event, buffer);
+        var restored = serializer.deserializeEvent(buffer.flip());
+
+        //then
+        assertThat(restored).isEqualTo(event);
+    }
+
+    @Test
+    void priceLongerThanUnsignedShortIsRejectedTest() {
+        //given
+        var serializer = new SerializerBinary(new SymbolDictionary());
+        var price = new BigDecimal(BigInteger.ONE.shiftLeft(70_000 * Byte.SIZE), 2);
+        var event = CreatedTradeEvent.builder().tradeId(1).price(price).build();
+        var buffer = ByteBuffer.allocate(128 * 1024);
+
+        //when, then
+        assertThatThrownBy(() -> serializer.serializeEvent(event, buffer))
+                .isInstanceOf(StorageException.class)
+                .hasMessageContaining("price length");
+    }
+}
@@ -0,0 +1,109 @@
+package ru.trademgr.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class StorageSegmentedTest {
+
+    @Test
+    void saveAndLoadTest(@TempDir Path logDir) {
+        //given
+        var stringList = List.of("str1", "str2", "str3");
+
+        //when
+        List<String> restoredList;
+        try (var storage = new StorageSegmented(logDir)) {
+            for (var str : stringList) {
+                storage.saveEvent(str);
+            }
+            restoredList = storage.loadEvents();
+        }
+
+        //then
+        assertThat(restoredList).isEqualTo(stringList);
+    }
+
+    @Test
+    void rollSegmentsAndReopenTest(@TempDir Path logDir) throws Exception {
+        //given
+        var stringList = IntStream.range(0, 100).mapToObj(idx -> "event-" + idx).collect(Collectors.toList());
+        var firstPart = stringList.subList(0, 60);
+        var secondPart = stringList.subList(60, stringList.size());
+
+        //when
+        try (var storage = new StorageSegmented(logDir, 64, FsyncPolicy.EVERY_EVENT, Duration.ZERO)) {
+            firstPart.forEach(storage::saveEvent);
+        }
+        long nextOffset;
+        List<String> restoredList;
+        try (var storage = new StorageSegmented(logDir, 64, FsyncPolicy.OS_MANAGED, Duration.ZERO)) {
+            secondPart.forEach(storage::saveEvent);
+            nextOffset = storage.getNextOffset();
+            try (var stream = storage.streamEvents()) {
+                restoredList = stream.collect(Collectors.toList());
+            }
+        }
+
+        //then
+        try (var files = Files.list(logDir)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+        assertThat(nextOffset).isEqualTo(stringList.size());
+        assertThat(restoredList).isEqualTo(stringList);
+    }
+
+    @Test
+    void emptyEventIsRejectedTest(@TempDir Path logDir) {
+        //given
+        try (var storage = new StorageSegmented(logDir)) {
+            storage.saveEvent("str1");
+
+            //when, then
+            assertThatThrownBy(() -> storage.saveEvent(""))
+                    .isInstanceOf(IllegalArgumentException.class);
+            storage.saveEvent("str2");
+            assertThat(storage.loadEvents()).isEqualTo(List.of("str1", "str2"));
+            assertThat(storage.getNextOffset()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void backgroundFlushFailureIsReportedTest(@TempDir Path logDir) throws Exception {
+        //given
+        var failure = new UncheckedIOException(new IOException("fsync failed"));
+        var storage = new StorageSegmented(logDir, 1024, FsyncPolicy.GROUP_COMMIT, Duration.ofMillis(1)) {
+            @Override
+            void forceSegment() {
+                throw failure;
+            }
+        };
+        storage.saveEvent("str1");
+
+        //when, фоновый flush падает на первом же запуске
+        Throwable error = null;
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (error == null && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+            error = catchThrowable(() -> storage.saveEvent("str2"));
+        }
+
+        //then
+        assertThat(error).isInstanceOf(StorageException.class).hasCause(failure);
+        assertThatThrownBy(storage::flush).isInstanceOf(StorageException.class).hasCause(failure);
+        storage.close();
+    }
+}
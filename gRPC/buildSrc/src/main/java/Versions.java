@@ -1,4 +1,5 @@
 public interface Versions {
     String grpc = "1.35.0";
     String tomcat_annotations_api ="6.0.53";
+    String jmh = "1.36";
 }
@@ -0,0 +1,84 @@
+package ru.demo;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.demo.numbers.NumbersBatch;
+import ru.demo.numbers.NumbersBatchRequest;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Клиент с ручным управлением потоком: автоматический request отключен,
+ * сначала запрашивается prefetch сообщений, затем по одному после обработки каждого.
+ * Сервер отправляет следующие пачки только когда клиент готов их принять.
+ */
+public class BatchStreamObserver implements ClientResponseObserver<NumbersBatchRequest, NumbersBatch> {
+    private static final Logger log = LoggerFactory.getLogger(BatchStreamObserver.class);
+
+    private final CountDownLatch latch;
+    private final int prefetch;
+    private ClientCallStreamObserver<NumbersBatchRequest> requestStream;
+
+    private long messages;
+    private long numbers;
+    private long bytes;
+    private long lastNumber;
+    private Throwable error;
+
+    public BatchStreamObserver(CountDownLatch latch, int prefetch) {
+        this.latch = latch;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<NumbersBatchRequest> requestStream) {
+        this.requestStream = requestStream;
+        requestStream.disableAutoRequestWithInitial(prefetch);
+    }
+
+    @Override
+    public void onNext(NumbersBatch batch) {
+        messages++;
+        numbers += batch.getNumbersCount();
+        bytes += batch.getSerializedSize();
+        if (batch.getNumbersCount() > 0) {
+            lastNumber = batch.getNumbers(batch.getNumbersCount() - 1);
+        }
+        requestStream.request(1);
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        log.error("got error", e);
+        error = e;
+        latch.countDown();
+    }
+
+    @Override
+    public void onCompleted() {
+        log.info("request completed, messages:{}, numbers:{}, bytes:{}, lastNumber:{}", messages, numbers, bytes, lastNumber);
+        latch.countDown();
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getNumbers() {
+        return numbers;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getLastNumber() {
+        return lastNumber;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+}
@@ -4,11 +4,13 @@ import io.grpc.ManagedChannelBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.demo.numbers.NumberRequest;
+import ru.demo.numbers.NumbersBatchRequest;
 import ru.demo.numbers.NumbersServiceGrpc;
 import java.util.concurrent.CountDownLatch;
 
 public class NumbersClient {
     private static final Logger log = LoggerFactory.getLogger(NumbersClient.class);
+    private static final int PREFETCH = 16;
 
     public static void main(String[] args) throws InterruptedException {
         log.info("numbers Client is starting...");
@@ -20,14 +22,31 @@ public class NumbersClient {
         var asyncClient = NumbersServiceGrpc.newStub(managedChannel);
 
         var latch = new CountDownLatch(1);
-        asyncClient.getNumber(makeNumberRequest(), new ClientStreamObserver(latch));
-
-        latch.await();
+        if (args.length > 0 && "batch".equals(args[0])) {
+            var begin = System.nanoTime();
+            var observer = new BatchStreamObserver(latch, PREFETCH);
+            asyncClient.getNumbersBatch(makeNumbersBatchRequest(), observer);
+            latch.await();
+            var seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+            log.info("messages/sec:{}, bytes/sec:{}",
+                    String.format("%.0f", observer.getMessages() / seconds), String.format("%.0f", observer.getBytes() / seconds));
+        } else {
+            asyncClient.getNumber(makeNumberRequest(), new ClientStreamObserver(latch));
+            latch.await();
+        }
 
         log.info("numbers Client is shutting down...");
         managedChannel.shutdown();
     }
 
+    private static NumbersBatchRequest makeNumbersBatchRequest() {
+        return NumbersBatchRequest.newBuilder()
+                .setFirstValue(1)
+                .setLastValue(10_000_000)
+                .setBatchSize(1024)
+                .build();
+    }
+
     private static NumberRequest makeNumberRequest() {
         return NumberRequest.newBuilder()
                 .setFirstValue(1)
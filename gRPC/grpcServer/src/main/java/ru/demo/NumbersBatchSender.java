@@ -0,0 +1,68 @@
+package ru.demo;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.demo.numbers.NumbersBatch;
+import ru.demo.numbers.NumbersBatchRequest;
+
+/**
+ * Обработчик onReady: отправляет пачки чисел, пока транспорт готов их принять (isReady),
+ * и выходит, когда буферы заполнены. gRPC вызовет его снова, когда клиент запросит следующие сообщения,
+ * поэтому сервер не копит в памяти сообщения, которые клиент не успевает читать.
+ * Вызывается gRPC последовательно для одного вызова, отдельный поток или планировщик не нужен.
+ * Размер пачки от клиента ограничен MAX_BATCH_SIZE (пачка - одно сообщение, его размер ограничен транспортом).
+ * Диапазон может доходить до Long.MAX_VALUE, поэтому значение увеличивается, только пока оно меньше lastValue.
+ */
+class NumbersBatchSender implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(NumbersBatchSender.class);
+    static final int DEFAULT_BATCH_SIZE = 1024;
+    static final int MAX_BATCH_SIZE = 64 * 1024;
+
+    private final ServerCallStreamObserver<NumbersBatch> responseObserver;
+    private final long lastValue;
+    private final int batchSize;
+
+    private long nextValue;
+    private boolean exhausted;
+    private boolean completed;
+    private volatile boolean cancelled;
+
+    NumbersBatchSender(NumbersBatchRequest request, ServerCallStreamObserver<NumbersBatch> responseObserver) {
+        this.responseObserver = responseObserver;
+        this.nextValue = request.getFirstValue();
+        this.lastValue = request.getLastValue();
+        this.batchSize = request.getBatchSize() > 0 ? Math.min(request.getBatchSize(), MAX_BATCH_SIZE) : DEFAULT_BATCH_SIZE;
+        this.exhausted = nextValue > lastValue;
+    }
+
+    void cancel() {
+        cancelled = true;
+        log.info("stream of batches cancelled");
+    }
+
+    @Override
+    public void run() {
+        if (completed) {
+            return;
+        }
+        var batch = NumbersBatch.newBuilder();
+        while (responseObserver.isReady() && !cancelled && !exhausted) {
+            batch.clear();
+            for (var idx = 0; idx < batchSize && !exhausted; idx++) {
+                batch.addNumbers(nextValue);
+                if (nextValue == lastValue) {
+                    exhausted = true;
+                } else {
+                    nextValue++;
+                }
+            }
+            responseObserver.onNext(batch.build());
+        }
+        if (exhausted && !cancelled) {
+            completed = true;
+            responseObserver.onCompleted();
+            log.info("stream of batches finished");
+        }
+    }
+}
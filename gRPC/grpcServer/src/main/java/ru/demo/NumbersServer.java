@@ -16,8 +16,9 @@ public class NumbersServer {
 
         int port = ApplicationProperties.getServerPort();
 
+        var numbersService = new NumbersServiceImpl();
         Server server = ServerBuilder.forPort(port)
-                .addService(new NumbersServiceImpl())
+                .addService(numbersService)
                 .build();
 
         server.start();
@@ -25,6 +26,7 @@ public class NumbersServer {
         Runtime.getRuntime().addShutdownHook(new Thread( () -> {
             log.info("Received shutdown request");
             server.shutdown();
+            numbersService.shutdown();
             log.info("Server stopped");
         }));
 
@@ -1,17 +1,18 @@
 package ru.demo;
 
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.demo.numbers.NumberRequest;
 import ru.demo.numbers.NumberResponse;
+import ru.demo.numbers.NumbersBatch;
+import ru.demo.numbers.NumbersBatchRequest;
 import ru.demo.numbers.NumbersServiceGrpc;
 
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 
 public class NumbersServiceImpl extends NumbersServiceGrpc.NumbersServiceImplBase {
     private static final Logger log = LoggerFactory.getLogger(NumbersServiceImpl.class);
@@ -20,18 +21,23 @@ public class NumbersServiceImpl extends NumbersServiceGrpc.NumbersServiceImplBas
     @Override
     public void getNumber(NumberRequest request, StreamObserver<NumberResponse> responseObserver) {
         log.info("request for the new sequence of numbers, firstValue:{}, lastValue:{}", request.getFirstValue(), request.getLastValue());
-        var currentValue = new AtomicLong(request.getFirstValue());
+        var serverObserver = (ServerCallStreamObserver<NumberResponse>) responseObserver;
+        var ticker = new NumbersTicker(request, serverObserver, executor);
+        serverObserver.setOnCancelHandler(ticker::cancel);
+        ticker.start();
+    }
+
+    @Override
+    public void getNumbersBatch(NumbersBatchRequest request, StreamObserver<NumbersBatch> responseObserver) {
+        log.info("request for the new stream of batches, firstValue:{}, lastValue:{}, batchSize:{}",
+                request.getFirstValue(), request.getLastValue(), request.getBatchSize());
+        var serverObserver = (ServerCallStreamObserver<NumbersBatch>) responseObserver;
+        var sender = new NumbersBatchSender(request, serverObserver);
+        serverObserver.setOnCancelHandler(sender::cancel);
+        serverObserver.setOnReadyHandler(sender);
+    }
 
-        Runnable task = () -> {
-            var value = currentValue.incrementAndGet();
-            var response = NumberResponse.newBuilder().setNumber(value).build();
-            responseObserver.onNext(response);
-            if (value == request.getLastValue()) {
-                executor.shutdown();
-                responseObserver.onCompleted();
-                log.info("sequence of numbers finished");
-            }
-        };
-        executor.scheduleAtFixedRate(task, 0, 2, TimeUnit.SECONDS);
+    public void shutdown() {
+        executor.shutdownNow();
     }
 }
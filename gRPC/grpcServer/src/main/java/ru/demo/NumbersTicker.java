@@ -0,0 +1,65 @@
+package ru.demo;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.demo.numbers.NumberRequest;
+import ru.demo.numbers.NumberResponse;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отправляет по одному числу раз в 2 секунды.
+ * Каждый вызов планирует только свои задачи: завершение или отмена одного потока
+ * не останавливает общий планировщик и соседние потоки.
+ */
+class NumbersTicker implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(NumbersTicker.class);
+    private static final long PERIOD_SEC = 2;
+
+    private final NumberRequest request;
+    private final ServerCallStreamObserver<NumberResponse> responseObserver;
+    private final ScheduledExecutorService executor;
+
+    private long currentValue;
+    private volatile ScheduledFuture<?> next;
+    private volatile boolean cancelled;
+
+    NumbersTicker(NumberRequest request, ServerCallStreamObserver<NumberResponse> responseObserver,
+                  ScheduledExecutorService executor) {
+        this.request = request;
+        this.responseObserver = responseObserver;
+        this.executor = executor;
+        this.currentValue = request.getFirstValue();
+    }
+
+    void start() {
+        next = executor.schedule(this, 0, TimeUnit.SECONDS);
+    }
+
+    void cancel() {
+        cancelled = true;
+        var future = next;
+        if (future != null) {
+            future.cancel(false);
+        }
+        log.info("sequence of numbers cancelled");
+    }
+
+    @Override
+    public void run() {
+        if (cancelled) {
+            return;
+        }
+        currentValue++;
+        responseObserver.onNext(NumberResponse.newBuilder().setNumber(currentValue).build());
+        if (currentValue >= request.getLastValue()) {
+            responseObserver.onCompleted();
+            log.info("sequence of numbers finished");
+        } else {
+            next = executor.schedule(this, PERIOD_SEC, TimeUnit.SECONDS);
+        }
+    }
+}
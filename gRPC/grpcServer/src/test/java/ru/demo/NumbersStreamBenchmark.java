@@ -0,0 +1,181 @@
+package ru.demo;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.demo.numbers.NumbersBatch;
+import ru.demo.numbers.NumbersBatchRequest;
+import ru.demo.numbers.NumbersServiceGrpc;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/*
+Поток getNumbersBatch через in-process транспорт: одна операция - поток из NUMBERS чисел.
+Сервер отправляет пачки, пока isReady, клиент запрашивает prefetch сообщений и затем по одному после каждого.
+messages и bytes - сообщения и байты (serializedSize) в секунду.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NumbersStreamBenchmark {
+    private static final long NUMBERS = 1 << 20;
+
+    @Param({"1", "64", "1024"})
+    private int batchSize;
+
+    @Param({"1", "16"})
+    private int prefetch;
+
+    private NumbersServiceImpl numbersService;
+    private Server server;
+    private ManagedChannel channel;
+    private NumbersServiceGrpc.NumbersServiceStub stub;
+
+    public static void main(String[] args) throws RunnerException {
+        var opt = new OptionsBuilder()
+                .include(NumbersStreamBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        var name = InProcessServerBuilder.generateName();
+        numbersService = new NumbersServiceImpl();
+        server = InProcessServerBuilder.forName(name)
+                .addService(numbersService)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = NumbersServiceGrpc.newStub(channel);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        numbersService.shutdown();
+    }
+
+    @Benchmark
+    public long stream(Traffic traffic) throws ExecutionException, InterruptedException {
+        var request = NumbersBatchRequest.newBuilder()
+                .setFirstValue(1)
+                .setLastValue(NUMBERS)
+                .setBatchSize(batchSize)
+                .build();
+        var observer = new CountingObserver(prefetch);
+        stub.getNumbersBatch(request, observer);
+        var lastNumber = observer.done.get();
+        if (lastNumber != NUMBERS) {
+            throw new IllegalStateException("unexpected last number:" + lastNumber);
+        }
+        traffic.messages += observer.messages;
+        traffic.bytes += observer.bytes;
+        return lastNumber;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Traffic {
+        public long messages;
+        public long bytes;
+
+        @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+        public void reset() {
+            messages = 0;
+            bytes = 0;
+        }
+    }
+
+    private static class CountingObserver implements ClientResponseObserver<NumbersBatchRequest, NumbersBatch> {
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+        private final int prefetch;
+        private ClientCallStreamObserver<NumbersBatchRequest> requestStream;
+        private long messages;
+        private long bytes;
+        private long lastNumber;
+
+        CountingObserver(int prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<NumbersBatchRequest> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.disableAutoRequestWithInitial(prefetch);
+        }
+
+        @Override
+        public void onNext(NumbersBatch batch) {
+            messages++;
+            bytes += batch.getSerializedSize();
+            lastNumber = batch.getNumbers(batch.getNumbersCount() - 1);
+            requestStream.request(1);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.completeExceptionally(error);
+        }
+
+        @Override
+        public void onCompleted() {
+            done.complete(lastNumber);
+        }
+    }
+}
+/*
+JDK 17, 1 CPU, короткий прогон: -wi 2 -w 2 -i 3 -r 2, stream - потоков по 1048576 чисел в секунду.
+
+Benchmark                               (batchSize)  (prefetch)   Mode  Cnt          Score           Error  Units
+NumbersStreamBenchmark.stream                     1           1  thrpt    3          0.101 ±         0.079  ops/s
+NumbersStreamBenchmark.stream:bytes               1           1  thrpt    3     527420.617 ±    412435.903  ops/s
+NumbersStreamBenchmark.stream:messages            1           1  thrpt    3     105817.346 ±     82747.756  ops/s
+NumbersStreamBenchmark.stream                     1          16  thrpt    3          0.655 ±         0.929  ops/s
+NumbersStreamBenchmark.stream:bytes               1          16  thrpt    3    3422728.180 ±   4854564.426  ops/s
+NumbersStreamBenchmark.stream:messages            1          16  thrpt    3     686708.102 ±    973979.980  ops/s
+NumbersStreamBenchmark.stream                    64           1  thrpt    3          6.192 ±         2.208  ops/s
+NumbersStreamBenchmark.stream:bytes              64           1  thrpt    3   19679339.471 ±   7016734.679  ops/s
+NumbersStreamBenchmark.stream:messages           64           1  thrpt    3     101443.979 ±     36170.192  ops/s
+NumbersStreamBenchmark.stream                    64          16  thrpt    3         24.122 ±        39.900  ops/s
+NumbersStreamBenchmark.stream:bytes              64          16  thrpt    3   76669418.704 ± 126816067.773  ops/s
+NumbersStreamBenchmark.stream:messages           64          16  thrpt    3     395219.105 ±    653717.397  ops/s
+NumbersStreamBenchmark.stream                  1024           1  thrpt    3         36.902 ±        22.101  ops/s
+NumbersStreamBenchmark.stream:bytes            1024           1  thrpt    3  115586651.484 ±  69227053.838  ops/s
+NumbersStreamBenchmark.stream:messages         1024           1  thrpt    3      37787.284 ±     22631.526  ops/s
+NumbersStreamBenchmark.stream                  1024          16  thrpt    3         43.636 ±        59.585  ops/s
+NumbersStreamBenchmark.stream:bytes            1024          16  thrpt    3  136680424.732 ± 186638508.567  ops/s
+NumbersStreamBenchmark.stream:messages         1024          16  thrpt    3      44683.205 ±     61015.370  ops/s
+
+Выводы:
+- накладные расходы gRPC на сообщение (~1.5-10 us) больше, чем на число, поэтому пачки дают основной выигрыш:
+  1024 числа в сообщении - в ~60 раз больше чисел в секунду, чем по одному числу;
+- prefetch=1 - на каждое сообщение полный круг request/onReady, prefetch=16 заметно помогает мелким сообщениям
+  и почти ничего не дает крупным.
+*/
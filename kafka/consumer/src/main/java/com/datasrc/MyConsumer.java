@@ -5,7 +5,6 @@ import static com.datasrc.JsonDeserializer.TYPE_REFERENCE;
 import static org.apache.kafka.clients.CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG;
 import static org.apache.kafka.clients.CommonClientConfigs.GROUP_ID_CONFIG;
 import static org.apache.kafka.clients.CommonClientConfigs.GROUP_INSTANCE_ID_CONFIG;
-import static org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG;
 import static org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG;
 import static org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG;
 import static org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG;
@@ -16,7 +15,6 @@ import static org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZE
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.net.InetAddress;
-import java.util.Collections;
 import java.util.Properties;
 import java.util.Random;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -29,25 +27,26 @@ public final class MyConsumer {
     public static final String TOPIC_NAME = "MyTopic";
     public static final String GROUP_ID_CONFIG_NAME = "myKafkaConsumerGroup";
     public static final int MAX_POLL_INTERVAL_MS = 300;
+    public static final int MAX_POLL_RECORDS = 1_000;
 
     public MyConsumer(String bootstrapServers) {
         Properties props = new Properties();
         props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(GROUP_ID_CONFIG, GROUP_ID_CONFIG_NAME);
         props.put(GROUP_INSTANCE_ID_CONFIG, makeGroupInstanceIdConfig());
-        props.put(ENABLE_AUTO_COMMIT_CONFIG, "true");
-        props.put(AUTO_COMMIT_INTERVAL_MS_CONFIG, "100");
+        // смещения коммитит ParallelConsumer, только для непрерывно обработанных записей
+        props.put(ENABLE_AUTO_COMMIT_CONFIG, "false");
         props.put(AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(KEY_DESERIALIZER_CLASS_CONFIG, LongDeserializer.class);
         props.put(VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(OBJECT_MAPPER, new ObjectMapper());
         props.put(TYPE_REFERENCE, new TypeReference<StringValue>() {});
 
-        props.put(MAX_POLL_RECORDS_CONFIG, 3);
+        props.put(MAX_POLL_RECORDS_CONFIG, MAX_POLL_RECORDS);
         props.put(MAX_POLL_INTERVAL_MS_CONFIG, MAX_POLL_INTERVAL_MS);
 
+        // на TOPIC_NAME подписывается ParallelConsumer из своего потока poll, вместе с ConsumerRebalanceListener
         kafkaConsumer = new KafkaConsumer<>(props);
-        kafkaConsumer.subscribe(Collections.singletonList(TOPIC_NAME));
     }
 
     public KafkaConsumer<Long, StringValue> getConsumer() {
@@ -1,62 +1,57 @@
 package com.datasrc;
 
 import static com.datasrc.MyConsumer.MAX_POLL_INTERVAL_MS;
+import static com.datasrc.MyConsumer.TOPIC_NAME;
 
+import com.datasrc.parallel.ParallelConsumer;
+import com.datasrc.parallel.ParallelConsumerSettings;
+import com.datasrc.parallel.PartitionStats;
 import java.time.Duration;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class StringValueConsumer {
     private static final Logger log = LoggerFactory.getLogger(StringValueConsumer.class);
 
-    private final MyConsumer myConsumer;
-    private final Duration timeout = Duration.ofMillis(2_000);
-    private final Consumer<StringValue> dataConsumer;
-    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+    private final ParallelConsumer<Long, StringValue> parallelConsumer;
 
     public StringValueConsumer(MyConsumer myConsumer, Consumer<StringValue> dataConsumer) {
-        this.myConsumer = myConsumer;
-        this.dataConsumer = dataConsumer;
+        this(
+                myConsumer.getConsumer(),
+                List.of(TOPIC_NAME),
+                dataConsumer,
+                ParallelConsumerSettings.defaults(Duration.ofMillis(MAX_POLL_INTERVAL_MS)));
     }
 
-    public void startSending() {
-        executor.scheduleAtFixedRate(
-                this::poll, 0, MAX_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS); // try MAX_POLL_INTERVAL_MS * 2L
+    public StringValueConsumer(
+            org.apache.kafka.clients.consumer.Consumer<Long, StringValue> kafkaConsumer,
+            Collection<String> topics,
+            Consumer<StringValue> dataConsumer,
+            ParallelConsumerSettings settings) {
+        this.parallelConsumer = new ParallelConsumer<>(
+                kafkaConsumer,
+                topics,
+                kafkaRecord -> {
+                    log.debug("key:{}, value:{}, record:{}", kafkaRecord.key(), kafkaRecord.value(), kafkaRecord);
+                    dataConsumer.accept(kafkaRecord.value());
+                },
+                settings);
     }
 
-    private void poll() {
-        log.info("poll records");
-        //параметр timeout задает время ожидания в миллисекундах и позволяет понять Kafka живой консьюмер или нет
-        ConsumerRecords<Long, StringValue> records = myConsumer.getConsumer().poll(timeout);
-        //sleep();
-        log.info("polled records.counter:{}", records.count());
-        for (ConsumerRecord<Long, StringValue> kafkaRecord : records) {
-            try {
-                var key = kafkaRecord.key();
-                var value = kafkaRecord.value();
-                log.info("key:{}, value:{}, record:{}", key, value, kafkaRecord);
-                dataConsumer.accept(value);
-            } catch (Exception ex) {
-                log.error("can't parse record:{}", kafkaRecord, ex);
-            }
-        }
+    public void startSending() {
+        parallelConsumer.start();
     }
 
     public void stopSending() {
-        executor.shutdown();
+        parallelConsumer.close();
     }
 
-    private void sleep() {
-        try {
-            Thread.sleep(1); // try 500
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    public Map<TopicPartition, PartitionStats> getMetrics() {
+        return parallelConsumer.getMetrics();
     }
 }
@@ -0,0 +1,55 @@
+package com.datasrc.parallel;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Смещения одной партиции, которые получены, но еще не обработаны.
+ * Коммитить можно только смещение перед самой ранней необработанной записью:
+ * все, что до нее, обработано непрерывным диапазоном, даже если записи завершались не по порядку.
+ * Запись, которую не удалось обработать (fail), остается границей коммита навсегда:
+ * смещения за ней не коммитятся, и после перезапуска или rebalance она будет прочитана снова.
+ * register вызывается только из потока poll, complete и fail - из потоков обработки.
+ */
+class OffsetTracker {
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<Long> failed = new ConcurrentSkipListSet<>();
+    private volatile long nextOffset = -1;
+
+    void register(long offset) {
+        pending.add(offset);
+        nextOffset = offset + 1;
+    }
+
+    void complete(long offset) {
+        pending.remove(offset);
+    }
+
+    void fail(long offset) {
+        failed.add(offset);
+        pending.remove(offset);
+    }
+
+    /**
+     * @return смещение для коммита (следующее за обработанным диапазоном) или -1, если записей еще не было
+     */
+    long committableOffset() {
+        var next = nextOffset;
+        var firstFailed = failed.ceiling(Long.MIN_VALUE);
+        var first = pending.ceiling(Long.MIN_VALUE);
+        if (firstFailed != null && (first == null || firstFailed < first)) {
+            return firstFailed;
+        }
+        return first == null ? next : first;
+    }
+
+    /**
+     * @return сколько записей еще обрабатывается, записи с ошибкой не считаются
+     */
+    int pendingCount() {
+        return pending.size();
+    }
+
+    boolean hasFailed() {
+        return !failed.isEmpty();
+    }
+}
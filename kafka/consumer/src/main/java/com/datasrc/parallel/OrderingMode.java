@@ -0,0 +1,8 @@
+package com.datasrc.parallel;
+
+public enum OrderingMode {
+    /** Записи одной партиции обрабатываются строго по порядку, одним обработчиком. */
+    PARTITION,
+    /** По порядку обрабатываются только записи с одинаковым ключом, разные ключи одной партиции - параллельно. */
+    KEY
+}
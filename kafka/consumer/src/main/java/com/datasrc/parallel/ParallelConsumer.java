@@ -0,0 +1,344 @@
+package com.datasrc.parallel;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Потребитель с параллельной обработкой.
+ * Один поток в цикле вызывает poll (KafkaConsumer не потокобезопасный, поэтому все вызовы consumer только из него),
+ * раздает записи обработчикам и коммитит смещения.
+ * Обработчик - однопоточный executor, запись попадает в обработчик по номеру партиции или по ключу (OrderingMode),
+ * поэтому порядок внутри партиции (ключа) сохраняется.
+ * Коммитится только непрерывно обработанный диапазон (OffsetTracker).
+ * Упавшая запись повторяется до maxAttempts раз, затем отдается deadLetterHandler (например, отправка в DLQ).
+ * Если обработчика нет или он тоже упал, запись остается границей коммита, а партиция встает на паузу
+ * до перезапуска или rebalance: смещения за ошибочной записью не коммитятся, и ее прочитают снова.
+ * Если у партиции набралось больше maxPendingPerPartition необработанных записей, она ставится на паузу
+ * и poll перестает ее читать, poll при этом продолжается и consumer не выпадает из группы.
+ * При отзыве партиций обработка ждет не дольше revokeTimeout, затем коммитится то, что обработано:
+ * недоделанные записи получит новый владелец партиции (at-least-once).
+ * Обработчики - виртуальные потоки: обработка обычно ждет ввод-вывод.
+ */
+public final class ParallelConsumer<K, V> implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ParallelConsumer.class);
+
+    private final org.apache.kafka.clients.consumer.Consumer<K, V> consumer;
+    private final Collection<String> topics;
+    private final Consumer<ConsumerRecord<K, V>> processor;
+    private final BiConsumer<ConsumerRecord<K, V>, Exception> deadLetterHandler;
+    private final ParallelConsumerSettings settings;
+    private final ExecutorService[] workers;
+    private final Map<TopicPartition, OffsetTracker> trackers = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, PartitionMetrics> metrics = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> committed = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> paused = ConcurrentHashMap.newKeySet();
+    private final Thread pollThread;
+
+    private volatile boolean running = true;
+    private long lastCommitAt = System.nanoTime();
+
+    /**
+     * Для consumer-а с партициями, назначенными через assign.
+     */
+    public ParallelConsumer(
+            org.apache.kafka.clients.consumer.Consumer<K, V> consumer,
+            Consumer<ConsumerRecord<K, V>> processor,
+            ParallelConsumerSettings settings) {
+        this(consumer, List.of(), processor, null, settings);
+    }
+
+    /**
+     * @param topics на них подписывается поток poll, со своим ConsumerRebalanceListener
+     */
+    public ParallelConsumer(
+            org.apache.kafka.clients.consumer.Consumer<K, V> consumer,
+            Collection<String> topics,
+            Consumer<ConsumerRecord<K, V>> processor,
+            ParallelConsumerSettings settings) {
+        this(consumer, topics, processor, null, settings);
+    }
+
+    /**
+     * @param deadLetterHandler получает запись, которую не удалось обработать за maxAttempts попыток,
+     *     если он завершился без исключения, запись считается обработанной и ее смещение коммитится.
+     *     null - ошибочные записи не пропускаются
+     */
+    public ParallelConsumer(
+            org.apache.kafka.clients.consumer.Consumer<K, V> consumer,
+            Collection<String> topics,
+            Consumer<ConsumerRecord<K, V>> processor,
+            BiConsumer<ConsumerRecord<K, V>, Exception> deadLetterHandler,
+            ParallelConsumerSettings settings) {
+        this.consumer = consumer;
+        this.topics = List.copyOf(topics);
+        this.processor = processor;
+        this.deadLetterHandler = deadLetterHandler;
+        this.settings = settings;
+        this.workers = new ExecutorService[settings.workers()];
+        for (var idx = 0; idx < workers.length; idx++) {
+            var name = "consumer-worker-" + idx;
+            workers[idx] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name(name).factory());
+        }
+        this.pollThread = new Thread(this::pollLoop, "consumer-poll");
+    }
+
+    public void start() {
+        pollThread.start();
+    }
+
+    public Map<TopicPartition, PartitionStats> getMetrics() {
+        var stats = new HashMap<TopicPartition, PartitionStats>();
+        metrics.forEach((partition, partitionMetrics) -> {
+            var tracker = trackers.get(partition);
+            stats.put(
+                    partition,
+                    partitionMetrics.toStats(
+                            committed.getOrDefault(partition, -1L),
+                            tracker == null ? 0 : tracker.pendingCount(),
+                            paused.contains(partition)));
+        });
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        consumer.wakeup();
+        try {
+            pollThread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void pollLoop() {
+        try {
+            if (!topics.isEmpty()) {
+                consumer.subscribe(topics, new RebalanceListener());
+            }
+            while (running) {
+                var records = consumer.poll(settings.pollTimeout());
+                for (var partition : records.partitions()) {
+                    dispatch(partition, records.records(partition));
+                }
+                updatePaused();
+                if (System.nanoTime() - lastCommitAt >= settings.commitInterval().toNanos()) {
+                    commitAsync();
+                }
+            }
+        } catch (WakeupException ex) {
+            if (running) {
+                throw ex;
+            }
+        } catch (Exception ex) {
+            log.error("poll loop failed", ex);
+        } finally {
+            shutdownWorkers();
+            commitSync(trackers.keySet());
+            consumer.close();
+            log.info("consumer closed, metrics:{}", getMetrics());
+        }
+    }
+
+    private void dispatch(TopicPartition partition, List<ConsumerRecord<K, V>> records) {
+        var tracker = trackers.computeIfAbsent(partition, key -> new OffsetTracker());
+        var partitionMetrics = metrics.computeIfAbsent(partition, key -> new PartitionMetrics());
+        var polledAt = System.nanoTime();
+        for (var kafkaRecord : records) {
+            tracker.register(kafkaRecord.offset());
+            worker(kafkaRecord).execute(() -> process(kafkaRecord, tracker, partitionMetrics, polledAt));
+        }
+    }
+
+    private void process(
+            ConsumerRecord<K, V> kafkaRecord, OffsetTracker tracker, PartitionMetrics partitionMetrics, long polledAt) {
+        Exception error = null;
+        for (var attempt = 1; attempt <= settings.maxAttempts(); attempt++) {
+            try {
+                processor.accept(kafkaRecord);
+                tracker.complete(kafkaRecord.offset());
+                partitionMetrics.record(polledAt, true);
+                return;
+            } catch (Exception ex) {
+                error = ex;
+                log.warn("can't process record:{}, attempt:{}", kafkaRecord, attempt, ex);
+            }
+            if (attempt < settings.maxAttempts()) {
+                sleep(settings.retryBackoff());
+            }
+        }
+        partitionMetrics.record(polledAt, false);
+        if (deadLetter(kafkaRecord, error)) {
+            tracker.complete(kafkaRecord.offset());
+        } else {
+            log.error(
+                    "record:{} is not processed, partition is stopped at offset:{}",
+                    kafkaRecord,
+                    kafkaRecord.offset());
+            tracker.fail(kafkaRecord.offset());
+        }
+    }
+
+    private boolean deadLetter(ConsumerRecord<K, V> kafkaRecord, Exception error) {
+        if (deadLetterHandler == null) {
+            return false;
+        }
+        try {
+            deadLetterHandler.accept(kafkaRecord, error);
+            return true;
+        } catch (Exception ex) {
+            log.error("dead letter handler failed, record:{}", kafkaRecord, ex);
+            return false;
+        }
+    }
+
+    private ExecutorService worker(ConsumerRecord<K, V> kafkaRecord) {
+        var hash = settings.ordering() == OrderingMode.KEY
+                ? Objects.hashCode(kafkaRecord.key())
+                : Objects.hash(kafkaRecord.topic(), kafkaRecord.partition());
+        return workers[Math.floorMod(hash, workers.length)];
+    }
+
+    private void updatePaused() {
+        var toPause = new HashSet<TopicPartition>();
+        var toResume = new HashSet<TopicPartition>();
+        trackers.forEach((partition, tracker) -> {
+            var pending = tracker.pendingCount();
+            // партиция с ошибочной записью стоит до перезапуска или rebalance, дальше коммитить все равно нельзя
+            var stopped = tracker.hasFailed();
+            if (!paused.contains(partition) && (stopped || pending >= settings.maxPendingPerPartition())) {
+                toPause.add(partition);
+            } else if (paused.contains(partition) && !stopped && pending <= settings.maxPendingPerPartition() / 2) {
+                toResume.add(partition);
+            }
+        });
+        if (!toPause.isEmpty()) {
+            log.info("pause:{}", toPause);
+            consumer.pause(toPause);
+            paused.addAll(toPause);
+        }
+        if (!toResume.isEmpty()) {
+            log.info("resume:{}", toResume);
+            consumer.resume(toResume);
+            paused.removeAll(toResume);
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> offsetsToCommit(Collection<TopicPartition> partitions) {
+        var offsets = new HashMap<TopicPartition, OffsetAndMetadata>();
+        for (var partition : partitions) {
+            var tracker = trackers.get(partition);
+            if (tracker == null) {
+                continue;
+            }
+            var offset = tracker.committableOffset();
+            if (offset >= 0 && offset > committed.getOrDefault(partition, -1L)) {
+                offsets.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return offsets;
+    }
+
+    private void commitAsync() {
+        lastCommitAt = System.nanoTime();
+        var offsets = offsetsToCommit(trackers.keySet());
+        if (offsets.isEmpty()) {
+            return;
+        }
+        consumer.commitAsync(offsets, (result, ex) -> {
+            if (ex != null) {
+                log.warn("commit failed, offsets:{}", result, ex);
+            } else {
+                result.forEach((partition, offset) -> committed.merge(partition, offset.offset(), Math::max));
+            }
+        });
+    }
+
+    private void commitSync(Collection<TopicPartition> partitions) {
+        var offsets = offsetsToCommit(partitions);
+        if (offsets.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(offsets);
+            offsets.forEach((partition, offset) -> committed.merge(partition, offset.offset(), Math::max));
+        } catch (Exception ex) {
+            log.error("commit failed, offsets:{}", offsets, ex);
+        }
+    }
+
+    private void shutdownWorkers() {
+        for (var worker : workers) {
+            worker.shutdown();
+        }
+        for (var worker : workers) {
+            try {
+                if (!worker.awaitTermination(settings.revokeTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                    log.warn("worker was not stopped in time");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void awaitProcessed(Collection<TopicPartition> partitions) {
+        var deadline = System.nanoTime() + settings.revokeTimeout().toNanos();
+        for (var partition : partitions) {
+            var tracker = trackers.get(partition);
+            while (tracker != null && tracker.pendingCount() > 0 && System.nanoTime() < deadline) {
+                sleep(Duration.ofMillis(1));
+            }
+            if (tracker != null && tracker.pendingCount() > 0) {
+                log.warn("partition:{} revoked, not processed:{}, they will be processed again by the new owner",
+                        partition, tracker.pendingCount());
+            }
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class RebalanceListener implements ConsumerRebalanceListener {
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            log.info("partitions revoked:{}", partitions);
+            awaitProcessed(partitions);
+            commitSync(partitions);
+            partitions.forEach(partition -> {
+                trackers.remove(partition);
+                committed.remove(partition);
+                paused.remove(partition);
+            });
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            log.info("partitions assigned:{}", partitions);
+        }
+    }
+}
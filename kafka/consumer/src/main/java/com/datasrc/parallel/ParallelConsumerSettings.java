@@ -0,0 +1,52 @@
+package com.datasrc.parallel;
+
+import java.time.Duration;
+
+/**
+ * @param pollTimeout сколько poll ждет новых записей
+ * @param workers число потоков обработки
+ * @param ordering что должно обрабатываться по порядку: партиция или ключ
+ * @param maxPendingPerPartition сколько полученных, но не обработанных записей может быть у партиции,
+ *     при превышении партиция ставится на паузу, после обработки половины - снимается с паузы
+ * @param commitInterval как часто коммитить обработанные смещения
+ * @param revokeTimeout сколько ждать обработки полученных записей при отзыве партиций.
+ *     onPartitionsRevoked выполняется внутри poll, поэтому ожидание должно быть заметно меньше max.poll.interval.ms,
+ *     иначе consumer исключат из группы посреди rebalance
+ * @param maxAttempts сколько раз пробовать обработать запись, прежде чем считать ее ошибочной
+ * @param retryBackoff пауза между попытками, обработчик ключа (партиции) в это время ждет
+ */
+public record ParallelConsumerSettings(
+        Duration pollTimeout,
+        int workers,
+        OrderingMode ordering,
+        int maxPendingPerPartition,
+        Duration commitInterval,
+        Duration revokeTimeout,
+        int maxAttempts,
+        Duration retryBackoff) {
+
+    public ParallelConsumerSettings {
+        if (workers < 1 || maxPendingPerPartition < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("workers, maxPendingPerPartition and maxAttempts must be positive");
+        }
+        if (revokeTimeout.isNegative() || retryBackoff.isNegative()) {
+            throw new IllegalArgumentException("revokeTimeout and retryBackoff must not be negative");
+        }
+    }
+
+    /**
+     * @param maxPollInterval max.poll.interval.ms consumer-а, на ожидание при отзыве партиций отводится треть от него,
+     *     остальное - запас на коммит и следующий poll
+     */
+    public static ParallelConsumerSettings defaults(Duration maxPollInterval) {
+        return new ParallelConsumerSettings(
+                Duration.ofMillis(100),
+                Runtime.getRuntime().availableProcessors(),
+                OrderingMode.PARTITION,
+                10_000,
+                Duration.ofMillis(100),
+                maxPollInterval.dividedBy(3),
+                3,
+                Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,40 @@
+package com.datasrc.parallel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики одной партиции. Задержка - от получения записи в poll до конца обработки, т.е. с ожиданием в очереди.
+ */
+class PartitionMetrics {
+    private final long createdAt = System.nanoTime();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencySumNanos = new LongAdder();
+    private final LongAccumulator latencyMaxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(long polledAtNanos, boolean success) {
+        var latency = System.nanoTime() - polledAtNanos;
+        processed.increment();
+        if (!success) {
+            failed.increment();
+        }
+        latencySumNanos.add(latency);
+        latencyMaxNanos.accumulate(latency);
+    }
+
+    PartitionStats toStats(long committedOffset, int pending, boolean paused) {
+        var count = processed.sum();
+        var elapsedNanos = Math.max(1, System.nanoTime() - createdAt);
+        return new PartitionStats(
+                count,
+                failed.sum(),
+                count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos,
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(latencySumNanos.sum() / count),
+                TimeUnit.NANOSECONDS.toMicros(latencyMaxNanos.get()),
+                committedOffset,
+                pending,
+                paused);
+    }
+}
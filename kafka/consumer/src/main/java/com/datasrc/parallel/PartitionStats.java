@@ -0,0 +1,11 @@
+package com.datasrc.parallel;
+
+public record PartitionStats(
+        long processed,
+        long failed,
+        double recordsPerSecond,
+        long avgLatencyMicros,
+        long maxLatencyMicros,
+        long committedOffset,
+        int pending,
+        boolean paused) {}
@@ -0,0 +1,328 @@
+package com.datasrc.parallel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testcontainers.shaded.org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class ParallelConsumerTest {
+    private static final String TOPIC = "MyTopic";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+    @Test
+    void orderedByPartition() {
+        // given
+        var mockConsumer = makeConsumer(List.of(PARTITION_0, PARTITION_1));
+        var recordsPerPartition = 2_000;
+        addRecords(mockConsumer, PARTITION_0, 0, recordsPerPartition);
+        addRecords(mockConsumer, PARTITION_1, 0, recordsPerPartition);
+
+        Map<Integer, List<Long>> processed = new ConcurrentHashMap<>();
+        var settings = settings(4, OrderingMode.PARTITION, 10_000);
+
+        // when
+        var parallelConsumer = new ParallelConsumer<Long, String>(
+                mockConsumer,
+                kafkaRecord -> processed
+                        .computeIfAbsent(kafkaRecord.partition(), key -> new CopyOnWriteArrayList<>())
+                        .add(kafkaRecord.offset()),
+                settings);
+        parallelConsumer.start();
+
+        // then
+        await().atMost(10, TimeUnit.SECONDS).until(() -> committed(mockConsumer, PARTITION_0) == recordsPerPartition
+                && committed(mockConsumer, PARTITION_1) == recordsPerPartition);
+        assertThat(processed.get(0)).isSorted().hasSize(recordsPerPartition);
+        assertThat(processed.get(1)).isSorted().hasSize(recordsPerPartition);
+
+        var metrics = parallelConsumer.getMetrics();
+        assertThat(metrics.get(PARTITION_0).processed()).isEqualTo(recordsPerPartition);
+        assertThat(metrics.get(PARTITION_0).committedOffset()).isEqualTo(recordsPerPartition);
+        assertThat(metrics.get(PARTITION_1).pending()).isZero();
+        parallelConsumer.close();
+    }
+
+    @Test
+    void commitOnlyContiguousRange() throws InterruptedException {
+        // given
+        var mockConsumer = makeConsumer(List.of(PARTITION_0));
+        addRecords(mockConsumer, PARTITION_0, 0, 100);
+        var blockedOffset = 10L;
+        var release = new CountDownLatch(1);
+        var processed = ConcurrentHashMap.<Long>newKeySet();
+
+        // when
+        var parallelConsumer = new ParallelConsumer<Long, String>(
+                mockConsumer,
+                kafkaRecord -> {
+                    if (kafkaRecord.offset() == blockedOffset) {
+                        awaitLatch(release);
+                    }
+                    processed.add(kafkaRecord.offset());
+                },
+                settings(4, OrderingMode.KEY, 10_000));
+        parallelConsumer.start();
+
+        // then
+        // записи с тем же ключом, что у заблокированной, ждут ее, остальные обрабатываются
+        var notBlocked = LongStream.range(0, 100)
+                .filter(offset -> offset < blockedOffset || key(offset) != key(blockedOffset))
+                .boxed()
+                .toList();
+        await().atMost(10, TimeUnit.SECONDS).until(() -> processed.containsAll(notBlocked));
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(processed).hasSameSizeAs(notBlocked);
+        assertThat(committed(mockConsumer, PARTITION_0)).isEqualTo(blockedOffset);
+
+        // when
+        release.countDown();
+
+        // then
+        await().atMost(10, TimeUnit.SECONDS).until(() -> committed(mockConsumer, PARTITION_0) == 100);
+        parallelConsumer.close();
+    }
+
+    @Test
+    void pauseAndResume() {
+        // given
+        var mockConsumer = makeConsumer(List.of(PARTITION_0));
+        addRecords(mockConsumer, PARTITION_0, 0, 50);
+        var release = new CountDownLatch(1);
+        var processed = new CopyOnWriteArrayList<Long>();
+
+        // when
+        var parallelConsumer = new ParallelConsumer<Long, String>(
+                mockConsumer,
+                kafkaRecord -> {
+                    awaitLatch(release);
+                    processed.add(kafkaRecord.offset());
+                },
+                settings(1, OrderingMode.PARTITION, 20));
+        parallelConsumer.start();
+
+        // then
+        await().atMost(10, TimeUnit.SECONDS).until(() -> parallelConsumer
+                .getMetrics()
+                .get(PARTITION_0)
+                .paused());
+        assertThat(mockConsumer.paused()).containsExactly(PARTITION_0);
+
+        // when
+        release.countDown();
+
+        // then
+        await().atMost(10, TimeUnit.SECONDS).until(() -> processed.size() == 50);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> mockConsumer.paused().isEmpty());
+        parallelConsumer.close();
+        assertThat(processed).isSorted();
+        assertThat(mockConsumer.closed()).isTrue();
+    }
+
+    @Test
+    void revokeCommitsProcessedWithoutWaitingForAll() {
+        // given
+        // MockConsumer.committed для отозванной партиции возвращает 0, поэтому коммиты запоминаются отдельно
+        var commits = new ConcurrentHashMap<TopicPartition, Long>();
+        var mockConsumer = new MockConsumer<Long, String>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                super.commitSync(offsets);
+                offsets.forEach((partition, offset) -> commits.put(partition, offset.offset()));
+            }
+        };
+        mockConsumer.updateBeginningOffsets(Map.of(PARTITION_0, 0L));
+        var blockedOffset = 10L;
+        var release = new CountDownLatch(1);
+        var processed = new CopyOnWriteArrayList<Long>();
+        var revokeTimeout = Duration.ofMillis(100);
+        var settings = new ParallelConsumerSettings(
+                Duration.ofMillis(10),
+                1,
+                OrderingMode.PARTITION,
+                10_000,
+                Duration.ofSeconds(10),
+                revokeTimeout,
+                1,
+                Duration.ZERO);
+
+        var parallelConsumer = new ParallelConsumer<Long, String>(
+                mockConsumer,
+                List.of(TOPIC),
+                kafkaRecord -> {
+                    if (kafkaRecord.offset() == blockedOffset) {
+                        awaitLatch(release);
+                    }
+                    processed.add(kafkaRecord.offset());
+                },
+                settings);
+        mockConsumer.schedulePollTask(() -> {
+            mockConsumer.rebalance(List.of(PARTITION_0));
+            addRecords(mockConsumer, PARTITION_0, 0, 100);
+        });
+        parallelConsumer.start();
+        await().atMost(10, TimeUnit.SECONDS).until(() -> processed.size() == blockedOffset);
+
+        // when
+        var revokeDuration = new AtomicReference<Duration>();
+        mockConsumer.schedulePollTask(() -> {
+            var startedAt = System.nanoTime();
+            mockConsumer.rebalance(List.of());
+            revokeDuration.set(Duration.ofNanos(System.nanoTime() - startedAt));
+        });
+
+        // then
+        // rebalance не ждет заблокированную запись дольше revokeTimeout, обработанное закоммичено
+        await().atMost(10, TimeUnit.SECONDS).until(() -> revokeDuration.get() != null);
+        assertThat(commits).containsEntry(PARTITION_0, blockedOffset);
+        assertThat(revokeDuration.get()).isLessThan(revokeTimeout.multipliedBy(5));
+        assertThat(processed).hasSize((int) blockedOffset);
+
+        release.countDown();
+        parallelConsumer.close();
+    }
+
+    @Test
+    void failedRecordIsNotCommitted() throws InterruptedException {
+        // given
+        // MockConsumer после close не отдает committed, поэтому коммиты запоминаются отдельно
+        var commits = new ConcurrentHashMap<TopicPartition, Long>();
+        var mockConsumer = new MockConsumer<Long, String>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                super.commitSync(offsets);
+                offsets.forEach((partition, offset) -> commits.put(partition, offset.offset()));
+            }
+        };
+        mockConsumer.assign(List.of(PARTITION_0));
+        mockConsumer.updateBeginningOffsets(Map.of(PARTITION_0, 0L));
+        addRecords(mockConsumer, PARTITION_0, 0, 20);
+        var failedOffset = 5L;
+        var attempts = new AtomicInteger();
+        var processed = ConcurrentHashMap.<Long>newKeySet();
+
+        // when
+        var parallelConsumer = new ParallelConsumer<Long, String>(
+                mockConsumer,
+                kafkaRecord -> {
+                    if (kafkaRecord.offset() == failedOffset) {
+                        attempts.incrementAndGet();
+                        throw new IllegalStateException("poison record");
+                    }
+                    processed.add(kafkaRecord.offset());
+                },
+                settings(4, OrderingMode.KEY, 10_000));
+        parallelConsumer.start();
+
+        // then
+        // записи после ошибочной обработаны, но коммит стоит на ней, партиция на паузе
+        await().atMost(10, TimeUnit.SECONDS).until(() -> processed.size() == 19);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> mockConsumer.paused().contains(PARTITION_0));
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(committed(mockConsumer, PARTITION_0)).isEqualTo(failedOffset);
+        assertThat(parallelConsumer.getMetrics().get(PARTITION_0).failed()).isEqualTo(1);
+
+        // when
+        var committedBeforeClose = mockConsumer.committed(Set.of(PARTITION_0));
+        parallelConsumer.close();
+
+        // then
+        // при закрытии коммит тоже не проходит дальше ошибочной записи
+        assertThat(commits).allSatisfy((partition, offset) -> assertThat(offset).isEqualTo(failedOffset));
+        assertThat(committedBeforeClose.get(PARTITION_0).offset()).isEqualTo(failedOffset);
+    }
+
+    @Test
+    void failedRecordIsCommittedAfterDeadLetter() {
+        // given
+        var mockConsumer = makeConsumer(List.of(PARTITION_0));
+        addRecords(mockConsumer, PARTITION_0, 0, 20);
+        var failedOffset = 5L;
+        var deadLetters = new CopyOnWriteArrayList<Long>();
+
+        // when
+        var parallelConsumer = new ParallelConsumer<Long, String>(
+                mockConsumer,
+                List.of(),
+                kafkaRecord -> {
+                    if (kafkaRecord.offset() == failedOffset) {
+                        throw new IllegalStateException("poison record");
+                    }
+                },
+                (kafkaRecord, ex) -> deadLetters.add(kafkaRecord.offset()),
+                settings(4, OrderingMode.KEY, 10_000));
+        parallelConsumer.start();
+
+        // then
+        await().atMost(10, TimeUnit.SECONDS).until(() -> committed(mockConsumer, PARTITION_0) == 20);
+        assertThat(deadLetters).containsExactly(failedOffset);
+        assertThat(mockConsumer.paused()).isEmpty();
+        parallelConsumer.close();
+    }
+
+    private static MockConsumer<Long, String> makeConsumer(List<TopicPartition> partitions) {
+        var mockConsumer = new MockConsumer<Long, String>(OffsetResetStrategy.EARLIEST);
+        mockConsumer.assign(partitions);
+        var beginningOffsets = new HashMap<TopicPartition, Long>();
+        partitions.forEach(partition -> beginningOffsets.put(partition, 0L));
+        mockConsumer.updateBeginningOffsets(beginningOffsets);
+        return mockConsumer;
+    }
+
+    private static void addRecords(MockConsumer<Long, String> mockConsumer, TopicPartition partition, long from, int count) {
+        var records = new ArrayList<ConsumerRecord<Long, String>>();
+        for (var offset = from; offset < from + count; offset++) {
+            records.add(new ConsumerRecord<>(
+                    partition.topic(), partition.partition(), offset, key(offset), "value:" + offset));
+        }
+        records.forEach(mockConsumer::addRecord);
+    }
+
+    private static long key(long offset) {
+        return offset % 7;
+    }
+
+    private static long committed(MockConsumer<Long, String> mockConsumer, TopicPartition partition) {
+        var offset = mockConsumer.committed(Set.of(partition)).get(partition);
+        return offset == null ? -1 : offset.offset();
+    }
+
+    private static ParallelConsumerSettings settings(int workers, OrderingMode ordering, int maxPending) {
+        return new ParallelConsumerSettings(
+                Duration.ofMillis(10),
+                workers,
+                ordering,
+                maxPending,
+                Duration.ofMillis(10),
+                Duration.ofSeconds(5),
+                3,
+                Duration.ofMillis(1));
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -9,6 +9,7 @@ dependencies {
 
     testImplementation ("org.junit.jupiter:junit-jupiter-engine")
     testImplementation ("org.assertj:assertj-core")
+    testImplementation ("com.h2database:h2")
 
 }
 
@@ -45,17 +45,15 @@ public class StringValueConsumer {
 
         sleep();
         log.info("polled records.counter:{}", records.count());
-        var notCommittedValues = new ArrayList<StringValue>();
+        var notCommittedValues = new ArrayList<StringValue>(records.count());
         try {
             for (var kafkaRecord : records) {
-                var key = kafkaRecord.key();
-                var value = kafkaRecord.value();
-                notCommittedValues.add(value);
-                log.info("key:{}, value:{}, record:{}", key, value, kafkaRecord);
-                if (!deDuplicator.process(value, dataConsumer)) {
-                    log.info("key:{}, value:{}. Already processed", key, value);
-                }
+                log.debug("key:{}, value:{}, record:{}", kafkaRecord.key(), kafkaRecord.value(), kafkaRecord);
+                notCommittedValues.add(kafkaRecord.value());
             }
+            // весь poll обрабатывается и записывается в БД одной транзакцией
+            var processed = deDuplicator.processBatch(notCommittedValues, dataConsumer);
+            log.info("processed:{}, already processed:{}", processed.size(), notCommittedValues.size() - processed.size());
             // случай 2. Ошибка до commit в Kafka
             System.exit(-2);
             consumer.commitSync(Duration.ofMillis(500));
@@ -34,6 +34,7 @@ public final class ConsumerManualCommit {
     public static final String TOPIC_NAME = "MyTopic";
     public static final String GROUP_ID_CONFIG_NAME = "myKafkaConsumerGroup";
     public static final int MAX_POLL_INTERVAL_MS = 500;
+    public static final int MAX_POLL_RECORDS = 500;
 
     public ConsumerManualCommit(String bootstrapServers) {
         Properties props = new Properties();
@@ -47,7 +48,7 @@ public final class ConsumerManualCommit {
         props.put(OBJECT_MAPPER, new ObjectMapper());
         props.put(TYPE_REFERENCE, new TypeReference<StringValue>() {});
 
-        props.put(MAX_POLL_RECORDS_CONFIG, 3);
+        props.put(MAX_POLL_RECORDS_CONFIG, MAX_POLL_RECORDS);
         props.put(MAX_POLL_INTERVAL_MS_CONFIG, MAX_POLL_INTERVAL_MS);
 
         kafkaConsumer = new KafkaConsumer<>(props);
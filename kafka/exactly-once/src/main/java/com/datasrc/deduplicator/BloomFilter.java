@@ -0,0 +1,56 @@
+package com.datasrc.deduplicator;
+
+/**
+ * Фильтр Блума для id: mightContain == false означает, что id точно не добавлялся.
+ * Потокобезопасность обеспечивает вызывающий код.
+ */
+class BloomFilter {
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedIds сколько id ожидается
+     * @param falsePositiveRate допустимая доля ложных срабатываний
+     */
+    BloomFilter(int expectedIds, double falsePositiveRate) {
+        var optimalBits = Math.ceil(-expectedIds * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.max(Long.SIZE, Math.min(Integer.MAX_VALUE - Long.SIZE, optimalBits));
+        this.bits = new long[(bitCount + Long.SIZE - 1) / Long.SIZE];
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedIds * Math.log(2)));
+    }
+
+    void add(long id) {
+        var hash = mix(id);
+        var h1 = (int) hash;
+        var h2 = (int) (hash >>> 32);
+        for (var idx = 0; idx < hashCount; idx++) {
+            var bit = Math.floorMod(h1 + idx * h2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long id) {
+        var hash = mix(id);
+        var h1 = (int) hash;
+        var h2 = (int) (hash >>> 32);
+        for (var idx = 0; idx < hashCount; idx++) {
+            var bit = Math.floorMod(h1 + idx * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long value) {
+        // finalizer из MurmurHash3
+        var hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
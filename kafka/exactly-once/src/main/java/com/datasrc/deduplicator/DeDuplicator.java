@@ -1,7 +1,24 @@
 package com.datasrc.deduplicator;
 
 import com.datasrc.model.StringValue;
+import java.util.ArrayList;
+import java.util.List;
 
 public interface DeDuplicator {
     boolean process(StringValue value, StringValueProcessor processor);
+
+    /**
+     * Обработка пачки (например, всего poll), повторы пропускаются.
+     *
+     * @return значения, которые были обработаны, т.е. не оказались повторами
+     */
+    default List<StringValue> processBatch(List<StringValue> values, StringValueProcessor processor) {
+        var processed = new ArrayList<StringValue>(values.size());
+        for (var value : values) {
+            if (process(value, processor)) {
+                processed.add(value);
+            }
+        }
+        return processed;
+    }
 }
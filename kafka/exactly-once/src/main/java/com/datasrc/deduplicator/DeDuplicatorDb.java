@@ -3,12 +3,41 @@ package com.datasrc.deduplicator;
 import static org.postgresql.util.PSQLState.UNIQUE_VIOLATION;
 
 import com.datasrc.model.StringValue;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
 import javax.sql.DataSource;
 import org.flywaydb.core.Flyway;
-import org.postgresql.util.PSQLException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Дедупликация через уникальный ключ в БД: id записывается в той же транзакции, что и результат обработки.
+ * processBatch обрабатывает пачку за одну транзакцию:
+ * - id из RecentIds (недавно записанные) - точно повторы, в БД за ними не ходим;
+ * - id, которых точно нет в BloomFilter, этот процесс не видел, их сразу вставляем без проверки;
+ * - остальные проверяем одним select ... in (...);
+ * - новые id вставляем одним insert на много строк.
+ * BloomFilter знает только id этого процесса (после рестарта или перебалансировки он пуст),
+ * поэтому арбитр - первичный ключ: если вставка упала на уникальности, транзакция откатывается
+ * и пачка повторяется с проверкой всех id.
+ */
 public class DeDuplicatorDb implements DeDuplicator {
+    private static final Logger log = LoggerFactory.getLogger(DeDuplicatorDb.class);
+    private static final int MAX_ROWS_PER_STATEMENT = 1_000;
+    private static final int RECENT_IDS_CAPACITY = 100_000;
+    private static final int BLOOM_EXPECTED_IDS = 1_000_000;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
     private final DataSource dataSource;
+    private final RecentIds recentIds = new RecentIds(RECENT_IDS_CAPACITY);
+    private final BloomFilter seenIds = new BloomFilter(BLOOM_EXPECTED_IDS, BLOOM_FALSE_POSITIVE_RATE);
 
     public DeDuplicatorDb(DataSource dataSource) {
         this.dataSource = dataSource;
@@ -27,15 +56,120 @@ public class DeDuplicatorDb implements DeDuplicator {
                 connection.commit();
             }
         } catch (Exception ex) {
-            if (ex instanceof PSQLException exPsql
-                    && (UNIQUE_VIOLATION.getState().equals(exPsql.getSQLState()))) {
+            if (isUniqueViolation(ex)) {
                 return false;
             }
             throw new DeDuplicatorException("process value:" + value + "error:" + ex.getMessage(), ex);
         }
+        remember(List.of(value.id()));
         return true;
     }
 
+    @Override
+    public synchronized List<StringValue> processBatch(List<StringValue> values, StringValueProcessor processor) {
+        var candidates = new LinkedHashMap<Long, StringValue>();
+        for (var value : values) {
+            if (!recentIds.contains(value.id())) {
+                candidates.putIfAbsent(value.id(), value);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        var toProbe = new ArrayList<Long>();
+        for (var id : candidates.keySet()) {
+            if (seenIds.mightContain(id)) {
+                toProbe.add(id);
+            }
+        }
+
+        try (var connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            List<StringValue> newValues;
+            try {
+                newValues = insertNew(connection, candidates, toProbe);
+            } catch (SQLException ex) {
+                if (!isUniqueViolation(ex)) {
+                    throw ex;
+                }
+                log.info("unexpected duplicates in the batch, probe all ids, batch size:{}", candidates.size());
+                connection.rollback();
+                newValues = insertNew(connection, candidates, candidates.keySet());
+            }
+            newValues.forEach(processor);
+            connection.commit();
+            remember(candidates.keySet());
+            log.debug("batch size:{}, probed:{}, new:{}", values.size(), toProbe.size(), newValues.size());
+            return newValues;
+        } catch (Exception ex) {
+            throw new DeDuplicatorException("process batch, size:" + values.size() + " error:" + ex.getMessage(), ex);
+        }
+    }
+
+    private List<StringValue> insertNew(
+            Connection connection, LinkedHashMap<Long, StringValue> candidates, Collection<Long> toProbe)
+            throws SQLException {
+        var existing = selectExisting(connection, toProbe);
+        var newValues = new ArrayList<StringValue>(candidates.size());
+        for (var value : candidates.values()) {
+            if (!existing.contains(value.id())) {
+                newValues.add(value);
+            }
+        }
+        insert(connection, newValues);
+        return newValues;
+    }
+
+    private Set<Long> selectExisting(Connection connection, Collection<Long> ids) throws SQLException {
+        var existing = new HashSet<Long>();
+        var idList = new ArrayList<>(ids);
+        for (var from = 0; from < idList.size(); from += MAX_ROWS_PER_STATEMENT) {
+            var chunk = idList.subList(from, Math.min(idList.size(), from + MAX_ROWS_PER_STATEMENT));
+            var sql = "select value_id from kafka_processed_value_ids where value_id in ("
+                    + placeholders(chunk.size(), "?") + ")";
+            try (var pst = connection.prepareStatement(sql)) {
+                for (var idx = 0; idx < chunk.size(); idx++) {
+                    pst.setLong(idx + 1, chunk.get(idx));
+                }
+                try (var rs = pst.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getLong(1));
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+
+    private void insert(Connection connection, List<StringValue> values) throws SQLException {
+        for (var from = 0; from < values.size(); from += MAX_ROWS_PER_STATEMENT) {
+            var chunk = values.subList(from, Math.min(values.size(), from + MAX_ROWS_PER_STATEMENT));
+            var sql = "insert into kafka_processed_value_ids(value_id) values " + placeholders(chunk.size(), "(?)");
+            try (var pst = connection.prepareStatement(sql)) {
+                for (var idx = 0; idx < chunk.size(); idx++) {
+                    pst.setLong(idx + 1, chunk.get(idx).id());
+                }
+                pst.executeUpdate();
+            }
+        }
+    }
+
+    private synchronized void remember(Collection<Long> ids) {
+        for (var id : ids) {
+            recentIds.add(id);
+            seenIds.add(id);
+        }
+    }
+
+    private static String placeholders(int count, String placeholder) {
+        return String.join(",", Collections.nCopies(count, placeholder));
+    }
+
+    private static boolean isUniqueViolation(Exception ex) {
+        return ex instanceof SQLException exSql && UNIQUE_VIOLATION.getState().equals(exSql.getSQLState());
+    }
+
     private void flywayMigrations(DataSource dataSource) {
         var flyway = Flyway.configure()
                 .dataSource(dataSource)
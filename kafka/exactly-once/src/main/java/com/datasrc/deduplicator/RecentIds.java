@@ -0,0 +1,29 @@
+package com.datasrc.deduplicator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Последние id, которые точно записаны в БД (добавляются только после commit). Старые вытесняются.
+ * Потокобезопасность обеспечивает вызывающий код.
+ */
+class RecentIds {
+    private final Map<Long, Boolean> ids;
+
+    RecentIds(int capacity) {
+        this.ids = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    void add(long id) {
+        ids.put(id, Boolean.TRUE);
+    }
+
+    boolean contains(long id) {
+        return ids.get(id) != null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.datasrc.deduplicator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datasrc.model.StringValue;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeDuplicatorDbTest {
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() {
+        var h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource = h2DataSource;
+    }
+
+    @Test
+    void processBatch() throws SQLException {
+        // given
+        var deDuplicator = new DeDuplicatorDb(dataSource);
+        var processed = new ArrayList<StringValue>();
+
+        // when
+        var firstBatch = deDuplicator.processBatch(values(0, 100), processed::add);
+        var withDuplicates = new ArrayList<>(values(50, 150));
+        withDuplicates.addAll(values(140, 150));
+        var secondBatch = deDuplicator.processBatch(withDuplicates, processed::add);
+        var onlyDuplicates = deDuplicator.processBatch(values(0, 150), processed::add);
+
+        // then
+        assertThat(firstBatch).isEqualTo(values(0, 100));
+        assertThat(secondBatch).isEqualTo(values(100, 150));
+        assertThat(onlyDuplicates).isEmpty();
+        assertThat(processed).isEqualTo(values(0, 150));
+        assertThat(rowsCount()).isEqualTo(150);
+    }
+
+    @Test
+    void rollbackOnProcessorError() throws SQLException {
+        // given
+        var deDuplicator = new DeDuplicatorDb(dataSource);
+        var batch = values(0, 10);
+
+        // when
+        assertThatThrownBy(() -> deDuplicator.processBatch(batch, value -> {
+                    if (value.id() == 5) {
+                        throw new IllegalStateException("processing error");
+                    }
+                }))
+                .isInstanceOf(DeDuplicatorException.class);
+
+        // then
+        assertThat(rowsCount()).isZero();
+
+        // when
+        var processed = deDuplicator.processBatch(batch, value -> {});
+
+        // then
+        assertThat(processed).isEqualTo(batch);
+        assertThat(rowsCount()).isEqualTo(10);
+    }
+
+    @Test
+    void duplicatesFromAnotherInstance() throws SQLException {
+        // given
+        var firstInstance = new DeDuplicatorDb(dataSource);
+        firstInstance.processBatch(values(0, 1_500), value -> {});
+        assertThat(firstInstance.process(new StringValue(1_500, "v:1500"), value -> {}))
+                .isTrue();
+
+        // when
+        var restarted = new DeDuplicatorDb(dataSource);
+        var processed = restarted.processBatch(values(1_000, 2_500), value -> {});
+
+        // then
+        assertThat(processed).isEqualTo(values(1_501, 2_500));
+        assertThat(restarted.process(new StringValue(10, "v:10"), value -> {})).isFalse();
+        assertThat(rowsCount()).isEqualTo(2_500);
+    }
+
+    private static List<StringValue> values(long from, long to) {
+        return LongStream.range(from, to)
+                .mapToObj(id -> new StringValue(id, "v:" + id))
+                .toList();
+    }
+
+    private long rowsCount() throws SQLException {
+        try (var connection = dataSource.getConnection();
+                var pst = connection.prepareStatement("select count(*) from kafka_processed_value_ids");
+                var rs = pst.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -14,34 +14,58 @@ import org.apache.logging.log4j.core.config.plugins.PluginFactory;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 @Plugin(name = "SlowAppender", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE)
 public class SlowAppender extends AbstractAppender {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final long DEFAULT_DELAY_MICROS = 3_000_000;
+
+    private final long delayNanos;
+    private final boolean print;
 
     protected SlowAppender(String name, Filter filter) {
+        this(name, filter, DEFAULT_DELAY_MICROS, true);
+    }
+
+    protected SlowAppender(String name, Filter filter, long delayMicros, boolean print) {
         super(name, filter, null, true, Property.EMPTY_ARRAY);
+        this.delayNanos = TimeUnit.MICROSECONDS.toNanos(delayMicros);
+        this.print = print;
     }
 
+    /*
+     * delayMicros - задержка на каждое событие, print=false - ничего не печатать (для бенчмарков).
+     */
     @PluginFactory
     public static SlowAppender createAppender(
             @PluginAttribute("name") String name,
+            @PluginAttribute(value = "delayMicros", defaultLong = DEFAULT_DELAY_MICROS) long delayMicros,
+            @PluginAttribute(value = "print", defaultBoolean = true) boolean print,
             @PluginElement("Filter") Filter filter) {
-        return new SlowAppender(name, filter);
+        return new SlowAppender(name, filter, delayMicros, print);
     }
 
     @Override
     public void append(LogEvent event) {
         sleep();
-        System.out.println(LocalDateTime.now().format(FORMATTER) + " : Thread:[" + Thread.currentThread().getName()
-                + "] : " + event.getMessage().getFormattedMessage());
+        if (print) {
+            System.out.println(LocalDateTime.now().format(FORMATTER) + " : Thread:[" + Thread.currentThread().getName()
+                    + "] : " + event.getMessage().getFormattedMessage());
+        }
     }
 
     private void sleep() {
-        try {
-            Thread.sleep(TimeUnit.SECONDS.toMillis(3));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (delayNanos == 0) {
+            return;
+        }
+        var deadline = System.nanoTime() + delayNanos;
+        long left;
+        while ((left = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(left);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
         }
     }
 }
@@ -0,0 +1,215 @@
+package ru.logs;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/*
+Задержка вызывающего потока и пропускная способность логирования через SlowAppender:
+SYNC - appender вызывается в потоке логирования,
+ASYNC_ARRAY - AsyncAppender с ArrayBlockingQueue,
+ASYNC_DISRUPTOR - AsyncAppender с DisruptorBlockingQueue,
+ASYNC_LOGGER - полностью асинхронные логгеры (AsyncLoggerContext, LMAX Disruptor),
+ASYNC_LOGGER_DISCARD - то же с политикой Discard из log4j2-throughput.xml: при полном ring buffer
+события INFO и ниже отбрасываются.
+Очереди и ring buffer по 262144 событий, при заполнении вызывающий поток ждет (кроме ASYNC_LOGGER_DISCARD).
+Количество потоков: 1, 4, 16, 64 (задается в main).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoggingBenchmark {
+    private static final String CONFIG = "log4j2-bench.xml";
+    private static final String QUEUE_FULL_POLICY = "log4j2.AsyncQueueFullPolicy";
+    private static final String DISCARD_THRESHOLD = "log4j2.DiscardThreshold";
+    private static final int[] THREADS = {1, 4, 16, 64};
+
+    @Param({"SYNC", "ASYNC_ARRAY", "ASYNC_DISRUPTOR", "ASYNC_LOGGER", "ASYNC_LOGGER_DISCARD"})
+    private LoggingMode mode;
+
+    @Param({"0", "10", "100"})
+    private long delayMicros;
+
+    private LoggerContext context;
+    private Logger logger;
+
+    public static void main(String[] args) throws RunnerException {
+        for (var threads : THREADS) {
+            var opt = new OptionsBuilder()
+                    .include(LoggingBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+
+    @Setup
+    public void setup() throws URISyntaxException {
+        System.setProperty("bench.delayMicros", String.valueOf(delayMicros));
+        System.setProperty("bench.appender", mode.appender);
+        if (mode == LoggingMode.ASYNC_LOGGER_DISCARD) {
+            // читаются при создании ring buffer, каждый набор параметров идет в своем форке
+            System.setProperty(QUEUE_FULL_POLICY, "Discard");
+            System.setProperty(DISCARD_THRESHOLD, "INFO");
+        }
+        var config = LoggingBenchmark.class.getClassLoader().getResource(CONFIG).toURI();
+        context = mode.asyncLoggers
+                ? new AsyncLoggerContext("bench-" + mode, null, config)
+                : new LoggerContext("bench-" + mode, null, config);
+        context.start();
+        logger = context.getLogger("bench");
+    }
+
+    @TearDown
+    public void tearDown() {
+        // очередь может быть заполнена, дожидаться записи всех событий не нужно
+        context.stop(1, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void log(ThreadCounter counter) {
+        logger.info("logging in slow:{}, value:{}", counter.next(), mode);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCounter {
+        private long value;
+
+        long next() {
+            return value++;
+        }
+    }
+
+    public enum LoggingMode {
+        SYNC("SlowAppender", false),
+        ASYNC_ARRAY("Async-Array", false),
+        ASYNC_DISRUPTOR("Async-Disruptor", false),
+        ASYNC_LOGGER("SlowAppender", true),
+        ASYNC_LOGGER_DISCARD("SlowAppender", true);
+
+        private final String appender;
+        private final boolean asyncLoggers;
+
+        LoggingMode(String appender, boolean asyncLoggers) {
+            this.appender = appender;
+            this.asyncLoggers = asyncLoggers;
+        }
+    }
+}
+/*
+JDK 17, 1 CPU, полный прогон main(): -t 1, 4, 16, 64, параметры по аннотациям (-wi 3 -w 2 -i 5 -r 2).
+parkNanos(10 us) на этой машине спит ~65 us, поэтому delayMicros=10 это ~15 тыс. событий/с на один поток appender-а,
+delayMicros=100 - ~8 тыс.
+Колонки: delayMicros, mode, thrpt (ops/us) ± error, sample среднее (us/op) ± error, p0.50 и p0.99 (us/op).
+Для ASYNC_LOGGER_DISCARD thrpt - число вызовов logger.info, включая отброшенные события.
+
+-t 1
+    0                  SYNC   1.464 ±   0.857     2.218 ±    0.791     0.637     1.158
+    0           ASYNC_ARRAY   0.604 ±   0.064     2.895 ±    0.510     0.964     7.536
+    0       ASYNC_DISRUPTOR   0.713 ±   0.227     2.130 ±    0.293     0.936    19.158
+    0          ASYNC_LOGGER   0.679 ±   0.404     3.263 ±    0.695     0.671     7.008
+    0  ASYNC_LOGGER_DISCARD   1.222 ±   0.846     2.283 ±    0.554     0.544     6.792
+   10                  SYNC   0.012 ±   0.008    71.028 ±    0.637    69.248    88.960
+   10           ASYNC_ARRAY   0.012 ±   0.008    81.024 ±    6.805    75.136   106.368
+   10       ASYNC_DISRUPTOR   0.015 ±   0.004    64.201 ±    0.541    67.072   132.608
+   10          ASYNC_LOGGER   0.015 ±   0.004    63.047 ±    3.651     0.699      3162
+   10  ASYNC_LOGGER_DISCARD   6.352 ±   2.086     0.593 ±    0.161     0.126     0.651
+  100                  SYNC   0.006 ±   0.000   159.113 ±    0.512   157.952   175.616
+  100           ASYNC_ARRAY   0.006 ±   0.001   170.027 ±    5.233   165.120   196.669
+  100       ASYNC_DISRUPTOR   0.008 ±   0.001   126.825 ±    4.603   126.208   206.848
+  100          ASYNC_LOGGER   0.008 ±   0.000   124.446 ±   10.143     0.742      6234
+  100  ASYNC_LOGGER_DISCARD   9.321 ±   6.823     0.699 ±    0.174     0.198     0.771
+
+-t 4
+    0                  SYNC   1.650 ±   0.262     4.671 ±    0.721     0.416     0.710
+    0           ASYNC_ARRAY   0.857 ±   0.490    11.082 ±    1.183     0.924     8.352
+    0       ASYNC_DISRUPTOR   0.870 ±   0.466    10.007 ±    1.019     0.823     4.246
+    0          ASYNC_LOGGER   1.044 ±   0.313    12.133 ±    1.376     0.680     1.636
+    0  ASYNC_LOGGER_DISCARD   3.147 ±   2.053     4.894 ±    0.912     0.185     0.963
+   10                  SYNC   0.056 ±   0.002    71.042 ±    0.190    71.936    92.160
+   10           ASYNC_ARRAY   0.012 ±   0.006   305.813 ±    5.033   298.496   361.472
+   10       ASYNC_DISRUPTOR   0.012 ±   0.001   359.680 ±    9.347   255.744      1982
+   10          ASYNC_LOGGER   0.016 ±   0.001   285.229 ±   19.491     0.783      9617
+   10  ASYNC_LOGGER_DISCARD   7.721 ±   3.590     3.477 ±    0.530     0.196     0.596
+  100                  SYNC   0.025 ±   0.000   164.359 ±    0.599   162.560   207.340
+  100           ASYNC_ARRAY   0.006 ±   0.000   687.437 ±    9.994   662.528      1028
+  100       ASYNC_DISRUPTOR   0.006 ±   0.001   747.367 ±   14.973   526.336      4166
+  100          ASYNC_LOGGER   0.008 ±   0.000   546.494 ±   50.961     0.735     18940
+  100  ASYNC_LOGGER_DISCARD   6.825 ±   2.592     3.817 ±    0.562     0.198     0.435
+
+-t 16
+    0                  SYNC   1.150 ±   0.804    20.595 ±    1.923     0.566     1.962
+    0           ASYNC_ARRAY   0.679 ±   0.310    30.554 ±    3.090     0.785     1.234
+    0       ASYNC_DISRUPTOR   0.598 ±   0.839    35.107 ±    2.740     0.983     3.324
+    0          ASYNC_LOGGER   0.839 ±   0.978    30.875 ±    3.298     0.633     1.054
+    0  ASYNC_LOGGER_DISCARD   3.934 ±   5.361    13.872 ±    1.496     0.230     1.664
+   10                  SYNC   0.170 ±   0.035    90.308 ±    0.417    68.480   503.296
+   10           ASYNC_ARRAY   0.012 ±   0.002      1218 ±    2.219      1202      1769
+   10       ASYNC_DISRUPTOR   0.006 ±   0.004      2598 ±   93.192      1503     13730
+   10          ASYNC_LOGGER   0.015 ±   0.003      1054 ±   81.865     0.768     40385
+   10  ASYNC_LOGGER_DISCARD   7.156 ±   1.516    18.201 ±    1.690     0.294     1.696
+  100                  SYNC   0.096 ±   0.002   166.454 ±    0.252   164.608   241.152
+  100           ASYNC_ARRAY   0.006 ±   0.001      2798 ±   20.946      2703      4293
+  100       ASYNC_DISRUPTOR   0.005 ±   0.001      3623 ±   96.642      1737     28508
+  100          ASYNC_LOGGER   0.008 ±   0.000      2009 ±  203.155     0.823     83587
+  100  ASYNC_LOGGER_DISCARD   2.414 ±  10.241    16.929 ±    1.712     0.289     1.748
+
+-t 64
+    0                  SYNC   1.032 ±   0.648    63.908 ±    5.940     0.536     2.336
+    0           ASYNC_ARRAY   0.409 ±   0.493    96.353 ±    9.505     0.731     1.628
+    0       ASYNC_DISRUPTOR   0.730 ±   0.516   117.379 ±   11.204     0.763     2.026
+    0          ASYNC_LOGGER   1.057 ±   0.514    66.687 ±    5.460     0.468     0.860
+    0  ASYNC_LOGGER_DISCARD   1.608 ±   2.821    58.993 ±    6.108     0.768     1.982
+   10                  SYNC   0.127 ±   0.076   324.177 ±    1.799   230.144      1722
+   10           ASYNC_ARRAY   0.012 ±   0.003      4923 ±   43.888      4686      6357
+   10       ASYNC_DISRUPTOR   0.005 ±   0.003      8714 ±  599.244   569.344    232197
+   10          ASYNC_LOGGER   0.016 ±   0.002      4238 ±  350.778     0.671    153601
+   10  ASYNC_LOGGER_DISCARD   8.874 ±   6.646    23.344 ±    3.381     0.200     0.406
+  100                  SYNC   0.151 ±   0.083   329.555 ±    1.834   198.400      1751
+  100           ASYNC_ARRAY   0.006 ±   0.001     10665 ±    9.805     10519     12599
+  100       ASYNC_DISRUPTOR   0.004 ±   0.004     19311 ±     1142      3903    301130
+  100          ASYNC_LOGGER   0.008 ±   0.000      7930 ±  836.065     0.741    359662
+  100  ASYNC_LOGGER_DISCARD   5.228 ±  14.554    27.078 ±    3.613     0.173     1.042
+
+Выводы:
+- thrpt при delayMicros=0 на нескольких потоках (и ASYNC_LOGGER_DISCARD на 16 и 64 потоках) не надежен:
+  ошибка больше или порядка самого значения, поток appender-а делит единственный CPU с вызывающими.
+  Выводы ниже опираются на sample: у него ошибка не больше 20% среднего, кроме нескольких
+  вариантов на 1 потоке (до 36%).
+- delayMicros=0: вызов стоит единицы us у всех вариантов, ASYNC_LOGGER держит p99 ниже 1 us на 64 потоках,
+  ASYNC_DISRUPTOR дает худший p99 на 1 потоке (19 us) и не лучше ASYNC_ARRAY на 16 и 64.
+- delayMicros=10 и 100: асинхронные варианты с ожиданием упираются в один поток appender-а
+  (0.005-0.016 ops/us при любом числе потоков), очередь полна, вызывающий поток ждет места:
+  среднее растет с числом потоков (ASYNC_LOGGER, delayMicros=10: 63 us на 1 потоке, 4.2 ms на 64),
+  p99 ASYNC_LOGGER и ASYNC_DISRUPTOR - сотни ms на 64 потоках. p50 ASYNC_LOGGER остается ниже 1 us.
+- SYNC на 16 и 64 потоках выигрывает по пропускной способности только потому, что SlowAppender спит,
+  а не работает: сны разных потоков идут параллельно. Для appender-а, занятого CPU или диском, это не так.
+- ASYNC_LOGGER_DISCARD при перегрузке держит p99 вызова ниже 2 us на всех потоках и задержках,
+  но цена - потеря событий: при delayMicros=10 вызовов в сотни раз больше, чем записывает appender,
+  то есть почти все события INFO при постоянной перегрузке отбрасываются. WARN и ERROR ждут места, их
+  в бенчмарке нет.
+Отсюда log4j2-throughput.xml: асинхронные логгеры, быстрый appender без flush на каждое событие и Discard
+для INFO и ниже - только там, где потеря INFO при перегрузке допустима, иначе без asyncQueueFullPolicy
+(вызывающий поток ждет, как ASYNC_LOGGER выше).
+*/
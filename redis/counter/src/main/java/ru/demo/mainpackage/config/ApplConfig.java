@@ -1,5 +1,6 @@
 package ru.demo.mainpackage.config;
 
+import java.time.Duration;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
@@ -12,6 +13,7 @@ import org.springframework.context.annotation.Configuration;
 import ru.demo.mainpackage.model.StatsValue;
 import ru.demo.mainpackage.repository.CounterRepository;
 import ru.demo.mainpackage.repository.CounterRepositoryRedis;
+import ru.demo.mainpackage.repository.CounterRepositoryWriteBehind;
 import ru.demo.mainpackage.services.CounterRedis;
 
 @Configuration
@@ -41,8 +43,18 @@ public class ApplConfig {
     }
 
     @Bean
-    public CounterRepository counterRepository(RedissonClient redissonClient) {
-        return new CounterRepositoryRedis(redissonClient);
+    public CounterRepository counterRepository(
+            RedissonClient redissonClient,
+            ScheduledThreadPoolExecutor scheduledExecutor,
+            @Value("${application.write-behind.enabled:false}") boolean writeBehind,
+            @Value("${application.write-behind.flush-interval:100ms}") Duration flushInterval,
+            @Value("${application.write-behind.max-staleness:1s}") Duration maxStaleness) {
+        var counterRepositoryRedis = new CounterRepositoryRedis(redissonClient);
+        if (!writeBehind) {
+            return counterRepositoryRedis;
+        }
+        log.info("write-behind counters, flushInterval:{}, maxStaleness:{}", flushInterval, maxStaleness);
+        return new CounterRepositoryWriteBehind(counterRepositoryRedis, scheduledExecutor, flushInterval, maxStaleness);
     }
 
     @Bean
@@ -1,5 +1,7 @@
 package ru.demo.mainpackage.repository;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import ru.demo.mainpackage.model.Stats;
 import ru.demo.mainpackage.model.StatsId;
@@ -12,4 +14,12 @@ public interface CounterRepository {
     Optional<StatsValue> get(StatsId id);
 
     StatsValue increment(StatsId id);
+
+    StatsValue add(StatsId id, long delta);
+
+    default Map<StatsId, StatsValue> addAll(Map<StatsId, Long> deltas) {
+        var result = new HashMap<StatsId, StatsValue>(deltas.size() * 2);
+        deltas.forEach((id, delta) -> result.put(id, add(id, delta)));
+        return result;
+    }
 }
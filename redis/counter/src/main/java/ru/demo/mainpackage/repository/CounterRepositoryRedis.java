@@ -1,7 +1,12 @@
 package ru.demo.mainpackage.repository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RFuture;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +72,35 @@ public class CounterRepositoryRedis implements CounterRepository {
         return new StatsValue(lastValue);
     }
 
+    @Override
+    public StatsValue add(StatsId id, long delta) {
+        var counter = redissonClient.getAtomicLong(getKeyName(id));
+        return new StatsValue(counter.addAndGet(delta));
+    }
+
+    /*
+     * Все приращения одним пакетом (MULTI/EXEC): один round trip на пачку,
+     * пачка применяется целиком или не применяется совсем.
+     */
+    @Override
+    public Map<StatsId, StatsValue> addAll(Map<StatsId, Long> deltas) {
+        var batch = redissonClient.createBatch(
+                BatchOptions.defaults().executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+        var ids = new ArrayList<StatsId>(deltas.size());
+        var futures = new ArrayList<RFuture<Long>>(deltas.size());
+        deltas.forEach((id, delta) -> {
+            ids.add(id);
+            futures.add(batch.getAtomicLong(getKeyName(id)).addAndGetAsync(delta));
+        });
+        batch.execute();
+
+        var result = new HashMap<StatsId, StatsValue>(ids.size() * 2);
+        for (var idx = 0; idx < ids.size(); idx++) {
+            result.put(ids.get(idx), new StatsValue(futures.get(idx).toCompletableFuture().join()));
+        }
+        return result;
+    }
+
     private String getKeyName(StatsId id) {
         return String.valueOf(id.data());
     }
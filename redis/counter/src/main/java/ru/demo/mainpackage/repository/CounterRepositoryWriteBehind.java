@@ -0,0 +1,242 @@
+package ru.demo.mainpackage.repository;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.demo.mainpackage.model.Stats;
+import ru.demo.mainpackage.model.StatsId;
+import ru.demo.mainpackage.model.StatsValue;
+
+/**
+ * Счетчики с отложенной записью поверх другого CounterRepository.
+ * increment/add только увеличивают локальный LongAdder, в delegate ничего не уходит.
+ * Раз в flushInterval накопленные приращения всех счетчиков отправляются одним addAll.
+ * get/increment возвращают последнее значение из delegate плюс еще не записанные приращения,
+ * значение из delegate перечитывается, если оно старше maxStaleness.
+ * Приращения других экземпляров приложения видны с задержкой не больше maxStaleness + flushInterval.
+ */
+public class CounterRepositoryWriteBehind implements CounterRepository, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(CounterRepositoryWriteBehind.class);
+
+    private final CounterRepository delegate;
+    private final long maxStalenessNanos;
+    private final Map<StatsId, Counter> counters = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> flushTask;
+
+    public CounterRepositoryWriteBehind(
+            CounterRepository delegate,
+            ScheduledExecutorService scheduledExecutor,
+            Duration flushInterval,
+            Duration maxStaleness) {
+        this.delegate = delegate;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.flushTask = scheduledExecutor.scheduleWithFixedDelay(
+                this::flushSafe, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void initValue(Stats stats) {
+        delegate.initValue(stats);
+        counter(stats.id()).invalidate();
+    }
+
+    @Override
+    public Optional<StatsValue> get(StatsId id) {
+        var counter = counter(id);
+        if (counter.isStale(System.nanoTime(), maxStalenessNanos)) {
+            refresh(id, counter);
+        }
+        return Optional.of(new StatsValue(counter.value()));
+    }
+
+    @Override
+    public StatsValue increment(StatsId id) {
+        return add(id, 1);
+    }
+
+    @Override
+    public StatsValue add(StatsId id, long delta) {
+        var counter = counter(id);
+        counter.pending.add(delta);
+        if (counter.isStale(System.nanoTime(), maxStalenessNanos)) {
+            refresh(id, counter);
+        }
+        return new StatsValue(counter.value());
+    }
+
+    /**
+     * Отправляет в delegate все накопленные приращения одним addAll.
+     * При ошибке приращения возвращаются в счетчики и уйдут со следующим flush.
+     */
+    public synchronized void flush() {
+        var deltas = new HashMap<StatsId, Long>();
+        counters.forEach((id, counter) -> {
+            var delta = counter.startFlush();
+            if (delta != 0) {
+                deltas.put(id, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<StatsId, StatsValue> values;
+        try {
+            values = delegate.addAll(deltas);
+        } catch (RuntimeException ex) {
+            deltas.keySet().forEach(id -> counters.get(id).failFlush());
+            throw ex;
+        }
+        var loadedAt = System.nanoTime();
+        deltas.keySet().forEach(id -> counters.get(id).completeFlush(values.get(id).data(), loadedAt));
+        log.debug("flushed counters:{}", deltas.size());
+    }
+
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        flush();
+    }
+
+    private void flushSafe() {
+        try {
+            flush();
+        } catch (Exception ex) {
+            log.error("can't flush counters", ex);
+        }
+    }
+
+    private Counter counter(StatsId id) {
+        return counters.computeIfAbsent(id, key -> new Counter());
+    }
+
+    private void refresh(StatsId id, Counter counter) {
+        var version = counter.version();
+        var remoteValue = delegate.get(id).map(StatsValue::data).orElse(0L);
+        counter.refreshed(version, remoteValue, System.nanoTime());
+    }
+
+    /*
+     * Значение счетчика = remoteValue + inFlight + pending.
+     * pending меняется без блокировки, остальное - под StampedLock,
+     * перенос pending -> inFlight делается под write-блокировкой, чтобы чтение не увидело приращение дважды.
+     * version растет в начале и в конце каждого flush: значение, перечитанное во время flush,
+     * не применяется и после его завершения (оно могло быть прочитано до записи приращений).
+     */
+    private static class Counter {
+        private final LongAdder pending = new LongAdder();
+        private final StampedLock lock = new StampedLock();
+        private long remoteValue;
+        private long inFlight;
+        private long loadedAt;
+        private boolean loaded;
+        private long version;
+
+        long value() {
+            var stamp = lock.tryOptimisticRead();
+            var value = remoteValue + inFlight + pending.sum();
+            if (lock.validate(stamp)) {
+                return value;
+            }
+            stamp = lock.readLock();
+            try {
+                return remoteValue + inFlight + pending.sum();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        boolean isStale(long now, long maxStalenessNanos) {
+            var stamp = lock.tryOptimisticRead();
+            var stale = !loaded || now - loadedAt > maxStalenessNanos;
+            if (lock.validate(stamp)) {
+                return stale;
+            }
+            stamp = lock.readLock();
+            try {
+                return !loaded || now - loadedAt > maxStalenessNanos;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long version() {
+            var stamp = lock.readLock();
+            try {
+                return version;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void refreshed(long expectedVersion, long value, long now) {
+            var stamp = lock.writeLock();
+            try {
+                if (version == expectedVersion && inFlight == 0) {
+                    remoteValue = value;
+                    loadedAt = now;
+                    loaded = true;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void invalidate() {
+            var stamp = lock.writeLock();
+            try {
+                loaded = false;
+                version++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long startFlush() {
+            var stamp = lock.writeLock();
+            try {
+                var delta = pending.sum();
+                if (delta != 0) {
+                    pending.add(-delta);
+                    inFlight = delta;
+                    version++;
+                }
+                return delta;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void completeFlush(long value, long now) {
+            var stamp = lock.writeLock();
+            try {
+                remoteValue = value;
+                inFlight = 0;
+                loadedAt = now;
+                loaded = true;
+                version++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void failFlush() {
+            var stamp = lock.writeLock();
+            try {
+                pending.add(inFlight);
+                inFlight = 0;
+                version++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
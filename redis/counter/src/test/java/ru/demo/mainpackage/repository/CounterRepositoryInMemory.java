@@ -0,0 +1,65 @@
+package ru.demo.mainpackage.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import ru.demo.mainpackage.model.Stats;
+import ru.demo.mainpackage.model.StatsId;
+import ru.demo.mainpackage.model.StatsValue;
+
+/**
+ * Замена Redis для тестов: значения в памяти, каждый вызов считается как один round trip.
+ */
+class CounterRepositoryInMemory implements CounterRepository {
+    private final Map<StatsId, Long> values = new ConcurrentHashMap<>();
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Override
+    public void initValue(Stats stats) {
+        roundTrips.incrementAndGet();
+        values.putIfAbsent(stats.id(), stats.value().data());
+    }
+
+    @Override
+    public Optional<StatsValue> get(StatsId id) {
+        roundTrips.incrementAndGet();
+        return Optional.of(new StatsValue(values.getOrDefault(id, 0L)));
+    }
+
+    @Override
+    public StatsValue increment(StatsId id) {
+        return add(id, 1);
+    }
+
+    @Override
+    public StatsValue add(StatsId id, long delta) {
+        roundTrips.incrementAndGet();
+        return new StatsValue(values.merge(id, delta, Long::sum));
+    }
+
+    @Override
+    public synchronized Map<StatsId, StatsValue> addAll(Map<StatsId, Long> deltas) {
+        roundTrips.incrementAndGet();
+        if (failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+            throw new IllegalStateException("connection lost");
+        }
+        var result = new HashMap<StatsId, StatsValue>();
+        deltas.forEach((id, delta) -> result.put(id, new StatsValue(values.merge(id, delta, Long::sum))));
+        return result;
+    }
+
+    long value(StatsId id) {
+        return values.getOrDefault(id, 0L);
+    }
+
+    int roundTrips() {
+        return roundTrips.get();
+    }
+
+    void failNext(int count) {
+        failures.set(count);
+    }
+}
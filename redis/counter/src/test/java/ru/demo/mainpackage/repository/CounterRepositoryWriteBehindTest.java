@@ -0,0 +1,192 @@
+package ru.demo.mainpackage.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.demo.mainpackage.model.Stats;
+import ru.demo.mainpackage.model.StatsId;
+import ru.demo.mainpackage.model.StatsValue;
+
+class CounterRepositoryWriteBehindTest {
+    private static final Duration NEVER = Duration.ofHours(1);
+    private final StatsId idA = new StatsId(1);
+    private final StatsId idB = new StatsId(2);
+
+    private CounterRepositoryInMemory delegate;
+    private ScheduledExecutorService scheduledExecutor;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new CounterRepositoryInMemory();
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Test
+    void incrementsAreFlushedInOneBatch() {
+        //given
+        var repository = new CounterRepositoryWriteBehind(delegate, scheduledExecutor, NEVER, NEVER);
+        repository.initValue(new Stats(idA, new StatsValue(100)));
+
+        //when
+        StatsValue lastA = null;
+        for (var idx = 0; idx < 1_000; idx++) {
+            lastA = repository.increment(idA);
+        }
+        for (var idx = 0; idx < 500; idx++) {
+            repository.increment(idB);
+        }
+        var roundTripsBeforeFlush = delegate.roundTrips();
+        repository.flush();
+
+        //then
+        assertThat(lastA).isEqualTo(new StatsValue(1_100));
+        // initValue + первое чтение каждого счетчика
+        assertThat(roundTripsBeforeFlush).isEqualTo(3);
+        assertThat(delegate.roundTrips()).isEqualTo(4);
+        assertThat(delegate.value(idA)).isEqualTo(1_100);
+        assertThat(delegate.value(idB)).isEqualTo(500);
+        assertThat(repository.get(idA)).contains(new StatsValue(1_100));
+        assertThat(delegate.roundTrips()).isEqualTo(4);
+    }
+
+    @Test
+    void readsAreServedFromNearCacheWithinStaleness() {
+        //given
+        var cached = new CounterRepositoryWriteBehind(delegate, scheduledExecutor, NEVER, NEVER);
+        var fresh = new CounterRepositoryWriteBehind(delegate, scheduledExecutor, NEVER, Duration.ZERO);
+        cached.increment(idA);
+        fresh.increment(idA);
+
+        //when
+        delegate.add(idA, 10);
+
+        //then
+        assertThat(cached.get(idA)).contains(new StatsValue(1));
+        assertThat(fresh.get(idA)).contains(new StatsValue(11));
+    }
+
+    @Test
+    void failedFlushKeepsDeltas() {
+        //given
+        var repository = new CounterRepositoryWriteBehind(delegate, scheduledExecutor, NEVER, NEVER);
+        repository.add(idA, 5);
+        delegate.failNext(1);
+
+        //when
+        assertThatThrownBy(repository::flush).isInstanceOf(IllegalStateException.class);
+        repository.add(idA, 2);
+
+        //then
+        assertThat(repository.get(idA)).contains(new StatsValue(7));
+        assertThat(delegate.value(idA)).isZero();
+
+        //when
+        repository.flush();
+
+        //then
+        assertThat(delegate.value(idA)).isEqualTo(7);
+        assertThat(repository.get(idA)).contains(new StatsValue(7));
+    }
+
+    @Test
+    void refreshDuringFlushDoesNotOverwriteFlushedValue() throws Exception {
+        //given
+        var blockGet = new AtomicBoolean();
+        var addAllEntered = new CountDownLatch(1);
+        var addAllRelease = new CountDownLatch(1);
+        var getRead = new CountDownLatch(1);
+        var getRelease = new CountDownLatch(1);
+        var slowDelegate = new CounterRepositoryInMemory() {
+            @Override
+            public Map<StatsId, StatsValue> addAll(Map<StatsId, Long> deltas) {
+                addAllEntered.countDown();
+                await(addAllRelease);
+                return super.addAll(deltas);
+            }
+
+            @Override
+            public Optional<StatsValue> get(StatsId id) {
+                var value = super.get(id);
+                if (blockGet.get()) {
+                    getRead.countDown();
+                    await(getRelease);
+                }
+                return value;
+            }
+        };
+        var repository = new CounterRepositoryWriteBehind(slowDelegate, scheduledExecutor, NEVER, Duration.ZERO);
+        repository.add(idA, 5);
+        blockGet.set(true);
+
+        //when
+        // get читает из delegate 0 во время flush, а применяет прочитанное уже после его завершения
+        var flush = CompletableFuture.runAsync(repository::flush);
+        assertThat(addAllEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        var read = CompletableFuture.supplyAsync(() -> repository.get(idA));
+        assertThat(getRead.await(5, TimeUnit.SECONDS)).isTrue();
+        addAllRelease.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        getRelease.countDown();
+
+        //then
+        assertThat(read.get(5, TimeUnit.SECONDS)).contains(new StatsValue(5));
+        assertThat(slowDelegate.value(idA)).isEqualTo(5);
+    }
+
+    @Test
+    void concurrentIncrementsWithBackgroundFlush() throws Exception {
+        //given
+        var threads = 4;
+        var incrementsPerThread = 50_000;
+        var repository =
+                new CounterRepositoryWriteBehind(delegate, scheduledExecutor, Duration.ofMillis(1), Duration.ofMillis(5));
+        var executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+
+        //when
+        for (var thread = 0; thread < threads; thread++) {
+            executor.submit(() -> {
+                start.await();
+                for (var idx = 0; idx < incrementsPerThread; idx++) {
+                    repository.increment(idx % 2 == 0 ? idA : idB);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        repository.close();
+
+        //then
+        var total = (long) threads * incrementsPerThread;
+        assertThat(delegate.value(idA) + delegate.value(idB)).isEqualTo(total);
+        assertThat(repository.get(idA)).contains(new StatsValue(total / 2));
+        assertThat(delegate.roundTrips()).isLessThan((int) total / 10);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
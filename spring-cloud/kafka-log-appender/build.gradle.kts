@@ -1,6 +1,9 @@
 dependencies {
     implementation("ch.qos.logback:logback-classic")
     implementation ("org.apache.kafka:kafka-clients")
+
+    testImplementation ("org.junit.jupiter:junit-jupiter-engine")
+    testImplementation ("org.assertj:assertj-core")
 }
 
 tasks {
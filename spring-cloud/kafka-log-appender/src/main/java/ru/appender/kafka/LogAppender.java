@@ -3,22 +3,44 @@ package ru.appender.kafka;
 import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import ch.qos.logback.core.encoder.Encoder;
-import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class LogAppender extends UnsynchronizedAppenderBase<LoggingEvent> {
     private static final String MESSAGE_TEMPLATE = "[Kafka appender] %s";
+    private static final long STOP_TIMEOUT_MS = 5_000;
+    private static final String KAFKA_LOGGER_PREFIX = "org.apache.kafka.";
+    private static final String KAFKA_NETWORK_THREAD_PREFIX = "kafka-producer-network-thread";
 
     private String bootstrapServers;
     private String topicName;
+    private int queueSize = 1000;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+    private long blockTimeoutMs = 100;
+    private int eventsPerRecord = 100;
+    private int maxRecordBytes = 65_536;
 
-    private final Queue<LoggingEvent> eventsQueue = new ArrayBlockingQueue<>(1000);
+    private BlockingQueue<LoggingEvent> eventsQueue;
+    private final LongAdder droppedEvents = new LongAdder();
+    private volatile boolean overflowReported;
 
     private Thread senderThread;
+    private LogProducer logProducer;
+    private LogSender logSender;
     private Encoder<LoggingEvent> encoder;
 
     private final ErrorMsgConsumer errorMsgConsumer = error -> addError(String.format(MESSAGE_TEMPLATE, error));
 
+    public LogAppender() {
+        // logback создает appender сам, LogProducer создается в start
+    }
+
+    LogAppender(LogProducer logProducer) {
+        this.logProducer = logProducer;
+    }
+
     public void setEncoder(Encoder<LoggingEvent> encoder) {
         this.encoder = encoder;
     }
@@ -33,6 +55,46 @@ public class LogAppender extends UnsynchronizedAppenderBase<LoggingEvent> {
         addInfo(String.format(MESSAGE_TEMPLATE, "set topicName:" + topicName));
     }
 
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setBlockTimeoutMs(long blockTimeoutMs) {
+        this.blockTimeoutMs = blockTimeoutMs;
+    }
+
+    public void setEventsPerRecord(int eventsPerRecord) {
+        this.eventsPerRecord = eventsPerRecord;
+    }
+
+    public void setMaxRecordBytes(int maxRecordBytes) {
+        this.maxRecordBytes = maxRecordBytes;
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    public int getQueuedEvents() {
+        return eventsQueue == null ? 0 : eventsQueue.size();
+    }
+
+    public long getSentEvents() {
+        return logSender == null ? 0 : logSender.getSentEvents();
+    }
+
+    public long getSentRecords() {
+        return logSender == null ? 0 : logSender.getSentRecords();
+    }
+
+    public long getFailedEvents() {
+        return logSender == null ? 0 : logSender.getFailedEvents();
+    }
+
     @Override
     public void start() {
         if (bootstrapServers == null) {
@@ -44,11 +106,18 @@ public class LogAppender extends UnsynchronizedAppenderBase<LoggingEvent> {
             addError(String.format(MESSAGE_TEMPLATE, "topicName is null"));
             return;
         }
-        var logProducer = new LogProducer(bootstrapServers, topicName);
+        if (logProducer == null) {
+            logProducer = new LogProducer(bootstrapServers, topicName);
+        }
+        eventsQueue = new ArrayBlockingQueue<>(queueSize);
+        logSender = new LogSender(eventsQueue, encoder, logProducer, errorMsgConsumer, eventsPerRecord, maxRecordBytes);
 
-        senderThread = Thread.ofVirtual().name("senderThread").start(() -> sendMessages(logProducer));
+        senderThread = Thread.ofVirtual().name("senderThread").start(logSender);
         super.start();
-        addInfo(String.format(MESSAGE_TEMPLATE, "started"));
+        addInfo(String.format(
+                MESSAGE_TEMPLATE,
+                "started, queueSize:" + queueSize + ", overflowPolicy:" + overflowPolicy + ", eventsPerRecord:"
+                        + eventsPerRecord));
     }
 
     @Override
@@ -56,29 +125,71 @@ public class LogAppender extends UnsynchronizedAppenderBase<LoggingEvent> {
         super.stop();
         if (senderThread != null) {
             senderThread.interrupt();
+            try {
+                senderThread.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
         }
-        addInfo(String.format(MESSAGE_TEMPLATE, "stopped"));
+        addInfo(String.format(
+                MESSAGE_TEMPLATE,
+                "stopped, sent:" + getSentEvents() + ", dropped:" + getDroppedEvents() + ", failed:"
+                        + getFailedEvents()));
     }
 
     @Override
     public void append(LoggingEvent eventObject) {
-        var result = eventsQueue.offer(eventObject);
-        if (!result) {
-            addWarn(String.format(MESSAGE_TEMPLATE, "eventsQueue is full"));
+        // имя потока, MDC и аргументы фиксируются здесь, кодируется событие уже в потоке отправки
+        eventObject.prepareForDeferredProcessing();
+        if (!enqueue(eventObject)) {
+            dropped();
         }
     }
 
-    private void sendMessages(LogProducer logProducer) {
-        while (!Thread.currentThread().isInterrupted()) {
-            var event = eventsQueue.poll();
-            if (event != null) {
+    private void dropped() {
+        droppedEvents.increment();
+        if (!overflowReported) {
+            overflowReported = true;
+            addWarn(String.format(MESSAGE_TEMPLATE, "eventsQueue is full, policy:" + overflowPolicy));
+        }
+    }
+
+    private boolean enqueue(LoggingEvent eventObject) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> {
+                while (!eventsQueue.offer(eventObject)) {
+                    if (eventsQueue.poll() != null) {
+                        dropped();
+                    }
+                }
+                return true;
+            }
+            case BLOCK -> {
+                // kafka-clients не должен ждать места в очереди, которую освобождает только он сам
+                if (isKafkaEvent(eventObject)) {
+                    return eventsQueue.offer(eventObject);
+                }
                 try {
-                    var messageAsText = new String(encoder.encode(event));
-                    logProducer.send(messageAsText, errorMsgConsumer);
-                } catch (Exception ex) {
-                    addError(String.format(MESSAGE_TEMPLATE, ex.getMessage()));
+                    return eventsQueue.offer(eventObject, blockTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
                 }
             }
+            default -> {
+                return eventsQueue.offer(eventObject);
+            }
         }
     }
+
+    /*
+     * Логи самого kafka-clients: из потока отправки, из сетевого потока producer-а или логгеров org.apache.kafka.
+     * Пока такой поток ждет очередь, отправка тоже стоит.
+     */
+    private boolean isKafkaEvent(LoggingEvent eventObject) {
+        var thread = Thread.currentThread();
+        return thread == senderThread
+                || thread.getName().startsWith(KAFKA_NETWORK_THREAD_PREFIX)
+                || eventObject.getLoggerName().startsWith(KAFKA_LOGGER_PREFIX);
+    }
 }
@@ -11,14 +11,17 @@ import static org.apache.kafka.clients.producer.ProducerConfig.LINGER_MS_CONFIG;
 import static org.apache.kafka.clients.producer.ProducerConfig.MAX_BLOCK_MS_CONFIG;
 import static org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG;
 
+import java.nio.ByteBuffer;
 import java.util.Properties;
 import java.util.function.Consumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteBufferSerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 
 public class LogProducer {
-    private final KafkaProducer<String, String> kafkaProducer;
+    private final Producer<String, ByteBuffer> kafkaProducer;
     private final String topicName;
     private long lastSendKey = System.currentTimeMillis();
 
@@ -29,12 +32,12 @@ public class LogProducer {
         props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ACKS_CONFIG, "1");
         props.put(RETRIES_CONFIG, 1);
-        props.put(BATCH_SIZE_CONFIG, 16384);
+        props.put(BATCH_SIZE_CONFIG, 131_072);
         props.put(LINGER_MS_CONFIG, 10);
         props.put(BUFFER_MEMORY_CONFIG, 33_554_432); // bytes
         props.put(MAX_BLOCK_MS_CONFIG, 1_000); // ms
         props.put(KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(VALUE_SERIALIZER_CLASS_CONFIG, ByteBufferSerializer.class);
 
         kafkaProducer = new KafkaProducer<>(props);
 
@@ -42,15 +45,29 @@ public class LogProducer {
         Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
 
-    public void send(String value, Consumer<String> errorCallback) {
+    LogProducer(Producer<String, ByteBuffer> kafkaProducer, String topicName) {
+        this.kafkaProducer = kafkaProducer;
+        this.topicName = topicName;
+    }
+
+    /*
+     * value сериализуется внутри send, поэтому после возврата буфер можно переиспользовать.
+     */
+    public void send(ByteBuffer value, Runnable successCallback, Consumer<String> errorCallback) {
         var key = lastSendKey++;
         kafkaProducer.send(new ProducerRecord<>(topicName, String.valueOf(key), value), (metadata, exception) -> {
             if (exception != null) {
                 errorCallback.accept(String.format(exception.getMessage()));
+            } else {
+                successCallback.run();
             }
         });
     }
 
+    public void flush() {
+        kafkaProducer.flush();
+    }
+
     public void close() {
         kafkaProducer.close();
     }
@@ -0,0 +1,155 @@
+package ru.appender.kafka;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Поток отправки: ждет события в очереди (без холостого цикла), забирает все накопившееся одной пачкой,
+ * кодирует события подряд в один переиспользуемый буфер и отправляет буфер одной записью Kafka,
+ * как только следующее событие в него не помещается или пачка закончилась.
+ * В одной записи не больше eventsPerRecord событий, строки идут подряд, как их выдал encoder.
+ */
+class LogSender implements Runnable {
+    private static final long IDLE_WAIT_MS = 100;
+
+    private final BlockingQueue<LoggingEvent> eventsQueue;
+    private final Encoder<LoggingEvent> encoder;
+    private final LogProducer logProducer;
+    private final ErrorMsgConsumer errorMsgConsumer;
+    private final int eventsPerRecord;
+    private final ByteBuffer recordBuffer;
+    private final List<LoggingEvent> batch;
+
+    private final LongAdder sentEvents = new LongAdder();
+    private final LongAdder sentRecords = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private int eventsInRecord;
+
+    LogSender(
+            BlockingQueue<LoggingEvent> eventsQueue,
+            Encoder<LoggingEvent> encoder,
+            LogProducer logProducer,
+            ErrorMsgConsumer errorMsgConsumer,
+            int eventsPerRecord,
+            int maxRecordBytes) {
+        this.eventsQueue = eventsQueue;
+        this.encoder = encoder;
+        this.logProducer = logProducer;
+        this.errorMsgConsumer = errorMsgConsumer;
+        this.eventsPerRecord = eventsPerRecord;
+        this.recordBuffer = ByteBuffer.allocate(maxRecordBytes);
+        this.batch = new ArrayList<>(eventsPerRecord);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                var first = eventsQueue.poll(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    eventsQueue.drainTo(batch, eventsPerRecord - 1);
+                    sendBatch();
+                }
+            }
+        } catch (InterruptedException ex) {
+            // остановка appender-а
+        }
+        // флаг сбрасывается, иначе send может упасть на ожидании metadata
+        var interrupted = Thread.interrupted();
+        drain();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Отправляет все, что осталось в очереди, и ждет отправки. Вызывается при остановке appender-а.
+     */
+    void drain() {
+        while (eventsQueue.drainTo(batch, eventsPerRecord) > 0) {
+            sendBatch();
+        }
+        logProducer.flush();
+    }
+
+    long getSentEvents() {
+        return sentEvents.sum();
+    }
+
+    long getSentRecords() {
+        return sentRecords.sum();
+    }
+
+    long getFailedEvents() {
+        return failedEvents.sum();
+    }
+
+    private void sendBatch() {
+        try {
+            for (var event : batch) {
+                append(event);
+            }
+            sendRecord();
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void append(LoggingEvent event) {
+        byte[] encoded;
+        try {
+            encoded = encoder.encode(event);
+        } catch (Exception ex) {
+            failedEvents.increment();
+            errorMsgConsumer.accept(ex.getMessage());
+            return;
+        }
+        if (encoded.length > recordBuffer.remaining()) {
+            sendRecord();
+        }
+        if (encoded.length > recordBuffer.capacity()) {
+            send(ByteBuffer.wrap(encoded), 1);
+            return;
+        }
+        recordBuffer.put(encoded);
+        eventsInRecord++;
+    }
+
+    private void sendRecord() {
+        if (eventsInRecord == 0) {
+            return;
+        }
+        recordBuffer.flip();
+        try {
+            send(recordBuffer, eventsInRecord);
+        } finally {
+            recordBuffer.clear();
+            eventsInRecord = 0;
+        }
+    }
+
+    private void send(ByteBuffer value, int events) {
+        try {
+            logProducer.send(
+                    value,
+                    () -> {
+                        sentEvents.add(events);
+                        sentRecords.increment();
+                    },
+                    error -> {
+                        failedEvents.add(events);
+                        errorMsgConsumer.accept(error);
+                    });
+        } catch (Exception ex) {
+            failedEvents.add(events);
+            errorMsgConsumer.accept(ex.getMessage());
+        }
+    }
+}
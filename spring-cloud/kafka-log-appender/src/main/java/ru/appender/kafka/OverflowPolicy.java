@@ -0,0 +1,16 @@
+package ru.appender.kafka;
+
+/**
+ * Что делать с событием, если очередь appender-а заполнена.
+ */
+public enum OverflowPolicy {
+    /** Выбросить самое старое событие из очереди и положить новое. */
+    DROP_OLDEST,
+    /** Выбросить новое событие. */
+    DROP_NEWEST,
+    /**
+     * Ждать места в очереди не дольше blockTimeoutMs, потом выбросить новое событие.
+     * События kafka-clients (логгеры org.apache.kafka, сетевой поток producer-а) не ждут, а сразу выбрасываются.
+     */
+    BLOCK
+}
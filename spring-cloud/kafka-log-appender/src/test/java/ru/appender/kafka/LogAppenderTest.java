@@ -0,0 +1,169 @@
+package ru.appender.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LogAppenderTest {
+    private static final String TOPIC = "logs";
+    private static final int QUEUE_SIZE = 2;
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final RecordingProducer producer = new RecordingProducer(true);
+    private final TestEncoder encoder = new TestEncoder("event-0");
+    private LogAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.release();
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    void dropNewest() throws InterruptedException {
+        // given
+        startWithFullQueue(OverflowPolicy.DROP_NEWEST, 100);
+
+        // when
+        appender.doAppend(event("test", "event-3"));
+
+        // then
+        assertThat(appender.getDroppedEvents()).isEqualTo(1);
+        assertThat(sentAfterRelease()).containsExactly("event-0", "event-1", "event-2");
+    }
+
+    @Test
+    void dropOldest() throws InterruptedException {
+        // given
+        startWithFullQueue(OverflowPolicy.DROP_OLDEST, 100);
+
+        // when
+        appender.doAppend(event("test", "event-3"));
+
+        // then
+        assertThat(appender.getDroppedEvents()).isEqualTo(1);
+        assertThat(sentAfterRelease()).containsExactly("event-0", "event-2", "event-3");
+    }
+
+    @Test
+    void blockWaitsBlockTimeoutThenDrops() throws InterruptedException {
+        // given
+        var blockTimeout = Duration.ofMillis(200);
+        startWithFullQueue(OverflowPolicy.BLOCK, blockTimeout.toMillis());
+
+        // when
+        var startedAt = System.nanoTime();
+        appender.doAppend(event("test", "event-3"));
+        var blocked = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        // then
+        assertThat(blocked).isGreaterThanOrEqualTo(blockTimeout);
+        assertThat(appender.getDroppedEvents()).isEqualTo(1);
+        assertThat(sentAfterRelease()).containsExactly("event-0", "event-1", "event-2");
+    }
+
+    @Test
+    void blockEnqueuesWhenSpaceIsFreed() throws InterruptedException {
+        // given
+        startWithFullQueue(OverflowPolicy.BLOCK, 10_000);
+
+        // when
+        Thread.ofVirtual().start(() -> {
+            sleep(Duration.ofMillis(50));
+            encoder.release();
+        });
+        appender.doAppend(event("test", "event-3"));
+
+        // then
+        assertThat(appender.getDroppedEvents()).isZero();
+        assertThat(sentAfterRelease()).containsExactly("event-0", "event-1", "event-2", "event-3");
+    }
+
+    @Test
+    void blockDoesNotWaitForKafkaClientEvents() throws InterruptedException {
+        // given
+        startWithFullQueue(OverflowPolicy.BLOCK, 10_000);
+
+        // when
+        var startedAt = System.nanoTime();
+        appender.doAppend(event("org.apache.kafka.clients.NetworkClient", "kafka-0"));
+        var networkThreadEvent = new AtomicReference<Duration>();
+        var networkThread = new Thread(
+                () -> {
+                    var threadStartedAt = System.nanoTime();
+                    appender.doAppend(event("test", "kafka-1"));
+                    networkThreadEvent.set(Duration.ofNanos(System.nanoTime() - threadStartedAt));
+                },
+                "kafka-producer-network-thread | myKafkaProducer");
+        networkThread.start();
+        networkThread.join(10_000);
+        var kafkaLoggerEvent = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        // then
+        assertThat(kafkaLoggerEvent).isLessThan(Duration.ofSeconds(5));
+        assertThat(networkThreadEvent.get()).isLessThan(Duration.ofSeconds(5));
+        assertThat(appender.getDroppedEvents()).isEqualTo(2);
+        assertThat(sentAfterRelease()).containsExactly("event-0", "event-1", "event-2");
+    }
+
+    /*
+     * Поток отправки забрал event-0 и ждет в encoder, event-1 и event-2 заполнили очередь.
+     */
+    private void startWithFullQueue(OverflowPolicy overflowPolicy, long blockTimeoutMs) throws InterruptedException {
+        appender = new LogAppender(new LogProducer(producer, TOPIC));
+        appender.setContext(loggerContext);
+        appender.setBootstrapServers("localhost:9092");
+        appender.setTopicName(TOPIC);
+        appender.setEncoder(encoder);
+        appender.setQueueSize(QUEUE_SIZE);
+        appender.setOverflowPolicy(overflowPolicy);
+        appender.setBlockTimeoutMs(blockTimeoutMs);
+        appender.start();
+
+        appender.doAppend(event("test", "event-0"));
+        assertThat(encoder.awaitBlocked()).isTrue();
+        appender.doAppend(event("test", "event-1"));
+        appender.doAppend(event("test", "event-2"));
+        assertThat(appender.getQueuedEvents()).isEqualTo(QUEUE_SIZE);
+    }
+
+    private List<String> sentAfterRelease() throws InterruptedException {
+        encoder.release();
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (appender.getQueuedEvents() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        appender.stop();
+        return String.join("", producer.values()).lines().toList();
+    }
+
+    private LoggingEvent event(String loggerName, String message) {
+        return new LoggingEvent(
+                LogAppenderTest.class.getName(), loggerContext.getLogger(loggerName), Level.INFO, message, null, null);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
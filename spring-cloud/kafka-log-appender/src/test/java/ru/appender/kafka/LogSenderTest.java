@@ -0,0 +1,142 @@
+package ru.appender.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LogSenderTest {
+    private static final String TOPIC = "logs";
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final BlockingQueue<LoggingEvent> queue = new ArrayBlockingQueue<>(1_000);
+    private final List<String> errors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @Test
+    void eventsAreSentInRecordsOfEventsPerRecord() {
+        // given
+        var producer = new RecordingProducer(true);
+        var sender = makeSender(producer, 100, 65_536);
+        var messages = messages(250);
+        messages.forEach(message -> queue.add(event(message)));
+
+        // when
+        sender.drain();
+
+        // then
+        assertThat(producer.values()).hasSize(3);
+        assertThat(producer.values().get(0).lines()).hasSize(100);
+        assertThat(producer.values().get(2).lines()).hasSize(50);
+        assertThat(String.join("", producer.values()).lines()).containsExactlyElementsOf(messages);
+        assertThat(sender.getSentEvents()).isEqualTo(250);
+        assertThat(sender.getSentRecords()).isEqualTo(3);
+        assertThat(producer.flushCalled()).isTrue();
+    }
+
+    @Test
+    void recordIsSentWhenBufferIsFull() {
+        // given, одно событие - 8 байт "event-N\n"
+        var producer = new RecordingProducer(true);
+        var sender = makeSender(producer, 100, 20);
+        messages(5).forEach(message -> queue.add(event(message)));
+
+        // when
+        sender.drain();
+
+        // then
+        assertThat(producer.values()).containsExactly("event-0\nevent-1\n", "event-2\nevent-3\n", "event-4\n");
+        assertThat(sender.getSentEvents()).isEqualTo(5);
+    }
+
+    @Test
+    void eventLargerThanBufferIsSentAlone() {
+        // given
+        var producer = new RecordingProducer(true);
+        var sender = makeSender(producer, 100, 20);
+        var large = "x".repeat(50);
+        List.of("event-0", large, "event-1").forEach(message -> queue.add(event(message)));
+
+        // when
+        sender.drain();
+
+        // then
+        assertThat(producer.values()).containsExactly("event-0\n", large + "\n", "event-1\n");
+        assertThat(sender.getSentEvents()).isEqualTo(3);
+    }
+
+    @Test
+    void failedEventsAreCounted() {
+        // given
+        var producer = new RecordingProducer(false);
+        var sender = makeSender(producer, 2, 65_536);
+        List.of("event-0", "fail", "event-1", "event-2").forEach(message -> queue.add(event(message)));
+
+        // when
+        sender.drain();
+        producer.completeNext();
+        producer.errorNext(new IllegalStateException("broker is not available"));
+
+        // then
+        assertThat(producer.values()).containsExactly("event-0\n", "event-1\nevent-2\n");
+        assertThat(sender.getSentEvents()).isEqualTo(1);
+        assertThat(sender.getFailedEvents()).isEqualTo(3);
+        assertThat(errors).containsExactly("can't encode", "broker is not available");
+    }
+
+    @Test
+    void senderThreadWaitsForEventsAndDrainsOnStop() throws InterruptedException {
+        // given
+        var producer = new RecordingProducer(true);
+        var sender = makeSender(producer, 100, 65_536);
+        var thread = Thread.ofVirtual().start(sender);
+
+        // when
+        queue.add(event("event-0"));
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sender.getSentEvents() == 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        messages(3).forEach(message -> queue.add(event(message)));
+        thread.interrupt();
+        thread.join(10_000);
+
+        // then
+        assertThat(thread.isAlive()).isFalse();
+        assertThat(sender.getSentEvents()).isEqualTo(4);
+        assertThat(queue).isEmpty();
+    }
+
+    private LogSender makeSender(RecordingProducer producer, int eventsPerRecord, int maxRecordBytes) {
+        return new LogSender(
+                queue, new TestEncoder(), new LogProducer(producer, TOPIC), errors::add, eventsPerRecord, maxRecordBytes);
+    }
+
+    private LoggingEvent event(String message) {
+        var event = new LoggingEvent(
+                LogSenderTest.class.getName(), loggerContext.getLogger("test"), Level.INFO, message, null, null);
+        event.prepareForDeferredProcessing();
+        return event;
+    }
+
+    private static List<String> messages(int count) {
+        var messages = new ArrayList<String>(count);
+        for (var idx = 0; idx < count; idx++) {
+            messages.add("event-" + idx);
+        }
+        return messages;
+    }
+}
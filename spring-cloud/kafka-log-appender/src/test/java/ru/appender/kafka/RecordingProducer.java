@@ -0,0 +1,54 @@
+package ru.appender.kafka;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteBufferSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * MockProducer, который запоминает содержимое записей в момент send:
+ * LogSender переиспользует буфер, поэтому history() MockProducer-а для проверки не годится.
+ * Без autoComplete flush ничего не завершает, записи завершаются только через completeNext/errorNext.
+ */
+class RecordingProducer extends MockProducer<String, ByteBuffer> {
+    private final List<String> values = new CopyOnWriteArrayList<>();
+    private final boolean autoComplete;
+    private boolean flushCalled;
+
+    RecordingProducer(boolean autoComplete) {
+        super(autoComplete, new StringSerializer(), new ByteBufferSerializer());
+        this.autoComplete = autoComplete;
+    }
+
+    @Override
+    public synchronized Future<RecordMetadata> send(ProducerRecord<String, ByteBuffer> producerRecord, Callback callback) {
+        var value = producerRecord.value().duplicate();
+        var bytes = new byte[value.remaining()];
+        value.get(bytes);
+        values.add(new String(bytes, StandardCharsets.UTF_8));
+        return super.send(producerRecord, callback);
+    }
+
+    @Override
+    public synchronized void flush() {
+        flushCalled = true;
+        if (autoComplete) {
+            super.flush();
+        }
+    }
+
+    synchronized boolean flushCalled() {
+        return flushCalled;
+    }
+
+    List<String> values() {
+        return values;
+    }
+}
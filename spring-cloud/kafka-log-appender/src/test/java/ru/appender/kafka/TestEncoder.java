@@ -0,0 +1,60 @@
+package ru.appender.kafka;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Событие кодируется строкой "сообщение\n".
+ * Сообщение "fail" кодируется с ошибкой, на сообщении blockOn кодирование ждет release().
+ */
+class TestEncoder extends EncoderBase<LoggingEvent> {
+    private final String blockOn;
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    TestEncoder() {
+        this(null);
+    }
+
+    TestEncoder(String blockOn) {
+        this.blockOn = blockOn;
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return new byte[0];
+    }
+
+    @Override
+    public byte[] encode(LoggingEvent event) {
+        var message = event.getFormattedMessage();
+        if ("fail".equals(message)) {
+            throw new IllegalStateException("can't encode");
+        }
+        if (message.equals(blockOn)) {
+            blocked.countDown();
+            try {
+                released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return (message + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return new byte[0];
+    }
+
+    boolean awaitBlocked() throws InterruptedException {
+        return blocked.await(10, TimeUnit.SECONDS);
+    }
+
+    void release() {
+        released.countDown();
+    }
+}
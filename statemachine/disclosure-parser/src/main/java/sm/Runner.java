@@ -17,6 +17,8 @@ public class Runner implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        saver.save(loader.load());
+        try (var reader = loader.open()) {
+            saver.save(reader);
+        }
     }
 }
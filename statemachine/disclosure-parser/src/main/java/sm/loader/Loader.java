@@ -1,8 +1,16 @@
 package sm.loader;
 
-import reactor.core.publisher.Mono;
+import java.io.Reader;
+import java.io.StringReader;
 import sm.model.Content;
 
 public interface Loader {
     Content load();
+
+    /**
+     * Содержимое как поток символов, чтобы не держать всю страницу строкой.
+     */
+    default Reader open() {
+        return new StringReader(load().value());
+    }
 }
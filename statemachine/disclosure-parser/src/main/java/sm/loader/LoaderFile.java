@@ -0,0 +1,43 @@
+package sm.loader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sm.model.Content;
+
+/**
+ * Загрузка сохраненной страницы из файла, замена LoaderUrl для тестов и повторного разбора.
+ */
+public class LoaderFile implements Loader {
+    private static final Logger log = LoggerFactory.getLogger(LoaderFile.class);
+
+    private final Path path;
+
+    public LoaderFile(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public Content load() {
+        log.debug("load from the file:{}", path);
+        try {
+            return new Content(Files.readString(path, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Reader open() {
+        try {
+            return Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,56 +1,109 @@
 package sm.loader;
 
 
-import com.gargoylesoftware.htmlunit.BrowserVersion;
-import com.gargoylesoftware.htmlunit.HttpMethod;
-import com.gargoylesoftware.htmlunit.Page;
-import com.gargoylesoftware.htmlunit.WebClient;
-import com.gargoylesoftware.htmlunit.WebRequest;
-import com.gargoylesoftware.htmlunit.WebResponse;
 import java.io.IOException;
-
-import java.net.URL;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sm.model.Content;
 
-
+/*
+Страница грузится одним POST-запросом, тело ответа отдается парсеру потоком по мере получения,
+целиком в памяти не держится. Парсеру нужен только html ответа, поэтому браузер (htmlunit) не нужен.
+ */
 public class LoaderUrl implements Loader, AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(LoaderUrl.class);
-    private final WebClient webClient;
-    private final String url;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    // до получения заголовков ответа; тело читается потоком, его чтение этот таймаут не ограничивает
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/108.0.0.0 Safari/537.36";
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final Duration requestTimeout;
 
     public LoaderUrl(String url) {
-        this.url = url;
-        webClient = new WebClient(BrowserVersion.CHROME);
-        webClient.getOptions().setRedirectEnabled(true);
-        webClient.getOptions().setCssEnabled(false);
-        webClient.getOptions().setJavaScriptEnabled(true);
-        webClient.getCookieManager().setCookiesEnabled(true);
-        webClient.getOptions().setThrowExceptionOnScriptError(false);
-        webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
+        this(url, REQUEST_TIMEOUT);
+    }
+
+    public LoaderUrl(String url, Duration requestTimeout) {
+        this.uri = URI.create(url);
+        this.requestTimeout = requestTimeout;
+        httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .cookieHandler(new CookieManager())
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build();
     }
 
     @Override
     public Content load() {
-        try {
-            log.info("doLoad");
-            WebRequest requestSettings = new WebRequest(new URL(url), HttpMethod.POST);
-
-            Page page = webClient.getPage(requestSettings);
-            WebResponse response = page.getWebResponse();
-            String content = response.getContentAsString();
-            log.info("textContent:{}", content);
+        log.info("doLoad");
+        try (var reader = open()) {
+            var content = new StringBuilder();
+            var buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+            log.debug("textContent:{}", content);
+            return new Content(content.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            return new Content(content);
+    @Override
+    public Reader open() {
+        log.info("doLoad stream");
+        var request = HttpRequest.newBuilder(uri)
+                .header("User-Agent", USER_AGENT)
+                .timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() >= 400) {
+                log.warn("url:{}, statusCode:{}", uri, response.statusCode());
+            }
+            return new InputStreamReader(response.body(), charset(response));
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted, url:" + uri, e);
+        }
+    }
+
+    static Charset charset(HttpResponse<?> response) {
+        var contentType = response.headers().firstValue("Content-Type").orElse("");
+        for (var param : contentType.split(";")) {
+            var nameValue = param.trim().split("=", 2);
+            if (nameValue.length == 2 && "charset".equalsIgnoreCase(nameValue[0].trim())) {
+                try {
+                    return Charset.forName(nameValue[1].trim().replace("\"", ""));
+                } catch (IllegalArgumentException e) {
+                    log.warn("unsupported charset:{}", nameValue[1]);
+                }
+            }
         }
+        return StandardCharsets.UTF_8;
     }
 
     @Override
     public void close() {
         log.info("close LoaderUrl");
-        webClient.close();
     }
 }
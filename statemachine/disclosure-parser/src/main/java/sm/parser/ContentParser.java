@@ -8,14 +8,16 @@ import org.slf4j.LoggerFactory;
 
 public class ContentParser {
     private static final Logger log = LoggerFactory.getLogger(ContentParser.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final Pattern PATTERN_DATE = Pattern.compile("\\d{2}\\.\\d{2}\\.\\d{4}");
+    private static final Pattern PATTERN_URL = Pattern.compile("a href=\"([a-zA-Z0-9/\\-]*)\"");
+    private static final Pattern PATTERN_TITLE = Pattern.compile("\">(.*)</a>");
 
     public LocalDate parseDate(String line) {
-        var dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-        var patternDate = Pattern.compile("\\d{2}\\.\\d{2}\\.\\d{4}");
-        var matcher = patternDate.matcher(line);
+        var matcher = PATTERN_DATE.matcher(line);
         if (matcher.find()) {
             var dateAsString = matcher.group(0);
-            var date = LocalDate.parse(dateAsString, dateFormatter);
+            var date = LocalDate.parse(dateAsString, DATE_FORMATTER);
             log.info("date:{}", date);
             return date;
         }
@@ -23,8 +25,7 @@ public class ContentParser {
     }
 
     public String parseUrl(String line) {
-        var patternUrl = Pattern.compile("a href=\"([a-zA-Z0-9/\\-]*)\"");
-        var matcher = patternUrl.matcher(line);
+        var matcher = PATTERN_URL.matcher(line);
         if (matcher.find()) {
             var url = matcher.group(1);
             log.info("url:{}", url);
@@ -34,8 +35,7 @@ public class ContentParser {
     }
 
     public String parseTitle(String line) {
-        var patternTitle = Pattern.compile("\">(.*)</a>");
-        var matcher = patternTitle.matcher(line);
+        var matcher = PATTERN_TITLE.matcher(line);
         if (matcher.find()) {
             var title = matcher.group(1);
             log.info("title:{}", title);
@@ -1,11 +1,15 @@
 package sm.parser;
 
-import java.util.List;
+import java.io.Reader;
+import java.io.StringReader;
 import sm.model.Content;
 import sm.model.ListNews;
-import sm.model.News;
 
 public interface Parser {
 
-    ListNews parse(Content content);
+    ListNews parse(Reader reader);
+
+    default ListNews parse(Content content) {
+        return parse(new StringReader(content.value()));
+    }
 }
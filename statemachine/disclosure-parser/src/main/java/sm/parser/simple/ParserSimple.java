@@ -1,5 +1,10 @@
 package sm.parser.simple;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sm.model.Content;
@@ -23,9 +28,15 @@ public class ParserSimple implements Parser {
     @Override
     public ListNews parse(Content content) {
         log.info("content for parse:{}", content);
-        var lines = content.value().split("\n");
+        return parse(new StringReader(content.value()));
+    }
+
+    @Override
+    public ListNews parse(Reader reader) {
         var result = new ListNews();
-        for (var line : lines) {
+        var bufferedReader = new BufferedReader(reader);
+        String line;
+        while ((line = readLine(bufferedReader)) != null) {
             switch (currentState) {
                 case BEGIN -> {
                     if (line.contains("id=\"cont_wrap\"")) {
@@ -68,6 +79,11 @@ public class ParserSimple implements Parser {
         return result;
     }
 
-
-
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
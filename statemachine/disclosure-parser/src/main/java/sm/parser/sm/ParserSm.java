@@ -1,12 +1,13 @@
 package sm.parser.sm;
 
+import java.io.Reader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import sm.model.Content;
 import sm.model.ListNews;
 import sm.parser.ContentParser;
 import sm.parser.Parser;
 import sm.parser.sm.lib.DataSource;
+import sm.parser.sm.lib.LineDataSource;
 import sm.parser.sm.lib.SmEngin;
 import sm.parser.sm.lib.State;
 
@@ -71,27 +72,14 @@ public class ParserSm implements Parser {
     }
 
     @Override
-    public ListNews parse(Content content) {
-        SmEngin<String, ListNews> smEngin = new SmEngin<>(begin, new ListNews(), new DataSourceContent(content));
-        return smEngin.doJob();
-    }
-
-    private static class DataSourceContent implements DataSource<String> {
-        private final String[] lines;
-        private int currentIdx = 0;
-
-        public DataSourceContent(Content content) {
-            lines = content.value().split("\n");
-        }
-
-        @Override
-        public boolean hasNext() {
-            return currentIdx < lines.length;
+    public ListNews parse(Reader reader) {
+        try (var dataSource = new LineDataSource(reader)) {
+            return parse(dataSource);
         }
+    }
 
-        @Override
-        public String next() {
-            return lines[currentIdx++];
-        }
+    public ListNews parse(DataSource<String> dataSource) {
+        SmEngin<String, ListNews> smEngin = new SmEngin<>(begin, new ListNews(), dataSource);
+        return smEngin.doJob();
     }
 }
@@ -0,0 +1,57 @@
+package sm.parser.sm;
+
+import java.io.Reader;
+import sm.model.ListNews;
+import sm.parser.ContentParser;
+import sm.parser.Parser;
+import sm.parser.sm.lib.DataSource;
+import sm.parser.sm.lib.LineDataSource;
+import sm.parser.sm.lib.TransitionTable;
+
+/**
+ * Те же состояния и переходы, что в ParserSm, но собранные один раз в TransitionTable.
+ */
+public class ParserSmCompiled implements Parser {
+    private static final String CONT_WRAP = "id=\"cont_wrap\"";
+    private static final String TIME = "class=\"time\"";
+    private static final String DATE = "class=\"date\"";
+    private static final String LIST_ITEM = "class=\"listitem\"";
+    private static final String DIV_END = "</div>";
+
+    private final ContentParser contentParser = new ContentParser();
+    private final TransitionTable<ListNews> table;
+
+    public ParserSmCompiled() {
+        var builder = TransitionTable.<ListNews>builder();
+        var begin = builder.state("begin");
+        var contWrap = builder.state("contWrap");
+        var time = builder.state("time");
+        var listItem = builder.state("listItem");
+        var listItemEnd = builder.state("listItemEnd");
+
+        builder.onMarker(begin, CONT_WRAP, contWrap)
+                .onMarker(contWrap, TIME, time)
+                .onMarker(contWrap, DIV_END, begin)
+                .onMarker(time, LIST_ITEM, listItem)
+                .action(time, DATE, (line, currentResult) -> currentResult.addAndGetNew().date(contentParser.parseDate(line)))
+                .action(listItem, (line, currentResult) -> {
+                    var lastNews = currentResult.getLast().orElseThrow(() -> new IllegalStateException("currentNews can't be null"));
+                    lastNews.url(contentParser.parseUrl(line));
+                    lastNews.title(contentParser.parseTitle(line));
+                })
+                .otherwise(listItem, listItemEnd)
+                .onMarker(listItemEnd, DIV_END, contWrap);
+        table = builder.build(begin);
+    }
+
+    @Override
+    public ListNews parse(Reader reader) {
+        try (var dataSource = new LineDataSource(reader)) {
+            return parse(dataSource);
+        }
+    }
+
+    public ListNews parse(DataSource<String> dataSource) {
+        return table.run(dataSource, new ListNews());
+    }
+}
@@ -0,0 +1,115 @@
+package sm.parser.sm.lib;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Поиск всех маркеров за один проход по строке (автомат Ахо-Корасик, развернутый в таблицу переходов).
+ * Результат - битовая маска найденных маркеров, бит i соответствует маркеру с номером i.
+ * Маркеры только из ASCII, все остальные символы попадают в один общий класс.
+ * Номера узлов в таблице уже умножены на ширину строки таблицы, чтобы на каждый символ было одно чтение из delta.
+ */
+public final class MarkerMatcher {
+    public static final int MAX_MARKERS = Long.SIZE;
+    private static final int ASCII = 128;
+
+    private final int[] charClasses = new int[ASCII];
+    private final int width;
+    private final int[] delta;
+    private final long[] output;
+
+    public MarkerMatcher(List<String> markers) {
+        if (markers.size() > MAX_MARKERS) {
+            throw new IllegalArgumentException("markers count must be <= " + MAX_MARKERS + ", actual:" + markers.size());
+        }
+        var classCount = 1;
+        for (var marker : markers) {
+            if (marker.isEmpty()) {
+                throw new IllegalArgumentException("empty marker");
+            }
+            for (var idx = 0; idx < marker.length(); idx++) {
+                var ch = marker.charAt(idx);
+                if (ch >= ASCII) {
+                    throw new IllegalArgumentException("marker must be ASCII:" + marker);
+                }
+                if (charClasses[ch] == 0) {
+                    charClasses[ch] = classCount++;
+                }
+            }
+        }
+        this.width = classCount;
+
+        var trie = new ArrayList<int[]>();
+        var masks = new ArrayList<Long>();
+        trie.add(newNode());
+        masks.add(0L);
+        for (var markerId = 0; markerId < markers.size(); markerId++) {
+            var marker = markers.get(markerId);
+            var node = 0;
+            for (var idx = 0; idx < marker.length(); idx++) {
+                var cls = charClasses[marker.charAt(idx)];
+                if (trie.get(node)[cls] < 0) {
+                    trie.get(node)[cls] = trie.size();
+                    trie.add(newNode());
+                    masks.add(0L);
+                }
+                node = trie.get(node)[cls];
+            }
+            masks.set(node, masks.get(node) | (1L << markerId));
+        }
+
+        var nodes = trie.size();
+        delta = new int[nodes * width];
+        output = new long[nodes * width];
+        var fail = new int[nodes];
+        var queue = new ArrayDeque<Integer>();
+        for (var cls = 0; cls < width; cls++) {
+            var child = trie.get(0)[cls];
+            if (child < 0) {
+                delta[cls] = 0;
+            } else {
+                delta[cls] = child;
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+        output[0] = masks.get(0);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            output[node * width] = masks.get(node) | output[fail[node] * width];
+            for (var cls = 0; cls < width; cls++) {
+                var child = trie.get(node)[cls];
+                if (child < 0) {
+                    delta[node * width + cls] = delta[fail[node] * width + cls];
+                } else {
+                    delta[node * width + cls] = child;
+                    fail[child] = delta[fail[node] * width + cls];
+                    queue.add(child);
+                }
+            }
+        }
+        for (var idx = 0; idx < delta.length; idx++) {
+            delta[idx] *= width;
+        }
+    }
+
+    public long match(String line) {
+        var node = 0;
+        var found = 0L;
+        var length = line.length();
+        for (var idx = 0; idx < length; idx++) {
+            var ch = line.charAt(idx);
+            node = delta[node + (ch < ASCII ? charClasses[ch] : 0)];
+            found |= output[node];
+        }
+        return found;
+    }
+
+    private int[] newNode() {
+        var node = new int[width];
+        Arrays.fill(node, -1);
+        return node;
+    }
+}
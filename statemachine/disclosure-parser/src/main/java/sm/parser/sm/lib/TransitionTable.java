@@ -0,0 +1,188 @@
+package sm.parser.sm.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Скомпилированная машина состояний: состояния - номера, переходы - таблица по номеру состояния.
+ * Переходы одного состояния проверяются по порядку: срабатывает первый, чей маркер есть в строке,
+ * если ни один не сработал - переход otherwise, а без него состояние не меняется.
+ * Если у состояния маркеров немного, каждый ищется через String.indexOf (JIT его векторизует, это быстрее любого автомата).
+ * Если маркеров больше DIRECT_SCAN_LIMIT, для состояния собирается MarkerMatcher и все маркеры находятся за один проход по строке.
+ * В грамматике ParserSmCompiled у состояния не больше двух маркеров, поэтому MarkerMatcher там не используется:
+ * он нужен для грамматик с большим числом маркеров на состояние (см. ParserSmCompiledTest.transitionTableWithMatcher).
+ */
+public final class TransitionTable<R> {
+    public static final int DIRECT_SCAN_LIMIT = 3;
+    private static final int STAY = -1;
+    private static final int ALWAYS = -1;
+
+    private final String[] stateNames;
+    private final String[][] markers;
+    private final MarkerMatcher[] matchers;
+    private final int[][] transitionMarkers;
+    private final int[][] transitionTargets;
+    private final int[] otherwise;
+    private final int[] actionMarkers;
+    private final List<BiConsumer<String, R>> actions;
+    private final int initialState;
+
+    private TransitionTable(Builder<R> builder, int initialState) {
+        var stateCount = builder.stateNames.size();
+        this.stateNames = builder.stateNames.toArray(new String[0]);
+        this.markers = new String[stateCount][];
+        this.matchers = new MarkerMatcher[stateCount];
+        this.transitionMarkers = new int[stateCount][];
+        this.transitionTargets = new int[stateCount][];
+        this.otherwise = builder.otherwise.stream().mapToInt(Integer::intValue).toArray();
+        this.actionMarkers = new int[stateCount];
+        for (var state = 0; state < stateCount; state++) {
+            var stateMarkers = new ArrayList<String>();
+            var transitions = builder.transitions.get(state);
+            transitionMarkers[state] = new int[transitions.size()];
+            transitionTargets[state] = new int[transitions.size()];
+            for (var idx = 0; idx < transitions.size(); idx++) {
+                transitionMarkers[state][idx] = markerId(stateMarkers, transitions.get(idx).marker());
+                transitionTargets[state][idx] = transitions.get(idx).to();
+            }
+            var actionMarker = builder.actionMarkers.get(state);
+            actionMarkers[state] = actionMarker == null ? ALWAYS : markerId(stateMarkers, actionMarker);
+            markers[state] = stateMarkers.toArray(new String[0]);
+            if (stateMarkers.size() > DIRECT_SCAN_LIMIT) {
+                matchers[state] = new MarkerMatcher(stateMarkers);
+            }
+        }
+        this.actions = builder.actions.stream().map(action -> action == null ? Builder.<R>noAction() : action).toList();
+        this.initialState = checkState(initialState);
+    }
+
+    public static <R> Builder<R> builder() {
+        return new Builder<>();
+    }
+
+    public R run(DataSource<String> dataSource, R result) {
+        var state = initialState;
+        while (dataSource.hasNext()) {
+            var line = dataSource.next();
+            var matcher = matchers[state];
+            var found = matcher == null ? 0L : matcher.match(line);
+            var actionMarker = actionMarkers[state];
+            if (actionMarker == ALWAYS || contains(state, actionMarker, line, found)) {
+                actions.get(state).accept(line, result);
+            }
+            state = nextState(state, line, found);
+        }
+        return result;
+    }
+
+    public String stateName(int state) {
+        return stateNames[checkState(state)];
+    }
+
+    private int nextState(int state, String line, long found) {
+        var stateTransitions = transitionMarkers[state];
+        for (var idx = 0; idx < stateTransitions.length; idx++) {
+            if (contains(state, stateTransitions[idx], line, found)) {
+                return transitionTargets[state][idx];
+            }
+        }
+        var target = otherwise[state];
+        return target == STAY ? state : target;
+    }
+
+    private boolean contains(int state, int markerId, String line, long found) {
+        if (matchers[state] != null) {
+            return (found & (1L << markerId)) != 0;
+        }
+        return line.contains(markers[state][markerId]);
+    }
+
+    private int checkState(int state) {
+        if (state < 0 || state >= stateNames.length) {
+            throw new IllegalArgumentException("unknown state:" + state);
+        }
+        return state;
+    }
+
+    private static int markerId(List<String> stateMarkers, String marker) {
+        var id = stateMarkers.indexOf(marker);
+        if (id < 0) {
+            stateMarkers.add(marker);
+            id = stateMarkers.size() - 1;
+        }
+        return id;
+    }
+
+    public static final class Builder<R> {
+        private final List<String> stateNames = new ArrayList<>();
+        private final List<List<Transition>> transitions = new ArrayList<>();
+        private final List<Integer> otherwise = new ArrayList<>();
+        private final List<String> actionMarkers = new ArrayList<>();
+        private final List<BiConsumer<String, R>> actions = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public int state(String name) {
+            stateNames.add(name);
+            transitions.add(new ArrayList<>());
+            otherwise.add(STAY);
+            actionMarkers.add(null);
+            actions.add(null);
+            return stateNames.size() - 1;
+        }
+
+        public Builder<R> onMarker(int from, String marker, int to) {
+            var stateTransitions = transitions.get(checkState(from));
+            if (stateTransitions.size() == MarkerMatcher.MAX_MARKERS) {
+                throw new IllegalArgumentException("too many transitions for state:" + stateNames.get(from));
+            }
+            stateTransitions.add(new Transition(checkMarker(marker), checkState(to)));
+            return this;
+        }
+
+        public Builder<R> otherwise(int from, int to) {
+            otherwise.set(checkState(from), checkState(to));
+            return this;
+        }
+
+        public Builder<R> action(int state, BiConsumer<String, R> action) {
+            actions.set(checkState(state), action);
+            actionMarkers.set(state, null);
+            return this;
+        }
+
+        public Builder<R> action(int state, String marker, BiConsumer<String, R> action) {
+            actions.set(checkState(state), action);
+            actionMarkers.set(state, checkMarker(marker));
+            return this;
+        }
+
+        public TransitionTable<R> build(int initialState) {
+            return new TransitionTable<>(this, initialState);
+        }
+
+        private int checkState(int state) {
+            if (state < 0 || state >= stateNames.size()) {
+                throw new IllegalArgumentException("unknown state:" + state);
+            }
+            return state;
+        }
+
+        private static String checkMarker(String marker) {
+            if (marker == null || marker.isEmpty()) {
+                throw new IllegalArgumentException("empty marker");
+            }
+            return marker;
+        }
+
+        private static <R> BiConsumer<String, R> noAction() {
+            return (line, result) -> {
+            };
+        }
+    }
+
+    private record Transition(String marker, int to) {
+    }
+}
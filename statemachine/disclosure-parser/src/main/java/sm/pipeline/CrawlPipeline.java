@@ -0,0 +1,200 @@
+package sm.pipeline;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sm.loader.Loader;
+import sm.model.Content;
+import sm.model.News;
+import sm.parser.Parser;
+import sm.saver.NewsSaver;
+
+/**
+ * Загрузка и разбор многих страниц.
+ * Загрузка идет в пуле на loadConcurrency потоков (ожидание сети), разбор - в пуле на parseThreads потоков,
+ * запись - в одном потоке, новости передаются в NewsSaver пачками по saveBatchSize.
+ * Обратное давление: страница занимает разрешение semaphore от начала загрузки до того, как поток записи
+ * заберет ее из очереди, поэтому в памяти не больше maxInFlightPages страниц, а если запись не успевает,
+ * новые страницы не подаются. Очередь записи вмещает все такие страницы, put в нее не блокируется.
+ * После первой ошибки записи оставшиеся страницы не загружаются и не разбираются, run бросает эту ошибку.
+ * Loader создается на каждую страницу (адрес - параметр Loader), Parser должен быть потокобезопасным.
+ */
+public class CrawlPipeline implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(CrawlPipeline.class);
+    // сравнивается по ссылке, поэтому свой экземпляр: List.of() - общий объект, его может вернуть и парсер
+    private static final List<News> END = new ArrayList<>(0);
+
+    private final Function<String, Loader> loaderFactory;
+    private final Parser parser;
+    private final NewsSaver saver;
+    private final CrawlSettings settings;
+    private final ExecutorService loadPool;
+    private final ExecutorService parsePool;
+
+    public CrawlPipeline(Function<String, Loader> loaderFactory, Parser parser, NewsSaver saver, CrawlSettings settings) {
+        this.loaderFactory = loaderFactory;
+        this.parser = parser;
+        this.saver = saver;
+        this.settings = settings;
+        this.loadPool = Executors.newFixedThreadPool(settings.loadConcurrency(), threadFactory("crawl-load-"));
+        this.parsePool = Executors.newFixedThreadPool(settings.parseThreads(), threadFactory("crawl-parse-"));
+    }
+
+    public CrawlResult run(Collection<String> pages) throws InterruptedException {
+        var inFlight = new Semaphore(settings.maxInFlightPages());
+        var saveQueue = new ArrayBlockingQueue<List<News>>(settings.maxInFlightPages());
+        var failedPages = new AtomicInteger();
+        var saveError = new AtomicReference<RuntimeException>();
+        var savedNews = new long[1];
+
+        var writer = new Thread(() -> savedNews[0] = writeLoop(saveQueue, inFlight, saveError), "crawl-save");
+        writer.setDaemon(true);
+        writer.start();
+        try {
+            for (var page : pages) {
+                inFlight.acquire();
+                if (saveError.get() != null) {
+                    inFlight.release();
+                    log.warn("save failed, remaining pages are skipped");
+                    break;
+                }
+                CompletableFuture.supplyAsync(() -> load(page, saveError), loadPool)
+                        .thenApplyAsync(content -> parse(content, saveError), parsePool)
+                        .whenComplete((news, ex) -> {
+                            if (ex != null) {
+                                failedPages.incrementAndGet();
+                                if (saveError.get() == null) {
+                                    log.error("page:{} failed", page, ex);
+                                }
+                                inFlight.release();
+                            } else if (!saveQueue.offer(news)) {
+                                // не бывает: в очереди не больше страниц, чем разрешений
+                                failedPages.incrementAndGet();
+                                log.error("save queue is full, page:{}", page);
+                                inFlight.release();
+                            }
+                        });
+            }
+            inFlight.acquire(settings.maxInFlightPages());
+            inFlight.release(settings.maxInFlightPages());
+        } finally {
+            stopWriter(saveQueue, writer);
+        }
+        if (saveError.get() != null) {
+            throw saveError.get();
+        }
+        var result = new CrawlResult(pages.size(), failedPages.get(), savedNews[0]);
+        log.info("crawl result:{}", result);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        loadPool.shutdownNow();
+        parsePool.shutdownNow();
+        try {
+            loadPool.awaitTermination(10, TimeUnit.SECONDS);
+            parsePool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Content load(String page, AtomicReference<RuntimeException> saveError) {
+        checkNotFailed(saveError);
+        var loader = loaderFactory.apply(page);
+        try {
+            return loader.load();
+        } finally {
+            if (loader instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("can't close loader for page:{}", page, e);
+                }
+            }
+        }
+    }
+
+    private List<News> parse(Content content, AtomicReference<RuntimeException> saveError) {
+        checkNotFailed(saveError);
+        return parser.parse(new StringReader(content.value())).getList();
+    }
+
+    private static void checkNotFailed(AtomicReference<RuntimeException> saveError) {
+        if (saveError.get() != null) {
+            throw new CancellationException("save failed");
+        }
+    }
+
+    private long writeLoop(BlockingQueue<List<News>> saveQueue, Semaphore inFlight,
+                           AtomicReference<RuntimeException> saveError) {
+        var batch = new ArrayList<News>(settings.saveBatchSize());
+        var saved = 0L;
+        try {
+            List<News> pageNews;
+            while ((pageNews = saveQueue.take()) != END) {
+                inFlight.release();
+                for (var news : pageNews) {
+                    batch.add(news);
+                    if (batch.size() == settings.saveBatchSize()) {
+                        saved += save(batch, saveError);
+                        batch = new ArrayList<>(settings.saveBatchSize());
+                    }
+                }
+            }
+            saved += save(batch, saveError);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return saved;
+    }
+
+    private int save(List<News> batch, AtomicReference<RuntimeException> saveError) {
+        if (batch.isEmpty() || saveError.get() != null) {
+            return 0;
+        }
+        try {
+            saver.save(batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.error("save failed, batch size:{}", batch.size(), e);
+            saveError.set(e);
+            return 0;
+        }
+    }
+
+    private static void stopWriter(BlockingQueue<List<News>> saveQueue, Thread writer) throws InterruptedException {
+        try {
+            saveQueue.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            writer.interrupt();
+            throw e;
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        var counter = new AtomicInteger();
+        return task -> {
+            var thread = new Thread(task, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,4 @@
+package sm.pipeline;
+
+public record CrawlResult(int pages, int failedPages, long news) {
+}
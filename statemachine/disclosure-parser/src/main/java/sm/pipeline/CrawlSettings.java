@@ -0,0 +1,21 @@
+package sm.pipeline;
+
+/**
+ * @param loadConcurrency  сколько страниц загружается одновременно
+ * @param parseThreads     потоки разбора, по числу ядер
+ * @param maxInFlightPages сколько страниц может быть загружено, но еще не сохранено
+ * @param saveBatchSize    сколько новостей передается в NewsSaver за один вызов
+ */
+public record CrawlSettings(int loadConcurrency, int parseThreads, int maxInFlightPages, int saveBatchSize) {
+
+    public CrawlSettings {
+        if (loadConcurrency < 1 || parseThreads < 1 || maxInFlightPages < 1 || saveBatchSize < 1) {
+            throw new IllegalArgumentException("all settings must be positive");
+        }
+    }
+
+    public static CrawlSettings defaults() {
+        var cpu = Runtime.getRuntime().availableProcessors();
+        return new CrawlSettings(32, cpu, 64, 1_000);
+    }
+}
@@ -0,0 +1,11 @@
+package sm.saver;
+
+import java.util.List;
+import sm.model.News;
+
+/**
+ * Сохранение разобранных новостей пачками.
+ */
+public interface NewsSaver {
+    void save(List<News> batch);
+}
@@ -0,0 +1,40 @@
+package sm.saver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sm.model.News;
+
+/**
+ * Дописывает пачку новостей в файл, одна новость - одна строка: дата, url и заголовок через табуляцию.
+ */
+public class NewsSaverFile implements NewsSaver {
+    private static final Logger log = LoggerFactory.getLogger(NewsSaverFile.class);
+
+    private final Path pathForSave;
+
+    public NewsSaverFile(String fileName) {
+        pathForSave = Path.of(fileName);
+    }
+
+    @Override
+    public void save(List<News> batch) {
+        log.info("save {} news to the file:{}", batch.size(), pathForSave);
+        try (var writer = Files.newBufferedWriter(pathForSave, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (var news : batch) {
+                writer.append(String.valueOf(news.date())).append('\t')
+                        .append(news.url()).append('\t')
+                        .append(news.title()).append('\n');
+            }
+        } catch (IOException e) {
+            log.error("pathForSave:{}", pathForSave, e);
+            throw new RuntimeException(e);
+        }
+    }
+}
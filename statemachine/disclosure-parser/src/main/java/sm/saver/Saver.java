@@ -1,8 +1,21 @@
 package sm.saver;
 
-import reactor.core.publisher.Mono;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import sm.model.Content;
 
 public interface Saver {
     void save(Content content);
+
+    default void save(Reader reader) {
+        var writer = new StringWriter();
+        try {
+            reader.transferTo(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        save(new Content(writer.toString()));
+    }
 }
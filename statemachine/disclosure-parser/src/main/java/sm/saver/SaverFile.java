@@ -1,6 +1,7 @@
 package sm.saver;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import org.slf4j.Logger;
@@ -27,4 +28,15 @@ public class SaverFile implements Saver {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public void save(Reader reader) {
+        log.info("save stream to the file:{}", pathForSave);
+        try (var writer = Files.newBufferedWriter(pathForSave)) {
+            reader.transferTo(writer);
+        } catch (IOException e) {
+            log.error("pathForSave:{}", pathForSave, e);
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package sm.loader;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class LoaderUrlTest {
+    private static final String HEAD = "<html><body>\n";
+    private static final String TAIL = "<div>Новости</div></body></html>\n";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<String> method = new AtomicReference<>();
+    private final CountDownLatch tailAllowed = new CountDownLatch(1);
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/news", exchange -> {
+            requests.incrementAndGet();
+            method.set(exchange.getRequestMethod());
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=windows-1251");
+            exchange.sendResponseHeaders(200, 0);
+            try (var body = exchange.getResponseBody()) {
+                body.write(HEAD.getBytes("windows-1251"));
+                body.flush();
+                tailAllowed.await(5, TimeUnit.SECONDS);
+                body.write(TAIL.getBytes("windows-1251"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        tailAllowed.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void openStreamsBody() throws Exception {
+        //given
+        try (var loader = new LoaderUrl(url())) {
+
+            //when
+            try (var reader = new BufferedReader(loader.open())) {
+                //then, начало страницы доступно до того, как сервер отдал остальное
+                assertThat(reader.readLine()).isEqualTo("<html><body>");
+                tailAllowed.countDown();
+                assertThat(reader.readLine()).isEqualTo("<div>Новости</div></body></html>");
+                assertThat(reader.readLine()).isNull();
+            }
+        }
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(method.get()).isEqualTo("POST");
+    }
+
+    @Test
+    void loadMakesOneRequest() {
+        //given
+        tailAllowed.countDown();
+        try (var loader = new LoaderUrl(url())) {
+
+            //when
+            var content = loader.load();
+
+            //then
+            assertThat(content.value()).isEqualTo(HEAD + TAIL);
+        }
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void slowServerFailsByRequestTimeout() {
+        //given, заголовки ответа не отправляются, пока тест не разрешит
+        server.createContext("/slow", exchange -> {
+            try {
+                tailAllowed.await(5, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        var url = "http://localhost:" + server.getAddress().getPort() + "/slow";
+
+        try (var loader = new LoaderUrl(url, Duration.ofMillis(200))) {
+            //when
+            var thrown = catchThrowable(loader::load);
+
+            //then
+            assertThat(thrown).isInstanceOf(UncheckedIOException.class)
+                    .hasCauseInstanceOf(HttpTimeoutException.class);
+        }
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/news";
+    }
+}
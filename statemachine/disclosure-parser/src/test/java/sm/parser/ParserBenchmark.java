@@ -0,0 +1,107 @@
+package sm.parser;
+
+import ch.qos.logback.classic.Level;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sm.model.ListNews;
+import sm.parser.simple.ParserSimple;
+import sm.parser.sm.ParserSm;
+import sm.parser.sm.ParserSmCompiled;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParserBenchmark {
+    @Param({"20000"})
+    private int newsCount;
+
+    private String page;
+    private ParserSm parserSm;
+    private ParserSmCompiled parserSmCompiled;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(ParserBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        page = makePage(newsCount);
+        parserSm = new ParserSm();
+        parserSmCompiled = new ParserSmCompiled();
+    }
+
+    @Benchmark
+    public ListNews parserSimple() {
+        return new ParserSimple().parse(new StringReader(page));
+    }
+
+    @Benchmark
+    public ListNews parserSm() {
+        return parserSm.parse(new StringReader(page));
+    }
+
+    @Benchmark
+    public ListNews parserSmCompiled() {
+        return parserSmCompiled.parse(new StringReader(page));
+    }
+
+    static String makePage(int newsCount) {
+        var page = new StringBuilder(newsCount * 700);
+        page.append("<html>\n<head>\n<title>Новости</title>\n</head>\n<body>\n");
+        for (var idx = 0; idx < 50; idx++) {
+            page.append("        <div class=\"menu\"><a href=\"/menu/").append(idx).append("\" class=\"blacklink\">Раздел ").append(idx).append("</a></div>\n");
+        }
+        page.append("<div id=\"cont_wrap\">\n");
+        for (var idx = 0; idx < newsCount; idx++) {
+            var day = idx % 28 + 1;
+            page.append("        <div class=\"time\">\n")
+                    .append("            <span class=\"date\">").append(day < 10 ? "0" : "").append(day).append(".06.2023</span>\n")
+                    .append("            <span class=\"graytext\">Раскрытие информации эмитентами, лента новостей</span>\n")
+                    .append("        </div>\n")
+                    .append("        <div class=\"listitem\">\n")
+                    .append("            <a href=\"/vse-novosti/novost/").append(idx)
+                    .append("\" class=\"blacklink\">Минэкономразвития предлагает вернуться к законопроекту о нефинансовой отчетности, новость ")
+                    .append(idx).append("</a>\n")
+                    .append("        </div>\n");
+        }
+        page.append("</div>\n</body>\n</html>\n");
+        return page.toString();
+    }
+}
+/*
+newsCount = 20000, страница 8.4 млн символов, 1 cpu
+Benchmark                         (newsCount)  Mode  Cnt    Score    Error  Units
+ParserBenchmark.parserSimple            20000  avgt    5  103.440 ? 14.394  ms/op
+ParserBenchmark.parserSm                20000  avgt    5  108.874 ? 14.233  ms/op
+ParserBenchmark.parserSmCompiled        20000  avgt    5  100.429 ? 13.132  ms/op
+
+Разница между парсерами в пределах погрешности: основное время - readLine и разбор полей новости.
+До выноса Pattern/DateTimeFormatter в константы ContentParser (минимум из 60 прогонов):
+simple 95 ms, sm 106 ms, compiled 108 ms; после: simple 57 ms, sm 61 ms, compiled 59 ms.
+MarkerMatcher (один проход по строке) для 5 маркеров медленнее, чем 1-2 String.contains на состояние,
+поэтому TransitionTable включает его только для состояний, у которых маркеров больше DIRECT_SCAN_LIMIT.
+У ParserSmCompiled максимум 2 маркера на состояние (contWrap: TIME и DIV_END, time: LIST_ITEM и DATE),
+поэтому parserSmCompiled измеряет только String.contains, MarkerMatcher в этом замере не участвует.
+*/
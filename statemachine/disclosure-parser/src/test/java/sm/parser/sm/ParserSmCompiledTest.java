@@ -0,0 +1,100 @@
+package sm.parser.sm;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import sm.model.ListNews;
+import sm.parser.sm.lib.LineDataSource;
+import sm.parser.sm.lib.MarkerMatcher;
+import sm.parser.sm.lib.TransitionTable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class ParserSmCompiledTest {
+
+    @Test
+    void parse() throws IOException {
+        //give
+        var parser = new ParserSmCompiled();
+
+        //when
+        ListNews result;
+        try (var stream = ParserSmCompiledTest.class.getClassLoader().getResourceAsStream("disclosure-news.html")) {
+            Objects.requireNonNull(stream);
+            result = parser.parse(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        }
+
+        //then
+        var newsList = result.getList();
+        assertThat(newsList).hasSize(10);
+
+        var news1 = newsList.get(0);
+        assertThat(news1.date()).isEqualTo(LocalDate.of(2023,6,9));
+        assertThat(news1.title()).isEqualTo("ЕС готовит правила регулирования ESG-рейтингов для противодействия greenwashing");
+        assertThat(news1.url()).isEqualTo("/vse-novosti/novost/5550");
+
+        var news9 = newsList.get(9);
+        assertThat(news9.date()).isEqualTo(LocalDate.of(2023,6,1));
+        assertThat(news9.url()).isEqualTo("/vse-novosti/novost/5541");
+    }
+
+    @Test
+    void sameAsParserSm() throws IOException {
+        //give
+        String page;
+        try (var stream = ParserSmCompiledTest.class.getClassLoader().getResourceAsStream("disclosure-news.html")) {
+            page = new String(Objects.requireNonNull(stream).readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        //when
+        var expected = new ParserSm().parse(new StringReader(page)).getList();
+        var actual = new ParserSmCompiled().parse(new StringReader(page)).getList();
+
+        //then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void markerMatcher() {
+        //give
+        var matcher = new MarkerMatcher(List.of("he", "she", "his", "hers", "</div>"));
+
+        //then
+        assertThat(matcher.match("ushers")).isEqualTo(0b1011L);
+        assertThat(matcher.match("история </div>")).isEqualTo(0b10000L);
+        assertThat(matcher.match("нет совпадений")).isZero();
+        assertThat(matcher.match("")).isZero();
+    }
+
+    @Test
+    void transitionTableWithMatcher() {
+        //give
+        var builder = TransitionTable.<List<String>>builder();
+        var begin = builder.state("begin");
+        var first = builder.state("first");
+        var second = builder.state("second");
+        builder.onMarker(begin, "<a>", first)
+                .onMarker(begin, "<b>", second)
+                .onMarker(begin, "<c>", first)
+                .onMarker(begin, "<d>", second)
+                .action(begin, "<x>", (line, result) -> result.add(line))
+                .otherwise(first, begin)
+                .otherwise(second, begin);
+        var table = builder.build(begin);
+        var lines = List.of("nothing", "<x><d>", "back", "<c><b>", "back", "<x>");
+
+        //when
+        var result = table.run(new LineDataSource(new StringReader(String.join("\n", lines))), new ArrayList<String>());
+
+        //then
+        assertThat(result).containsExactly("<x><d>", "<x>");
+        assertThat(table.stateName(second)).isEqualTo("second");
+    }
+}
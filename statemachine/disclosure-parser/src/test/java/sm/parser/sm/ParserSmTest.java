@@ -3,10 +3,16 @@ package sm.parser.sm;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import sm.model.Content;
+import sm.model.News;
+import sm.parser.sm.lib.LineDataSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -44,4 +50,44 @@ class ParserSmTest {
         assertThat(news9.url()).isEqualTo("/vse-novosti/novost/5541");
     }
 
-}
\ No newline at end of file
+    @Test
+    void parseReader() throws IOException {
+        //give
+        var parser = new ParserSm();
+
+        //when
+        List<News> newsList;
+        try (var stream = ParserSmTest.class.getClassLoader().getResourceAsStream("disclosure-news.html")) {
+            Objects.requireNonNull(stream);
+            newsList = parser.parse(new InputStreamReader(stream, StandardCharsets.UTF_8)).getList();
+        }
+
+        //then
+        assertThat(newsList).hasSize(10);
+        assertThat(newsList.get(0).url()).isEqualTo("/vse-novosti/novost/5550");
+        assertThat(newsList.get(9).title()).isEqualTo("Минэкономразвития предлагает вернуться к законопроекту о нефинансовой отчетности, РСПП за формат рекомендаций");
+    }
+
+    @Test
+    void parseByteBuffer() throws IOException {
+        //give
+        var parser = new ParserSm();
+        ByteBuffer buffer;
+        try (var stream = ParserSmTest.class.getClassLoader().getResourceAsStream("disclosure-news.html")) {
+            Objects.requireNonNull(stream);
+            buffer = ByteBuffer.wrap(stream.readAllBytes());
+        }
+
+        //when
+        List<News> newsList;
+        try (var dataSource = LineDataSource.of(buffer, StandardCharsets.UTF_8)) {
+            newsList = parser.parse(dataSource).getList();
+        }
+
+        //then
+        assertThat(newsList).hasSize(10);
+        assertThat(newsList.get(0).date()).isEqualTo(LocalDate.of(2023,6,9));
+        assertThat(newsList.get(9).url()).isEqualTo("/vse-novosti/novost/5541");
+        assertThat(buffer.position()).isZero();
+    }
+}
@@ -0,0 +1,157 @@
+package sm.pipeline;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import sm.loader.Loader;
+import sm.loader.LoaderFile;
+import sm.model.ListNews;
+import sm.model.News;
+import sm.parser.sm.ParserSmCompiled;
+import sm.saver.NewsSaverFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class CrawlPipelineTest {
+    private static final int PAGES = 40;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void crawl() throws Exception {
+        //given
+        var pages = makeFixtures();
+        pages.add(dir.resolve("missing.html").toString());
+
+        var loads = new AtomicInteger();
+        var maxLoads = new AtomicInteger();
+        var batches = Collections.synchronizedList(new ArrayList<List<News>>());
+        var settings = new CrawlSettings(3, 2, 4, 25);
+
+        //when
+        CrawlResult result;
+        try (var pipeline = new CrawlPipeline(page -> countingLoader(page, loads, maxLoads), new ParserSmCompiled(),
+                batches::add, settings)) {
+            result = pipeline.run(pages);
+        }
+
+        //then
+        assertThat(result).isEqualTo(new CrawlResult(PAGES + 1, 1, PAGES * 10L));
+        assertThat(maxLoads.get()).isBetween(1, settings.loadConcurrency());
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(settings.saveBatchSize()));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(PAGES * 10);
+        assertThat(batches.stream().flatMap(List::stream).filter(news -> news.url().equals("/vse-novosti/novost/5550")))
+                .hasSize(PAGES);
+    }
+
+    @Test
+    void crawlToFile() throws Exception {
+        //given
+        var pages = makeFixtures();
+        var output = dir.resolve("news.tsv");
+
+        //when
+        CrawlResult result;
+        try (var pipeline = new CrawlPipeline(page -> new LoaderFile(Path.of(page)), new ParserSmCompiled(),
+                new NewsSaverFile(output.toString()), CrawlSettings.defaults())) {
+            result = pipeline.run(pages);
+        }
+
+        //then
+        assertThat(result.failedPages()).isZero();
+        assertThat(Files.readAllLines(output)).hasSize(PAGES * 10)
+                .contains("2023-06-09\t/vse-novosti/novost/5550\tЕС готовит правила регулирования ESG-рейтингов для противодействия greenwashing");
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void crawlPagesWithoutNews() throws Exception {
+        //given
+        var pages = makeFixtures();
+        var empty = new ListNews() {
+            @Override
+            public List<News> getList() {
+                return List.of();
+            }
+        };
+        var parser = new ParserSmCompiled();
+        var parsed = new AtomicInteger();
+        var batches = Collections.synchronizedList(new ArrayList<List<News>>());
+
+        //when, каждая вторая страница без новостей
+        CrawlResult result;
+        try (var pipeline = new CrawlPipeline(page -> new LoaderFile(Path.of(page)),
+                reader -> parsed.incrementAndGet() % 2 == 0 ? parser.parse(reader) : empty,
+                batches::add, new CrawlSettings(2, 2, 2, 25))) {
+            result = pipeline.run(pages);
+        }
+
+        //then
+        assertThat(result).isEqualTo(new CrawlResult(PAGES, 0, PAGES / 2 * 10L));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(PAGES / 2 * 10);
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void saveErrorSkipsRemainingPages() throws Exception {
+        //given
+        var pages = makeFixtures();
+        var loaded = new AtomicInteger();
+        var saveError = new IllegalStateException("disk full");
+
+        //when, первая же пачка не записана
+        Throwable thrown;
+        try (var pipeline = new CrawlPipeline(page -> {
+            loaded.incrementAndGet();
+            return new LoaderFile(Path.of(page));
+        }, new ParserSmCompiled(), batch -> {
+            throw saveError;
+        }, new CrawlSettings(1, 1, 1, 1))) {
+            thrown = catchThrowable(() -> pipeline.run(pages));
+        }
+
+        //then, не больше одной страницы после ошибки: она уже могла получить разрешение
+        assertThat(thrown).isSameAs(saveError);
+        assertThat(loaded.get()).isLessThanOrEqualTo(2);
+    }
+
+    private List<String> makeFixtures() throws IOException {
+        byte[] page;
+        try (var stream = CrawlPipelineTest.class.getClassLoader().getResourceAsStream("disclosure-news.html")) {
+            page = Objects.requireNonNull(stream).readAllBytes();
+        }
+        var pages = new ArrayList<String>();
+        for (var idx = 0; idx < PAGES; idx++) {
+            var path = dir.resolve("page-" + idx + ".html");
+            Files.write(path, page);
+            pages.add(path.toString());
+        }
+        return pages;
+    }
+
+    private static Loader countingLoader(String page, AtomicInteger loads, AtomicInteger maxLoads) {
+        var fileLoader = new LoaderFile(Path.of(page));
+        return () -> {
+            maxLoads.accumulateAndGet(loads.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                return fileLoader.load();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                loads.decrementAndGet();
+            }
+        };
+    }
+}
@@ -8,6 +8,10 @@ dependencies {
     implementation ("org.apache.kafka:kafka-clients")
     implementation("com.fasterxml.jackson.core:jackson-databind")
     implementation("io.micrometer:context-propagation")
+
+    testImplementation("org.junit.jupiter:junit-jupiter-engine")
+    testImplementation("org.assertj:assertj-core")
+    testImplementation("io.projectreactor:reactor-test")
 }
 
 jib {
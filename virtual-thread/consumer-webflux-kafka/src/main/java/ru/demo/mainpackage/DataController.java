@@ -42,9 +42,10 @@ public class DataController {
         MDC.put("requestId", String.valueOf(request.id().value()));
         log.info("request:{}", request);
 
+        // ожидание регистрируется до отправки, чтобы быстрый ответ не прошел мимо
+        var responseSum = stringValueStorage.get(request.id(), producersForWait);
         kafkaProducer.send(request);
-        return stringValueStorage
-                .get(request.id(), producersForWait)
+        return responseSum
                 .onErrorResume(error -> {
                     log.info("kafka timeout");
                     return Mono.just(new ResponseSum(request.id(), null));
@@ -0,0 +1,84 @@
+package ru.demo.mainpackage;
+
+import io.netty.util.Timeout;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.demo.mainpackage.model.RequestId;
+import ru.demo.mainpackage.model.Response;
+import ru.demo.mainpackage.model.ResponseSum;
+
+/**
+ * Ответы на один запрос: сумма копится на месте, результат выдается, когда пришли ответы от всех producersForWait.
+ * Методы вызываются из потока kafka-consumer и из потока таймера, поэтому состояние меняется под this.
+ */
+class ResponseAggregator {
+    private final RequestId requestId;
+    private final Set<String> producersForWait;
+    private final Sinks.One<ResponseSum> result = Sinks.one();
+    private int remaining;
+    private long sum;
+    private boolean done;
+    private Timeout timeout;
+
+    ResponseAggregator(RequestId requestId, Set<String> producersForWait) {
+        this.requestId = requestId;
+        this.producersForWait = producersForWait;
+        this.remaining = producersForWait.size();
+    }
+
+    Mono<ResponseSum> asMono() {
+        return result.asMono();
+    }
+
+    synchronized void setTimeout(Timeout timeout) {
+        if (done) {
+            timeout.cancel();
+        } else {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * @return true, если после этого ответа ждать больше нечего
+     */
+    synchronized boolean accept(Response response) {
+        if (done || !producersForWait.contains(response.producerName())) {
+            return done;
+        }
+        if (response.data() == null) {
+            return fail(new IllegalStateException("no data from producer:" + response.producerName()));
+        }
+        sum += response.data();
+        remaining--;
+        if (remaining == 0) {
+            finish();
+            result.tryEmitValue(new ResponseSum(requestId, sum));
+        }
+        return done;
+    }
+
+    synchronized boolean expire() {
+        return fail(new TimeoutException("no responses for requestId:" + requestId.value()));
+    }
+
+    synchronized void cancel() {
+        finish();
+    }
+
+    private boolean fail(Throwable error) {
+        if (!done) {
+            finish();
+            result.tryEmitError(error);
+        }
+        return true;
+    }
+
+    private void finish() {
+        done = true;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+}
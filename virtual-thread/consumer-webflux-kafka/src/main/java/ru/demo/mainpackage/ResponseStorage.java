@@ -1,60 +1,83 @@
 package ru.demo.mainpackage;
 
+import io.netty.util.HashedWheelTimer;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import reactor.core.publisher.ConnectableFlux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.SignalType;
-import reactor.core.publisher.Sinks;
-import reactor.core.scheduler.Scheduler;
-import reactor.util.annotation.NonNull;
 import ru.demo.mainpackage.model.RequestId;
 import ru.demo.mainpackage.model.Response;
 import ru.demo.mainpackage.model.ResponseSum;
 
-public class ResponseStorage implements Sinks.EmitFailureHandler {
-
-    private final Sinks.Many<Response> sink;
-    private final ConnectableFlux<Response> sinkConnectable;
+/**
+ * Реестр ожидающих запросов: RequestId -> ResponseAggregator.
+ * put по requestId сразу находит своего ожидающего, остальные запросы ответ не видят.
+ * Таймауты - на HashedWheelTimer: один поток и колесо из корзин вместо отдельной задачи таймера на каждый запрос,
+ * при ответе таймаут просто отменяется.
+ * Запрос регистрируется в get сразу, до подписки, поэтому get нужно вызывать до отправки запроса в Kafka.
+ */
+public class ResponseStorage implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(ResponseStorage.class);
-    private final Scheduler timeoutTimer;
+    private static final long TICK_MS = 10;
+    private static final int TICKS_PER_WHEEL = 1024;
+
+    private final Map<RequestId, ResponseAggregator> waiting = new ConcurrentHashMap<>();
+    private final HashedWheelTimer timeoutTimer =
+            new HashedWheelTimer(ResponseStorage::timerThread, TICK_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+    private final Duration timeout;
 
-    public ResponseStorage(Scheduler timeoutTimer) {
-        sink = Sinks.many().multicast().onBackpressureBuffer();
-        sinkConnectable = sink.asFlux().publish();
-        sinkConnectable.connect();
-        this.timeoutTimer = timeoutTimer;
+    public ResponseStorage(Duration timeout) {
+        this.timeout = timeout;
     }
 
     public void put(List<Response> responses) {
         for (var response : responses) {
-            log.info("put. response:{}", response);
-            sink.emitNext(response, this);
+            log.debug("put. response:{}", response);
+            var aggregator = waiting.get(response.requestId());
+            if (aggregator == null) {
+                log.debug("nobody waits for response:{}", response);
+            } else if (aggregator.accept(response)) {
+                waiting.remove(response.requestId(), aggregator);
+            }
         }
     }
 
     public Mono<ResponseSum> get(RequestId requestId, Set<String> producersForWait) {
-        return sinkConnectable
-                .filter(response -> {
-                    log.info("waiting:{}, fact:{}", requestId.value(), response);
-                    return requestId.value() == response.requestId().value();
-                })
-                .filter(response -> producersForWait.contains(response.producerName()))
-                .takeUntil(response -> response.data() == null)
-                .buffer(producersForWait.size())
-                .timeout(Duration.ofSeconds(10), timeoutTimer)
-                .next()
-                .map(responses -> {
-                    var sum = responses.stream().mapToLong(Response::data).sum();
-                    return new ResponseSum(requestId, sum);
-                });
+        var aggregator = new ResponseAggregator(requestId, producersForWait);
+        if (waiting.putIfAbsent(requestId, aggregator) != null) {
+            return Mono.error(new IllegalStateException("requestId is already waiting:" + requestId.value()));
+        }
+        aggregator.setTimeout(timeoutTimer.newTimeout(
+                task -> {
+                    aggregator.expire();
+                    waiting.remove(requestId, aggregator);
+                },
+                timeout.toMillis(),
+                TimeUnit.MILLISECONDS));
+        return aggregator.asMono().doOnCancel(() -> {
+            aggregator.cancel();
+            waiting.remove(requestId, aggregator);
+        });
+    }
+
+    public int waitingCount() {
+        return waiting.size();
     }
 
     @Override
-    public boolean onEmitFailure(@NonNull SignalType signalType, @NonNull Sinks.EmitResult emitResult) {
-        return false;
+    public void close() {
+        timeoutTimer.stop();
+    }
+
+    // daemon: если close не вызван, поток таймера не держит JVM
+    private static Thread timerThread(Runnable task) {
+        var thread = new Thread(task, "response-timeout");
+        thread.setDaemon(true);
+        return thread;
     }
 }
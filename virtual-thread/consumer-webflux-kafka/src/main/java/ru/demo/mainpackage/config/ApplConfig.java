@@ -1,6 +1,7 @@
 package ru.demo.mainpackage.config;
 
 import io.netty.channel.nio.NioEventLoopGroup;
+import java.time.Duration;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -9,8 +10,6 @@ import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory
 import org.springframework.boot.web.reactive.server.ReactiveWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 import reactor.util.annotation.NonNull;
 import ru.demo.mainpackage.ResponseStorage;
 import ru.demo.mainpackage.kafka.KafkaConsumer;
@@ -19,6 +18,7 @@ import ru.demo.mainpackage.kafka.KafkaProducer;
 @Configuration
 public class ApplConfig {
     private static final int THREAD_POOL_SIZE = 4;
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(10);
 
     @Bean(name = "serverThreadEventLoop", destroyMethod = "close")
     public NioEventLoopGroup serverThreadEventLoop() {
@@ -40,9 +40,9 @@ public class ApplConfig {
         return factory;
     }
 
-    @Bean
-    public ResponseStorage stringValueStorage(Scheduler timeoutTimer) {
-        return new ResponseStorage(timeoutTimer);
+    @Bean(destroyMethod = "close")
+    public ResponseStorage stringValueStorage() {
+        return new ResponseStorage(RESPONSE_TIMEOUT);
     }
 
     @Bean(destroyMethod = "close")
@@ -67,9 +67,4 @@ public class ApplConfig {
             @Value("${application.topic-request}") String topicRequest) {
         return new KafkaProducer(bootstrapServers, topicRequest);
     }
-
-    @Bean
-    public Scheduler timeoutTimer() {
-        return Schedulers.newBoundedElastic(50, 1000, "timeout-Scheduler", 5, true);
-    }
 }
@@ -0,0 +1,86 @@
+package ru.demo.mainpackage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+import ru.demo.mainpackage.model.RequestId;
+import ru.demo.mainpackage.model.Response;
+import ru.demo.mainpackage.model.ResponseId;
+import ru.demo.mainpackage.model.ResponseSum;
+
+class ResponseStorageTest {
+    private static final Duration VERIFY_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ResponseStorage storage = new ResponseStorage(Duration.ofMillis(100));
+
+    @AfterEach
+    void tearDown() {
+        storage.close();
+    }
+
+    @Test
+    void responseReachesItsWaiter() {
+        // given
+        var first = new RequestId(1);
+        var second = new RequestId(2);
+        var firstSum = storage.get(first, Set.of("p1", "p2"));
+        var secondSum = storage.get(second, Set.of("p1"));
+
+        // when
+        storage.put(List.of(response(second, "p1", 100), response(first, "p1", 1), response(first, "p3", 1000)));
+        storage.put(List.of(response(first, "p2", 2)));
+
+        // then
+        StepVerifier.create(firstSum)
+                .expectNext(new ResponseSum(first, 3L))
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+        StepVerifier.create(secondSum)
+                .expectNext(new ResponseSum(second, 100L))
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+        assertThat(storage.waitingCount()).isZero();
+    }
+
+    @Test
+    void timeoutCompletesWithError() {
+        // given
+        var requestId = new RequestId(1);
+
+        // when
+        var sum = storage.get(requestId, Set.of("p1", "p2"));
+        storage.put(List.of(response(requestId, "p1", 1)));
+
+        // then
+        StepVerifier.create(sum).expectError(TimeoutException.class).verify(VERIFY_TIMEOUT);
+        assertThat(storage.waitingCount()).isZero();
+    }
+
+    @Test
+    void cancelRemovesWaiter() {
+        // given
+        var requestId = new RequestId(1);
+        var sum = storage.get(requestId, Set.of("p1"));
+
+        // when
+        StepVerifier.create(sum).thenCancel().verify(VERIFY_TIMEOUT);
+
+        // then
+        assertThat(storage.waitingCount()).isZero();
+        StepVerifier.create(storage.get(requestId, Set.of("p1")))
+                .then(() -> storage.put(List.of(response(requestId, "p1", 5))))
+                .expectNext(new ResponseSum(requestId, 5L))
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    private static Response response(RequestId requestId, String producerName, long data) {
+        return new Response(requestId, producerName, new ResponseId(requestId.value()), data);
+    }
+}
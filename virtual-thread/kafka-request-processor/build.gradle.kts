@@ -8,6 +8,11 @@ dependencies {
     implementation ("org.apache.kafka:kafka-clients")
     implementation ("ch.qos.logback:logback-classic")
     implementation ("com.fasterxml.jackson.core:jackson-databind")
+
+    testImplementation ("org.junit.jupiter:junit-jupiter-engine")
+    testImplementation ("org.assertj:assertj-core")
+    testImplementation ("org.openjdk.jmh:jmh-core:1.36")
+    testAnnotationProcessor ("org.openjdk.jmh:jmh-generator-annprocess:1.36")
 }
 
 jib {
@@ -0,0 +1,191 @@
+package com.datasrc;
+
+import com.datasrc.kafka.KafkaConsumer;
+import com.datasrc.kafka.KafkaProducer;
+import com.datasrc.model.Request;
+import com.datasrc.model.Response;
+import com.datasrc.model.ResponseId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+
+/**
+ * Пакетная обработка запросов.
+ * Каждый запрос из poll обрабатывается в своей задаче executor-а (виртуальный поток),
+ * одновременно выполняется не больше maxConcurrency задач.
+ * Ответы копятся в батчах producer-а, после обработки всей пачки делается один flush,
+ * offset-ы коммитятся только после подтверждения всех ответов.
+ * Если хоть один ответ не отправлен, offset-ы не коммитятся, consumer возвращается к началу пачки.
+ * Пачка повторяется не больше maxAttempts раз: после этого неотправленные запросы пишутся в лог и пропускаются,
+ * иначе одна "ядовитая" запись остановила бы чтение партиции навсегда.
+ */
+public class BatchRequestProcessor implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(BatchRequestProcessor.class);
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private final AtomicLong idGenerator = new AtomicLong(0);
+    private final KafkaConsumer consumer;
+    private final KafkaProducer kafkaProducer;
+    private final String producerName;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxAttempts;
+    private Map<TopicPartition, Long> retriedOffsets = Map.of();
+    private int attempts;
+
+    public BatchRequestProcessor(
+            KafkaConsumer kafkaConsumer,
+            KafkaProducer producer,
+            String producerName,
+            ExecutorService executor,
+            int maxConcurrency) {
+        this(kafkaConsumer, producer, producerName, executor, maxConcurrency, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public BatchRequestProcessor(
+            KafkaConsumer kafkaConsumer,
+            KafkaProducer producer,
+            String producerName,
+            ExecutorService executor,
+            int maxConcurrency,
+            int maxAttempts) {
+        this.consumer = kafkaConsumer;
+        this.kafkaProducer = producer;
+        this.producerName = producerName;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void run(String... args) {
+        while (!Thread.currentThread().isInterrupted()) {
+            processNext();
+        }
+    }
+
+    /**
+     * Один цикл: poll, обработка, flush, commit.
+     * Возвращает количество обработанных (или пропущенных после maxAttempts) записей.
+     */
+    public int processNext() {
+        var records = consumer.pollRecords();
+        if (records.isEmpty()) {
+            return 0;
+        }
+        var tasks = new ArrayList<SentRequest>(records.count());
+        var failed = new ArrayList<ConsumerRecord<Long, Request>>();
+        Throwable error = null;
+        try {
+            for (var kafkaRecord : records) {
+                var request = kafkaRecord.value();
+                if (request == null) {
+                    log.error("empty request, offset:{}", kafkaRecord.offset());
+                    continue;
+                }
+                permits.acquire();
+                tasks.add(new SentRequest(kafkaRecord, executor.submit(() -> {
+                    try {
+                        return kafkaProducer.send(handle(request));
+                    } finally {
+                        permits.release();
+                    }
+                })));
+            }
+            // flush только после того, как все send вызваны, иначе часть ответов уйдет уже после него
+            for (var task : tasks) {
+                awaitDone(task.send());
+            }
+            kafkaProducer.flush();
+            for (var task : tasks) {
+                try {
+                    task.send().get().get();
+                } catch (ExecutionException ex) {
+                    failed.add(task.kafkaRecord());
+                    error = ex.getCause();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(task -> task.send().cancel(true));
+            return 0;
+        }
+        if (!failed.isEmpty()) {
+            return retryOrSkip(records, failed, error);
+        }
+        retriedOffsets = Map.of();
+        consumer.commit(nextOffsets(records));
+        return records.count();
+    }
+
+    private int retryOrSkip(
+            ConsumerRecords<Long, Request> records, List<ConsumerRecord<Long, Request>> failed, Throwable error) {
+        var firstOffsets = firstOffsets(records);
+        attempts = firstOffsets.equals(retriedOffsets) ? attempts + 1 : 1;
+        if (attempts < maxAttempts) {
+            log.error("batch wasn't processed, size:{}, attempt:{}", records.count(), attempts, error);
+            retriedOffsets = firstOffsets;
+            consumer.seek(firstOffsets);
+            return 0;
+        }
+        for (var kafkaRecord : failed) {
+            log.error(
+                    "request skipped after attempts:{}, partition:{}, offset:{}, request:{}",
+                    attempts,
+                    kafkaRecord.partition(),
+                    kafkaRecord.offset(),
+                    kafkaRecord.value());
+        }
+        log.error("batch is committed without failed requests:{}", failed.size(), error);
+        retriedOffsets = Map.of();
+        consumer.commit(nextOffsets(records));
+        return records.count();
+    }
+
+    private static void awaitDone(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException ex) {
+            // ошибка будет учтена при проверке подтверждений
+        }
+    }
+
+    private Response handle(Request request) {
+        log.debug("income request:{}", request);
+        return new Response(
+                request.id(), producerName, new ResponseId(idGenerator.incrementAndGet()), request.data() * 10);
+    }
+
+    private static Map<TopicPartition, OffsetAndMetadata> nextOffsets(ConsumerRecords<Long, Request> records) {
+        var offsets = new HashMap<TopicPartition, OffsetAndMetadata>();
+        for (var partition : records.partitions()) {
+            var partitionRecords = records.records(partition);
+            var last = partitionRecords.get(partitionRecords.size() - 1);
+            offsets.put(partition, new OffsetAndMetadata(last.offset() + 1));
+        }
+        return offsets;
+    }
+
+    private static Map<TopicPartition, Long> firstOffsets(ConsumerRecords<Long, Request> records) {
+        var offsets = new HashMap<TopicPartition, Long>();
+        for (var partition : records.partitions()) {
+            offsets.put(partition, records.records(partition).get(0).offset());
+        }
+        return offsets;
+    }
+
+    private record SentRequest(ConsumerRecord<Long, Request> kafkaRecord, Future<Future<RecordMetadata>> send) {}
+}
@@ -25,13 +25,18 @@ public class RequestProcessor implements CommandLineRunner {
     @Override
     public void run(String... args) {
         while (!Thread.currentThread().isInterrupted()) {
-            var requests = consumer.poll();
-            for (var request : requests) {
-                log.info("income request:{}", request);
-                var response = new Response(
-                        request.id(), producerName, new ResponseId(idGenerator.incrementAndGet()), request.data() * 10);
-                kafkaProducer.send(response);
-            }
+            processNext();
         }
     }
+
+    public int processNext() {
+        var requests = consumer.poll();
+        for (var request : requests) {
+            log.info("income request:{}", request);
+            var response = new Response(
+                    request.id(), producerName, new ResponseId(idGenerator.incrementAndGet()), request.data() * 10);
+            kafkaProducer.send(response);
+        }
+        return requests.size();
+    }
 }
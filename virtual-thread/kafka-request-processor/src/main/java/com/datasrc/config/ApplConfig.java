@@ -1,17 +1,22 @@
 package com.datasrc.config;
 
+import com.datasrc.BatchRequestProcessor;
 import com.datasrc.RequestProcessor;
 import com.datasrc.kafka.KafkaConsumer;
 import com.datasrc.kafka.KafkaProducer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class ApplConfig {
     private static final Logger log = LoggerFactory.getLogger(ApplConfig.class);
+    private static final String PROCESSOR_MODE_BATCH = "batch";
 
     @Bean
     public ProducerName producerName() {
@@ -25,7 +30,12 @@ public class ApplConfig {
     public KafkaConsumer kafkaConsumer(
             @Value("${application.kafka-bootstrap-servers}") String bootstrapServers,
             @Value("${application.topic-request}") String topicRequest,
+            @Value("${application.processor.mode:serial}") String processorMode,
+            @Value("${application.processor.max-poll-records:500}") int maxPollRecords,
             ProducerName producerName) {
+        if (PROCESSOR_MODE_BATCH.equals(processorMode)) {
+            return new KafkaConsumer(bootstrapServers, topicRequest, producerName.value, maxPollRecords);
+        }
         return new KafkaConsumer(bootstrapServers, topicRequest, producerName.value);
     }
 
@@ -38,10 +48,30 @@ public class ApplConfig {
     }
 
     @Bean
+    @ConditionalOnProperty(name = "application.processor.mode", havingValue = "serial", matchIfMissing = true)
     public RequestProcessor requestProcessor(
             KafkaConsumer kafkaConsumer, KafkaProducer kafkaProducer, ProducerName producerName) {
         return new RequestProcessor(kafkaConsumer, kafkaProducer, producerName.value);
     }
 
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "application.processor.mode", havingValue = PROCESSOR_MODE_BATCH)
+    public ExecutorService requestExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("request-", 0).factory());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.processor.mode", havingValue = PROCESSOR_MODE_BATCH)
+    public BatchRequestProcessor batchRequestProcessor(
+            KafkaConsumer kafkaConsumer,
+            KafkaProducer kafkaProducer,
+            ProducerName producerName,
+            ExecutorService requestExecutor,
+            @Value("${application.processor.max-concurrency:100}") int maxConcurrency,
+            @Value("${application.processor.max-attempts:3}") int maxAttempts) {
+        return new BatchRequestProcessor(
+                kafkaConsumer, kafkaProducer, producerName.value, requestExecutor, maxConcurrency, maxAttempts);
+    }
+
     public record ProducerName(String value) {}
 }
@@ -23,10 +23,14 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.LongDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,17 +38,35 @@ import org.slf4j.LoggerFactory;
 public final class KafkaConsumer {
     private static final Logger log = LoggerFactory.getLogger(KafkaConsumer.class);
     private final Random random = new Random();
-    private final org.apache.kafka.clients.consumer.KafkaConsumer<Long, Request> consumer;
+    private final Consumer<Long, Request> consumer;
 
     public static final int MAX_POLL_INTERVAL_MS = 300;
+    public static final int BATCH_MAX_POLL_INTERVAL_MS = 30_000;
     private final Duration timeout = Duration.ofMillis(2_000);
 
     public KafkaConsumer(String bootstrapServers, String topic, String groupId) {
+        this(bootstrapServers, topic, groupId, 3, true);
+    }
+
+    /**
+     * Consumer для пакетной обработки: offset-ы коммитятся вручную через commit,
+     * max.poll.interval с запасом на flush пачки ответов.
+     */
+    public KafkaConsumer(String bootstrapServers, String topic, String groupId, int maxPollRecords) {
+        this(bootstrapServers, topic, groupId, maxPollRecords, false);
+    }
+
+    public KafkaConsumer(Consumer<Long, Request> consumer) {
+        this.consumer = consumer;
+    }
+
+    private KafkaConsumer(
+            String bootstrapServers, String topic, String groupId, int maxPollRecords, boolean autoCommit) {
         Properties props = new Properties();
         props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(GROUP_ID_CONFIG, groupId);
         props.put(GROUP_INSTANCE_ID_CONFIG, makeGroupInstanceIdConfig(groupId));
-        props.put(ENABLE_AUTO_COMMIT_CONFIG, "true");
+        props.put(ENABLE_AUTO_COMMIT_CONFIG, String.valueOf(autoCommit));
         props.put(AUTO_COMMIT_INTERVAL_MS_CONFIG, "100");
         props.put(AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(KEY_DESERIALIZER_CLASS_CONFIG, LongDeserializer.class);
@@ -52,8 +74,8 @@ public final class KafkaConsumer {
         props.put(OBJECT_MAPPER, new ObjectMapper());
         props.put(TYPE_REFERENCE, new TypeReference<Request>() {});
 
-        props.put(MAX_POLL_RECORDS_CONFIG, 3);
-        props.put(MAX_POLL_INTERVAL_MS_CONFIG, MAX_POLL_INTERVAL_MS);
+        props.put(MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(MAX_POLL_INTERVAL_MS_CONFIG, autoCommit ? MAX_POLL_INTERVAL_MS : BATCH_MAX_POLL_INTERVAL_MS);
 
         consumer = new org.apache.kafka.clients.consumer.KafkaConsumer<>(props);
         consumer.subscribe(Collections.singletonList(topic));
@@ -76,6 +98,18 @@ public final class KafkaConsumer {
         return requests;
     }
 
+    public ConsumerRecords<Long, Request> pollRecords() {
+        return consumer.poll(timeout);
+    }
+
+    public void commit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        consumer.commitSync(offsets);
+    }
+
+    public void seek(Map<TopicPartition, Long> offsets) {
+        offsets.forEach(consumer::seek);
+    }
+
     public String makeGroupInstanceIdConfig(String groupId) {
         try {
             var hostName = InetAddress.getLocalHost().getHostName();
@@ -16,14 +16,17 @@ import com.datasrc.json.JsonSerializer;
 import com.datasrc.model.Response;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Properties;
+import java.util.concurrent.Future;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.serialization.LongSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class KafkaProducer {
     private static final Logger log = LoggerFactory.getLogger(KafkaProducer.class);
-    private final org.apache.kafka.clients.producer.KafkaProducer<Long, Response> producer;
+    private final Producer<Long, Response> producer;
     private final String responseTopic;
 
     public KafkaProducer(String bootstrapServers, String responseTopic, String producerName) {
@@ -44,16 +47,25 @@ public class KafkaProducer {
         producer = new org.apache.kafka.clients.producer.KafkaProducer<>(props);
     }
 
+    public KafkaProducer(Producer<Long, Response> producer, String responseTopic) {
+        this.producer = producer;
+        this.responseTopic = responseTopic;
+    }
+
     public void close() {
         producer.close();
     }
 
-    public void send(Response response) {
-        producer.send(
+    public Future<RecordMetadata> send(Response response) {
+        return producer.send(
                 new ProducerRecord<>(responseTopic, response.responseId().value(), response), (metadata, exception) -> {
                     if (exception != null) {
                         log.error("message wasn't sent", exception);
                     }
                 });
     }
+
+    public void flush() {
+        producer.flush();
+    }
 }
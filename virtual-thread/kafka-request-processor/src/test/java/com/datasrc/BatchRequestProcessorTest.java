@@ -0,0 +1,173 @@
+package com.datasrc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datasrc.kafka.KafkaConsumer;
+import com.datasrc.kafka.KafkaProducer;
+import com.datasrc.model.Request;
+import com.datasrc.model.RequestId;
+import com.datasrc.model.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchRequestProcessorTest {
+    private static final String TOPIC_REQUEST = "request";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC_REQUEST, 0);
+    private static final int REQUESTS = 5;
+    private static final long POISON = 3;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final List<Map<TopicPartition, OffsetAndMetadata>> commits = new ArrayList<>();
+    private final List<Boolean> pendingAtCommit = new ArrayList<>();
+    private ExecutorService executor;
+    private MockConsumer<Long, Request> mockConsumer;
+    private TestProducer mockProducer;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        mockProducer = new TestProducer();
+        mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                // completeNext вернет true, если есть неподтвержденная отправка
+                pendingAtCommit.add(mockProducer.completeNext());
+                commits.add(offsets);
+                super.commitSync(offsets);
+            }
+        };
+        mockConsumer.assign(List.of(PARTITION));
+        mockConsumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void commitAfterAllResponsesAcked() {
+        // given
+        var processor = processor();
+        addRequests();
+
+        // when
+        var processed = processor.processNext();
+
+        // then
+        assertThat(processed).isEqualTo(REQUESTS);
+        assertThat(mockProducer.history()).hasSize(REQUESTS);
+        assertThat(commits).containsExactly(Map.of(PARTITION, new OffsetAndMetadata(REQUESTS)));
+        assertThat(pendingAtCommit).containsExactly(false);
+    }
+
+    @Test
+    void failedSendRewindsBatch() {
+        // given
+        var processor = processor();
+        mockProducer.failures = 1;
+        addRequests();
+
+        // when
+        var failedProcessed = processor.processNext();
+        var positionAfterFailure = mockConsumer.position(PARTITION);
+        addRequests();
+        var processed = processor.processNext();
+
+        // then
+        assertThat(failedProcessed).isZero();
+        assertThat(positionAfterFailure).isZero();
+        assertThat(processed).isEqualTo(REQUESTS);
+        assertThat(commits).containsExactly(Map.of(PARTITION, new OffsetAndMetadata(REQUESTS)));
+    }
+
+    @Test
+    void poisonRequestIsSkippedAfterMaxAttempts() {
+        // given
+        var processor = processor();
+        mockProducer.poison = true;
+
+        // when
+        var processed = new ArrayList<Integer>();
+        for (var attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            addRequests();
+            processed.add(processor.processNext());
+        }
+
+        // then
+        assertThat(processed).containsExactly(0, 0, REQUESTS);
+        assertThat(commits).containsExactly(Map.of(PARTITION, new OffsetAndMetadata(REQUESTS)));
+        assertThat(mockConsumer.position(PARTITION)).isEqualTo(REQUESTS);
+    }
+
+    private BatchRequestProcessor processor() {
+        return new BatchRequestProcessor(
+                new KafkaConsumer(mockConsumer),
+                new KafkaProducer(mockProducer, "response"),
+                "test",
+                executor,
+                2,
+                MAX_ATTEMPTS);
+    }
+
+    private void addRequests() {
+        for (var offset = 0; offset < REQUESTS; offset++) {
+            mockConsumer.addRecord(new ConsumerRecord<>(
+                    TOPIC_REQUEST, 0, offset, (long) offset, new Request(new RequestId(offset), offset)));
+        }
+    }
+
+    /**
+     * Отправки подтверждаются только во flush: первые failures подтверждений - с ошибкой,
+     * poison - ответ на запрос POISON не отправляется никогда.
+     */
+    private static class TestProducer extends MockProducer<Long, Response> {
+        private int failures;
+        private boolean poison;
+
+        TestProducer() {
+            super(false, new NopSerializer<>(), new NopSerializer<>());
+        }
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<Long, Response> record, Callback callback) {
+            if (poison && record.value().requestId().value() == POISON) {
+                throw new KafkaException("poison request");
+            }
+            return super.send(record, callback);
+        }
+
+        @Override
+        public synchronized void flush() {
+            for (; failures > 0; failures--) {
+                errorNext(new KafkaException("send failed"));
+            }
+            super.flush();
+        }
+    }
+
+    private static class NopSerializer<T> implements Serializer<T> {
+        @Override
+        public byte[] serialize(String topic, T data) {
+            return new byte[0];
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.datasrc;
+
+import com.datasrc.kafka.KafkaConsumer;
+import com.datasrc.kafka.KafkaProducer;
+import com.datasrc.model.Request;
+import com.datasrc.model.RequestId;
+import com.datasrc.model.Response;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Пропускная способность RequestProcessor и BatchRequestProcessor без брокера:
+ * MockConsumer отдает запросы пачками (по 3 как в KafkaConsumer и по 500 для пакетного режима),
+ * MockProducer подтверждает отправку сразу.
+ * Одна операция - один запрос.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(RequestProcessorBenchmark.REQUESTS)
+public class RequestProcessorBenchmark {
+    static final int REQUESTS = 10_000;
+    private static final String TOPIC_REQUEST = "request";
+    private static final String TOPIC_RESPONSE = "response";
+    private static final int PARTITIONS = 4;
+    private static final int SERIAL_POLL_RECORDS = 3;
+    private static final int BATCH_POLL_RECORDS = 500;
+    private static final int MAX_CONCURRENCY = 100;
+
+    private final List<ConsumerRecord<Long, Request>> requests = new ArrayList<>(REQUESTS);
+    private ExecutorService executor;
+    private MockConsumer<Long, Request> mockConsumer;
+    private MockProducer<Long, Response> mockProducer;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RequestProcessorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        for (var idx = 0; idx < REQUESTS; idx++) {
+            requests.add(new ConsumerRecord<>(
+                    TOPIC_REQUEST, idx % PARTITIONS, idx / PARTITIONS, (long) idx, new Request(new RequestId(idx), idx)));
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareConsumer() {
+        mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        mockProducer = new MockProducer<>(true, new NopSerializer<>(), new NopSerializer<>());
+        var partitions = new ArrayList<TopicPartition>(PARTITIONS);
+        var beginningOffsets = new HashMap<TopicPartition, Long>();
+        for (var partition = 0; partition < PARTITIONS; partition++) {
+            var topicPartition = new TopicPartition(TOPIC_REQUEST, partition);
+            partitions.add(topicPartition);
+            beginningOffsets.put(topicPartition, 0L);
+        }
+        mockConsumer.assign(partitions);
+        mockConsumer.updateBeginningOffsets(beginningOffsets);
+    }
+
+    @Benchmark
+    public int serial() {
+        schedulePolls(SERIAL_POLL_RECORDS);
+        var processor = new RequestProcessor(
+                new KafkaConsumer(mockConsumer), new KafkaProducer(mockProducer, TOPIC_RESPONSE), "benchmark");
+        var processed = 0;
+        while (processed < REQUESTS) {
+            processed += processor.processNext();
+        }
+        return processed;
+    }
+
+    @Benchmark
+    public int batch() {
+        schedulePolls(BATCH_POLL_RECORDS);
+        var processor = new BatchRequestProcessor(
+                new KafkaConsumer(mockConsumer),
+                new KafkaProducer(mockProducer, TOPIC_RESPONSE),
+                "benchmark",
+                executor,
+                MAX_CONCURRENCY);
+        var processed = 0;
+        while (processed < REQUESTS) {
+            processed += processor.processNext();
+        }
+        return processed;
+    }
+
+    private void schedulePolls(int pollRecords) {
+        for (var from = 0; from < REQUESTS; from += pollRecords) {
+            var chunk = requests.subList(from, Math.min(from + pollRecords, REQUESTS));
+            mockConsumer.schedulePollTask(() -> chunk.forEach(mockConsumer::addRecord));
+        }
+    }
+
+    private static class NopSerializer<T> implements Serializer<T> {
+        @Override
+        public byte[] serialize(String topic, T data) {
+            return new byte[0];
+        }
+    }
+}
+/*
+JDK 21.0.1, 1 CPU, batch на виртуальных потоках (Executors.newVirtualThreadPerTaskExecutor(), как в приложении):
+
+Benchmark                          Mode  Cnt       Score        Error  Units
+RequestProcessorBenchmark.batch   thrpt    5  413180.432 ±  86780.260  ops/s
+RequestProcessorBenchmark.serial  thrpt    5  774495.218 ± 189517.966  ops/s
+
+Обработка запроса - одно умножение, MockProducer подтверждает отправку сразу,
+поэтому здесь видна только цена передачи запроса в виртуальный поток, flush и commitSync на каждую пачку:
+batch почти в 2 раза медленнее serial.
+serial не ждет подтверждений и коммитит offset-ы автоматически (возможна потеря ответов),
+batch коммитит пачку только после flush и подтверждения всех ответов.
+Блокирующая обработка и задержка подтверждений брокера здесь не моделируются, выигрыш batch на них не измерен,
+поэтому режим по умолчанию - serial.
+*/
@@ -4,6 +4,12 @@ plugins {
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-webflux")
+
+    testImplementation("org.junit.jupiter:junit-jupiter-engine")
+    testImplementation("org.assertj:assertj-core")
+    testImplementation("io.projectreactor:reactor-test")
+    testImplementation("org.openjdk.jmh:jmh-core:1.36")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.36")
 }
 
 tasks {
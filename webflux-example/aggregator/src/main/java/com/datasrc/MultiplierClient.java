@@ -1,5 +1,16 @@
 package com.datasrc;
 
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
-public record MultiplierClient(WebClient client, String name) {}
+public record MultiplierClient(WebClient client, String name) {
+
+    public Mono<Long> multiply(long value) {
+        return client.get()
+                .uri("/multiplier?value={value}", value)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(Long.class);
+    }
+}
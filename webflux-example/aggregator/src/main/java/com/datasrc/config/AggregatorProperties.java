@@ -0,0 +1,46 @@
+package com.datasrc.config;
+
+import com.datasrc.fanout.BackendSettings;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+@ConfigurationProperties(prefix = "application")
+public class AggregatorProperties {
+    private final int clientThreads;
+    private final Duration cacheTtl;
+    private final int cacheMaxSize;
+    private final List<BackendSettings> backends;
+
+    @ConstructorBinding
+    public AggregatorProperties(
+            int clientThreads, Duration cacheTtl, int cacheMaxSize, List<BackendSettings> backends) {
+        this.clientThreads = clientThreads;
+        this.cacheTtl = cacheTtl;
+        this.cacheMaxSize = cacheMaxSize;
+        this.backends = backends;
+    }
+
+    public int getClientThreads() {
+        return clientThreads;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public int getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public List<BackendSettings> getBackends() {
+        return backends;
+    }
+
+    @Override
+    public String toString() {
+        return "AggregatorProperties{" + "clientThreads=" + clientThreads + ", cacheTtl=" + cacheTtl + ", cacheMaxSize="
+                + cacheMaxSize + ", backends=" + backends + '}';
+    }
+}
@@ -1,11 +1,13 @@
 package com.datasrc.config;
 
 import com.datasrc.MultiplierClient;
+import com.datasrc.fanout.Backend;
+import com.datasrc.fanout.FanOutEngine;
 import io.netty.channel.nio.NioEventLoopGroup;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
 import org.springframework.boot.web.reactive.server.ReactiveWebServerFactory;
 import org.springframework.context.annotation.Bean;
@@ -16,6 +18,7 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.util.annotation.NonNull;
 
 @Configuration
+@EnableConfigurationProperties(AggregatorProperties.class)
 public class ApplConfig {
     private static final int THREAD_POOL_SIZE = 1;
 
@@ -42,8 +45,8 @@ public class ApplConfig {
     }
 
     @Bean(name = "clientThreadEventLoop", destroyMethod = "close")
-    public NioEventLoopGroup clientThreadEventLoop() {
-        return new NioEventLoopGroup(THREAD_POOL_SIZE, new ThreadFactory() {
+    public NioEventLoopGroup clientThreadEventLoop(AggregatorProperties properties) {
+        return new NioEventLoopGroup(properties.getClientThreads(), new ThreadFactory() {
             private final AtomicLong threadIdGenerator = new AtomicLong(0);
 
             @Override
@@ -67,21 +70,18 @@ public class ApplConfig {
         return new ReactorClientHttpConnector(resourceFactory, mapper -> mapper);
     }
 
-    @Bean("multiplierClient1")
-    public MultiplierClient multiplierClient1(
-            WebClient.Builder builder, @Value("${application.multiplier-1}") String url) {
-        return new MultiplierClient(builder.baseUrl(url).build(), "multiplierClient1");
-    }
-
-    @Bean("multiplierClient2")
-    public MultiplierClient multiplierClient2(
-            WebClient.Builder builder, @Value("${application.multiplier-2}") String url) {
-        return new MultiplierClient(builder.baseUrl(url).build(), "multiplierClient2");
-    }
-
-    @Bean("multiplierClient3")
-    public MultiplierClient multiplierClient3(
-            WebClient.Builder builder, @Value("${application.multiplier-3}") String url) {
-        return new MultiplierClient(builder.baseUrl(url).build(), "multiplierClient3");
+    @Bean
+    public FanOutEngine fanOutEngine(WebClient.Builder builder, AggregatorProperties properties) {
+        var backends = properties.getBackends().stream()
+                .map(settings -> new Backend(
+                        settings,
+                        settings.urls().stream()
+                                .map(url -> new MultiplierClient(
+                                        builder.clone().baseUrl(url).build(), settings.name()))
+                                .toList(),
+                        properties.getCacheTtl(),
+                        properties.getCacheMaxSize()))
+                .toList();
+        return new FanOutEngine(backends);
     }
 }
@@ -0,0 +1,113 @@
+package com.datasrc.fanout;
+
+import com.datasrc.MultiplierClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Вызов одного backend-а: кэш -> hedged-запрос -> deadline.
+ * Hedge-запрос отправляется, если основной не ответил за p95 задержки backend-а,
+ * побеждает первый ответ, проигравший запрос отменяется.
+ * Hedge-запросов не больше HEDGE_BUDGET_PERCENT от основных: когда backend медленный целиком,
+ * hedge не помогает, а только удваивает на него нагрузку.
+ * Бюджет начинается с HEDGE_BUDGET_INITIAL, чтобы первые запросы после старта тоже могли получить hedge.
+ */
+public class Backend {
+    private static final Logger log = LoggerFactory.getLogger(Backend.class);
+    private static final int HEDGE_BUDGET_PERCENT = 10;
+    private static final int HEDGE_COST = 100;
+    private static final int HEDGE_BUDGET_MAX = 100 * HEDGE_COST;
+    private static final int HEDGE_BUDGET_INITIAL = 10 * HEDGE_COST;
+
+    private final BackendSettings settings;
+    private final List<MultiplierClient> replicas;
+    private final LatencyMetrics metrics = new LatencyMetrics();
+    private final ResponseCache cache;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicInteger hedgeBudget = new AtomicInteger(HEDGE_BUDGET_INITIAL);
+
+    public Backend(BackendSettings settings, List<MultiplierClient> replicas, Duration cacheTtl, int cacheMaxSize) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("no urls for backend:" + settings.name());
+        }
+        this.settings = settings;
+        this.replicas = replicas;
+        this.cache = new ResponseCache(cacheTtl, cacheMaxSize, metrics);
+    }
+
+    public Mono<BackendResponse> call(long value) {
+        return cache.get(value, this::load)
+                .map(result -> new BackendResponse(settings.name(), result))
+                .onErrorResume(error -> {
+                    log.warn("backend:{} failed, value:{}, error:{}", settings.name(), value, error.toString());
+                    return Mono.empty();
+                });
+    }
+
+    public String name() {
+        return settings.name();
+    }
+
+    public BackendStats stats() {
+        return metrics.stats();
+    }
+
+    Duration hedgeDelay() {
+        var p95 = metrics.p95Nanos();
+        if (p95 < 0) {
+            return settings.hedgeDelay();
+        }
+        var delay = Duration.ofNanos(p95);
+        return delay.compareTo(settings.minHedgeDelay()) < 0 ? settings.minHedgeDelay() : delay;
+    }
+
+    private Mono<Long> load(long value) {
+        // Mono из кэша переподписывается после ошибки, состояние запроса создается на каждую подписку
+        return Mono.defer(() -> request(value));
+    }
+
+    private Mono<Long> request(long value) {
+        var replicaIdx = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        if (!settings.hedging()) {
+            return withDeadline(attempt(replicaIdx, value));
+        }
+        hedgeBudget.updateAndGet(budget -> Math.min(budget + HEDGE_BUDGET_PERCENT, HEDGE_BUDGET_MAX));
+        // hedge-запрос уходит после задержки или сразу, если основной запрос завершился ошибкой
+        var primaryFailed = Sinks.empty();
+        var primary = attempt(replicaIdx, value).doOnError(error -> primaryFailed.tryEmitEmpty());
+        var hedgeTrigger =
+                Mono.firstWithSignal(Mono.defer(() -> Mono.delay(hedgeDelay())).then(), primaryFailed.asMono());
+        var hedge = hedgeTrigger.then(Mono.defer(() -> {
+            if (!tryAcquireHedge()) {
+                return Mono.<Long>empty();
+            }
+            metrics.hedge();
+            return attempt(replicaIdx + 1, value).doOnNext(response -> metrics.hedgeWin());
+        }));
+        return withDeadline(Mono.firstWithValue(primary, hedge));
+    }
+
+    private boolean tryAcquireHedge() {
+        return hedgeBudget.getAndUpdate(budget -> budget >= HEDGE_COST ? budget - HEDGE_COST : budget) >= HEDGE_COST;
+    }
+
+    private Mono<Long> withDeadline(Mono<Long> request) {
+        return request.timeout(settings.timeout()).doOnError(TimeoutException.class, error -> metrics.timeout());
+    }
+
+    private Mono<Long> attempt(int replicaIdx, long value) {
+        var replica = replicas.get(replicaIdx % replicas.size());
+        return Mono.defer(() -> {
+            var begin = System.nanoTime();
+            return replica.multiply(value)
+                    .doOnNext(response -> metrics.record(System.nanoTime() - begin))
+                    .doOnError(error -> metrics.error());
+        });
+    }
+}
@@ -0,0 +1,3 @@
+package com.datasrc.fanout;
+
+public record BackendResponse(String name, long value) {}
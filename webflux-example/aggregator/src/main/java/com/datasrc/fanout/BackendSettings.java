@@ -0,0 +1,18 @@
+package com.datasrc.fanout;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Настройки одного backend-а.
+ * urls - реплики, hedge-запрос уходит в следующую реплику (если она одна - в ту же).
+ * hedgeDelay - задержка hedge-запроса, пока не набралось статистики для p95,
+ * minHedgeDelay - нижняя граница задержки, чтобы не удваивать нагрузку на быстрых ответах.
+ */
+public record BackendSettings(
+        String name,
+        List<String> urls,
+        Duration timeout,
+        boolean hedging,
+        Duration hedgeDelay,
+        Duration minHedgeDelay) {}
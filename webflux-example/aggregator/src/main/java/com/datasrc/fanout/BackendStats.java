@@ -0,0 +1,12 @@
+package com.datasrc.fanout;
+
+public record BackendStats(
+        long responses,
+        long errors,
+        long timeouts,
+        long hedges,
+        long hedgeWins,
+        long cacheHits,
+        double p50Ms,
+        double p95Ms,
+        double p99Ms) {}
@@ -0,0 +1,30 @@
+package com.datasrc.fanout;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import reactor.core.publisher.Flux;
+
+/**
+ * Параллельный запрос ко всем backend-ам, ответы выдаются по мере готовности.
+ * Backend, который не ответил до своего deadline или вернул ошибку, пропускается.
+ */
+public class FanOutEngine {
+    private final List<Backend> backends;
+
+    public FanOutEngine(List<Backend> backends) {
+        this.backends = List.copyOf(backends);
+    }
+
+    public Flux<BackendResponse> fanOut(long value) {
+        return Flux.fromIterable(backends).flatMap(backend -> backend.call(value), backends.size());
+    }
+
+    public Map<String, BackendStats> stats() {
+        var result = new LinkedHashMap<String, BackendStats>();
+        for (var backend : backends) {
+            result.put(backend.name(), backend.stats());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package com.datasrc.fanout;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки успешных ответов backend-а за последние WINDOW запросов и счетчики.
+ * p95 для hedge-запросов пересчитывается раз в RECALC_EVERY ответов, а не на каждый запрос.
+ */
+public class LatencyMetrics {
+    private static final int WINDOW = 1024;
+    private static final int RECALC_EVERY = 64;
+    private static final int MIN_SAMPLES = 100;
+
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicLong recorded = new AtomicLong();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private volatile long p95Nanos = -1;
+
+    public void record(long latencyNanos) {
+        var idx = recorded.getAndIncrement();
+        samples.set((int) (idx % WINDOW), latencyNanos);
+        if (idx + 1 >= MIN_SAMPLES && (idx + 1) % RECALC_EVERY == 0) {
+            p95Nanos = percentile(snapshot(), 0.95);
+        }
+    }
+
+    /**
+     * p95 задержки или -1, если ответов еще меньше MIN_SAMPLES.
+     */
+    public long p95Nanos() {
+        return p95Nanos;
+    }
+
+    public void error() {
+        errors.increment();
+    }
+
+    public void timeout() {
+        timeouts.increment();
+    }
+
+    public void hedge() {
+        hedges.increment();
+    }
+
+    public void hedgeWin() {
+        hedgeWins.increment();
+    }
+
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    public BackendStats stats() {
+        var sorted = snapshot();
+        return new BackendStats(
+                recorded.get(),
+                errors.sum(),
+                timeouts.sum(),
+                hedges.sum(),
+                hedgeWins.sum(),
+                cacheHits.sum(),
+                toMillis(percentile(sorted, 0.50)),
+                toMillis(percentile(sorted, 0.95)),
+                toMillis(percentile(sorted, 0.99)));
+    }
+
+    private long[] snapshot() {
+        var size = (int) Math.min(recorded.get(), WINDOW);
+        var result = new long[size];
+        for (var idx = 0; idx < size; idx++) {
+            result[idx] = samples.get(idx);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var idx = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, idx)];
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
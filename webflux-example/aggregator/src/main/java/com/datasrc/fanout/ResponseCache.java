@@ -0,0 +1,67 @@
+package com.datasrc.fanout;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Кэш ответов по значению запроса с коротким TTL.
+ * В кэше лежит Mono.cache(), поэтому одновременные запросы с одним id ждут один вызов backend-а,
+ * а не делают каждый свой. Ошибки не кэшируются: следующий запрос вызовет backend заново.
+ * При ttl = 0 кэш выключен.
+ */
+public class ResponseCache {
+    private final Duration ttl;
+    private final int maxSize;
+    private final LatencyMetrics metrics;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public ResponseCache(Duration ttl, int maxSize, LatencyMetrics metrics) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.metrics = metrics;
+    }
+
+    public Mono<Long> get(long key, LongFunction<Mono<Long>> loader) {
+        if (ttl.isZero()) {
+            return loader.apply(key);
+        }
+        return Mono.defer(() -> {
+            // часы того же планировщика, что у Mono.cache и timeout: в тестах их заменяет виртуальное время
+            var now = Schedulers.parallel().now(TimeUnit.NANOSECONDS);
+            var entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - now > 0) {
+                metrics.cacheHit();
+                return entry.value();
+            }
+            if (entries.size() >= maxSize) {
+                evictExpired(now);
+                if (entries.size() >= maxSize) {
+                    return loader.apply(key);
+                }
+            }
+            return entries.compute(key, (k, old) -> {
+                        if (old != null && old.expiresAt() - now > 0) {
+                            metrics.cacheHit();
+                            return old;
+                        }
+                        var value = loader.apply(k).cache(result -> ttl, error -> Duration.ZERO, () -> Duration.ZERO);
+                        return new Entry(value, now + ttl.toNanos());
+                    })
+                    .value();
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+    }
+
+    private record Entry(Mono<Long> value, long expiresAt) {}
+}
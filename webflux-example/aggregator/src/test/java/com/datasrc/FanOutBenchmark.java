@@ -0,0 +1,152 @@
+package com.datasrc;
+
+import com.datasrc.fanout.Backend;
+import com.datasrc.fanout.BackendSettings;
+import com.datasrc.fanout.FanOutEngine;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/*
+FanOutEngine против заглушки data-multiplier на reactor-netty (localhost):
+ответ через STUB_DELAY_MS, у доли SLOW_SHARE запросов через STUB_SLOW_DELAY_MS (хвост задержки).
+Три backend-а с одной репликой каждый, id запроса случайный из KEYS.
+PLAIN - без hedge и кэша, HEDGED - hedge после p95, HEDGED_CACHED - hedge и кэш на 1 сек.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+public class FanOutBenchmark {
+    private static final int BACKENDS = 3;
+    private static final int KEYS = 1000;
+    private static final long STUB_DELAY_MS = 5;
+    private static final long STUB_SLOW_DELAY_MS = 200;
+    private static final double SLOW_SHARE = 0.05;
+
+    @Param({"PLAIN", "HEDGED", "HEDGED_CACHED"})
+    private FanOutMode mode;
+
+    private DisposableServer stub;
+    private FanOutEngine fanOutEngine;
+
+    public static void main(String[] args) throws RunnerException {
+        var opt = new OptionsBuilder()
+                .include(FanOutBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() {
+        stub = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/multiplier", (request, response) -> {
+                    var value = Long.parseLong(new QueryStringDecoder(request.uri())
+                            .parameters()
+                            .get("value")
+                            .get(0));
+                    var delay =
+                            ThreadLocalRandom.current().nextDouble() < SLOW_SHARE ? STUB_SLOW_DELAY_MS : STUB_DELAY_MS;
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.delay(Duration.ofMillis(delay)).map(tick -> String.valueOf(value * 10)));
+                }))
+                .bindNow();
+
+        var url = "http://localhost:" + stub.port();
+        var builder = WebClient.builder();
+        var backends = new ArrayList<Backend>();
+        for (var idx = 1; idx <= BACKENDS; idx++) {
+            var settings = new BackendSettings(
+                    "multiplierClient" + idx,
+                    List.of(url),
+                    Duration.ofSeconds(1),
+                    mode != FanOutMode.PLAIN,
+                    Duration.ofMillis(50),
+                    Duration.ofMillis(5));
+            var replicas =
+                    List.of(new MultiplierClient(builder.clone().baseUrl(url).build(), settings.name()));
+            var cacheTtl = mode == FanOutMode.HEDGED_CACHED ? Duration.ofSeconds(1) : Duration.ZERO;
+            backends.add(new Backend(settings, replicas, cacheTtl, 10_000));
+        }
+        fanOutEngine = new FanOutEngine(backends);
+    }
+
+    @TearDown
+    public void tearDown() {
+        stub.disposeNow();
+    }
+
+    @Benchmark
+    public long fanOut() {
+        var id = ThreadLocalRandom.current().nextLong(KEYS);
+        // backend-ы, не ответившие до deadline, пропускаются, их видно в timeouts в статистике
+        return fanOutEngine.fanOut(id).count().block();
+    }
+
+    public enum FanOutMode {
+        PLAIN,
+        HEDGED,
+        HEDGED_CACHED
+    }
+}
+/*
+JDK 21, 1 CPU (заглушка и клиент в одном процессе), @Threads(4), -wi 3 -w 3 -i 3 -r 3.
+Заглушка: 5 ms, 5% запросов 200 ms; на три backend-а хотя бы один медленный ответ в ~14% fan-out-ов.
+
+Benchmark                                     (mode)    Mode   Cnt    Score   Error   Units
+FanOutBenchmark.fanOut                         PLAIN   thrpt     3    0.100 ± 0.043  ops/ms
+FanOutBenchmark.fanOut                        HEDGED   thrpt     3    0.247 ± 0.306  ops/ms
+FanOutBenchmark.fanOut                 HEDGED_CACHED   thrpt     3    0.383 ± 1.478  ops/ms
+FanOutBenchmark.fanOut                         PLAIN  sample  1010   36.345 ± 6.977   ms/op
+FanOutBenchmark.fanOut:fanOut·p0.50            PLAIN  sample          9.093           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.90            PLAIN  sample        201.851           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.95            PLAIN  sample        203.686           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.99            PLAIN  sample        207.851           ms/op
+FanOutBenchmark.fanOut                        HEDGED  sample  2312   15.514 ± 1.124   ms/op
+FanOutBenchmark.fanOut:fanOut·p0.50           HEDGED  sample         11.420           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.90           HEDGED  sample         26.575           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.95           HEDGED  sample         35.806           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.99           HEDGED  sample         56.358           ms/op
+FanOutBenchmark.fanOut                 HEDGED_CACHED  sample  2980   12.153 ± 1.194   ms/op
+FanOutBenchmark.fanOut:fanOut·p0.50    HEDGED_CACHED  sample          9.077           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.90    HEDGED_CACHED  sample         24.366           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.95    HEDGED_CACHED  sample         33.554           ms/op
+FanOutBenchmark.fanOut:fanOut·p0.99    HEDGED_CACHED  sample        100.688           ms/op
+
+Выводы:
+- thrpt на 3 итерациях шумный (у HEDGED_CACHED ошибка больше значения), выводы по sample;
+- hedge после p95 срезает хвост: p90 fan-out-а 202 -> 27 ms, p99 208 -> 56 ms;
+- кэш на 1 сек при 1000 ключей снижает среднее 15.5 -> 12.2 ms, p99 на этом прогоне хуже (101 ms),
+  на 3 итерациях это в пределах шума;
+- бюджет hedge-запросов (10% от основных, в начале - на 10 hedge-запросов) нужен, когда backend
+  медленный целиком или CPU насыщен: тогда hedge только добавляет нагрузку. Это не измерялось,
+  бенчмарк идет только на 4 потоках. Число hedge-запросов и попаданий в кэш - в FanOutEngine.stats().
+*/
@@ -0,0 +1,101 @@
+package com.datasrc.fanout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datasrc.MultiplierClient;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Hedge и deadline в виртуальном времени: реплики - WebClient с ExchangeFunction,
+ * которая отвечает value * 10 через заданную задержку (Mono.delay, тоже на виртуальном времени).
+ */
+class FanOutEngineTest {
+    private static final Duration FAST = Duration.ofMillis(10);
+    private static final Duration SLOW = Duration.ofSeconds(1);
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(100);
+    private static final Duration TIMEOUT = Duration.ofMillis(500);
+
+    @Test
+    void hedgeFiresAfterDelay() {
+        // given
+        var backend = backend("b1", true, replica("slow", SLOW), replica("fast", FAST));
+
+        // when, then
+        StepVerifier.withVirtualTime(() -> backend.call(1))
+                .expectSubscription()
+                .expectNoEvent(HEDGE_DELAY.plus(FAST).minusMillis(1))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext(new BackendResponse("b1", 10))
+                .verifyComplete();
+        assertThat(backend.stats().hedges()).isEqualTo(1);
+        assertThat(backend.stats().hedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeBudgetIsExhausted() {
+        // given, одна реплика: hedge уходит в нее же после HEDGE_DELAY и всегда проигрывает основному запросу
+        var backend = backend("b1", true, replica("single", Duration.ofMillis(300)));
+        var requests = 15;
+
+        // when
+        StepVerifier.withVirtualTime(() -> Flux.range(1, requests).concatMap(backend::call))
+                .thenAwait(Duration.ofMinutes(1))
+                .expectNextCount(requests)
+                .verifyComplete();
+
+        // then, начальный бюджет - 10 hedge, каждый запрос добавляет 0.1: hedge получают первые 11 запросов
+        assertThat(backend.stats().hedges()).isEqualTo(11);
+        assertThat(backend.stats().hedgeWins()).isZero();
+    }
+
+    @Test
+    void deadlineReturnsPartialResult() {
+        // given
+        var engine = new FanOutEngine(List.of(
+                backend("fast", false, replica("fast", FAST)), backend("slow", false, replica("slow", SLOW))));
+
+        // when, then
+        StepVerifier.withVirtualTime(() -> engine.fanOut(2))
+                .expectSubscription()
+                .thenAwait(FAST)
+                .expectNext(new BackendResponse("fast", 20))
+                .expectNoEvent(TIMEOUT.minus(FAST).minusMillis(1))
+                .thenAwait(Duration.ofMillis(1))
+                .verifyComplete();
+        assertThat(engine.stats().get("slow").timeouts()).isEqualTo(1);
+        assertThat(engine.stats().get("fast").timeouts()).isZero();
+    }
+
+    private static Backend backend(String name, boolean hedging, MultiplierClient... replicas) {
+        var settings = new BackendSettings(name, List.of(), TIMEOUT, hedging, HEDGE_DELAY, Duration.ofMillis(10));
+        return new Backend(settings, List.of(replicas), Duration.ZERO, 0);
+    }
+
+    private static MultiplierClient replica(String name, Duration delay) {
+        var client = WebClient.builder()
+                .exchangeFunction(request -> {
+                    var value = UriComponentsBuilder.fromUri(request.url())
+                            .build()
+                            .getQueryParams()
+                            .getFirst("value");
+                    var response = ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(String.valueOf(Long.parseLong(value) * 10))
+                            .build();
+                    return Mono.delay(delay).thenReturn(response);
+                })
+                .build();
+        return new MultiplierClient(client, name);
+    }
+}
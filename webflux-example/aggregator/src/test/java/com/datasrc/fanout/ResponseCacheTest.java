@@ -0,0 +1,64 @@
+package com.datasrc.fanout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ResponseCacheTest {
+    private static final Duration TTL = Duration.ofSeconds(1);
+    private static final Duration LOAD_TIME = Duration.ofMillis(100);
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final LatencyMetrics metrics = new LatencyMetrics();
+    private final ResponseCache cache = new ResponseCache(TTL, 100, metrics);
+
+    @Test
+    void concurrentRequestsShareOneLoadUntilTtl() {
+        // when: два одновременных запроса, запрос после ответа и запрос после TTL
+        StepVerifier.withVirtualTime(() -> Flux.concat(
+                        Flux.merge(get(1), get(1)), get(1), Mono.delay(TTL).then(get(1))))
+                .thenAwait(Duration.ofSeconds(5))
+                .expectNext(10L, 10L, 10L, 10L)
+                .verifyComplete();
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(metrics.stats().cacheHits()).isEqualTo(2);
+    }
+
+    @Test
+    void errorIsNotCached() {
+        // given
+        var failures = new AtomicInteger(1);
+
+        // when
+        StepVerifier.withVirtualTime(() -> Flux.concat(
+                        cache.get(1, key -> Mono.defer(() -> failures.getAndDecrement() > 0
+                                        ? Mono.<Long>error(new IllegalStateException("backend failed"))
+                                        : load(key)))
+                                .onErrorResume(error -> Mono.just(-1L)),
+                        get(1)))
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNext(-1L, 10L)
+                .verifyComplete();
+
+        // then
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private Mono<Long> get(long key) {
+        return cache.get(key, this::load);
+    }
+
+    private Mono<Long> load(long key) {
+        return Mono.defer(() -> {
+            loads.incrementAndGet();
+            return Mono.delay(LOAD_TIME).thenReturn(key * 10);
+        });
+    }
+}
@@ -4,8 +4,8 @@ plugins {
 }
 
 java {
-    sourceCompatibility = JavaVersion.VERSION_17
-    targetCompatibility = JavaVersion.VERSION_17
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
 }
 
 group = "ru.jettydemo"
@@ -27,6 +27,9 @@ dependencyManagement {
 dependencies {
     implementation("ch.qos.logback:logback-classic")
     implementation("org.jetbrains:annotations:24.0.0")
+
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("org.assertj:assertj-core")
 }
 
 tasks {
@@ -36,4 +39,8 @@ tasks {
     compileTestJava {
         options.encoding = "UTF-8"
     }
-}
\ No newline at end of file
+}
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
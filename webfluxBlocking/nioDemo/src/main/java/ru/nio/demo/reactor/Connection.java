@@ -0,0 +1,227 @@
+package ru.nio.demo.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Состояние одного соединения, используется только из потока своего Reactor-а.
+ * Запросы - строки, разделенные '\n' ('\r' перед ним отбрасывается).
+ * Строка копируется из буфера чтения в буфер из пула и уходит обработчику,
+ * на соединении одновременно обрабатывается не больше одного запроса, ответы идут в порядке запросов.
+ * Если ответ не записался целиком, соединение подписывается на OP_WRITE до конца записи.
+ * Запросы и ответы держат буферы из пула, поэтому их на соединении не больше MAX_PENDING:
+ * при достижении предела разбор останавливается, OP_READ снимается, остаток ждет в буфере чтения,
+ * пока ответы не уйдут клиенту.
+ */
+class Connection {
+    private static final Logger logger = LoggerFactory.getLogger(Connection.class);
+    private static final byte[] STOP = {'s', 't', 'o', 'p'};
+    private static final int MAX_PENDING = 16;
+
+    private final Reactor reactor;
+    private final SocketChannel socketChannel;
+    private final SelectionKey key;
+    private final BufferPool bufferPool;
+    private final Executor handlerExecutor;
+    private final RequestHandler handler;
+
+    private final ByteBuffer readBuffer;
+    private final Queue<ByteBuffer> requests = new ArrayDeque<>();
+    private final Queue<ByteBuffer> responses = new ArrayDeque<>();
+    private boolean handlerBusy;
+    private boolean stopRequested;
+    private boolean closed;
+
+    Connection(
+            Reactor reactor,
+            SocketChannel socketChannel,
+            SelectionKey key,
+            BufferPool bufferPool,
+            Executor handlerExecutor,
+            RequestHandler handler) {
+        this.reactor = reactor;
+        this.socketChannel = socketChannel;
+        this.key = key;
+        this.bufferPool = bufferPool;
+        this.handlerExecutor = handlerExecutor;
+        this.handler = handler;
+        this.readBuffer = bufferPool.acquire();
+    }
+
+    void onReadable() {
+        try {
+            var read = socketChannel.read(readBuffer);
+            if (read < 0) {
+                close();
+                return;
+            }
+            proceed();
+        } catch (IOException ex) {
+            logger.debug("read error, connection:{}", socketChannel, ex);
+            close();
+        }
+    }
+
+    void onWritable() {
+        try {
+            flush();
+        } catch (IOException ex) {
+            logger.debug("write error, connection:{}", socketChannel, ex);
+            close();
+            return;
+        }
+        proceed();
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        key.cancel();
+        Reactor.closeQuietly(socketChannel);
+        bufferPool.release(readBuffer);
+        requests.forEach(bufferPool::release);
+        requests.clear();
+        responses.forEach(bufferPool::release);
+        responses.clear();
+    }
+
+    /*
+     * Разбирает то, что ждет в буфере чтения, запускает следующий запрос и обновляет interestOps.
+     */
+    private void proceed() {
+        if (closed) {
+            return;
+        }
+        if (!isFull() && readBuffer.position() > 0 && !parseReadBuffer()) {
+            return;
+        }
+        dispatch();
+        if (!closed) {
+            var ops = isFull() ? 0 : SelectionKey.OP_READ;
+            key.interestOps(responses.isEmpty() ? ops : ops | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private boolean isFull() {
+        return requests.size() + responses.size() >= MAX_PENDING;
+    }
+
+    // false - соединение закрыто
+    private boolean parseReadBuffer() {
+        readBuffer.flip();
+        parseFrames();
+        if (!readBuffer.hasRemaining()) {
+            readBuffer.clear();
+        } else if (readBuffer.position() == 0 && readBuffer.limit() == readBuffer.capacity()) {
+            logger.warn("request is too long, connection:{}", socketChannel);
+            close();
+            return false;
+        } else {
+            readBuffer.compact();
+        }
+        return true;
+    }
+
+    private void parseFrames() {
+        var frameStart = readBuffer.position();
+        for (var idx = frameStart; idx < readBuffer.limit() && !stopRequested && !isFull(); idx++) {
+            if (readBuffer.get(idx) != '\n') {
+                continue;
+            }
+            var frameEnd = idx > frameStart && readBuffer.get(idx - 1) == '\r' ? idx - 1 : idx;
+            if (isStop(frameStart, frameEnd)) {
+                stopRequested = true;
+            } else {
+                var request = bufferPool.acquire();
+                request.put(readBuffer.slice(frameStart, frameEnd - frameStart)).flip();
+                requests.add(request);
+            }
+            frameStart = idx + 1;
+        }
+        readBuffer.position(frameStart);
+    }
+
+    private boolean isStop(int from, int to) {
+        if (to - from != STOP.length) {
+            return false;
+        }
+        for (var idx = 0; idx < STOP.length; idx++) {
+            if (readBuffer.get(from + idx) != STOP[idx]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void dispatch() {
+        if (closed || handlerBusy) {
+            return;
+        }
+        var request = requests.poll();
+        if (request == null) {
+            if (stopRequested && responses.isEmpty()) {
+                close();
+            }
+            return;
+        }
+        handlerBusy = true;
+        handlerExecutor.execute(() -> handle(request));
+    }
+
+    private void handle(ByteBuffer request) {
+        var response = bufferPool.acquire();
+        try {
+            handler.handle(request, response);
+            response.flip();
+            reactor.execute(() -> onResponse(request, response));
+        } catch (Exception ex) {
+            logger.error("handler error, connection:{}", socketChannel, ex);
+            bufferPool.release(response);
+            reactor.execute(() -> {
+                bufferPool.release(request);
+                close();
+            });
+        }
+    }
+
+    private void onResponse(ByteBuffer request, ByteBuffer response) {
+        bufferPool.release(request);
+        handlerBusy = false;
+        if (closed) {
+            bufferPool.release(response);
+            return;
+        }
+        responses.add(response);
+        try {
+            flush();
+        } catch (IOException ex) {
+            logger.debug("write error, connection:{}", socketChannel, ex);
+            close();
+            return;
+        }
+        proceed();
+    }
+
+    private void flush() throws IOException {
+        ByteBuffer response;
+        while ((response = responses.peek()) != null) {
+            socketChannel.write(response);
+            if (response.hasRemaining()) {
+                return;
+            }
+            bufferPool.release(responses.poll());
+        }
+        if (stopRequested && !handlerBusy && requests.isEmpty()) {
+            close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.nio.demo.reactor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "echo: " + запрос + "\n" после задержки, как processClientRequest в ServerNIO.
+ * Если ответ не помещается в буфер, отвечает "error: request is too long\n".
+ */
+public class EchoHandler implements RequestHandler {
+    private static final byte[] PREFIX = "echo: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOO_LONG = "error: request is too long\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final long delayMs;
+
+    public EchoHandler(long delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    @Override
+    public void handle(ByteBuffer request, ByteBuffer response) throws InterruptedException {
+        if (delayMs > 0) {
+            TimeUnit.MILLISECONDS.sleep(delayMs);
+        }
+        if (response.remaining() < PREFIX.length + request.remaining() + 1) {
+            response.put(TOO_LONG);
+            return;
+        }
+        response.put(PREFIX).put(request).put((byte) '\n');
+    }
+}
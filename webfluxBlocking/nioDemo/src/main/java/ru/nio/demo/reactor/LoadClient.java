@@ -0,0 +1,165 @@
+package ru.nio.demo.reactor;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Нагрузочный клиент для ServerNIOReactor.
+ * Фаза connect: threads потоков открывают connections соединений, в каждом один запрос, затем "stop".
+ * Фаза latency: каждый поток держит одно соединение и отправляет requestsPerThread запросов подряд,
+ * задержка - от записи запроса до получения строки ответа.
+ *
+ * Запуск: LoadClient [host] [port] [threads] [connections] [requestsPerThread]
+ */
+public class LoadClient {
+    private static final Logger logger = LoggerFactory.getLogger(LoadClient.class);
+    private static final byte[] REQUEST = "ping\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STOP = "stop\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final InetSocketAddress address;
+    private final int threads;
+
+    public LoadClient(InetSocketAddress address, int threads) {
+        this.address = address;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        var host = args.length > 0 ? args[0] : "localhost";
+        var port = args.length > 1 ? Integer.parseInt(args[1]) : 8090;
+        var threads = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        var connections = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        var requestsPerThread = args.length > 4 ? Integer.parseInt(args[4]) : 1_000;
+
+        var client = new LoadClient(new InetSocketAddress(host, port), threads);
+        var connectResult = client.connectPhase(connections);
+        logger.info(
+                "connect phase: connections:{}, errors:{}, connections/sec:{}",
+                connections,
+                connectResult.errors(),
+                String.format("%.0f", connectResult.perSecond()));
+
+        var latencyResult = client.latencyPhase(requestsPerThread);
+        var latencies = latencyResult.latenciesMicros();
+        logger.info(
+                "latency phase: requests:{}, errors:{}, requests/sec:{}, p50:{}us, p99:{}us, p999:{}us, max:{}us",
+                latencies.length,
+                latencyResult.errors(),
+                String.format("%.0f", latencyResult.perSecond()),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99),
+                percentile(latencies, 0.999),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+    }
+
+    public Result connectPhase(int connections) throws InterruptedException {
+        var left = new AtomicInteger(connections);
+        var errors = new AtomicLong();
+        var elapsed = runThreads(() -> {
+            while (left.getAndDecrement() > 0) {
+                try (var socket = connect()) {
+                    var out = socket.getOutputStream();
+                    out.write(REQUEST);
+                    readLine(new BufferedInputStream(socket.getInputStream()));
+                    out.write(STOP);
+                } catch (IOException ex) {
+                    errors.incrementAndGet();
+                }
+            }
+        });
+        return new Result(connections / seconds(elapsed), errors.get(), new long[0]);
+    }
+
+    public Result latencyPhase(int requestsPerThread) throws InterruptedException {
+        var latencies = new long[threads * requestsPerThread];
+        var threadIdx = new AtomicInteger();
+        var errors = new AtomicLong();
+        var elapsed = runThreads(() -> {
+            var offset = threadIdx.getAndIncrement() * requestsPerThread;
+            try (var socket = connect()) {
+                var out = socket.getOutputStream();
+                var in = new BufferedInputStream(socket.getInputStream());
+                for (var idx = 0; idx < requestsPerThread; idx++) {
+                    var begin = System.nanoTime();
+                    out.write(REQUEST);
+                    readLine(in);
+                    latencies[offset + idx] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+                }
+                out.write(STOP);
+            } catch (IOException ex) {
+                errors.incrementAndGet();
+                logger.error("latency phase error", ex);
+            }
+        });
+        Arrays.sort(latencies);
+        return new Result(latencies.length / seconds(elapsed), errors.get(), latencies);
+    }
+
+    private long runThreads(Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var done = new CountDownLatch(threads);
+        for (var idx = 0; idx < threads; idx++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        var begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        var elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private Socket connect() throws IOException {
+        var socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(address);
+        return socket;
+    }
+
+    private static void readLine(InputStream in) throws IOException {
+        int symbol;
+        while ((symbol = in.read()) != '\n') {
+            if (symbol < 0) {
+                throw new EOFException("connection closed by server");
+            }
+        }
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var idx = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    public record Result(double perSecond, long errors, long[] latenciesMicros) {}
+}
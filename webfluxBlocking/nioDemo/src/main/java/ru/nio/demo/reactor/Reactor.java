@@ -0,0 +1,109 @@
+package ru.nio.demo.reactor;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.nio.demo.NetworkException;
+
+/**
+ * Поток со своим Selector-ом, обслуживает часть соединений.
+ * Все операции с каналами и SelectionKey выполняются только в этом потоке,
+ * другие потоки передают работу через execute (очередь задач + wakeup).
+ */
+public class Reactor implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(Reactor.class);
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final BufferPool bufferPool;
+    private final Executor handlerExecutor;
+    private final RequestHandler handler;
+
+    public Reactor(BufferPool bufferPool, Executor handlerExecutor, RequestHandler handler) {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException ex) {
+            throw new NetworkException(ex);
+        }
+        this.bufferPool = bufferPool;
+        this.handlerExecutor = handlerExecutor;
+        this.handler = handler;
+    }
+
+    public void register(SocketChannel socketChannel) {
+        execute(() -> {
+            try {
+                var key = socketChannel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(this, socketChannel, key, bufferPool, handlerExecutor, handler));
+            } catch (IOException ex) {
+                logger.error("can't register channel:{}", socketChannel, ex);
+                closeQuietly(socketChannel);
+            }
+        });
+    }
+
+    public void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try (selector) {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    selector.select(this::performIO);
+                    runTasks();
+                }
+            } finally {
+                closeConnections();
+            }
+        } catch (IOException ex) {
+            throw new NetworkException(ex);
+        }
+    }
+
+    private void closeConnections() {
+        for (var key : selector.keys().toArray(new SelectionKey[0])) {
+            if (key.attachment() instanceof Connection connection) {
+                connection.close();
+            }
+        }
+    }
+
+    private void performIO(SelectionKey key) {
+        var connection = (Connection) key.attachment();
+        if (!key.isValid()) {
+            connection.close();
+            return;
+        }
+        if (key.isWritable()) {
+            connection.onWritable();
+        }
+        if (key.isValid() && key.isReadable()) {
+            connection.onReadable();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    static void closeQuietly(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            logger.debug("close error", ex);
+        }
+    }
+}
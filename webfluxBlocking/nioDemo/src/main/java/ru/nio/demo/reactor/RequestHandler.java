@@ -0,0 +1,15 @@
+package ru.nio.demo.reactor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Обработка одного запроса (строки без перевода строки).
+ * request готов к чтению, ответ пишется в response, flip делает сервер.
+ * response - буфер из пула, ответ длиннее его емкости обработчик должен отклонить сам,
+ * исключение из handle закрывает соединение.
+ * Вызывается не в потоке selector-а, поэтому может блокироваться.
+ */
+@FunctionalInterface
+public interface RequestHandler {
+    void handle(ByteBuffer request, ByteBuffer response) throws Exception;
+}
@@ -0,0 +1,120 @@
+package ru.nio.demo.reactor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.nio.demo.NetworkException;
+
+/**
+ * Сервер на нескольких Selector-ах: поток acceptor принимает соединения и раздает их по кругу
+ * между selectorCount потоками Reactor. Обработчики запросов выполняются в виртуальных потоках.
+ * Протокол как у ServerNIO: строка запроса -> "echo: " + строка, "stop" закрывает соединение.
+ * stop() из другого потока закрывает серверный сокет, go() после этого завершается.
+ *
+ * Запуск: ServerNIOReactor [port] [selectorCount] [handlerDelayMs]
+ */
+public class ServerNIOReactor {
+    private static final Logger logger = LoggerFactory.getLogger(ServerNIOReactor.class);
+
+    private static final int PORT_0 = 8090;
+    private static final int BUFFER_SIZE = 4096;
+    private static final int MAX_POOLED_BUFFERS = 16_384;
+    private static final int BACKLOG = 1024;
+
+    private final int port;
+    private final Reactor[] reactors;
+    private final Thread[] reactorThreads;
+    private final ExecutorService handlerExecutor;
+    private final BufferPool bufferPool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final AtomicLong acceptedConnections = new AtomicLong();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private volatile ServerSocketChannel serverSocketChannel;
+
+    public ServerNIOReactor(int port, int selectorCount, RequestHandler handler) {
+        this.port = port;
+        this.handlerExecutor = newHandlerExecutor();
+        this.reactors = new Reactor[selectorCount];
+        this.reactorThreads = new Thread[selectorCount];
+        for (var idx = 0; idx < selectorCount; idx++) {
+            reactors[idx] = new Reactor(bufferPool, handlerExecutor, handler);
+            reactorThreads[idx] = new Thread(reactors[idx], "selector-" + idx);
+        }
+    }
+
+    public static void main(String[] args) {
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : PORT_0;
+        var selectorCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        var handlerDelayMs = args.length > 2 ? Long.parseLong(args[2]) : 10;
+        new ServerNIOReactor(port, selectorCount, new EchoHandler(handlerDelayMs)).go();
+    }
+
+    public void go() {
+        for (var thread : reactorThreads) {
+            thread.start();
+        }
+        try (var serverChannel = ServerSocketChannel.open()) {
+            serverSocketChannel = serverChannel;
+            if (stopped.get()) {
+                return;
+            }
+            serverChannel.bind(new InetSocketAddress(port), BACKLOG);
+            logger.info("started, port:{}, selectors:{}", port, reactors.length);
+            var next = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                var socketChannel = serverChannel.accept();
+                try {
+                    socketChannel.configureBlocking(false);
+                    socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                } catch (IOException ex) {
+                    logger.warn("can't configure channel:{}", socketChannel, ex);
+                    Reactor.closeQuietly(socketChannel);
+                    continue;
+                }
+                reactors[next].register(socketChannel);
+                next = (next + 1) % reactors.length;
+                acceptedConnections.incrementAndGet();
+            }
+        } catch (ClosedChannelException ex) {
+            logger.debug("server socket closed");
+        } catch (IOException ex) {
+            throw new NetworkException(ex);
+        } finally {
+            stop();
+        }
+    }
+
+    public void stop() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        var serverChannel = serverSocketChannel;
+        if (serverChannel != null) {
+            Reactor.closeQuietly(serverChannel);
+        }
+        for (var thread : reactorThreads) {
+            thread.interrupt();
+        }
+        handlerExecutor.shutdownNow();
+        logger.info(
+                "stopped, accepted:{}, buffers allocated:{}, pooled:{}",
+                acceptedConnections.get(),
+                bufferPool.getAllocated(),
+                bufferPool.getPooled());
+    }
+
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    private static ExecutorService newHandlerExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("handler-", 0).factory());
+    }
+}
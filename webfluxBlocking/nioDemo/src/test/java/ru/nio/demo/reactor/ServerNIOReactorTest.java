@@ -0,0 +1,180 @@
+package ru.nio.demo.reactor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Timeout(value = 30, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+class ServerNIOReactorTest {
+    private static final long CONNECT_TIMEOUT_MS = 5_000;
+
+    private ServerNIOReactor server;
+    private Thread serverThread;
+    private int port;
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        if (server != null) {
+            server.stop();
+            serverThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Test
+    void echoTest() throws Exception {
+        //given
+        start(new EchoHandler(0));
+        try (var socket = connect()) {
+            var reader = reader(socket);
+
+            //when
+            write(socket, "hello\n");
+            var first = reader.readLine();
+            write(socket, "world\r\n");
+            var second = reader.readLine();
+
+            //then
+            assertThat(first).isEqualTo("echo: hello");
+            assertThat(second).isEqualTo("echo: world");
+        }
+    }
+
+    @Test
+    void pipeliningKeepsOrderAndBoundsBuffersTest() throws Exception {
+        //given
+        var release = new CountDownLatch(1);
+        start((request, response) -> {
+            release.await();
+            response.put(request).put((byte) '\n');
+        });
+        var count = 200;
+        var requests = new StringBuilder();
+        for (var idx = 0; idx < count; idx++) {
+            requests.append(idx).append('\n');
+        }
+        try (var socket = connect()) {
+            var reader = reader(socket);
+
+            //when, все запросы одной записью, обработчик стоит
+            write(socket, requests.toString());
+            Thread.sleep(200);
+            var allocated = server.getBufferPool().getAllocated();
+            release.countDown();
+            var responses = new ArrayList<String>();
+            for (var idx = 0; idx < count; idx++) {
+                responses.add(reader.readLine());
+            }
+
+            //then, буфер чтения + ожидающие запросы + запрос и ответ в обработчике
+            assertThat(allocated).isLessThanOrEqualTo(20);
+            assertThat(responses).isEqualTo(numbers(count));
+        }
+    }
+
+    @Test
+    void tooLongRequestIsRejectedTest() throws Exception {
+        //given
+        start(new EchoHandler(0));
+        try (var socket = connect()) {
+            var reader = reader(socket);
+
+            //when
+            write(socket, "a".repeat(4_095) + "\n");
+            var rejected = reader.readLine();
+            write(socket, "after\n");
+            var next = reader.readLine();
+
+            //then
+            assertThat(rejected).isEqualTo("error: request is too long");
+            assertThat(next).isEqualTo("echo: after");
+        }
+    }
+
+    @Test
+    void stopRequestClosesConnectionAfterResponsesTest() throws Exception {
+        //given
+        start(new EchoHandler(10));
+        try (var socket = connect()) {
+            var reader = reader(socket);
+
+            //when
+            write(socket, "first\nsecond\nstop\nignored\n");
+
+            //then
+            assertThat(reader.readLine()).isEqualTo("echo: first");
+            assertThat(reader.readLine()).isEqualTo("echo: second");
+            assertThat(reader.readLine()).isNull();
+        }
+    }
+
+    @Test
+    void serverStopClosesConnectionsTest() throws Exception {
+        //given
+        start(new EchoHandler(0));
+        try (var socket = connect()) {
+            var reader = reader(socket);
+            write(socket, "hello\n");
+            assertThat(reader.readLine()).isEqualTo("echo: hello");
+
+            //when
+            server.stop();
+            serverThread.join(TimeUnit.SECONDS.toMillis(5));
+
+            //then
+            assertThat(serverThread.isAlive()).isFalse();
+            assertThat(reader.readLine()).isNull();
+        }
+    }
+
+    private void start(RequestHandler handler) throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new ServerNIOReactor(port, 1, handler);
+        serverThread = new Thread(server::go, "acceptor");
+        serverThread.start();
+    }
+
+    private Socket connect() throws Exception {
+        var deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+        while (true) {
+            try {
+                return new Socket("localhost", port);
+            } catch (ConnectException ex) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw ex;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    private static void write(Socket socket, String text) throws IOException {
+        socket.getOutputStream().write(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static List<String> numbers(int count) {
+        var numbers = new ArrayList<String>();
+        for (var idx = 0; idx < count; idx++) {
+            numbers.add(String.valueOf(idx));
+        }
+        return numbers;
+    }
+}